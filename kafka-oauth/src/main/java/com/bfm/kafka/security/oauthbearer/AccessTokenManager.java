@@ -0,0 +1,216 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.utils.KafkaThread;
+import org.apache.kafka.common.utils.Time;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps a current access token for a client and refreshes it in the background before it expires.
+ * <p>
+ * Once a token has been obtained, a background thread requests the next one after the configured fraction of the
+ * token's lifetime, give or take a random jitter, so callers are served the current token from memory. A failed
+ * refresh keeps the current token and is retried after a backoff. Callers only wait for the OAuth server when no
+ * unexpired token is held, and concurrent callers share that single request.
+ */
+public class AccessTokenManager implements Closeable {
+
+	//region Member Variables
+
+	private static final Logger log = LoggerFactory.getLogger(AccessTokenManager.class);
+	private final OAuthService oauthService;
+	private final double refreshFraction;
+	private final long refreshJitterMs;
+	private final long retryBackoffMs;
+	private final Time time;
+
+	private volatile OAuthBearerTokenJwt token;
+	private final Object fetchLock = new Object();
+	private ScheduledExecutorService scheduler;
+	private ScheduledFuture<?> pendingRefresh;
+	private boolean closed = false;
+
+	private final LongAdder refreshes = new LongAdder();
+	private final LongAdder refreshFailures = new LongAdder();
+	private final LongAdder synchronousFetches = new LongAdder();
+
+	//endregion
+
+	//region Constructors
+
+	/**
+	 * Instantiates a new access token manager.
+	 *
+	 * @param oauthService    the oauth service that requests the access tokens
+	 * @param refreshFraction the fraction of the token lifetime after which the token is refreshed
+	 * @param refreshJitterMs the maximum random deviation from the refresh time
+	 * @param retryBackoffMs  the delay before a failed refresh is retried
+	 * @param time            the clock
+	 */
+	public AccessTokenManager(OAuthService oauthService, double refreshFraction, long refreshJitterMs, long retryBackoffMs, Time time) {
+		this.oauthService = Objects.requireNonNull(oauthService);
+		this.refreshFraction = refreshFraction;
+		this.refreshJitterMs = refreshJitterMs;
+		this.retryBackoffMs = retryBackoffMs;
+		this.time = Objects.requireNonNull(time);
+	}
+
+	//endregion
+
+	//region Public Properties
+
+	public OAuthService getOAuthService() {
+		return this.oauthService;
+	}
+
+	public long getRefreshes() {
+		return this.refreshes.sum();
+	}
+
+	public long getRefreshFailures() {
+		return this.refreshFailures.sum();
+	}
+
+	public long getSynchronousFetches() {
+		return this.synchronousFetches.sum();
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Gets the current access token, requesting one from the OAuth server only if no unexpired token is held.
+	 *
+	 * @return the access token, or null if the OAuth server did not grant one
+	 * @throws IOException if the OAuth server cannot be reached
+	 */
+	public OAuthBearerTokenJwt getToken() throws IOException {
+		OAuthBearerTokenJwt current = this.token;
+		if (isUnexpired(current)) {
+			return current;
+		}
+
+		synchronized (this.fetchLock) {
+			// another caller may have fetched a token while this one was waiting
+			current = this.token;
+			if (isUnexpired(current)) {
+				return current;
+			}
+
+			log.info("No unexpired access token is held, request one from the OAuth server.");
+			this.synchronousFetches.increment();
+			long requestedMs = this.time.milliseconds();
+			OAuthBearerTokenJwt requested = this.oauthService.requestAccessToken();
+			if (requested != null) {
+				this.token = requested;
+				scheduleRefresh(computeRefreshDelayMs(requested, requestedMs));
+			}
+			return requested;
+		}
+	}
+
+	/**
+	 * Stops the background refresh.
+	 */
+	@Override
+	public synchronized void close() {
+		this.closed = true;
+		if (this.scheduler != null) {
+			this.scheduler.shutdownNow();
+			this.scheduler = null;
+			this.pendingRefresh = null;
+		}
+	}
+
+	//endregion
+
+	//region Private Methods
+
+	private boolean isUnexpired(OAuthBearerTokenJwt candidate) {
+		return candidate != null && this.time.milliseconds() < candidate.lifetimeMs();
+	}
+
+	private long computeRefreshDelayMs(OAuthBearerTokenJwt refreshed, long requestedMs) {
+		// the lifetime is measured from the moment the token was requested, which does not depend on the clocks
+		// of the OAuth server
+		long lifetimeMs = refreshed.lifetimeMs() - requestedMs;
+		if (lifetimeMs <= 0) {
+			return this.retryBackoffMs;
+		}
+
+		long delayMs = (long) (lifetimeMs * this.refreshFraction);
+		long jitterMs = Math.min(this.refreshJitterMs, Math.min(delayMs, lifetimeMs - delayMs) / 2);
+		if (jitterMs > 0) {
+			delayMs += ThreadLocalRandom.current().nextLong(-jitterMs, jitterMs + 1);
+		}
+		return delayMs - (this.time.milliseconds() - requestedMs);
+	}
+
+	private void scheduledRefresh() {
+		long delayMs;
+		try {
+			log.debug("Starting background refresh of the access token.");
+			long requestedMs = this.time.milliseconds();
+			OAuthBearerTokenJwt refreshed = this.oauthService.requestAccessToken();
+			if (refreshed == null) {
+				throw new IOException("Access token was not returned.");
+			}
+			this.token = refreshed;
+			this.refreshes.increment();
+			delayMs = computeRefreshDelayMs(refreshed, requestedMs);
+			log.info("Refreshed access token in the background, Expiration: {}.", refreshed.lifetimeMs());
+		} catch (IOException | RuntimeException e) {
+			// keep the current token, callers fall back to a synchronous request once it expires
+			this.refreshFailures.increment();
+			delayMs = this.retryBackoffMs;
+			log.error("Error refreshing access token in the background, Message: {}", e.getMessage());
+		}
+
+		scheduleRefresh(delayMs);
+	}
+
+	private synchronized void scheduleRefresh(long delayMs) {
+		if (this.closed) {
+			return;
+		}
+
+		if (this.scheduler == null) {
+			this.scheduler = Executors.newSingleThreadScheduledExecutor(
+					runnable -> KafkaThread.daemon("oauth-token-refresh", runnable));
+		}
+
+		// a synchronous request replaces a pending retry, so there is only ever one refresh scheduled
+		if (this.pendingRefresh != null) {
+			this.pendingRefresh.cancel(false);
+		}
+		this.pendingRefresh = this.scheduler.schedule(this::scheduledRefresh, Math.max(delayMs, 1L), TimeUnit.MILLISECONDS);
+	}
+
+	//endregion
+}
@@ -0,0 +1,184 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.utils.Time;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Shares one {@link AccessTokenManager} between all login callback handlers of the JVM that request tokens with the
+ * same credentials.
+ * <p>
+ * Every Kafka client gets its own login callback handler. Handlers whose configuration names the same token
+ * endpoint, client id, client secret, scopes and grant type share one cached token and one refresh schedule instead
+ * of each requesting their own. The shared manager owns an oauth service of its own, created for it with the first
+ * handler's configuration, so reconfiguring or closing a handler never changes the service the other handlers use.
+ * The manager is reference counted: it is stopped and its oauth service closed when the last handler releases it.
+ */
+public final class AccessTokenManagerRegistry {
+
+	//region Member Variables
+
+	private static final Logger log = LoggerFactory.getLogger(AccessTokenManagerRegistry.class);
+	private static final Map<Key, Entry> ENTRIES = new HashMap<>();
+
+	//endregion
+
+	//region Constructors
+
+	private AccessTokenManagerRegistry() {
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Gets the token manager shared by the handlers with the credentials of the given configuration, creating it
+	 * with a new oauth service if there is none yet. Every call must be matched by a call to {@link #release}.
+	 *
+	 * @param configuration       the configuration of the calling handler
+	 * @param oauthServiceFactory creates the oauth service of a new token manager, configured like the calling handler
+	 * @param time                the clock of a newly created token manager
+	 * @return the shared token manager
+	 */
+	public static synchronized AccessTokenManager acquire(
+			OAuthConfiguration configuration,
+			Supplier<OAuthService> oauthServiceFactory,
+			Time time) {
+		Key key = new Key(configuration);
+		Entry entry = ENTRIES.get(key);
+		if (entry == null) {
+			log.info("Create shared access token manager, Token Endpoint: {}, Client Id: {}.",
+					key.tokenEndpoint, key.clientId);
+			entry = new Entry(new AccessTokenManager(
+					oauthServiceFactory.get(),
+					configuration.getTokenRefreshFraction(),
+					configuration.getTokenRefreshJitterMs(),
+					configuration.getTokenRefreshRetryBackoffMs(),
+					time));
+			ENTRIES.put(key, entry);
+		}
+
+		entry.references++;
+		log.debug("Acquired shared access token manager, Client Id: {}, References: {}.", key.clientId, entry.references);
+		return entry.tokenManager;
+	}
+
+	/**
+	 * Releases a token manager returned by {@link #acquire}. The last release stops the token manager and closes
+	 * its oauth service.
+	 *
+	 * @param tokenManager the token manager to release
+	 * @return true if the token manager was closed by this release
+	 */
+	public static synchronized boolean release(AccessTokenManager tokenManager) {
+		for (Map.Entry<Key, Entry> mapEntry : ENTRIES.entrySet()) {
+			Entry entry = mapEntry.getValue();
+			if (entry.tokenManager != tokenManager) {
+				continue;
+			}
+
+			entry.references--;
+			if (entry.references > 0) {
+				return false;
+			}
+
+			log.info("Close shared access token manager, Client Id: {}.", mapEntry.getKey().clientId);
+			ENTRIES.remove(mapEntry.getKey());
+			tokenManager.close();
+			tokenManager.getOAuthService().close();
+			return true;
+		}
+
+		log.warn("Released an access token manager that is not registered.");
+		return false;
+	}
+
+	//endregion
+
+	//region Protected Methods
+
+	/**
+	 * Gets the number of shared token managers.
+	 *
+	 * @return the number of shared token managers
+	 */
+	protected static synchronized int size() {
+		return ENTRIES.size();
+	}
+
+	//endregion
+
+	//region Private Classes
+
+	private static final class Entry {
+		private final AccessTokenManager tokenManager;
+		private int references;
+
+		private Entry(AccessTokenManager tokenManager) {
+			this.tokenManager = tokenManager;
+		}
+	}
+
+	private static final class Key {
+		private final String tokenEndpoint;
+		private final String clientId;
+		private final String clientSecretDigest;
+		private final String scopes;
+		private final String grantType;
+
+		private Key(OAuthConfiguration configuration) {
+			this.tokenEndpoint = configuration.getTokenEndpoint();
+			this.clientId = configuration.getClientId();
+			// a handler with another secret must get its own token, or its wrong secret would never be reported
+			this.clientSecretDigest = configuration.getClientSecret() == null
+					? null
+					: Utils.digestToken(configuration.getClientSecret());
+			this.scopes = configuration.getScopes();
+			this.grantType = configuration.getGrantType();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			Key key = (Key) o;
+			return Objects.equals(this.tokenEndpoint, key.tokenEndpoint)
+					&& Objects.equals(this.clientId, key.clientId)
+					&& Objects.equals(this.clientSecretDigest, key.clientSecretDigest)
+					&& Objects.equals(this.scopes, key.scopes)
+					&& Objects.equals(this.grantType, key.grantType);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.tokenEndpoint, this.clientId, this.clientSecretDigest, this.scopes, this.grantType);
+		}
+	}
+
+	//endregion
+}
@@ -0,0 +1,258 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The settings of the authorization audit, read from the broker configuration passed to the authorizer.
+ */
+public class AuditConfiguration {
+
+	//region Constants
+
+	public static final String SINK_LOG = "log";
+	public static final String SINK_FILE = "file";
+	public static final String SINK_KAFKA = "kafka";
+
+	private static final String OAUTH_AUDIT_SINKS = "oauth.audit.sinks";
+	private static final String OAUTH_AUDIT_BUFFER_SIZE = "oauth.audit.buffer.size";
+	private static final String OAUTH_AUDIT_ALLOW_SAMPLE_RATE = "oauth.audit.allow.sample.rate";
+	private static final String OAUTH_AUDIT_DENY_SAMPLE_RATE = "oauth.audit.deny.sample.rate";
+	private static final String OAUTH_AUDIT_AGGREGATE_REPEATS = "oauth.audit.aggregate.repeats";
+	private static final String OAUTH_AUDIT_FLUSH_INTERVAL_MS = "oauth.audit.flush.interval.ms";
+	private static final String OAUTH_AUDIT_FILE_PATH = "oauth.audit.file.path";
+	private static final String OAUTH_AUDIT_FILE_MAX_BYTES = "oauth.audit.file.max.bytes";
+	private static final String OAUTH_AUDIT_FILE_MAX_FILES = "oauth.audit.file.max.files";
+	private static final String OAUTH_AUDIT_KAFKA_TOPIC = "oauth.audit.kafka.topic";
+	private static final String OAUTH_AUDIT_KAFKA_PRODUCER_PREFIX = "oauth.audit.kafka.producer.";
+
+	private static final String DEFAULT_SINKS = SINK_LOG;
+	private static final int DEFAULT_BUFFER_SIZE = 8192;
+	private static final double DEFAULT_ALLOW_SAMPLE_RATE = 0.01;
+	private static final double DEFAULT_DENY_SAMPLE_RATE = 1.0;
+	private static final boolean DEFAULT_AGGREGATE_REPEATS = true;
+	private static final long DEFAULT_FLUSH_INTERVAL_MS = 1000L;
+	private static final long DEFAULT_FILE_MAX_BYTES = 100 * 1024 * 1024L;
+	private static final int DEFAULT_FILE_MAX_FILES = 10;
+
+	//endregion
+
+	//region Member Variables
+
+	private final List<String> sinks;
+	private final int bufferSize;
+	private final double allowSampleRate;
+	private final double denySampleRate;
+	private final boolean aggregateRepeats;
+	private final long flushIntervalMs;
+	private final String filePath;
+	private final long fileMaxBytes;
+	private final int fileMaxFiles;
+	private final String kafkaTopic;
+	private final Map<String, Object> kafkaProducerConfigs;
+
+	//endregion
+
+	//region Constructors
+
+	/**
+	 * Instantiates a new audit configuration.
+	 *
+	 * @param configs the broker configuration
+	 * @throws IllegalStateException if the settings are invalid
+	 */
+	public AuditConfiguration(Map<String, ?> configs) {
+		List<String> configuredSinks = new ArrayList<>();
+		for (String sink : getString(configs, OAUTH_AUDIT_SINKS, DEFAULT_SINKS).split(",")) {
+			if (!sink.trim().isEmpty()) {
+				configuredSinks.add(sink.trim().toLowerCase(Locale.ROOT));
+			}
+		}
+		this.sinks = Collections.unmodifiableList(configuredSinks);
+		this.bufferSize = (int) getLong(configs, OAUTH_AUDIT_BUFFER_SIZE, DEFAULT_BUFFER_SIZE);
+		this.allowSampleRate = getDouble(configs, OAUTH_AUDIT_ALLOW_SAMPLE_RATE, DEFAULT_ALLOW_SAMPLE_RATE);
+		this.denySampleRate = getDouble(configs, OAUTH_AUDIT_DENY_SAMPLE_RATE, DEFAULT_DENY_SAMPLE_RATE);
+		this.aggregateRepeats = Boolean.parseBoolean(
+				getString(configs, OAUTH_AUDIT_AGGREGATE_REPEATS, String.valueOf(DEFAULT_AGGREGATE_REPEATS)));
+		this.flushIntervalMs = getLong(configs, OAUTH_AUDIT_FLUSH_INTERVAL_MS, DEFAULT_FLUSH_INTERVAL_MS);
+		this.filePath = getString(configs, OAUTH_AUDIT_FILE_PATH, null);
+		this.fileMaxBytes = getLong(configs, OAUTH_AUDIT_FILE_MAX_BYTES, DEFAULT_FILE_MAX_BYTES);
+		this.fileMaxFiles = (int) getLong(configs, OAUTH_AUDIT_FILE_MAX_FILES, DEFAULT_FILE_MAX_FILES);
+		this.kafkaTopic = getString(configs, OAUTH_AUDIT_KAFKA_TOPIC, null);
+
+		Map<String, Object> producerConfigs = new HashMap<>();
+		for (Map.Entry<String, ?> config : configs.entrySet()) {
+			if (config.getKey().startsWith(OAUTH_AUDIT_KAFKA_PRODUCER_PREFIX) && config.getValue() != null) {
+				producerConfigs.put(config.getKey().substring(OAUTH_AUDIT_KAFKA_PRODUCER_PREFIX.length()), config.getValue());
+			}
+		}
+		this.kafkaProducerConfigs = Collections.unmodifiableMap(producerConfigs);
+
+		if (!this.isValid()) {
+			throw new IllegalStateException("Authorization audit configuration entries are invalid.");
+		}
+	}
+
+	//endregion
+
+	//region Public Properties
+
+	/**
+	 * Gets the names of the audit sinks: log, file or kafka.
+	 *
+	 * @return the sink names, empty if the audit is disabled
+	 */
+	public List<String> getSinks() {
+		return this.sinks;
+	}
+
+	/**
+	 * Gets the number of decisions the audit buffer holds before new decisions are dropped, a power of two.
+	 *
+	 * @return the buffer size
+	 */
+	public int getBufferSize() {
+		return this.bufferSize;
+	}
+
+	/**
+	 * Gets the fraction of allowed operations that are audited.
+	 *
+	 * @return the sample rate between 0 and 1
+	 */
+	public double getAllowSampleRate() {
+		return this.allowSampleRate;
+	}
+
+	/**
+	 * Gets the fraction of denied operations that are audited.
+	 *
+	 * @return the sample rate between 0 and 1
+	 */
+	public double getDenySampleRate() {
+		return this.denySampleRate;
+	}
+
+	/**
+	 * Gets whether identical decisions within a flush interval are written as one record with a count.
+	 *
+	 * @return true if repeats are aggregated
+	 */
+	public boolean getAggregateRepeats() {
+		return this.aggregateRepeats;
+	}
+
+	/**
+	 * Gets the interval at which audit records are written to the sinks.
+	 *
+	 * @return the flush interval in milliseconds
+	 */
+	public long getFlushIntervalMs() {
+		return this.flushIntervalMs;
+	}
+
+	public String getFilePath() {
+		return this.filePath;
+	}
+
+	/**
+	 * Gets the size at which the audit file is rolled over.
+	 *
+	 * @return the maximum file size in bytes
+	 */
+	public long getFileMaxBytes() {
+		return this.fileMaxBytes;
+	}
+
+	/**
+	 * Gets the number of rolled over audit files that are kept.
+	 *
+	 * @return the maximum number of files
+	 */
+	public int getFileMaxFiles() {
+		return this.fileMaxFiles;
+	}
+
+	public String getKafkaTopic() {
+		return this.kafkaTopic;
+	}
+
+	/**
+	 * Gets the configuration of the audit producer, the broker settings prefixed with oauth.audit.kafka.producer.
+	 *
+	 * @return the producer configuration
+	 */
+	public Map<String, Object> getKafkaProducerConfigs() {
+		return this.kafkaProducerConfigs;
+	}
+
+	//endregion
+
+	//region Private Methods
+
+	private boolean isValid() {
+		for (String sink : this.sinks) {
+			if (!SINK_LOG.equals(sink) && !SINK_FILE.equals(sink) && !SINK_KAFKA.equals(sink)) {
+				return false;
+			}
+		}
+
+		if (this.bufferSize <= 0 || Integer.bitCount(this.bufferSize) != 1) {
+			return false;
+		}
+
+		if (this.allowSampleRate < 0 || this.allowSampleRate > 1 || this.denySampleRate < 0 || this.denySampleRate > 1) {
+			return false;
+		}
+
+		if (this.flushIntervalMs <= 0) {
+			return false;
+		}
+
+		if (this.sinks.contains(SINK_FILE) && (Utils.isNullOrEmpty(this.filePath) || this.fileMaxBytes <= 0 || this.fileMaxFiles < 0)) {
+			return false;
+		}
+
+		if (this.sinks.contains(SINK_KAFKA) && Utils.isNullOrEmpty(this.kafkaTopic)) {
+			return false;
+		}
+
+		return true;
+	}
+
+	private static String getString(Map<String, ?> configs, String name, String defaultValue) {
+		Object value = configs.get(name);
+		return value == null ? defaultValue : value.toString().trim();
+	}
+
+	private static long getLong(Map<String, ?> configs, String name, long defaultValue) {
+		String value = getString(configs, name, null);
+		return Utils.isNullOrEmpty(value) ? defaultValue : Long.parseLong(value);
+	}
+
+	private static double getDouble(Map<String, ?> configs, String name, double defaultValue) {
+		String value = getString(configs, name, null);
+		return Utils.isNullOrEmpty(value) ? defaultValue : Double.parseDouble(value);
+	}
+
+	//endregion
+}
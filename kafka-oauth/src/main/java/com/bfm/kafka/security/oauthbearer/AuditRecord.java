@@ -0,0 +1,145 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.ResourceType;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+
+/**
+ * An authorization decision written to the audit sinks. When repeats are aggregated, one record stands for
+ * {@link #getCount()} identical decisions made since {@link #getTimestampMs()}.
+ */
+public final class AuditRecord {
+
+	//region Member Variables
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+	private final long timestampMs;
+	private final String principal;
+	private final AclOperation operation;
+	private final ResourceType resourceType;
+	private final String resourceName;
+	private final boolean allowed;
+	private long count;
+
+	//endregion
+
+	//region Constructors
+
+	/**
+	 * Instantiates a new audit record.
+	 *
+	 * @param timestampMs  the time of the first decision
+	 * @param principal    the name of the principal
+	 * @param operation    the operation
+	 * @param resourceType the resource type
+	 * @param resourceName the resource name
+	 * @param allowed      whether the operation was allowed
+	 */
+	public AuditRecord(long timestampMs, String principal, AclOperation operation, ResourceType resourceType, String resourceName, boolean allowed) {
+		this.timestampMs = timestampMs;
+		this.principal = principal;
+		this.operation = operation;
+		this.resourceType = resourceType;
+		this.resourceName = resourceName;
+		this.allowed = allowed;
+		this.count = 1;
+	}
+
+	//endregion
+
+	//region Public Properties
+
+	public long getTimestampMs() {
+		return this.timestampMs;
+	}
+
+	public String getPrincipal() {
+		return this.principal;
+	}
+
+	public AclOperation getOperation() {
+		return this.operation;
+	}
+
+	public ResourceType getResourceType() {
+		return this.resourceType;
+	}
+
+	public String getResourceName() {
+		return this.resourceName;
+	}
+
+	public boolean isAllowed() {
+		return this.allowed;
+	}
+
+	public long getCount() {
+		return this.count;
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Formats the record as a single line JSON object.
+	 *
+	 * @return the JSON object
+	 */
+	public String toJson() {
+		StringWriter writer = new StringWriter(160);
+		try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+			generator.writeStartObject();
+			generator.writeNumberField("timestamp", this.timestampMs);
+			generator.writeStringField("principal", this.principal);
+			generator.writeStringField("operation", this.operation.name());
+			generator.writeStringField("resourceType", this.resourceType.name());
+			generator.writeStringField("resourceName", this.resourceName);
+			generator.writeStringField("decision", this.allowed ? "ALLOWED" : "DENIED");
+			generator.writeNumberField("count", this.count);
+			generator.writeEndObject();
+		} catch (IOException e) {
+			// a StringWriter does not throw
+			throw new UncheckedIOException(e);
+		}
+		return writer.toString();
+	}
+
+	@Override
+	public String toString() {
+		return toJson();
+	}
+
+	//endregion
+
+	//region Protected Methods
+
+	/**
+	 * Counts another identical decision.
+	 */
+	protected void increment() {
+		this.count++;
+	}
+
+	//endregion
+}
@@ -0,0 +1,45 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A destination of authorization audit records.
+ * <p>
+ * Sinks are only called from the background thread of the {@link AuthorizationAuditor}, so they do not need to be
+ * thread-safe and may block without slowing down authorizations.
+ */
+public interface AuditSink extends Closeable {
+
+	/**
+	 * Writes a batch of audit records.
+	 *
+	 * @param records the records, in the order of their decisions
+	 * @throws IOException if the records cannot be written
+	 */
+	void write(List<AuditRecord> records) throws IOException;
+
+	/**
+	 * Releases the resources of the sink, after writing the records it still buffers.
+	 *
+	 * @throws IOException if the buffered records cannot be written
+	 */
+	@Override
+	void close() throws IOException;
+}
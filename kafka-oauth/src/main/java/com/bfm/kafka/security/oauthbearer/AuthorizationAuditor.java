@@ -0,0 +1,354 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.ResourceType;
+import org.apache.kafka.common.utils.KafkaThread;
+import org.apache.kafka.common.utils.Time;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records authorization decisions off the request path.
+ * <p>
+ * Decisions are sampled, separately for allowed and denied operations, and copied into a preallocated ring buffer
+ * of reusable slots. Request threads claim slots with a compare-and-set on a shared sequence, so recording never
+ * blocks and does not allocate; when the buffer is full the decision is dropped and counted instead of slowing the
+ * request down. A background thread drains the buffer, optionally aggregates identical decisions into one record
+ * with a count, and writes the records to the sinks once per flush interval.
+ */
+public class AuthorizationAuditor implements Closeable {
+
+	//region Constants
+
+	private static final int MAX_BATCH_SIZE = 1024;
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+	private static final long CLOSE_TIMEOUT_MS = 5000L;
+
+	//endregion
+
+	//region Member Variables
+
+	private static final Logger log = LoggerFactory.getLogger(AuthorizationAuditor.class);
+	private final List<AuditSink> sinks;
+	private final double allowSampleRate;
+	private final double denySampleRate;
+	private final boolean aggregateRepeats;
+	private final long flushIntervalMs;
+	private final Time time;
+
+	private final Event[] slots;
+	private final int mask;
+	private final AtomicLongArray published;
+	private final AtomicLong claimed = new AtomicLong();
+	private final AtomicLong consumed = new AtomicLong(-1);
+	private final Thread drainThread;
+	private volatile boolean running = true;
+
+	private final LongAdder recorded = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder sinkFailures = new LongAdder();
+
+	//endregion
+
+	//region Constructors
+
+	/**
+	 * Instantiates a new authorization auditor and starts its background thread.
+	 *
+	 * @param sinks            the sinks of the audit records
+	 * @param bufferSize       the number of slots of the ring buffer, a power of two
+	 * @param allowSampleRate  the fraction of allowed operations that are recorded
+	 * @param denySampleRate   the fraction of denied operations that are recorded
+	 * @param aggregateRepeats whether identical decisions within a flush interval become one record
+	 * @param flushIntervalMs  the interval at which records are written to the sinks
+	 * @param time             the clock
+	 */
+	public AuthorizationAuditor(List<AuditSink> sinks, int bufferSize, double allowSampleRate, double denySampleRate, boolean aggregateRepeats, long flushIntervalMs, Time time) {
+		if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) {
+			throw new IllegalArgumentException("The audit buffer size must be a power of two: " + bufferSize);
+		}
+
+		this.sinks = Collections.unmodifiableList(new ArrayList<>(sinks));
+		this.allowSampleRate = allowSampleRate;
+		this.denySampleRate = denySampleRate;
+		this.aggregateRepeats = aggregateRepeats;
+		this.flushIntervalMs = flushIntervalMs;
+		this.time = Objects.requireNonNull(time);
+
+		this.slots = new Event[bufferSize];
+		for (int i = 0; i < bufferSize; i++) {
+			this.slots[i] = new Event();
+		}
+		this.mask = bufferSize - 1;
+		this.published = new AtomicLongArray(bufferSize);
+		for (int i = 0; i < bufferSize; i++) {
+			this.published.set(i, -1);
+		}
+
+		this.drainThread = KafkaThread.daemon("oauth-authorization-audit", this::drain);
+		this.drainThread.start();
+	}
+
+	//endregion
+
+	//region Public Properties
+
+	public long getRecorded() {
+		return this.recorded.sum();
+	}
+
+	public long getDropped() {
+		return this.dropped.sum();
+	}
+
+	public long getSinkFailures() {
+		return this.sinkFailures.sum();
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Creates the auditor and the sinks described by the audit configuration.
+	 *
+	 * @param configuration the audit configuration
+	 * @return the auditor, or null if no sink is configured
+	 * @throws IOException if a sink cannot be created
+	 */
+	public static AuthorizationAuditor create(AuditConfiguration configuration) throws IOException {
+		List<AuditSink> sinks = new ArrayList<>();
+		for (String sink : configuration.getSinks()) {
+			if (AuditConfiguration.SINK_LOG.equals(sink)) {
+				sinks.add(new LogAuditSink());
+			} else if (AuditConfiguration.SINK_FILE.equals(sink)) {
+				sinks.add(new RollingFileAuditSink(
+						configuration.getFilePath(), configuration.getFileMaxBytes(), configuration.getFileMaxFiles()));
+			} else if (AuditConfiguration.SINK_KAFKA.equals(sink)) {
+				sinks.add(new KafkaAuditSink(configuration.getKafkaTopic(), configuration.getKafkaProducerConfigs()));
+			}
+		}
+
+		if (sinks.isEmpty()) {
+			return null;
+		}
+
+		return new AuthorizationAuditor(
+				sinks,
+				configuration.getBufferSize(),
+				configuration.getAllowSampleRate(),
+				configuration.getDenySampleRate(),
+				configuration.getAggregateRepeats(),
+				configuration.getFlushIntervalMs(),
+				Time.SYSTEM);
+	}
+
+	/**
+	 * Records an authorization decision, if it is sampled and the buffer has room for it.
+	 *
+	 * @param principal    the name of the principal
+	 * @param operation    the operation
+	 * @param resourceType the resource type
+	 * @param resourceName the resource name
+	 * @param allowed      whether the operation was allowed
+	 */
+	public void record(String principal, AclOperation operation, ResourceType resourceType, String resourceName, boolean allowed) {
+		double sampleRate = allowed ? this.allowSampleRate : this.denySampleRate;
+		if (sampleRate <= 0 || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+			return;
+		}
+
+		long sequence;
+		do {
+			sequence = this.claimed.get();
+			if (sequence - this.consumed.get() > this.slots.length) {
+				// the buffer is full, the request must not wait for the sinks
+				this.dropped.increment();
+				return;
+			}
+		} while (!this.claimed.compareAndSet(sequence, sequence + 1));
+
+		int index = (int) (sequence & this.mask);
+		Event event = this.slots[index];
+		event.timestampMs = this.time.milliseconds();
+		event.principal = principal;
+		event.operation = operation;
+		event.resourceType = resourceType;
+		event.resourceName = resourceName;
+		event.allowed = allowed;
+		this.published.lazySet(index, sequence);
+		this.recorded.increment();
+	}
+
+	/**
+	 * Writes the recorded decisions to the sinks, stops the background thread and closes the sinks.
+	 */
+	@Override
+	public void close() {
+		this.running = false;
+		LockSupport.unpark(this.drainThread);
+		try {
+			this.drainThread.join(CLOSE_TIMEOUT_MS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		for (AuditSink sink : this.sinks) {
+			try {
+				sink.close();
+			} catch (IOException | RuntimeException e) {
+				log.error("Error closing authorization audit sink, Message: {}", e.getMessage());
+			}
+		}
+	}
+
+	//endregion
+
+	//region Private Methods
+
+	private void drain() {
+		List<AuditRecord> records = new ArrayList<>();
+		Map<Event, AuditRecord> aggregates = new LinkedHashMap<>();
+		long nextFlushMs = this.time.milliseconds() + this.flushIntervalMs;
+
+		while (true) {
+			boolean stopping = !this.running;
+			long sequence = this.consumed.get() + 1;
+			int index = (int) (sequence & this.mask);
+			boolean available = this.published.get(index) == sequence;
+			if (available) {
+				Event event = this.slots[index];
+				if (this.aggregateRepeats) {
+					// the key is a copy, the slot is reused as soon as it is consumed
+					Event key = event.copy();
+					AuditRecord aggregate = aggregates.get(key);
+					if (aggregate == null) {
+						aggregates.put(key, key.toRecord());
+					} else {
+						aggregate.increment();
+					}
+				} else {
+					records.add(event.toRecord());
+				}
+				this.consumed.lazySet(sequence);
+			}
+
+			long now = this.time.milliseconds();
+			if (now >= nextFlushMs || records.size() + aggregates.size() >= MAX_BATCH_SIZE || (stopping && !available)) {
+				records.addAll(aggregates.values());
+				aggregates.clear();
+				flush(records);
+				records.clear();
+				nextFlushMs = now + this.flushIntervalMs;
+			}
+
+			if (!available) {
+				if (stopping) {
+					return;
+				}
+				LockSupport.parkNanos(IDLE_PARK_NANOS);
+			}
+		}
+	}
+
+	private void flush(List<AuditRecord> records) {
+		if (records.isEmpty()) {
+			return;
+		}
+
+		for (AuditSink sink : this.sinks) {
+			try {
+				sink.write(records);
+			} catch (IOException | RuntimeException e) {
+				this.sinkFailures.increment();
+				log.error("Error writing {} authorization audit records to {}, Message: {}",
+						records.size(), sink.getClass().getSimpleName(), e.getMessage());
+			}
+		}
+	}
+
+	//endregion
+
+	//region Private Classes
+
+	/**
+	 * A slot of the ring buffer. Copies of slots are also used as the key of aggregated records.
+	 */
+	private static final class Event {
+		private long timestampMs;
+		private String principal;
+		private AclOperation operation;
+		private ResourceType resourceType;
+		private String resourceName;
+		private boolean allowed;
+
+		private Event copy() {
+			Event copy = new Event();
+			copy.timestampMs = this.timestampMs;
+			copy.principal = this.principal;
+			copy.operation = this.operation;
+			copy.resourceType = this.resourceType;
+			copy.resourceName = this.resourceName;
+			copy.allowed = this.allowed;
+			return copy;
+		}
+
+		private AuditRecord toRecord() {
+			return new AuditRecord(this.timestampMs, this.principal, this.operation, this.resourceType, this.resourceName, this.allowed);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			Event event = (Event) o;
+			// the time is not part of the identity of a decision
+			return this.allowed == event.allowed
+					&& this.operation == event.operation
+					&& this.resourceType == event.resourceType
+					&& Objects.equals(this.principal, event.principal)
+					&& Objects.equals(this.resourceName, event.resourceName);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.principal, this.operation, this.resourceType, this.resourceName, this.allowed);
+		}
+	}
+
+	//endregion
+}
@@ -0,0 +1,155 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import java.util.Set;
+
+/**
+ * The authorization state shared by all access tokens of one principal with the same scopes: the scopes
+ * themselves, their compiled {@link ScopeIndex} and the cache of the decisions made with it.
+ * <p>
+ * States are interned by {@link AuthorizationStatePool}, so the thousands of connections a client opens with
+ * tokens granting the same scopes hold one scope set and one index instead of a copy each. Everything in the state
+ * only depends on the principal name and the scopes, so it can be shared by tokens with different values and
+ * lifetimes. The scopes are immutable.
+ */
+public final class AuthorizationState {
+
+	//region Member Variables
+
+	private final String principalName;
+	private final Set<String> scopes;
+	private volatile ScopeIndex scopeIndex;
+	private volatile PolicyScopeIndex policyScopeIndex;
+	private volatile DecisionCache decisionCache;
+
+	//endregion
+
+	//region Constructors
+
+	/**
+	 * Instantiates a new authorization state.
+	 *
+	 * @param principalName the principal name
+	 * @param scopes        the scopes, not modified afterwards
+	 */
+	AuthorizationState(String principalName, Set<String> scopes) {
+		this.principalName = principalName;
+		this.scopes = scopes;
+	}
+
+	//endregion
+
+	//region Public Properties
+
+	public String getPrincipalName() {
+		return this.principalName;
+	}
+
+	/**
+	 * Gets the scopes.
+	 *
+	 * @return the unmodifiable scopes
+	 */
+	public Set<String> getScopes() {
+		return this.scopes;
+	}
+
+	/**
+	 * Gets the scopes compiled for the authorizer.
+	 *
+	 * @return the scope index
+	 */
+	public ScopeIndex getScopeIndex() {
+		ScopeIndex index = this.scopeIndex;
+		if (index == null) {
+			// compiling twice in a race is harmless, both indexes are equal
+			index = ScopeIndex.compile(this.scopes);
+			this.scopeIndex = index;
+		}
+		return index;
+	}
+
+	/**
+	 * Gets the scopes compiled for the authorizer with their role scopes expanded. The index is kept until the
+	 * policy changes.
+	 *
+	 * @param policy the role policy
+	 * @return the scope index
+	 */
+	public ScopeIndex getScopeIndex(RolePolicy policy) {
+		if (policy.isEmpty()) {
+			return getScopeIndex();
+		}
+
+		PolicyScopeIndex index = this.policyScopeIndex;
+		if (index == null || index.policy != policy) {
+			index = new PolicyScopeIndex(policy, ScopeIndex.compile(this.scopes, policy));
+			this.policyScopeIndex = index;
+		}
+		return index.scopeIndex;
+	}
+
+	/**
+	 * Gets the cache of the authorization decisions made with the scopes, creating it on first use. The cache
+	 * expires with the token that expires last among the tokens that use it; a token that outlives the cache gets
+	 * a new one.
+	 *
+	 * @param maxEntries  the maximum number of cached decisions of a new cache
+	 * @param expiresAtMs the expiry of the token, in milliseconds since the epoch
+	 * @return the decision cache
+	 */
+	public DecisionCache getDecisionCache(int maxEntries, long expiresAtMs) {
+		DecisionCache cache = this.decisionCache;
+		if (cache == null || cache.getExpiresAtMs() < expiresAtMs) {
+			synchronized (this) {
+				cache = this.decisionCache;
+				if (cache == null || cache.getExpiresAtMs() < expiresAtMs) {
+					cache = new DecisionCache(maxEntries, expiresAtMs);
+					this.decisionCache = cache;
+				}
+			}
+		}
+		return cache;
+	}
+
+	@Override
+	public String toString() {
+		return "AuthorizationState{" +
+				"principalName='" + principalName + '\'' +
+				", scopes=" + scopes +
+				'}';
+	}
+
+	//endregion
+
+	//region Private Classes
+
+	/**
+	 * The scopes compiled against one role policy.
+	 */
+	private static final class PolicyScopeIndex {
+		private final RolePolicy policy;
+		private final ScopeIndex scopeIndex;
+
+		private PolicyScopeIndex(RolePolicy policy, ScopeIndex scopeIndex) {
+			this.policy = policy;
+			this.scopeIndex = scopeIndex;
+		}
+	}
+
+	//endregion
+}
@@ -0,0 +1,174 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns the {@link AuthorizationState} of access tokens, so that all tokens of a principal with the same scopes
+ * share one state, whatever the number of connections they are used on.
+ * <p>
+ * States are keyed by the principal name and a SHA-256 digest of the sorted scopes, so the pool does not keep the
+ * scopes alive, and the pool holds them through weak references: a state is dropped by the garbage collector once
+ * no token uses it, and its entry is removed on a later call. A digest match is confirmed by comparing the scopes,
+ * so a collision can never mix up the scopes of two tokens.
+ */
+public final class AuthorizationStatePool {
+
+	//region Member Variables
+
+	private static final ConcurrentHashMap<Key, StateReference> STATES = new ConcurrentHashMap<>();
+	private static final ReferenceQueue<AuthorizationState> COLLECTED = new ReferenceQueue<>();
+	private static final ThreadLocal<MessageDigest> DIGESTS = ThreadLocal.withInitial(() -> {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available.", e);
+		}
+	});
+
+	//endregion
+
+	//region Constructors
+
+	private AuthorizationStatePool() {
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Gets the shared state of a principal with the given scopes, creating it if no token uses such a state.
+	 *
+	 * @param principalName the principal name, may be null
+	 * @param scopes        the scopes, may be null
+	 * @return the shared state
+	 */
+	public static AuthorizationState intern(String principalName, Collection<String> scopes) {
+		expungeCollected();
+
+		TreeSet<String> sorted = scopes == null ? new TreeSet<>() : new TreeSet<>(scopes);
+		Key key = new Key(principalName, digest(sorted));
+		while (true) {
+			StateReference reference = STATES.get(key);
+			AuthorizationState state = reference == null ? null : reference.get();
+			if (state != null && state.getScopes().equals(sorted)) {
+				return state;
+			}
+
+			AuthorizationState created = new AuthorizationState(principalName, Collections.unmodifiableSortedSet(sorted));
+			StateReference createdReference = new StateReference(key, created, COLLECTED);
+			if (reference == null) {
+				if (STATES.putIfAbsent(key, createdReference) == null) {
+					return created;
+				}
+			} else if (state == null) {
+				if (STATES.replace(key, reference, createdReference)) {
+					return created;
+				}
+			} else {
+				// a digest collision, the state cannot be shared
+				return created;
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of states in the pool, including states that were collected but not removed yet.
+	 *
+	 * @return the number of states
+	 */
+	protected static int size() {
+		return STATES.size();
+	}
+
+	//endregion
+
+	//region Private Methods
+
+	private static void expungeCollected() {
+		StateReference reference;
+		while ((reference = (StateReference) COLLECTED.poll()) != null) {
+			STATES.remove(reference.key, reference);
+		}
+	}
+
+	private static byte[] digest(TreeSet<String> sorted) {
+		MessageDigest digest = DIGESTS.get();
+		digest.reset();
+		for (String scope : sorted) {
+			digest.update(scope.getBytes(StandardCharsets.UTF_8));
+			// separate the scopes, so that e.g. [ab] and [a, b] have different digests
+			digest.update((byte) 0);
+		}
+		return digest.digest();
+	}
+
+	//endregion
+
+	//region Private Classes
+
+	private static final class Key {
+		private final String principalName;
+		private final byte[] digest;
+		private final int hash;
+
+		private Key(String principalName, byte[] digest) {
+			this.principalName = principalName;
+			this.digest = digest;
+			this.hash = 31 * Objects.hashCode(principalName) + Arrays.hashCode(digest);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key key = (Key) o;
+			return Objects.equals(this.principalName, key.principalName) && Arrays.equals(this.digest, key.digest);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+	}
+
+	private static final class StateReference extends WeakReference<AuthorizationState> {
+		private final Key key;
+
+		private StateReference(Key key, AuthorizationState state, ReferenceQueue<AuthorizationState> queue) {
+			super(state, queue);
+			this.key = key;
+		}
+	}
+
+	//endregion
+}
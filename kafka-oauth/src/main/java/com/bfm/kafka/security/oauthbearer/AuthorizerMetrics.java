@@ -0,0 +1,157 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the counters of an OAuth scope authorizer and exposes them, with those of its auditor, to JMX.
+ */
+public class AuthorizerMetrics implements AuthorizerMetricsMXBean {
+
+	//region Member Variables
+
+	private final LongAdder superUserAuthorizations = new LongAdder();
+	private final LongAdder decisionCacheHits = new LongAdder();
+	private final LongAdder decisionCacheMisses = new LongAdder();
+	private volatile AuthorizationAuditor auditor;
+	private volatile HeavyHitterTracker heavyHitterTracker;
+
+	//endregion
+
+	//region Public Properties
+
+	@Override
+	public long getSuperUserAuthorizations() {
+		return this.superUserAuthorizations.sum();
+	}
+
+	@Override
+	public long getDecisionCacheHits() {
+		return this.decisionCacheHits.sum();
+	}
+
+	@Override
+	public long getDecisionCacheMisses() {
+		return this.decisionCacheMisses.sum();
+	}
+
+	@Override
+	public double getDecisionCacheHitRate() {
+		long hits = getDecisionCacheHits();
+		long lookups = hits + getDecisionCacheMisses();
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	@Override
+	public long getAuditRecorded() {
+		AuthorizationAuditor currentAuditor = this.auditor;
+		return currentAuditor == null ? 0 : currentAuditor.getRecorded();
+	}
+
+	@Override
+	public long getAuditDropped() {
+		AuthorizationAuditor currentAuditor = this.auditor;
+		return currentAuditor == null ? 0 : currentAuditor.getDropped();
+	}
+
+	@Override
+	public List<String> getHeavyHitters() {
+		HeavyHitterTracker tracker = this.heavyHitterTracker;
+		return tracker == null ? Collections.emptyList() : format(tracker.getHeavyHitters());
+	}
+
+	@Override
+	public List<String> getLastIntervalHeavyHitters() {
+		HeavyHitterTracker tracker = this.heavyHitterTracker;
+		return tracker == null ? Collections.emptyList() : format(tracker.getLastIntervalHeavyHitters());
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	@Override
+	public String toString() {
+		return "AuthorizerMetrics{" +
+				"superUserAuthorizations=" + getSuperUserAuthorizations() +
+				", decisionCacheHits=" + getDecisionCacheHits() +
+				", decisionCacheMisses=" + getDecisionCacheMisses() +
+				", auditRecorded=" + getAuditRecorded() +
+				", auditDropped=" + getAuditDropped() +
+				'}';
+	}
+
+	//endregion
+
+	//region Protected Methods
+
+	/**
+	 * Sets the auditor whose counters are exposed.
+	 *
+	 * @param auditor the auditor, may be null
+	 */
+	protected void setAuditor(AuthorizationAuditor auditor) {
+		this.auditor = auditor;
+	}
+
+	/**
+	 * Sets the tracker whose heavy hitters are exposed.
+	 *
+	 * @param heavyHitterTracker the tracker, may be null
+	 */
+	protected void setHeavyHitterTracker(HeavyHitterTracker heavyHitterTracker) {
+		this.heavyHitterTracker = heavyHitterTracker;
+	}
+
+	/**
+	 * Counts an authorization granted to a super user.
+	 */
+	protected void recordSuperUserAuthorization() {
+		this.superUserAuthorizations.increment();
+	}
+
+	/**
+	 * Counts an authorization answered from the decision cache.
+	 */
+	protected void recordDecisionCacheHit() {
+		this.decisionCacheHits.increment();
+	}
+
+	/**
+	 * Counts an authorization that was not found in the decision cache.
+	 */
+	protected void recordDecisionCacheMiss() {
+		this.decisionCacheMisses.increment();
+	}
+
+	//endregion
+
+	//region Private Methods
+
+	private static List<String> format(List<HeavyHitterTracker.HeavyHitter> hitters) {
+		List<String> result = new ArrayList<>(hitters.size());
+		for (HeavyHitterTracker.HeavyHitter hitter : hitters) {
+			result.add(hitter.toString());
+		}
+		return result;
+	}
+
+	//endregion
+}
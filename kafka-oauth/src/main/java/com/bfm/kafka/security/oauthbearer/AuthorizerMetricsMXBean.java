@@ -0,0 +1,80 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import java.util.List;
+
+/**
+ * JMX view of the counters kept by the OAuth scope authorizers.
+ */
+public interface AuthorizerMetricsMXBean {
+
+	/**
+	 * Gets the number of authorizations granted to super users without looking at scopes.
+	 *
+	 * @return the super user authorizations
+	 */
+	long getSuperUserAuthorizations();
+
+	/**
+	 * Gets the number of authorizations answered from the decision cache of the principal.
+	 *
+	 * @return the decision cache hits
+	 */
+	long getDecisionCacheHits();
+
+	/**
+	 * Gets the number of authorizations that were not found in the decision cache of the principal.
+	 *
+	 * @return the decision cache misses
+	 */
+	long getDecisionCacheMisses();
+
+	/**
+	 * Gets the fraction of authorizations answered from the decision cache.
+	 *
+	 * @return the hit rate between 0 and 1, 0 if nothing was looked up yet
+	 */
+	double getDecisionCacheHitRate();
+
+	/**
+	 * Gets the number of decisions recorded for the audit sinks.
+	 *
+	 * @return the recorded decisions
+	 */
+	long getAuditRecorded();
+
+	/**
+	 * Gets the number of sampled decisions dropped because the audit buffer was full.
+	 *
+	 * @return the dropped decisions
+	 */
+	long getAuditDropped();
+
+	/**
+	 * Gets the most frequent combinations of principal, operation, resource and decision of the current interval.
+	 *
+	 * @return the heavy hitters with their estimated counts, most frequent first
+	 */
+	List<String> getHeavyHitters();
+
+	/**
+	 * Gets the most frequent combinations of principal, operation, resource and decision of the last interval.
+	 *
+	 * @return the heavy hitters with their estimated counts, most frequent first
+	 */
+	List<String> getLastIntervalHeavyHitters();
+}
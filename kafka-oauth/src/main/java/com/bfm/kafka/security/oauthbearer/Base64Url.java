@@ -0,0 +1,151 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import java.util.Arrays;
+
+/**
+ * Decodes the base64url segments of a compact serialized JWT straight from the access token string, without copying
+ * the segment into a substring and its bytes first. Padding is accepted but not required.
+ */
+final class Base64Url {
+
+	//region Constants
+
+	/**
+	 * The largest buffer kept per thread, segments decoding to more bytes use a buffer of their own.
+	 */
+	private static final int MAX_RETAINED_BUFFER_SIZE = 16 * 1024;
+
+	private static final byte[] DECODE = new byte[128];
+
+	static {
+		Arrays.fill(DECODE, (byte) -1);
+		String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+		for (int i = 0; i < alphabet.length(); i++) {
+			DECODE[alphabet.charAt(i)] = (byte) i;
+		}
+	}
+
+	//endregion
+
+	//region Member Variables
+
+	private static final ThreadLocal<byte[]> buffer = ThreadLocal.withInitial(() -> new byte[1024]);
+
+	//endregion
+
+	//region Constructors
+
+	private Base64Url() {
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Gets a buffer of the calling thread that a segment can be decoded into. The buffer is reused by the next call
+	 * on the same thread, so its content must be consumed before then.
+	 *
+	 * @param start the start of the segment
+	 * @param end   the end of the segment, exclusive
+	 * @return a buffer large enough for the decoded segment
+	 */
+	static byte[] buffer(int start, int end) {
+		int length = maxDecodedLength(end - start);
+		byte[] result = buffer.get();
+		if (result.length < length) {
+			result = new byte[length];
+			if (length <= MAX_RETAINED_BUFFER_SIZE) {
+				buffer.set(result);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Decodes a segment of a string.
+	 *
+	 * @param value the string
+	 * @param start the start of the segment
+	 * @param end   the end of the segment, exclusive
+	 * @return the decoded bytes
+	 */
+	static byte[] decode(String value, int start, int end) {
+		byte[] result = new byte[maxDecodedLength(end - start)];
+		int length = decode(value, start, end, result);
+		return length == result.length ? result : Arrays.copyOf(result, length);
+	}
+
+	/**
+	 * Decodes a segment of a string into a buffer.
+	 *
+	 * @param value       the string
+	 * @param start       the start of the segment
+	 * @param end         the end of the segment, exclusive
+	 * @param destination the buffer, large enough for the decoded segment
+	 * @return the number of decoded bytes
+	 * @throws IllegalArgumentException if the segment is not base64url encoded
+	 */
+	static int decode(String value, int start, int end, byte[] destination) {
+		while (end > start && value.charAt(end - 1) == '=') {
+			end--;
+		}
+		if ((end - start) % 4 == 1) {
+			throw new IllegalArgumentException("Base64url segment has an invalid length.");
+		}
+
+		int length = 0;
+		int bits = 0;
+		int count = 0;
+		for (int i = start; i < end; i++) {
+			char c = value.charAt(i);
+			int sextet = c < DECODE.length ? DECODE[c] : -1;
+			if (sextet < 0) {
+				throw new IllegalArgumentException("Base64url segment has an invalid character.");
+			}
+
+			bits = (bits << 6) | sextet;
+			if (++count == 4) {
+				destination[length++] = (byte) (bits >> 16);
+				destination[length++] = (byte) (bits >> 8);
+				destination[length++] = (byte) bits;
+				bits = 0;
+				count = 0;
+			}
+		}
+
+		// the last two or three characters encode one or two bytes
+		if (count == 2) {
+			destination[length++] = (byte) (bits >> 4);
+		} else if (count == 3) {
+			destination[length++] = (byte) (bits >> 10);
+			destination[length++] = (byte) (bits >> 2);
+		}
+		return length;
+	}
+
+	//endregion
+
+	//region Private Methods
+
+	private static int maxDecodedLength(int encodedLength) {
+		return encodedLength / 4 * 3 + 2;
+	}
+
+	//endregion
+}
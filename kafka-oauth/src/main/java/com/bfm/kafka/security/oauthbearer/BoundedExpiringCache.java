@@ -0,0 +1,341 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.utils.Time;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrent cache with a bounded number of entries where every entry carries its own absolute expiry time.
+ * <p>
+ * Reads are lock free. When the cache grows past its bound a handful of entries are sampled and the one that
+ * was used the least, according to a small count-min frequency sketch, is evicted. A new entry that is used
+ * less often than the sampled victim is not admitted at all, so a burst of one-off keys cannot flush the
+ * entries that are hit on every handshake.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached values
+ */
+public class BoundedExpiringCache<K, V> {
+
+	//region Constants
+
+	private static final int EVICTION_SAMPLE_SIZE = 8;
+
+	//endregion
+
+	//region Member Variables
+
+	private final ConcurrentHashMap<K, Entry<V>> entries;
+	private final int maxEntries;
+	private final Time time;
+	private final FrequencySketch sketch;
+	private final ReentrantLock evictionLock = new ReentrantLock();
+	private Iterator<Map.Entry<K, Entry<V>>> evictionCursor;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder expirations = new LongAdder();
+
+	//endregion
+
+	//region Constructors
+
+	/**
+	 * Instantiates a new bounded expiring cache.
+	 *
+	 * @param maxEntries the maximum number of entries, zero disables the cache
+	 * @param time       the clock used to expire entries
+	 */
+	public BoundedExpiringCache(int maxEntries, Time time) {
+		if (maxEntries < 0) {
+			throw new IllegalArgumentException("The maximum number of cache entries cannot be negative.");
+		}
+		Objects.requireNonNull(time);
+
+		this.maxEntries = maxEntries;
+		this.time = time;
+		this.entries = new ConcurrentHashMap<>(Math.min(maxEntries, 1024));
+		this.sketch = maxEntries > 0 ? new FrequencySketch(maxEntries) : null;
+	}
+
+	//endregion
+
+	//region Public Properties
+
+	/**
+	 * Is enabled boolean.
+	 *
+	 * @return true if the cache can hold at least one entry
+	 */
+	public boolean isEnabled() {
+		return this.maxEntries > 0;
+	}
+
+	public int getMaxEntries() {
+		return this.maxEntries;
+	}
+
+	public int size() {
+		return this.entries.size();
+	}
+
+	public long getHits() {
+		return this.hits.sum();
+	}
+
+	public long getMisses() {
+		return this.misses.sum();
+	}
+
+	public long getEvictions() {
+		return this.evictions.sum();
+	}
+
+	public long getExpirations() {
+		return this.expirations.sum();
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Gets the value cached for a key.
+	 *
+	 * @param key the key
+	 * @return the cached value, or null if the key is not cached or its entry has expired
+	 */
+	public V get(K key) {
+		if (!isEnabled()) {
+			return null;
+		}
+
+		this.sketch.increment(key.hashCode());
+		Entry<V> entry = this.entries.get(key);
+		if (entry == null) {
+			this.misses.increment();
+			return null;
+		}
+
+		if (entry.expiresAtMs <= this.time.milliseconds()) {
+			if (this.entries.remove(key, entry)) {
+				this.expirations.increment();
+			}
+			this.misses.increment();
+			return null;
+		}
+
+		this.hits.increment();
+		return entry.value;
+	}
+
+	/**
+	 * Caches a value until the given absolute time.
+	 *
+	 * @param key         the key
+	 * @param value       the value
+	 * @param expiresAtMs when the entry expires, in milliseconds since the epoch
+	 */
+	public void put(K key, V value, long expiresAtMs) {
+		Objects.requireNonNull(key);
+		Objects.requireNonNull(value);
+
+		if (!isEnabled() || expiresAtMs <= this.time.milliseconds()) {
+			return;
+		}
+
+		this.entries.put(key, new Entry<>(value, expiresAtMs));
+		if (this.entries.size() > this.maxEntries) {
+			evict(key);
+		}
+	}
+
+	/**
+	 * Removes the entry of a key.
+	 *
+	 * @param key the key
+	 */
+	public void remove(K key) {
+		this.entries.remove(key);
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public void clear() {
+		this.entries.clear();
+	}
+
+	//endregion
+
+	//region Private Methods
+
+	/**
+	 * Brings the cache back to its bound after the candidate key was added.
+	 *
+	 * @param candidate the key that was just added
+	 */
+	private void evict(K candidate) {
+		this.evictionLock.lock();
+		try {
+			long now = this.time.milliseconds();
+			while (this.entries.size() > this.maxEntries) {
+				K victim = null;
+				int victimFrequency = Integer.MAX_VALUE;
+
+				for (int i = 0; i < EVICTION_SAMPLE_SIZE; i++) {
+					Map.Entry<K, Entry<V>> sampled = nextSample();
+					if (sampled == null) {
+						break;
+					}
+
+					if (sampled.getValue().expiresAtMs <= now) {
+						// an expired entry is always the cheapest victim
+						if (this.entries.remove(sampled.getKey(), sampled.getValue())) {
+							this.expirations.increment();
+						}
+						victim = null;
+						break;
+					}
+
+					if (sampled.getKey().equals(candidate)) {
+						continue;
+					}
+
+					int frequency = this.sketch.frequency(sampled.getKey().hashCode());
+					if (frequency < victimFrequency) {
+						victim = sampled.getKey();
+						victimFrequency = frequency;
+					}
+				}
+
+				if (victim == null) {
+					continue;
+				}
+
+				// admit the candidate only if it is used more often than the victim it would replace
+				if (this.sketch.frequency(candidate.hashCode()) < victimFrequency) {
+					victim = candidate;
+				}
+
+				if (this.entries.remove(victim) != null) {
+					this.evictions.increment();
+				}
+			}
+		} finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * Walks the entries like a clock hand so that consecutive evictions sample different parts of the table.
+	 *
+	 * @return the next sampled entry, or null if the cache is empty
+	 */
+	private Map.Entry<K, Entry<V>> nextSample() {
+		if (this.evictionCursor == null || !this.evictionCursor.hasNext()) {
+			this.evictionCursor = this.entries.entrySet().iterator();
+			if (!this.evictionCursor.hasNext()) {
+				return null;
+			}
+		}
+		return this.evictionCursor.next();
+	}
+
+	//endregion
+
+	//region Nested Classes
+
+	private static final class Entry<V> {
+		private final V value;
+		private final long expiresAtMs;
+
+		private Entry(V value, long expiresAtMs) {
+			this.value = value;
+			this.expiresAtMs = expiresAtMs;
+		}
+	}
+
+	/**
+	 * A count-min sketch of four byte counters per key that saturate at 15. All counters are halved once the
+	 * number of increments reaches ten times the cache size so that old popularity fades away.
+	 * Updates are not atomic; a lost increment only makes an estimate slightly lower.
+	 */
+	private static final class FrequencySketch {
+		private static final int DEPTH = 4;
+		private static final int MAX_COUNT = 15;
+		private static final int[] SEEDS = {0x97cb3127, 0xc2b2ae35, 0x85ebca6b, 0x27d4eb2f};
+
+		private final byte[] table;
+		private final int mask;
+		private final int sampleSize;
+		private final AtomicInteger additions = new AtomicInteger();
+
+		private FrequencySketch(int maxEntries) {
+			int width = Integer.highestOneBit(Math.max(maxEntries, 16) - 1) << 1;
+			this.table = new byte[width * DEPTH];
+			this.mask = width - 1;
+			this.sampleSize = (int) Math.min(10L * maxEntries, Integer.MAX_VALUE);
+		}
+
+		private void increment(int hash) {
+			boolean added = false;
+			for (int i = 0; i < DEPTH; i++) {
+				int index = indexOf(hash, i);
+				if (this.table[index] < MAX_COUNT) {
+					this.table[index]++;
+					added = true;
+				}
+			}
+
+			if (added && this.additions.incrementAndGet() >= this.sampleSize) {
+				reset();
+			}
+		}
+
+		private int frequency(int hash) {
+			int frequency = MAX_COUNT;
+			for (int i = 0; i < DEPTH; i++) {
+				frequency = Math.min(frequency, this.table[indexOf(hash, i)]);
+			}
+			return frequency;
+		}
+
+		private void reset() {
+			this.additions.set(0);
+			for (int i = 0; i < this.table.length; i++) {
+				this.table[i] = (byte) (this.table[i] >>> 1);
+			}
+		}
+
+		private int indexOf(int hash, int row) {
+			int h = (hash ^ SEEDS[row]) * 0x9e3779b9;
+			h ^= h >>> 16;
+			return row * (this.mask + 1) + (h & this.mask);
+		}
+	}
+
+	//endregion
+}
@@ -0,0 +1,118 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+/**
+ * The compact form in which the broker caches a validated token until its access token is presented again.
+ * <p>
+ * The validation cache holds many tokens for a long time, so an entry keeps the fixed-size digest of the access token
+ * instead of the access token itself, along with its claims and the {@link AuthorizationState} it shares with the
+ * other tokens of the principal with the same scopes. It is not an {@code OAuthBearerToken}: the token handed to the
+ * SASL server is restored with {@link #toToken(String)} from the access token the client presented, so its
+ * {@code value()} is the b64token.
+ */
+public final class CompactOAuthBearerTokenJwt {
+
+	//region Member Variables
+
+	private final String tokenDigest;
+	private final long lifetimeMs;
+	private final long startTimeMs;
+	private final long expirationTime;
+	private final String jti;
+	private final AuthorizationState authorizationState;
+
+	//endregion
+
+	//region Constructors
+
+	/**
+	 * Instantiates the compact form of a validated token.
+	 *
+	 * @param token       the validated token
+	 * @param tokenDigest the digest of the access token, as created by {@link Utils#digestToken(String)}
+	 */
+	public CompactOAuthBearerTokenJwt(OAuthBearerTokenJwt token, String tokenDigest) {
+		this.tokenDigest = tokenDigest;
+		this.lifetimeMs = token.lifetimeMs();
+		this.startTimeMs = token.startTimeMs();
+		this.expirationTime = token.expirationTime();
+		this.jti = token.getJti();
+		this.authorizationState = token.getAuthorizationState();
+	}
+
+	//endregion
+
+	//region Public Properties
+
+	public String getTokenDigest() {
+		return this.tokenDigest;
+	}
+
+	public long lifetimeMs() {
+		return this.lifetimeMs;
+	}
+
+	public long startTimeMs() {
+		return this.startTimeMs;
+	}
+
+	public long expirationTime() {
+		return this.expirationTime;
+	}
+
+	public String getJti() {
+		return this.jti;
+	}
+
+	/**
+	 * Gets the authorization state the token shares with the other tokens of its principal with the same scopes.
+	 *
+	 * @return the authorization state
+	 */
+	public AuthorizationState getAuthorizationState() {
+		return this.authorizationState;
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Restores the token of an access token whose digest is the digest of this token.
+	 *
+	 * @param accessToken the access token presented by the client
+	 * @return the token, with the claims and authorization state of this token
+	 */
+	public OAuthBearerTokenJwt toToken(String accessToken) {
+		return new OAuthBearerTokenJwt(this, accessToken);
+	}
+
+	@Override
+	public String toString() {
+		return "CompactOAuthBearerTokenJwt {" +
+				"tokenDigest='" + this.tokenDigest + '\'' +
+				", lifetimeMs=" + this.lifetimeMs +
+				", principalName='" + this.authorizationState.getPrincipalName() + '\'' +
+				", startTimeMs=" + this.startTimeMs +
+				", scope=" + this.authorizationState.getScopes() +
+				", expirationTime=" + this.expirationTime +
+				", jti='" + this.jti + '\'' +
+				'}';
+	}
+
+	//endregion
+}
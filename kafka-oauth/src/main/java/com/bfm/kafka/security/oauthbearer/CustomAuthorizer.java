@@ -20,6 +20,7 @@ import kafka.security.auth.Acl;
 import kafka.security.auth.Authorizer;
 import kafka.security.auth.Operation;
 import kafka.security.auth.Resource;
+import org.apache.kafka.common.acl.AclOperation;
 import org.apache.kafka.common.security.auth.KafkaPrincipal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,6 +35,7 @@ import java.util.List;
  */
 public class CustomAuthorizer implements Authorizer {
 	private static final Logger log = LoggerFactory.getLogger(CustomAuthorizer.class);
+	private final ScopeAuthorizationEngine engine = new ScopeAuthorizationEngine();
 
 	/**
 	 * Instantiates a new Custom authorizer.
@@ -52,31 +54,25 @@ public class CustomAuthorizer implements Authorizer {
 	@Override
 	public boolean authorize(Session session, Operation operation, Resource resource) {
 		try {
-			log.info("Starting Authorization.");
-			// log.info("Session Info: {}", session.toString());
-			log.info("Operation request Info: {}", operation.toString());
-			log.info("Resource request Info: {}", resource.toString());
-			if (!(session.principal() instanceof CustomPrincipal)) {
-				log.error("Session Principal is not using the proper class. Should be instance of CustomPrincipal.");
-				return false;
-			}
-
-			CustomPrincipal principal = (CustomPrincipal) session.principal();
-			if (principal.getOauthBearerTokenJwt() == null) {
-				log.error("Custom Principal does not contain token information.");
-				return false;
-			}
-
-			OAuthBearerTokenJwt jwt = principal.getOauthBearerTokenJwt();
-			if (jwt.scope() == null || jwt.scope().isEmpty()) {
-				log.error("No scopes provided in JWT. Unable to Authorize.");
-				return false;
+			// replication and other inter-broker traffic must not pay for the scopes
+			if (this.engine.isSuperUser(session.principal())) {
+				return true;
 			}
 
-			java.util.Set<String> scopes = jwt.scope();
-			List<OAuthScope> scopeInfo = parseScopes(scopes);
-			String operationStr = operation.toJava().toString();
-			return checkAuthorization(scopeInfo, resource, operationStr);
+			log.debug("Starting Authorization.");
+			// log.debug("Session Info: {}", session);
+			log.debug("Operation request Info: {}", operation);
+			log.debug("Resource request Info: {}", resource);
+			ScopeIndex scopeIndex = this.engine.resolve(session.principal());
+			return this.engine.decide(
+					session.principal(),
+					scopeIndex,
+					operation.toJava(),
+					resource.resourceType().toJava(),
+					resource.name(),
+					System.currentTimeMillis(),
+					true,
+					true);
 		} catch (Exception e) {
 			log.error("Error in authorization. ", e);
 		}
@@ -84,7 +80,8 @@ public class CustomAuthorizer implements Authorizer {
 	}
 
 	/**
-	 * Check authorization against scopes.
+	 * Check authorization against scopes. The scopes are compiled into a {@link ScopeIndex}, so they grant exactly
+	 * what the scopes of a token grant; decisions are written by the auditor, not logged here.
 	 *
 	 * @param scopeInfo list of scopes
 	 * @param resource  resource info
@@ -92,37 +89,38 @@ public class CustomAuthorizer implements Authorizer {
 	 * @return true /false
 	 */
 	protected boolean checkAuthorization(List<OAuthScope> scopeInfo, Resource resource, String operation) {
-		for (int i = 0; i < scopeInfo.size(); i++) {
-			OAuthScope scope = scopeInfo.get(i);
-			String lowerCaseOperation = operation.toLowerCase();
-			String lowerCaseResourceName = resource.name().toLowerCase();
-			String lowerCaseCaseResourceType = resource.resourceType().toString().toLowerCase();
-
-			boolean operationVal = scope.getOperation().toLowerCase().equals(lowerCaseOperation);
-			boolean nameVal = scope.getResourceName().toLowerCase().equals(lowerCaseResourceName);
-			boolean typeVal = scope.getResourceType().toLowerCase().equals(lowerCaseCaseResourceType);
-
-			if (operationVal && nameVal && typeVal) {
-				log.info("Successfully Authorized.");
-				return true;
-			}
+		AclOperation requestedOperation = OperationMask.parse(operation);
+		if (requestedOperation == null) {
+			return false;
 		}
-		log.info("Not Authorized to operate on the given resource.");
-		return false;
+
+		List<String> scopes = new ArrayList<>(scopeInfo.size());
+		for (OAuthScope scope : scopeInfo) {
+			scopes.add("urn:kafka:" + scope.getResourceType() + ":" + scope.getResourceName() + ":" + scope.getOperation());
+		}
+		return ScopeIndex.compile(scopes).isAuthorized(resource.resourceType().toJava(), requestedOperation, resource.name());
 	}
 
 	/**
 	 * Parse topic and Operation out of scope.
 	 *
 	 * @param scopes set of scopes
-	 * @return return list of pairs, each pair is a topic/operation <p> Scope format urn:kafka:<resourceType>:<resourceName>:<operation>
+	 * @return return list of pairs, each pair is a topic/operation <p> Scope format urn:kafka:<resourceType>:<resourceName>:<operation>,
+	 * grouped scopes such as urn:kafka:topic:{orders,payments}:{read,describe} are expanded
 	 */
 	protected List<OAuthScope> parseScopes(java.util.Set<String> scopes) {
 		List<OAuthScope> result = new ArrayList<>();
+		List<String> tokens = new ArrayList<>();
+		List<String> expanded = new ArrayList<>();
 		for (String scope : scopes) {
-			String[] scopeArray = scope.split("\\s+");
-			for (String str : scopeArray){
-				convertScope(result, str);
+			tokens.clear();
+			ScopeTokenizer.split(scope, tokens);
+			for (String token : tokens) {
+				expanded.clear();
+				ScopeTokenizer.expand(token, expanded);
+				for (String str : expanded) {
+					convertScope(result, str);
+				}
 			}
 		}
 		return result;
@@ -181,12 +179,26 @@ public class CustomAuthorizer implements Authorizer {
 
 	@Override
 	public void close() {
-
+		this.engine.close();
 	}
 
-
+	/**
+	 * Configures the super users, the role policy, the heavy hitter tracking and the authorization audit from the
+	 * broker configuration and registers the authorizer metrics in JMX.
+	 *
+	 * @param map the broker configuration
+	 */
 	@Override
 	public void configure(java.util.Map<String, ?> map) {
+		this.engine.configure(map);
+	}
 
+	/**
+	 * Gets the authorizer metrics.
+	 *
+	 * @return the metrics
+	 */
+	public AuthorizerMetrics getMetrics() {
+		return this.engine.getMetrics();
 	}
 }
@@ -23,6 +23,8 @@ import org.apache.kafka.common.security.auth.KafkaPrincipal;
 public class CustomPrincipal extends KafkaPrincipal {
 
 	private OAuthBearerTokenJwt oauthBearerTokenJwt;
+	private ScopeIndex scopeIndex;
+	private DecisionCache decisionCache;
 
 	/**
 	 * Instantiates a new Custom principal.
@@ -50,6 +52,44 @@ public class CustomPrincipal extends KafkaPrincipal {
 	 */
 	public void setOauthBearerTokenJwt(OAuthBearerTokenJwt oauthBearerTokenJwt) {
 		this.oauthBearerTokenJwt = oauthBearerTokenJwt;
+		this.scopeIndex = null;
+		this.decisionCache = null;
+	}
+
+	/**
+	 * Gets the compiled scopes of the oauth bearer token jwt.
+	 *
+	 * @return the scope index, or null if the scopes have not been compiled
+	 */
+	public ScopeIndex getScopeIndex() {
+		return scopeIndex;
+	}
+
+	/**
+	 * Sets the compiled scopes of the oauth bearer token jwt.
+	 *
+	 * @param scopeIndex the scope index
+	 */
+	public void setScopeIndex(ScopeIndex scopeIndex) {
+		this.scopeIndex = scopeIndex;
+	}
+
+	/**
+	 * Gets the cache of the authorization decisions made for the oauth bearer token jwt.
+	 *
+	 * @return the decision cache, or null if decisions are not cached
+	 */
+	public DecisionCache getDecisionCache() {
+		return decisionCache;
+	}
+
+	/**
+	 * Sets the cache of the authorization decisions made for the oauth bearer token jwt.
+	 *
+	 * @param decisionCache the decision cache
+	 */
+	public void setDecisionCache(DecisionCache decisionCache) {
+		this.decisionCache = decisionCache;
 	}
 
 	@Override
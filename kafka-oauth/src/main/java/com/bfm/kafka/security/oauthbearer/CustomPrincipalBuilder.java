@@ -15,15 +15,44 @@ limitations under the License.
 */
 package com.bfm.kafka.security.oauthbearer;
 
+import org.apache.kafka.common.Configurable;
 import org.apache.kafka.common.KafkaException;
 import org.apache.kafka.common.security.auth.AuthenticationContext;
 import org.apache.kafka.common.security.auth.KafkaPrincipalBuilder;
 import org.apache.kafka.common.security.auth.SaslAuthenticationContext;
 
+import java.util.Map;
+
 /**
  * The type Custom principal builder.
+ * <p>
+ * The broker builds a new principal for every request, so the compiled scopes and the decision cache are taken from
+ * the access token, which is the same object for the whole session.
  */
-public class CustomPrincipalBuilder implements KafkaPrincipalBuilder {
+public class CustomPrincipalBuilder implements KafkaPrincipalBuilder, Configurable {
+
+	private static final String OAUTH_DECISION_CACHE_MAX_ENTRIES = "oauth.authorizer.decision.cache.max.entries";
+	private static final int DEFAULT_DECISION_CACHE_MAX_ENTRIES = 1000;
+
+	private int decisionCacheMaxEntries = DEFAULT_DECISION_CACHE_MAX_ENTRIES;
+
+	/**
+	 * Configures the size of the decision caches from the broker configuration.
+	 *
+	 * @param configs the broker configuration
+	 */
+	@Override
+	public void configure(Map<String, ?> configs) {
+		Object maxEntries = configs.get(OAUTH_DECISION_CACHE_MAX_ENTRIES);
+		if (maxEntries != null && !Utils.isNullOrEmpty(maxEntries.toString())) {
+			this.decisionCacheMaxEntries = Integer.parseInt(maxEntries.toString().trim());
+		}
+
+		if (this.decisionCacheMaxEntries < 0) {
+			throw new IllegalStateException("The decision cache size must not be negative.");
+		}
+	}
+
 	@Override
 	public CustomPrincipal build(AuthenticationContext authenticationContext) throws KafkaException{
 		try {
@@ -36,6 +65,11 @@ public class CustomPrincipalBuilder implements KafkaPrincipalBuilder {
 
 				customPrincipal = new CustomPrincipal("User", token.principalName());
 				customPrincipal.setOauthBearerTokenJwt(token);
+				// compile the scopes once per session instead of on every authorization
+				customPrincipal.setScopeIndex(token.getScopeIndex());
+				if (this.decisionCacheMaxEntries > 0) {
+					customPrincipal.setDecisionCache(token.getDecisionCache(this.decisionCacheMaxEntries));
+				}
 
 				return customPrincipal;
 			} else {
@@ -0,0 +1,195 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.ResourceType;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Remembers the authorization decisions made for one access token, keyed by operation, resource type and resource
+ * name.
+ * <p>
+ * The cache lives as long as the token and is bounded in entries; once it is full, further decisions are simply
+ * not cached. Decisions are only valid for the {@link ScopeIndex} they were made with: when the scopes of the token
+ * are compiled again, e.g. because the role policy changed, the cached decisions are dropped. When the token
+ * expires every cached decision is dropped and nothing is cached any more, so a decision never outlives the token
+ * it was made for. A lookup indexes an array by resource type and operation and then does one hash lookup on the
+ * resource name, so it does not allocate.
+ */
+public class DecisionCache {
+
+	//region Constants
+
+	private static final int OPERATIONS = AclOperation.values().length;
+	private static final int SLOTS = ResourceType.values().length * OPERATIONS;
+
+	//endregion
+
+	//region Member Variables
+
+	private final int maxEntries;
+	private final long expiresAtMs;
+	private final AtomicReference<Decisions> decisions = new AtomicReference<>();
+	private volatile boolean expired = false;
+
+	//endregion
+
+	//region Constructors
+
+	/**
+	 * Instantiates a new decision cache.
+	 *
+	 * @param maxEntries  the maximum number of cached decisions
+	 * @param expiresAtMs the expiry of the access token, in milliseconds since the epoch
+	 */
+	public DecisionCache(int maxEntries, long expiresAtMs) {
+		this.maxEntries = maxEntries;
+		this.expiresAtMs = expiresAtMs;
+	}
+
+	//endregion
+
+	//region Public Properties
+
+	/**
+	 * Gets the expiry of the access token the cache was created for.
+	 *
+	 * @return the expiry in milliseconds since the epoch
+	 */
+	public long getExpiresAtMs() {
+		return this.expiresAtMs;
+	}
+
+	public int size() {
+		Decisions current = this.decisions.get();
+		return current == null ? 0 : current.size.get();
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Gets a cached decision.
+	 *
+	 * @param scopeIndex   the compiled scopes the decision is made with
+	 * @param resourceType the resource type
+	 * @param operation    the operation
+	 * @param resourceName the resource name
+	 * @param nowMs        the current time in milliseconds since the epoch
+	 * @return the cached decision, or null if the decision is not cached or the token has expired
+	 */
+	public Boolean get(ScopeIndex scopeIndex, ResourceType resourceType, AclOperation operation, String resourceName, long nowMs) {
+		if (isExpired(nowMs)) {
+			return null;
+		}
+
+		Decisions current = this.decisions.get();
+		if (current == null || current.scopeIndex != scopeIndex) {
+			return null;
+		}
+
+		ConcurrentHashMap<String, Boolean> names = current.names.get(slot(resourceType, operation));
+		return names == null ? null : names.get(resourceName);
+	}
+
+	/**
+	 * Caches a decision, unless the cache is full or the token has expired.
+	 *
+	 * @param scopeIndex   the compiled scopes the decision was made with
+	 * @param resourceType the resource type
+	 * @param operation    the operation
+	 * @param resourceName the resource name
+	 * @param allowed      the decision
+	 * @param nowMs        the current time in milliseconds since the epoch
+	 */
+	public void put(ScopeIndex scopeIndex, ResourceType resourceType, AclOperation operation, String resourceName, boolean allowed, long nowMs) {
+		if (isExpired(nowMs)) {
+			return;
+		}
+
+		Decisions current = this.decisions.get();
+		if (current == null || current.scopeIndex != scopeIndex) {
+			// the scopes were compiled again, the decisions made with the previous index no longer apply
+			Decisions replacement = new Decisions(scopeIndex);
+			if (!this.decisions.compareAndSet(current, replacement)) {
+				return;
+			}
+			current = replacement;
+		}
+
+		if (current.size.get() >= this.maxEntries) {
+			return;
+		}
+
+		int slot = slot(resourceType, operation);
+		ConcurrentHashMap<String, Boolean> names = current.names.get(slot);
+		if (names == null) {
+			current.names.compareAndSet(slot, null, new ConcurrentHashMap<>());
+			names = current.names.get(slot);
+		}
+
+		if (names.putIfAbsent(resourceName, allowed) == null) {
+			current.size.incrementAndGet();
+		}
+	}
+
+	//endregion
+
+	//region Private Methods
+
+	private boolean isExpired(long nowMs) {
+		if (this.expired) {
+			return true;
+		}
+
+		if (nowMs < this.expiresAtMs) {
+			return false;
+		}
+
+		this.expired = true;
+		this.decisions.set(null);
+		return true;
+	}
+
+	private static int slot(ResourceType resourceType, AclOperation operation) {
+		return resourceType.ordinal() * OPERATIONS + operation.ordinal();
+	}
+
+	//endregion
+
+	//region Private Classes
+
+	/**
+	 * The decisions made with one scope index.
+	 */
+	private static final class Decisions {
+		private final ScopeIndex scopeIndex;
+		private final AtomicReferenceArray<ConcurrentHashMap<String, Boolean>> names = new AtomicReferenceArray<>(SLOTS);
+		private final AtomicInteger size = new AtomicInteger();
+
+		private Decisions(ScopeIndex scopeIndex) {
+			this.scopeIndex = scopeIndex;
+		}
+	}
+
+	//endregion
+}
@@ -38,6 +38,60 @@ public class EnvironmentVariablesUtil {
         return result;
     }
 
+    /**
+     * Gets integer environment variable.
+     *
+     * @param envName      the env name
+     * @param defaultValue the default value
+     * @return the integer environment variable
+     */
+    public static Integer getIntegerEnvironmentVariable(String envName, Integer defaultValue) {
+        Integer result;
+        String env = System.getenv(envName);
+        if (env == null) {
+            result = defaultValue;
+        } else {
+            result = Integer.valueOf(env.trim());
+        }
+        return result;
+    }
+
+    /**
+     * Gets long environment variable.
+     *
+     * @param envName      the env name
+     * @param defaultValue the default value
+     * @return the long environment variable
+     */
+    public static Long getLongEnvironmentVariable(String envName, Long defaultValue) {
+        Long result;
+        String env = System.getenv(envName);
+        if (env == null) {
+            result = defaultValue;
+        } else {
+            result = Long.valueOf(env.trim());
+        }
+        return result;
+    }
+
+    /**
+     * Gets double environment variable.
+     *
+     * @param envName      the env name
+     * @param defaultValue the default value
+     * @return the double environment variable
+     */
+    public static Double getDoubleEnvironmentVariable(String envName, Double defaultValue) {
+        Double result;
+        String env = System.getenv(envName);
+        if (env == null) {
+            result = defaultValue;
+        } else {
+            result = Double.valueOf(env.trim());
+        }
+        return result;
+    }
+
     /**
      * Gets string environment variable.
      *
@@ -0,0 +1,389 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.ResourceType;
+import org.apache.kafka.common.utils.KafkaThread;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Finds the (principal, operation, resource, decision) combinations that dominate the authorizations of the
+ * broker, in fixed memory whatever the number of clients and resources.
+ * <p>
+ * Every authorization increments a count-min sketch of {@code depth} rows of {@code width} counters, so the
+ * frequency of a combination is estimated by the minimum of its counters, which never undercounts. The
+ * {@code topK} most frequent combinations are kept in a small table. Both are updated without blocking: the
+ * counters are atomic and the table is only updated by the thread that claims it, others skip the update, which
+ * at worst delays a combination entering the table to its next authorization. At every interval the table is
+ * logged and the sketch and the table are cleared, so the table shows the heavy hitters of the last interval.
+ */
+public class HeavyHitterTracker implements Closeable {
+
+	//region Constants
+
+	private static final String OAUTH_HEAVY_HITTERS_TOP_K = "oauth.authorizer.heavy.hitters.top.k";
+	private static final String OAUTH_HEAVY_HITTERS_SKETCH_WIDTH = "oauth.authorizer.heavy.hitters.sketch.width";
+	private static final String OAUTH_HEAVY_HITTERS_SKETCH_DEPTH = "oauth.authorizer.heavy.hitters.sketch.depth";
+	private static final String OAUTH_HEAVY_HITTERS_INTERVAL_MS = "oauth.authorizer.heavy.hitters.interval.ms";
+
+	private static final int DEFAULT_TOP_K = 0;
+	private static final int DEFAULT_SKETCH_WIDTH = 2048;
+	private static final int DEFAULT_SKETCH_DEPTH = 4;
+	private static final long DEFAULT_INTERVAL_MS = 60000L;
+
+	private static final long[] SEEDS = {
+			0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0x27D4EB2F165667C5L,
+			0x85EBCA77C2B2AE63L, 0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x94D049BB133111EBL};
+
+	//endregion
+
+	//region Member Variables
+
+	private static final Logger log = LoggerFactory.getLogger(HeavyHitterTracker.class);
+	private final int width;
+	private final int depth;
+	private final long intervalMs;
+	private final AtomicLongArray counters;
+	private final HeavyHitter[] topK;
+	private final AtomicBoolean topKClaimed = new AtomicBoolean();
+	private volatile long admissionThreshold = 0L;
+	private volatile List<HeavyHitter> lastInterval = Collections.emptyList();
+	private ScheduledExecutorService scheduler;
+
+	//endregion
+
+	//region Constructors
+
+	/**
+	 * Instantiates a new heavy hitter tracker.
+	 *
+	 * @param topK       the number of heavy hitters kept
+	 * @param width      the counters per sketch row, a power of two
+	 * @param depth      the sketch rows, at most 8
+	 * @param intervalMs the interval at which the heavy hitters are logged and the counts cleared
+	 * @throws IllegalArgumentException if the settings are invalid
+	 */
+	public HeavyHitterTracker(int topK, int width, int depth, long intervalMs) {
+		if (topK <= 0 || width <= 0 || Integer.bitCount(width) != 1 || depth <= 0 || depth > SEEDS.length || intervalMs <= 0) {
+			throw new IllegalArgumentException("Heavy hitter settings are invalid.");
+		}
+
+		this.width = width;
+		this.depth = depth;
+		this.intervalMs = intervalMs;
+		this.counters = new AtomicLongArray(width * depth);
+		this.topK = new HeavyHitter[topK];
+	}
+
+	//endregion
+
+	//region Public Properties
+
+	/**
+	 * Gets the heavy hitters of the current interval, most frequent first.
+	 *
+	 * @return the heavy hitters with their estimated counts
+	 */
+	public List<HeavyHitter> getHeavyHitters() {
+		List<HeavyHitter> result = new ArrayList<>(this.topK.length);
+		while (!this.topKClaimed.compareAndSet(false, true)) {
+			Thread.yield();
+		}
+		try {
+			for (HeavyHitter hitter : this.topK) {
+				if (hitter != null) {
+					result.add(hitter.withCount(estimate(hitter.hash)));
+				}
+			}
+		} finally {
+			this.topKClaimed.set(false);
+		}
+
+		result.sort(Comparator.comparingLong(HeavyHitter::getCount).reversed());
+		return result;
+	}
+
+	/**
+	 * Gets the heavy hitters of the last completed interval, most frequent first.
+	 *
+	 * @return the heavy hitters with their estimated counts
+	 */
+	public List<HeavyHitter> getLastIntervalHeavyHitters() {
+		return this.lastInterval;
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Creates the heavy hitter tracker configured in the broker configuration and starts its interval. Tracking is
+	 * disabled unless a number of heavy hitters is configured, since every authorization then updates the shared
+	 * sketch.
+	 *
+	 * @param configs the broker configuration
+	 * @return the started tracker, or null if heavy hitters are not tracked
+	 * @throws IllegalArgumentException if the settings are invalid
+	 */
+	public static HeavyHitterTracker create(Map<String, ?> configs) {
+		int topK = (int) getLong(configs, OAUTH_HEAVY_HITTERS_TOP_K, DEFAULT_TOP_K);
+		if (topK == 0) {
+			return null;
+		}
+
+		HeavyHitterTracker tracker = new HeavyHitterTracker(
+				topK,
+				(int) getLong(configs, OAUTH_HEAVY_HITTERS_SKETCH_WIDTH, DEFAULT_SKETCH_WIDTH),
+				(int) getLong(configs, OAUTH_HEAVY_HITTERS_SKETCH_DEPTH, DEFAULT_SKETCH_DEPTH),
+				getLong(configs, OAUTH_HEAVY_HITTERS_INTERVAL_MS, DEFAULT_INTERVAL_MS));
+		tracker.start();
+		return tracker;
+	}
+
+	/**
+	 * Counts an authorization.
+	 *
+	 * @param principal    the principal name
+	 * @param operation    the operation
+	 * @param resourceType the resource type
+	 * @param resourceName the resource name
+	 * @param allowed      the decision
+	 */
+	public void record(String principal, AclOperation operation, ResourceType resourceType, String resourceName, boolean allowed) {
+		// strings cache their hash codes, so hashing the combination does not allocate
+		long hash = principal.hashCode();
+		hash = 31 * hash + resourceName.hashCode();
+		hash = 31 * hash + resourceType.ordinal();
+		hash = 31 * hash + operation.ordinal();
+		hash = 31 * hash + (allowed ? 1 : 0);
+
+		long count = Long.MAX_VALUE;
+		for (int row = 0; row < this.depth; row++) {
+			count = Math.min(count, this.counters.incrementAndGet(index(hash, row)));
+		}
+
+		if (count > this.admissionThreshold && this.topKClaimed.compareAndSet(false, true)) {
+			try {
+				admit(hash, count, principal, operation, resourceType, resourceName, allowed);
+			} finally {
+				this.topKClaimed.set(false);
+			}
+		}
+	}
+
+	/**
+	 * Logs the heavy hitters of the current interval and starts a new one.
+	 */
+	public void rollInterval() {
+		List<HeavyHitter> hitters = getHeavyHitters();
+		this.lastInterval = Collections.unmodifiableList(hitters);
+		if (!hitters.isEmpty()) {
+			log.info("Heavy hitters of the last {} ms: {}.", this.intervalMs, hitters);
+		}
+
+		while (!this.topKClaimed.compareAndSet(false, true)) {
+			Thread.yield();
+		}
+		try {
+			for (int i = 0; i < this.counters.length(); i++) {
+				this.counters.set(i, 0L);
+			}
+			Arrays.fill(this.topK, null);
+			this.admissionThreshold = 0L;
+		} finally {
+			this.topKClaimed.set(false);
+		}
+	}
+
+	/**
+	 * Starts logging the heavy hitters at every interval.
+	 */
+	public synchronized void start() {
+		if (this.scheduler != null) {
+			return;
+		}
+
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(
+				runnable -> KafkaThread.daemon("oauth-heavy-hitters", runnable));
+		this.scheduler.scheduleAtFixedRate(this::rollInterval, this.intervalMs, this.intervalMs, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops logging the heavy hitters.
+	 */
+	@Override
+	public synchronized void close() {
+		if (this.scheduler != null) {
+			this.scheduler.shutdownNow();
+			this.scheduler = null;
+		}
+	}
+
+	//endregion
+
+	//region Private Methods
+
+	/**
+	 * Updates the table with a combination, called by the thread that claimed the table.
+	 */
+	private void admit(long hash, long count, String principal, AclOperation operation, ResourceType resourceType, String resourceName, boolean allowed) {
+		int free = -1;
+		for (int i = 0; i < this.topK.length; i++) {
+			HeavyHitter hitter = this.topK[i];
+			if (hitter == null) {
+				free = free < 0 ? i : free;
+			} else if (hitter.matches(hash, principal, operation, resourceType, resourceName, allowed)) {
+				// already a heavy hitter, its count is estimated when the table is read
+				return;
+			}
+		}
+
+		if (free >= 0) {
+			this.topK[free] = new HeavyHitter(hash, principal, operation, resourceType, resourceName, allowed, count);
+			return;
+		}
+
+		int smallest = 0;
+		long smallestCount = Long.MAX_VALUE;
+		for (int i = 0; i < this.topK.length; i++) {
+			long hitterCount = estimate(this.topK[i].hash);
+			if (hitterCount < smallestCount) {
+				smallestCount = hitterCount;
+				smallest = i;
+			}
+		}
+
+		if (count > smallestCount) {
+			this.topK[smallest] = new HeavyHitter(hash, principal, operation, resourceType, resourceName, allowed, count);
+		}
+		// only combinations counted more often than the least frequent heavy hitter can enter the table
+		this.admissionThreshold = smallestCount;
+	}
+
+	private long estimate(long hash) {
+		long count = Long.MAX_VALUE;
+		for (int row = 0; row < this.depth; row++) {
+			count = Math.min(count, this.counters.get(index(hash, row)));
+		}
+		return count;
+	}
+
+	private int index(long hash, int row) {
+		// a 64 bit finalizer mixes the seeded hash, so every row spreads the combinations differently
+		long h = hash ^ SEEDS[row];
+		h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+		h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		h ^= h >>> 33;
+		return row * this.width + (int) (h & (this.width - 1));
+	}
+
+	private static long getLong(Map<String, ?> configs, String name, long defaultValue) {
+		Object value = configs.get(name);
+		return value == null || Utils.isNullOrEmpty(value.toString().trim()) ? defaultValue : Long.parseLong(value.toString().trim());
+	}
+
+	//endregion
+
+	//region Public Classes
+
+	/**
+	 * A frequent combination of principal, operation, resource and decision.
+	 */
+	public static final class HeavyHitter {
+		private final long hash;
+		private final String principal;
+		private final AclOperation operation;
+		private final ResourceType resourceType;
+		private final String resourceName;
+		private final boolean allowed;
+		private final long count;
+
+		private HeavyHitter(long hash, String principal, AclOperation operation, ResourceType resourceType, String resourceName, boolean allowed, long count) {
+			this.hash = hash;
+			this.principal = principal;
+			this.operation = operation;
+			this.resourceType = resourceType;
+			this.resourceName = resourceName;
+			this.allowed = allowed;
+			this.count = count;
+		}
+
+		public String getPrincipal() {
+			return this.principal;
+		}
+
+		public AclOperation getOperation() {
+			return this.operation;
+		}
+
+		public ResourceType getResourceType() {
+			return this.resourceType;
+		}
+
+		public String getResourceName() {
+			return this.resourceName;
+		}
+
+		public boolean isAllowed() {
+			return this.allowed;
+		}
+
+		/**
+		 * Gets the estimated number of authorizations, which may overcount but never undercounts.
+		 *
+		 * @return the count
+		 */
+		public long getCount() {
+			return this.count;
+		}
+
+		@Override
+		public String toString() {
+			return this.principal + " " + this.operation + " " + this.resourceType + ":" + this.resourceName + " "
+					+ (this.allowed ? "ALLOWED" : "DENIED") + " " + this.count;
+		}
+
+		private HeavyHitter withCount(long estimatedCount) {
+			return new HeavyHitter(this.hash, this.principal, this.operation, this.resourceType, this.resourceName, this.allowed, estimatedCount);
+		}
+
+		private boolean matches(long otherHash, String otherPrincipal, AclOperation otherOperation, ResourceType otherResourceType, String otherResourceName, boolean otherAllowed) {
+			return this.hash == otherHash
+					&& this.operation == otherOperation
+					&& this.resourceType == otherResourceType
+					&& this.allowed == otherAllowed
+					&& this.principal.equals(otherPrincipal)
+					&& this.resourceName.equals(otherResourceName);
+		}
+	}
+
+	//endregion
+}
@@ -0,0 +1,97 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Sends the form encoded POST requests of the token and introspection endpoints to the OAuth server.
+ */
+public interface HttpTransport extends Closeable {
+
+	/**
+	 * Posts a form encoded body.
+	 *
+	 * @param url                      the url
+	 * @param authorizationHeaderValue the value of the Authorization header, or null to send none
+	 * @param formBody                 the form encoded body
+	 * @return the response
+	 * @throws IOException if the request cannot be sent or the response cannot be read
+	 */
+	HttpResponse post(String url, String authorizationHeaderValue, byte[] formBody) throws IOException;
+
+	/**
+	 * Gets the number of requests sent.
+	 *
+	 * @return the requests
+	 */
+	long getRequests();
+
+	/**
+	 * Gets the number of connections opened, zero if the transport does not manage its own connections.
+	 *
+	 * @return the connections created
+	 */
+	long getConnectionsCreated();
+
+	/**
+	 * Gets the number of requests sent over a connection kept alive from an earlier request.
+	 *
+	 * @return the connections reused
+	 */
+	long getConnectionsReused();
+
+	/**
+	 * Gets the number of connections currently kept alive and idle.
+	 *
+	 * @return the idle connections
+	 */
+	int getIdleConnections();
+
+	/**
+	 * Closes the idle connections.
+	 */
+	@Override
+	void close();
+
+	/**
+	 * The status code and the body of an HTTP response.
+	 */
+	final class HttpResponse {
+		private final int statusCode;
+		private final byte[] body;
+
+		/**
+		 * Instantiates a new HTTP response.
+		 *
+		 * @param statusCode the status code
+		 * @param body       the body
+		 */
+		public HttpResponse(int statusCode, byte[] body) {
+			this.statusCode = statusCode;
+			this.body = body;
+		}
+
+		public int getStatusCode() {
+			return this.statusCode;
+		}
+
+		public byte[] getBody() {
+			return this.body;
+		}
+	}
+}
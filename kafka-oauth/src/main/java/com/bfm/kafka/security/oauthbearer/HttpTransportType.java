@@ -0,0 +1,42 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+/**
+ * How the HTTP calls to the OAuth server are made.
+ */
+public enum HttpTransportType {
+
+	/**
+	 * Requests are sent over a bounded pool of keep-alive connections per OAuth server host.
+	 */
+	POOLED,
+
+	/**
+	 * Every request opens a new {@link java.net.HttpURLConnection}.
+	 */
+	URLCONNECTION;
+
+	/**
+	 * Parses a transport type, ignoring case.
+	 *
+	 * @param value the value
+	 * @return the transport type
+	 */
+	public static HttpTransportType fromString(String value) {
+		return HttpTransportType.valueOf(value.trim().toUpperCase(java.util.Locale.ROOT));
+	}
+}
@@ -0,0 +1,233 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Parses a JSON Web Key Set (RFC 7517) into the public keys used to verify access token signatures.
+ * Keys that are not meant for signatures or whose type is not supported are skipped.
+ */
+public class JsonWebKeySet {
+
+	//region Constants
+
+	private static final String KEYS = "keys";
+	private static final String KEY_ID = "kid";
+	private static final String KEY_TYPE = "kty";
+	private static final String KEY_USE = "use";
+	private static final String ALGORITHM = "alg";
+
+	// the X.509 SubjectPublicKeyInfo of an Edwards curve key up to the key itself, RFC 8410
+	private static final byte[] ED25519_KEY_PREFIX = {0x30, 0x2a, 0x30, 0x05, 0x06, 0x03, 0x2b, 0x65, 0x70, 0x03, 0x21, 0x00};
+	private static final byte[] ED448_KEY_PREFIX = {0x30, 0x43, 0x30, 0x05, 0x06, 0x03, 0x2b, 0x65, 0x71, 0x03, 0x3a, 0x00};
+
+	private static final ObjectMapper objectMapper = new ObjectMapper();
+
+	//endregion
+
+	//region Member Variables
+
+	private static final Logger log = LoggerFactory.getLogger(JsonWebKeySet.class);
+	private final Map<String, PublicKey> keys;
+	private final Map<String, String> algorithms;
+
+	//endregion
+
+	//region Constructors
+
+	private JsonWebKeySet(Map<String, PublicKey> keys, Map<String, String> algorithms) {
+		this.keys = Collections.unmodifiableMap(keys);
+		this.algorithms = Collections.unmodifiableMap(algorithms);
+	}
+
+	//endregion
+
+	//region Public Properties
+
+	/**
+	 * Gets the public keys indexed by key id.
+	 *
+	 * @return the keys
+	 */
+	public Map<String, PublicKey> getKeys() {
+		return this.keys;
+	}
+
+	/**
+	 * Gets the algorithm a key is restricted to, or null if the JWK does not name one.
+	 *
+	 * @param kid the key id
+	 * @return the algorithm
+	 */
+	public String getAlgorithm(String kid) {
+		return this.algorithms.get(kid);
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Parses a JWKS document.
+	 *
+	 * @param inputStream the JWKS document
+	 * @return the json web key set
+	 * @throws IOException if the document is not valid JSON
+	 */
+	public static JsonWebKeySet parse(InputStream inputStream) throws IOException {
+		Objects.requireNonNull(inputStream);
+
+		Map<String, Object> document = objectMapper.readValue(inputStream, new TypeReference<Map<String, Object>>() {
+		});
+
+		Object jwks = document.get(KEYS);
+		if (!(jwks instanceof List)) {
+			throw new IOException("JWKS document does not contain a keys array.");
+		}
+
+		Map<String, PublicKey> keys = new HashMap<>();
+		Map<String, String> algorithms = new HashMap<>();
+		for (Object item : (List<?>) jwks) {
+			if (!(item instanceof Map)) {
+				continue;
+			}
+
+			@SuppressWarnings("unchecked")
+			Map<String, Object> jwk = (Map<String, Object>) item;
+			String kid = jwk.get(KEY_ID) instanceof String ? (String) jwk.get(KEY_ID) : "";
+			Object use = jwk.get(KEY_USE);
+			if (use != null && !"sig".equals(use)) {
+				log.debug("Skip JWK that is not a signature key, Kid: {}.", kid);
+				continue;
+			}
+
+			try {
+				PublicKey key = toPublicKey(jwk);
+				if (key == null) {
+					log.debug("Skip JWK with an unsupported key type, Kid: {}, Type: {}.", kid, jwk.get(KEY_TYPE));
+					continue;
+				}
+
+				keys.put(kid, key);
+				if (jwk.get(ALGORITHM) instanceof String) {
+					algorithms.put(kid, (String) jwk.get(ALGORITHM));
+				}
+			} catch (GeneralSecurityException | RuntimeException e) {
+				log.warn("Skip JWK that cannot be parsed, Kid: {}, Message: {}.", kid, e.getMessage());
+			}
+		}
+
+		return new JsonWebKeySet(keys, algorithms);
+	}
+
+	//endregion
+
+	//region Private Methods
+
+	/**
+	 * Converts a JWK into a public key.
+	 *
+	 * @param jwk the JWK
+	 * @return the public key, or null if the key type is not supported
+	 * @throws GeneralSecurityException if the key material is invalid
+	 */
+	private static PublicKey toPublicKey(Map<String, Object> jwk) throws GeneralSecurityException {
+		Object type = jwk.get(KEY_TYPE);
+
+		if ("RSA".equals(type)) {
+			BigInteger modulus = toBigInteger(jwk.get("n"));
+			BigInteger exponent = toBigInteger(jwk.get("e"));
+			return KeyFactory.getInstance("RSA").generatePublic(new RSAPublicKeySpec(modulus, exponent));
+		}
+
+		if ("EC".equals(type)) {
+			AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+			parameters.init(new ECGenParameterSpec(toCurveName(jwk.get("crv"))));
+			ECParameterSpec spec = parameters.getParameterSpec(ECParameterSpec.class);
+			ECPoint point = new ECPoint(toBigInteger(jwk.get("x")), toBigInteger(jwk.get("y")));
+			return KeyFactory.getInstance("EC").generatePublic(new ECPublicKeySpec(point, spec));
+		}
+
+		if ("OKP".equals(type)) {
+			// the JVM has no key spec for Edwards curve keys before Java 15, so wrap the key in its X.509 encoding
+			byte[] prefix = toEdwardsKeyPrefix(jwk.get("crv"));
+			byte[] x = Base64.getUrlDecoder().decode(requireString(jwk.get("x")));
+			byte[] encoded = Arrays.copyOf(prefix, prefix.length + x.length);
+			System.arraycopy(x, 0, encoded, prefix.length, x.length);
+			return KeyFactory.getInstance("EdDSA").generatePublic(new X509EncodedKeySpec(encoded));
+		}
+
+		return null;
+	}
+
+	private static byte[] toEdwardsKeyPrefix(Object crv) throws GeneralSecurityException {
+		if ("Ed25519".equals(crv)) {
+			return ED25519_KEY_PREFIX;
+		} else if ("Ed448".equals(crv)) {
+			return ED448_KEY_PREFIX;
+		}
+		throw new GeneralSecurityException("Unsupported curve: " + crv);
+	}
+
+	private static String toCurveName(Object crv) throws GeneralSecurityException {
+		if ("P-256".equals(crv)) {
+			return "secp256r1";
+		} else if ("P-384".equals(crv)) {
+			return "secp384r1";
+		} else if ("P-521".equals(crv)) {
+			return "secp521r1";
+		}
+		throw new GeneralSecurityException("Unsupported curve: " + crv);
+	}
+
+	private static BigInteger toBigInteger(Object value) {
+		return new BigInteger(1, Base64.getUrlDecoder().decode(requireString(value)));
+	}
+
+	private static String requireString(Object value) {
+		if (!(value instanceof String)) {
+			throw new IllegalArgumentException("JWK key parameter is missing.");
+		}
+		return (String) value;
+	}
+
+	//endregion
+}
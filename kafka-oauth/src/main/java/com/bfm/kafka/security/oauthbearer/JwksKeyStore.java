@@ -0,0 +1,382 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.utils.KafkaThread;
+import org.apache.kafka.common.utils.Time;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.PublicKey;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds the signing keys published in the JWKS document of the OAuth server, indexed by key id.
+ * <p>
+ * The keys are parsed once per download and published as an immutable key set that is swapped atomically, so
+ * looking up a known key never blocks. Once started, the store downloads the document again on a background
+ * thread at jittered intervals. A token that names an unknown key id triggers at most one download per
+ * minimum refetch interval; concurrent lookups share that download instead of starting their own, so a flood
+ * of forged tokens cannot turn into a flood of JWKS downloads.
+ */
+public class JwksKeyStore implements Closeable {
+
+	//region Constants
+
+	private static final int CONNECT_TIMEOUT_MS = 10000;
+	private static final int READ_TIMEOUT_MS = 10000;
+	private static final long NEVER = Long.MIN_VALUE;
+
+	//endregion
+
+	//region Member Variables
+
+	private static final Logger log = LoggerFactory.getLogger(JwksKeyStore.class);
+	private final String jwksEndpoint;
+	private final SSLSocketFactory sslSocketFactory;
+	private final boolean verifyHostname;
+	private final long refreshIntervalMs;
+	private final long refreshJitterMs;
+	private final long minRefetchIntervalMs;
+	private final Time time;
+
+	private volatile JsonWebKeySet keySet;
+	private final Object fetchLock = new Object();
+	private CompletableFuture<JsonWebKeySet> inFlightFetch;
+	private long lastFetchMs = NEVER;
+	private ScheduledExecutorService scheduler;
+
+	private final LongAdder refreshes = new LongAdder();
+	private final LongAdder refreshFailures = new LongAdder();
+	private final LongAdder rateLimitedLookups = new LongAdder();
+
+	//endregion
+
+	//region Constructors
+
+	/**
+	 * Instantiates a new JWKS key store.
+	 *
+	 * @param jwksEndpoint         the JWKS endpoint, any URL the JVM can open such as http, https or file
+	 * @param sslSocketFactory     the factory of the TLS connections
+	 * @param verifyHostname       whether the host name of the OAuth server must match its certificate
+	 * @param refreshIntervalMs    the average interval between background downloads
+	 * @param refreshJitterMs      the maximum random deviation from the refresh interval
+	 * @param minRefetchIntervalMs the minimum interval between downloads caused by unknown key ids
+	 * @param time                 the clock
+	 */
+	public JwksKeyStore(String jwksEndpoint, SSLSocketFactory sslSocketFactory, boolean verifyHostname, long refreshIntervalMs, long refreshJitterMs, long minRefetchIntervalMs, Time time) {
+		this.jwksEndpoint = Objects.requireNonNull(jwksEndpoint);
+		this.sslSocketFactory = Objects.requireNonNull(sslSocketFactory);
+		this.verifyHostname = verifyHostname;
+		this.refreshIntervalMs = refreshIntervalMs;
+		this.refreshJitterMs = Math.min(refreshJitterMs, refreshIntervalMs / 2);
+		this.minRefetchIntervalMs = minRefetchIntervalMs;
+		this.time = Objects.requireNonNull(time);
+	}
+
+	//endregion
+
+	//region Public Properties
+
+	public String getJwksEndpoint() {
+		return this.jwksEndpoint;
+	}
+
+	public long getRefreshes() {
+		return this.refreshes.sum();
+	}
+
+	public long getRefreshFailures() {
+		return this.refreshFailures.sum();
+	}
+
+	public long getRateLimitedLookups() {
+		return this.rateLimitedLookups.sum();
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Downloads the JWKS document in the background and keeps refreshing it.
+	 */
+	public synchronized void start() {
+		if (this.scheduler != null) {
+			return;
+		}
+
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(
+				runnable -> KafkaThread.daemon("oauth-jwks-refresh", runnable));
+		this.scheduler.execute(this::scheduledRefresh);
+	}
+
+	/**
+	 * Stops the background refresh.
+	 */
+	@Override
+	public synchronized void close() {
+		if (this.scheduler != null) {
+			this.scheduler.shutdownNow();
+			this.scheduler = null;
+		}
+	}
+
+	/**
+	 * Gets the public key with the given key id.
+	 *
+	 * @param kid the key id, or null if the token does not name its key
+	 * @return the public key, or null if the OAuth server does not publish such a key
+	 * @throws IOException if no JWKS document has been downloaded yet and it cannot be downloaded now
+	 */
+	public PublicKey getKey(String kid) throws IOException {
+		SigningKey signingKey = getSigningKey(kid);
+		return signingKey == null ? null : signingKey.getKey();
+	}
+
+	/**
+	 * Gets the public key with the given key id together with the algorithm its JWK is restricted to, both taken
+	 * from the same JWK.
+	 *
+	 * @param kid the key id, or null if the token does not name its key
+	 * @return the signing key, or null if the OAuth server does not publish such a key
+	 * @throws IOException if no JWKS document has been downloaded yet and it cannot be downloaded now
+	 */
+	public SigningKey getSigningKey(String kid) throws IOException {
+		JsonWebKeySet current = this.keySet;
+		if (current != null) {
+			SigningKey key = findKey(current, kid);
+			if (key != null) {
+				return key;
+			}
+		}
+
+		// the signing keys may have been rotated since the last download
+		CompletableFuture<JsonWebKeySet> fetch = requestFetch(true);
+		if (fetch == null) {
+			log.debug("Signing key is not known and the JWKS document was downloaded recently, Kid: {}.", kid);
+			this.rateLimitedLookups.increment();
+			if (current == null) {
+				throw new IOException("JWKS document is not available.");
+			}
+			return null;
+		}
+
+		log.info("Signing key is not known, download the JWKS document again, Kid: {}.", kid);
+		return findKey(await(fetch), kid);
+	}
+
+	/**
+	 * Downloads the JWKS document and replaces the known keys, or waits for a download that is already running.
+	 *
+	 * @return the downloaded key set
+	 * @throws IOException if the JWKS document cannot be downloaded
+	 */
+	public JsonWebKeySet refresh() throws IOException {
+		return await(requestFetch(false));
+	}
+
+	//endregion
+
+	//region Protected Methods
+
+	/**
+	 * Opens the JWKS document.
+	 *
+	 * @return the JWKS document stream
+	 * @throws IOException if the document cannot be opened
+	 */
+	protected InputStream openJwksDocument() throws IOException {
+		URLConnection con = new URL(this.jwksEndpoint).openConnection();
+		if (con instanceof HttpsURLConnection) {
+			HttpsURLConnection httpsCon = (HttpsURLConnection) con;
+			httpsCon.setSSLSocketFactory(this.sslSocketFactory);
+			if (!this.verifyHostname) {
+				httpsCon.setHostnameVerifier((hostname, session) -> true);
+			}
+		}
+		con.setConnectTimeout(CONNECT_TIMEOUT_MS);
+		con.setReadTimeout(READ_TIMEOUT_MS);
+		if (con instanceof HttpURLConnection) {
+			HttpURLConnection httpCon = (HttpURLConnection) con;
+			httpCon.setRequestMethod("GET");
+			httpCon.setRequestProperty("Accept", "application/json");
+
+			int responseCode = httpCon.getResponseCode();
+			if (responseCode != 200) {
+				throw new IOException(String.format(
+						"The response was not successful, Url: %s, Response Code: %s",
+						this.jwksEndpoint,
+						responseCode));
+			}
+		}
+		return con.getInputStream();
+	}
+
+	//endregion
+
+	//region Private Methods
+
+	/**
+	 * Joins the running download or starts a new one on the calling thread.
+	 *
+	 * @param rateLimited whether a new download must respect the minimum refetch interval
+	 * @return the download, or null if a new download is not allowed yet
+	 */
+	private CompletableFuture<JsonWebKeySet> requestFetch(boolean rateLimited) {
+		CompletableFuture<JsonWebKeySet> created = null;
+		CompletableFuture<JsonWebKeySet> pending;
+
+		synchronized (this.fetchLock) {
+			pending = this.inFlightFetch;
+			if (pending == null) {
+				long now = this.time.milliseconds();
+				if (rateLimited && this.lastFetchMs != NEVER && now - this.lastFetchMs < this.minRefetchIntervalMs) {
+					return null;
+				}
+
+				this.lastFetchMs = now;
+				created = new CompletableFuture<>();
+				this.inFlightFetch = created;
+				pending = created;
+			}
+		}
+
+		if (created != null) {
+			download(created);
+		}
+		return pending;
+	}
+
+	private void download(CompletableFuture<JsonWebKeySet> fetch) {
+		log.debug("Starting to download JWKS document, Url: {}.", this.jwksEndpoint);
+		try (InputStream inputStream = openJwksDocument()) {
+			JsonWebKeySet downloaded = JsonWebKeySet.parse(inputStream);
+			this.keySet = downloaded;
+			this.refreshes.increment();
+			log.info("Downloaded JWKS document, Url: {}, Keys: {}.", this.jwksEndpoint, downloaded.getKeys().keySet());
+			fetch.complete(downloaded);
+		} catch (IOException | RuntimeException e) {
+			this.refreshFailures.increment();
+			log.error("Error downloading JWKS document, Url: {}, Message: {}", this.jwksEndpoint, e.getMessage());
+			fetch.completeExceptionally(e);
+		} finally {
+			synchronized (this.fetchLock) {
+				this.inFlightFetch = null;
+			}
+		}
+	}
+
+	private void scheduledRefresh() {
+		long delayMs;
+		try {
+			refresh();
+			delayMs = this.refreshIntervalMs;
+		} catch (IOException e) {
+			// keep the current keys and try again sooner
+			delayMs = Math.min(this.refreshIntervalMs, Math.max(this.minRefetchIntervalMs, 1000L));
+		}
+
+		if (this.refreshJitterMs > 0) {
+			delayMs += ThreadLocalRandom.current().nextLong(-this.refreshJitterMs, this.refreshJitterMs + 1);
+		}
+
+		synchronized (this) {
+			if (this.scheduler != null) {
+				this.scheduler.schedule(this::scheduledRefresh, Math.max(delayMs, 1L), TimeUnit.MILLISECONDS);
+			}
+		}
+	}
+
+	private static JsonWebKeySet await(CompletableFuture<JsonWebKeySet> fetch) throws IOException {
+		try {
+			return fetch.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for the JWKS document.", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			throw new IOException("Error downloading JWKS document: " + cause.getMessage(), cause);
+		}
+	}
+
+	private static SigningKey findKey(JsonWebKeySet keySet, String kid) {
+		Map<String, PublicKey> keys = keySet.getKeys();
+		String keyId = kid;
+		if (keyId == null) {
+			// a token without a key id can only be matched when the OAuth server publishes a single key
+			if (keys.size() != 1) {
+				return null;
+			}
+			keyId = keys.keySet().iterator().next();
+		}
+
+		PublicKey key = keys.get(keyId);
+		return key == null ? null : new SigningKey(key, keySet.getAlgorithm(keyId));
+	}
+
+	//endregion
+
+	//region Public Classes
+
+	/**
+	 * A published public key and the algorithm its JWK is restricted to.
+	 */
+	public static final class SigningKey {
+		private final PublicKey key;
+		private final String algorithm;
+
+		private SigningKey(PublicKey key, String algorithm) {
+			this.key = key;
+			this.algorithm = algorithm;
+		}
+
+		public PublicKey getKey() {
+			return this.key;
+		}
+
+		/**
+		 * Gets the algorithm the key is restricted to.
+		 *
+		 * @return the algorithm, or null if the JWK does not name one
+		 */
+		public String getAlgorithm() {
+			return this.algorithm;
+		}
+	}
+
+	//endregion
+}
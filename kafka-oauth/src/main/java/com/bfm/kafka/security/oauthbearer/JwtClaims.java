@@ -0,0 +1,300 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The header and claims of a JWT access token that this library uses.
+ * <p>
+ * The segments are base64url decoded from the access token into a buffer of the calling thread and read with a
+ * streaming parser. Only the alg and kid header parameters and the sub, scope, exp, iat, nbf, jti, iss and aud claims
+ * are kept; every other claim is skipped without being materialized.
+ */
+public final class JwtClaims {
+
+	//region Constants
+
+	private static final String ALGORITHM = "alg";
+	private static final String KEY_ID = "kid";
+	private static final String SUB = "sub";
+	private static final String SCOPE = "scope";
+	private static final String EXP = "exp";
+	private static final String IAT = "iat";
+	private static final String NBF = "nbf";
+	private static final String JTI = "jti";
+	private static final String ISS = "iss";
+	private static final String AUD = "aud";
+
+	/**
+	 * The value of a numeric date claim that the token does not have.
+	 */
+	public static final long MISSING = Long.MIN_VALUE;
+
+	//endregion
+
+	//region Member Variables
+
+	// JsonFactory is thread safe and caches the symbol tables used by its parsers
+	private static final JsonFactory jsonFactory = new JsonFactory();
+
+	private String algorithm;
+	private String keyId;
+	private String subject;
+	private List<String> scope = Collections.emptyList();
+	private long expirationTime = MISSING;
+	private long issuedAt = MISSING;
+	private long notBefore = MISSING;
+	private String jti;
+	private String issuer;
+	private List<String> audience = Collections.emptyList();
+
+	//endregion
+
+	//region Constructors
+
+	private JwtClaims() {
+	}
+
+	//endregion
+
+	//region Public Properties
+
+	public String getAlgorithm() {
+		return this.algorithm;
+	}
+
+	public String getKeyId() {
+		return this.keyId;
+	}
+
+	public String getSubject() {
+		return this.subject;
+	}
+
+	public List<String> getScope() {
+		return this.scope;
+	}
+
+	/**
+	 * Gets the exp claim.
+	 *
+	 * @return the expiration time in seconds since the epoch, or {@link #MISSING}
+	 */
+	public long getExpirationTime() {
+		return this.expirationTime;
+	}
+
+	/**
+	 * Gets the iat claim.
+	 *
+	 * @return the issue time in seconds since the epoch, or {@link #MISSING}
+	 */
+	public long getIssuedAt() {
+		return this.issuedAt;
+	}
+
+	/**
+	 * Gets the nbf claim.
+	 *
+	 * @return the time the token becomes valid in seconds since the epoch, or {@link #MISSING}
+	 */
+	public long getNotBefore() {
+		return this.notBefore;
+	}
+
+	public String getJti() {
+		return this.jti;
+	}
+
+	public String getIssuer() {
+		return this.issuer;
+	}
+
+	public List<String> getAudience() {
+		return this.audience;
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Decodes the header and the claims of a compact serialized JWT.
+	 *
+	 * @param accessToken the compact serialized JWT
+	 * @param headerEnd   the index of the dot after the header
+	 * @param payloadEnd  the index of the dot after the payload
+	 * @return the header and claims
+	 * @throws JwtValidationException if a segment is not base64url encoded JSON or a claim has the wrong type
+	 */
+	public static JwtClaims decode(String accessToken, int headerEnd, int payloadEnd) throws JwtValidationException {
+		JwtClaims claims = new JwtClaims();
+		try {
+			claims.decodeHeader(parse(accessToken, 0, headerEnd));
+			claims.decodePayload(parse(accessToken, headerEnd + 1, payloadEnd));
+		} catch (IllegalArgumentException e) {
+			throw new JwtValidationException("Access token is not base64url encoded.", e, false);
+		} catch (IOException e) {
+			throw new JwtValidationException("Access token is not valid JSON.", e, false);
+		}
+		return claims;
+	}
+
+	@Override
+	public String toString() {
+		return "JwtClaims {" +
+				"algorithm='" + algorithm + '\'' +
+				", keyId='" + keyId + '\'' +
+				", subject='" + subject + '\'' +
+				", scope=" + scope +
+				", expirationTime=" + expirationTime +
+				", issuedAt=" + issuedAt +
+				", jti='" + jti + '\'' +
+				'}';
+	}
+
+	//endregion
+
+	//region Private Methods
+
+	private static JsonParser parse(String accessToken, int start, int end) throws IOException {
+		byte[] buffer = Base64Url.buffer(start, end);
+		int length = Base64Url.decode(accessToken, start, end, buffer);
+
+		JsonParser parser = jsonFactory.createParser(buffer, 0, length);
+		if (parser.nextToken() != JsonToken.START_OBJECT) {
+			parser.close();
+			throw new IOException("The segment is not a JSON object.");
+		}
+		return parser;
+	}
+
+	private void decodeHeader(JsonParser parser) throws IOException, JwtValidationException {
+		try {
+			String fieldName;
+			while ((fieldName = parser.nextFieldName()) != null) {
+				JsonToken value = parser.nextToken();
+				switch (fieldName) {
+					case ALGORITHM:
+						this.algorithm = stringValue(parser, value);
+						break;
+					case KEY_ID:
+						if (value != JsonToken.VALUE_STRING && value != JsonToken.VALUE_NULL) {
+							throw new JwtValidationException("Access token header has an invalid key id.", false);
+						}
+						this.keyId = stringValue(parser, value);
+						break;
+					default:
+						parser.skipChildren();
+						break;
+				}
+			}
+		} finally {
+			parser.close();
+		}
+	}
+
+	private void decodePayload(JsonParser parser) throws IOException, JwtValidationException {
+		try {
+			String fieldName;
+			while ((fieldName = parser.nextFieldName()) != null) {
+				JsonToken value = parser.nextToken();
+				switch (fieldName) {
+					case SUB:
+						this.subject = stringValue(parser, value);
+						break;
+					case SCOPE:
+						this.scope = stringListValue(parser, value);
+						break;
+					case EXP:
+						this.expirationTime = numericDateValue(parser, value, EXP);
+						break;
+					case IAT:
+						this.issuedAt = numericDateValue(parser, value, IAT);
+						break;
+					case NBF:
+						this.notBefore = numericDateValue(parser, value, NBF);
+						break;
+					case JTI:
+						this.jti = stringValue(parser, value);
+						break;
+					case ISS:
+						this.issuer = stringValue(parser, value);
+						break;
+					case AUD:
+						this.audience = stringListValue(parser, value);
+						break;
+					default:
+						// not needed, skip the value and everything nested in it
+						parser.skipChildren();
+						break;
+				}
+			}
+		} finally {
+			parser.close();
+		}
+	}
+
+	private static String stringValue(JsonParser parser, JsonToken value) throws IOException {
+		if (value == JsonToken.VALUE_STRING) {
+			return parser.getText();
+		}
+		parser.skipChildren();
+		return null;
+	}
+
+	private static long numericDateValue(JsonParser parser, JsonToken value, String name) throws IOException, JwtValidationException {
+		if (value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT) {
+			return parser.getLongValue();
+		}
+		if (value == JsonToken.VALUE_NULL) {
+			return MISSING;
+		}
+		throw new JwtValidationException(String.format("Access token claim is missing or not a number, Claim: %s.", name), false);
+	}
+
+	private static List<String> stringListValue(JsonParser parser, JsonToken value) throws IOException {
+		if (value == JsonToken.VALUE_STRING) {
+			return Collections.singletonList(parser.getText());
+		}
+
+		if (value == JsonToken.START_ARRAY) {
+			List<String> result = new ArrayList<>();
+			JsonToken element;
+			while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+				if (element == JsonToken.VALUE_STRING) {
+					result.add(parser.getText());
+				} else {
+					parser.skipChildren();
+				}
+			}
+			return result;
+		}
+
+		parser.skipChildren();
+		return Collections.emptyList();
+	}
+
+	//endregion
+}
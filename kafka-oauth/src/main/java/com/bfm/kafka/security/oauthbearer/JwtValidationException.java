@@ -0,0 +1,59 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+/**
+ * Thrown when an access token cannot be validated locally.
+ */
+public class JwtValidationException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	private final boolean fallbackAllowed;
+
+	/**
+	 * Instantiates a new JWT validation exception.
+	 *
+	 * @param message         the message
+	 * @param fallbackAllowed true if the token could not be checked, rather than being found invalid, so that the
+	 *                        OAuth server may still be asked about it
+	 */
+	public JwtValidationException(String message, boolean fallbackAllowed) {
+		super(message);
+		this.fallbackAllowed = fallbackAllowed;
+	}
+
+	/**
+	 * Instantiates a new JWT validation exception.
+	 *
+	 * @param message         the message
+	 * @param cause           the cause
+	 * @param fallbackAllowed true if the token could not be checked, rather than being found invalid
+	 */
+	public JwtValidationException(String message, Throwable cause, boolean fallbackAllowed) {
+		super(message, cause);
+		this.fallbackAllowed = fallbackAllowed;
+	}
+
+	/**
+	 * Is fallback allowed boolean.
+	 *
+	 * @return true if the token may still be validated by the OAuth server
+	 */
+	public boolean isFallbackAllowed() {
+		return this.fallbackAllowed;
+	}
+}
@@ -0,0 +1,218 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.utils.Time;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.PublicKey;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validates JWT access tokens without calling the OAuth server: the signature is verified against the keys of a
+ * {@link JwksKeyStore} and the exp, nbf, iat, iss and aud claims are checked.
+ */
+public class JwtValidator {
+
+	//region Constants
+
+	private static final String EXP = "exp";
+	private static final String IAT = "iat";
+
+	//endregion
+
+	//region Member Variables
+
+	private static final Logger log = LoggerFactory.getLogger(JwtValidator.class);
+	private final JwksKeyStore keyStore;
+	private final String expectedIssuer;
+	private final String expectedAudience;
+	private final long clockSkewSeconds;
+	private final Time time;
+
+	//endregion
+
+	//region Constructors
+
+	/**
+	 * Instantiates a new JWT validator.
+	 *
+	 * @param keyStore         the store of the signing keys
+	 * @param expectedIssuer   the issuer tokens must have, or null to accept any issuer
+	 * @param expectedAudience the audience tokens must have, or null to accept any audience
+	 * @param clockSkewSeconds the clock skew tolerated on the time based claims
+	 * @param time             the clock
+	 */
+	public JwtValidator(JwksKeyStore keyStore, String expectedIssuer, String expectedAudience, long clockSkewSeconds, Time time) {
+		this.keyStore = Objects.requireNonNull(keyStore);
+		this.expectedIssuer = expectedIssuer;
+		this.expectedAudience = expectedAudience;
+		this.clockSkewSeconds = clockSkewSeconds;
+		this.time = Objects.requireNonNull(time);
+	}
+
+	//endregion
+
+	//region Public Properties
+
+	public JwksKeyStore getKeyStore() {
+		return this.keyStore;
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Validates a JWT access token.
+	 *
+	 * @param accessToken the compact serialized JWT
+	 * @return the claims of the token
+	 * @throws JwtValidationException if the token is invalid or cannot be verified locally
+	 */
+	public JwtClaims validate(String accessToken) throws JwtValidationException {
+		Objects.requireNonNull(accessToken);
+
+		int headerEnd = accessToken.indexOf('.');
+		int payloadEnd = headerEnd < 0 ? -1 : accessToken.indexOf('.', headerEnd + 1);
+		if (headerEnd <= 0 || payloadEnd <= headerEnd + 1 || accessToken.indexOf('.', payloadEnd + 1) >= 0) {
+			throw new JwtValidationException("Access token is not a compact serialized JWT.", false);
+		}
+
+		JwtClaims claims = JwtClaims.decode(accessToken, headerEnd, payloadEnd);
+
+		// verify the signature
+		String algorithm = claims.getAlgorithm();
+		String kid = claims.getKeyId();
+		if (algorithm == null) {
+			throw new JwtValidationException("Access token header does not name its algorithm.", false);
+		}
+
+		// none and the symmetric HS algorithms are never accepted
+		SignatureVerifier verifier = SignatureVerifier.forAlgorithm(algorithm);
+		if (verifier == null) {
+			throw new JwtValidationException(String.format("Access token algorithm is not supported, Algorithm: %s.", algorithm), false);
+		}
+
+		JwksKeyStore.SigningKey signingKey;
+		try {
+			signingKey = this.keyStore.getSigningKey(kid);
+		} catch (IOException e) {
+			throw new JwtValidationException("Signing keys cannot be downloaded: " + e.getMessage(), e, true);
+		}
+		if (signingKey == null) {
+			throw new JwtValidationException(String.format("Signing key is not published, Kid: %s.", kid), true);
+		}
+
+		// the alg pin is read from the same JWK as the key, also for a token without a key id
+		PublicKey key = signingKey.getKey();
+		String keyAlgorithm = signingKey.getAlgorithm();
+		if (keyAlgorithm != null && !keyAlgorithm.equals(algorithm)) {
+			throw new JwtValidationException(String.format(
+					"Access token algorithm does not match its key, Algorithm: %s, Key Algorithm: %s.",
+					algorithm,
+					keyAlgorithm), false);
+		}
+
+		if (!verifier.supports(key)) {
+			throw new JwtValidationException(String.format("Signing key does not fit the algorithm, Algorithm: %s.", algorithm), false);
+		}
+
+		byte[] signingInput = accessToken.substring(0, payloadEnd).getBytes(StandardCharsets.US_ASCII);
+		byte[] signature = decodeBase64Url(accessToken, payloadEnd + 1, accessToken.length());
+		if (!verifier.verify(key, signingInput, signature)) {
+			throw new JwtValidationException("Access token signature is not valid.", false);
+		}
+
+		// check the claims
+		validateClaims(claims);
+
+		log.debug("Access token was validated locally, Kid: {}.", kid);
+		return claims;
+	}
+
+	//endregion
+
+	//region Protected Methods
+
+	/**
+	 * Checks the registered claims of a token whose signature is valid.
+	 *
+	 * @param claims the claims
+	 * @throws JwtValidationException if a claim is missing or not valid
+	 */
+	protected void validateClaims(JwtClaims claims) throws JwtValidationException {
+		long nowSeconds = TimeUnit.MILLISECONDS.toSeconds(this.time.milliseconds());
+
+		if (claims.getSubject() == null) {
+			throw new JwtValidationException("Access token has no subject.", false);
+		}
+
+		long exp = requireNumericDate(claims.getExpirationTime(), EXP);
+		if (nowSeconds - this.clockSkewSeconds >= exp) {
+			throw new JwtValidationException("Access token has expired.", false);
+		}
+
+		long iat = requireNumericDate(claims.getIssuedAt(), IAT);
+		if (iat > nowSeconds + this.clockSkewSeconds) {
+			throw new JwtValidationException("Access token was issued in the future.", false);
+		}
+
+		long nbf = claims.getNotBefore();
+		if (nbf != JwtClaims.MISSING && nbf > nowSeconds + this.clockSkewSeconds) {
+			throw new JwtValidationException("Access token is not valid yet.", false);
+		}
+
+		if (this.expectedIssuer != null && !this.expectedIssuer.equals(claims.getIssuer())) {
+			throw new JwtValidationException(String.format("Access token issuer is not accepted, Issuer: %s.", claims.getIssuer()), false);
+		}
+
+		if (this.expectedAudience != null) {
+			List<String> audience = claims.getAudience();
+			boolean accepted = audience.contains(this.expectedAudience);
+
+			if (!accepted) {
+				throw new JwtValidationException(String.format("Access token audience is not accepted, Audience: %s.", audience), false);
+			}
+		}
+	}
+
+	//endregion
+
+	//region Private Methods
+
+	private static byte[] decodeBase64Url(String value, int start, int end) throws JwtValidationException {
+		try {
+			return Base64Url.decode(value, start, end);
+		} catch (IllegalArgumentException e) {
+			throw new JwtValidationException("Access token is not base64url encoded.", e, false);
+		}
+	}
+
+	private static long requireNumericDate(long value, String name) throws JwtValidationException {
+		if (value == JwtClaims.MISSING) {
+			throw new JwtValidationException(String.format("Access token claim is missing or not a number, Claim: %s.", name), false);
+		}
+		return value;
+	}
+
+	//endregion
+}
@@ -0,0 +1,122 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends authorization audit records as JSON to a Kafka topic, keyed by principal. The producer is configured by the
+ * broker settings prefixed with {@code oauth.audit.kafka.producer.}, which must include the bootstrap servers and
+ * the credentials of a principal allowed to write to the topic.
+ */
+public class KafkaAuditSink implements AuditSink {
+
+	//region Constants
+
+	private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(5);
+
+	//endregion
+
+	//region Member Variables
+
+	private static final Logger log = LoggerFactory.getLogger(KafkaAuditSink.class);
+	private final String topic;
+	private final Producer<String, String> producer;
+	private final LongAdder sendFailures = new LongAdder();
+
+	//endregion
+
+	//region Constructors
+
+	/**
+	 * Instantiates a new Kafka audit sink.
+	 *
+	 * @param topic           the audit topic
+	 * @param producerConfigs the producer configuration
+	 */
+	public KafkaAuditSink(String topic, Map<String, Object> producerConfigs) {
+		this(topic, new KafkaProducer<>(withDefaults(producerConfigs), new StringSerializer(), new StringSerializer()));
+	}
+
+	/**
+	 * Instantiates a new Kafka audit sink with the given producer.
+	 *
+	 * @param topic    the audit topic
+	 * @param producer the producer
+	 */
+	protected KafkaAuditSink(String topic, Producer<String, String> producer) {
+		this.topic = Objects.requireNonNull(topic);
+		this.producer = Objects.requireNonNull(producer);
+	}
+
+	//endregion
+
+	//region Public Properties
+
+	public long getSendFailures() {
+		return this.sendFailures.sum();
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	@Override
+	public void write(List<AuditRecord> records) {
+		for (AuditRecord record : records) {
+			this.producer.send(new ProducerRecord<>(this.topic, record.getPrincipal(), record.toJson()), (metadata, e) -> {
+				if (e != null) {
+					this.sendFailures.increment();
+					log.debug("Error sending authorization audit record, Message: {}", e.getMessage());
+				}
+			});
+		}
+	}
+
+	@Override
+	public void close() {
+		this.producer.close(CLOSE_TIMEOUT);
+	}
+
+	//endregion
+
+	//region Private Methods
+
+	private static Map<String, Object> withDefaults(Map<String, Object> producerConfigs) {
+		Map<String, Object> configs = new HashMap<>();
+		// audit records are best effort, they must not hold memory or threads of the broker for long
+		configs.put("acks", "1");
+		configs.put("linger.ms", "100");
+		configs.put("max.block.ms", "1000");
+		configs.put("client.id", "oauth-authorization-audit");
+		configs.putAll(producerConfigs);
+		return configs;
+	}
+
+	//endregion
+}
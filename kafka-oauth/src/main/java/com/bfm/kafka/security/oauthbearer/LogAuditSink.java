@@ -0,0 +1,53 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Writes authorization audit records to the log, denials at info level and allowed operations at debug level.
+ * The records go to their own logger, so they can be routed to a separate appender.
+ */
+public class LogAuditSink implements AuditSink {
+
+	//region Member Variables
+
+	private static final Logger log = LoggerFactory.getLogger("com.bfm.kafka.security.oauthbearer.audit");
+
+	//endregion
+
+	//region Public Methods
+
+	@Override
+	public void write(List<AuditRecord> records) {
+		for (AuditRecord record : records) {
+			if (!record.isAllowed()) {
+				log.info("Not Authorized: {}", record);
+			} else if (log.isDebugEnabled()) {
+				log.debug("Successfully Authorized: {}", record);
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+	}
+
+	//endregion
+}
@@ -78,6 +78,15 @@ public abstract class OAuthAuthenticateCallbackHandler<T> implements Authenticat
 		return this.oauthService;
 	}
 
+	/**
+	 * Gets the JAAS options this handler was configured with.
+	 *
+	 * @return the module options, or null if the handler is not configured
+	 */
+	protected Map<String, String> getModuleOptions() {
+		return this.moduleOptions;
+	}
+
 	/**
 	 * Is configured boolean.
 	 *
@@ -207,10 +216,11 @@ public abstract class OAuthAuthenticateCallbackHandler<T> implements Authenticat
 
 	/**
 	 * Implementation of the interface.
-	 * This class does not have resource dependent attributes, therefore this method is empty.
+	 * Releases the background resources of the oauth service.
 	 */
 	@Override
 	public void close() {
+		this.oauthService.close();
 	}
 
 	//endregion
@@ -16,19 +16,30 @@ limitations under the License.
 package com.bfm.kafka.security.oauthbearer;
 
 import org.apache.kafka.common.security.oauthbearer.OAuthBearerTokenCallback;
+import org.apache.kafka.common.utils.Time;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.security.auth.login.AppConfigurationEntry;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
  * A Callback for use by the SaslClient and Login implementations when they require an OAuth 2 bearer token.
+ * <p>
+ * The handler keeps the current access token and refreshes it in the background, so callbacks are served from
+ * memory and only wait for the OAuth server when no unexpired token is held. Handlers of the same JVM with the same
+ * credentials share the token through the {@link AccessTokenManagerRegistry}, which requests it with an oauth service
+ * of its own rather than the one of this handler.
  */
 public class OAuthAuthenticateLoginCallbackHandler extends OAuthAuthenticateCallbackHandler<OAuthBearerTokenCallback> {
 	//region Member Variables
 
 	private final Logger log = LoggerFactory.getLogger(OAuthAuthenticateLoginCallbackHandler.class);
+	private AccessTokenManager tokenManager;
 
 	//endregion
 
@@ -43,8 +54,62 @@ public class OAuthAuthenticateLoginCallbackHandler extends OAuthAuthenticateCall
 
 	//endregion
 
+	//region Public Methods
+
+	/**
+	 * Configures this callback handler and releases the access token obtained with the previous configuration.
+	 *
+	 * @param configs           the Kafka configuration options
+	 * @param saslMechanism     the negotiated SASL mechanism
+	 * @param jaasConfigEntries the JAAS configuration entries from the JAAS login context
+	 */
+	@Override
+	public void configure(Map<String, ?> configs, String saslMechanism, List<AppConfigurationEntry> jaasConfigEntries) {
+		releaseTokenManager();
+		super.configure(configs, saslMechanism, jaasConfigEntries);
+	}
+
+	/**
+	 * Implementation of the interface.
+	 * Releases the shared access token and the resources of the oauth service.
+	 */
+	@Override
+	public void close() {
+		releaseTokenManager();
+		super.close();
+	}
+
+	//endregion
+
 	//region Protected Methods
 
+	/**
+	 * Gets the token manager shared with the other handlers of the same credentials, acquiring it on first use.
+	 *
+	 * @return the token manager
+	 */
+	protected synchronized AccessTokenManager getTokenManager() {
+		if (this.tokenManager == null) {
+			this.tokenManager = AccessTokenManagerRegistry.acquire(
+					this.getOauthService().getOAuthConfiguration(),
+					this::createOAuthService,
+					Time.SYSTEM);
+		}
+		return this.tokenManager;
+	}
+
+	/**
+	 * Creates the oauth service of a shared token manager, configured with the JAAS options of this handler.
+	 *
+	 * @return the oauth service
+	 */
+	protected OAuthService createOAuthService() {
+		Map<String, String> moduleOptions = this.getModuleOptions();
+		OAuthService oauthService = new OAuthServiceImpl();
+		oauthService.setOAuthConfiguration(moduleOptions == null ? Collections.emptyMap() : moduleOptions);
+		return oauthService;
+	}
+
 	/**
 	 * This method handles attempt to login by requesting an access token from the OAuth Server
 	 * @param oauthBearerTokenCallback the oauth bearer token callback
@@ -69,7 +134,7 @@ public class OAuthAuthenticateLoginCallbackHandler extends OAuthAuthenticateCall
 
 		// acquire access token
 		log.debug("Acquire access token for OAuth bearer token callback.");
-		OAuthBearerTokenJwt token = this.getOauthService().requestAccessToken();
+		OAuthBearerTokenJwt token = this.getTokenManager().getToken();
 
 		// check to see an access token was returned
 		log.debug("Check to see if an access token as returned.");
@@ -88,4 +153,20 @@ public class OAuthAuthenticateLoginCallbackHandler extends OAuthAuthenticateCall
 	}
 
 	//endregion
+
+	//region Private Methods
+
+	/**
+	 * Releases the shared token manager, if one was acquired.
+	 */
+	private synchronized void releaseTokenManager() {
+		if (this.tokenManager == null) {
+			return;
+		}
+
+		AccessTokenManagerRegistry.release(this.tokenManager);
+		this.tokenManager = null;
+	}
+
+	//endregion
 }
@@ -20,7 +20,11 @@ import org.apache.kafka.common.utils.Time;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.management.ObjectName;
+import javax.security.auth.login.AppConfigurationEntry;
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -31,7 +35,7 @@ public class OAuthAuthenticateValidatorCallbackHandler extends OAuthAuthenticate
 
 	private final Logger log = LoggerFactory.getLogger(OAuthAuthenticateValidatorCallbackHandler.class);
 	private Time time = Time.SYSTEM;
-
+	private ObjectName validationMetricsName;
 
 	//endregion
 
@@ -46,6 +50,38 @@ public class OAuthAuthenticateValidatorCallbackHandler extends OAuthAuthenticate
 
 	//endregion
 
+	//region Public Methods
+
+	/**
+	 * Configures the handler and registers the validation metrics of its OAuth service with JMX.
+	 *
+	 * @param configs           the Kafka configuration options
+	 * @param saslMechanism     the negotiated SASL mechanism
+	 * @param jaasConfigEntries the JAAS configuration entries
+	 */
+	@Override
+	public void configure(Map<String, ?> configs, String saslMechanism, List<AppConfigurationEntry> jaasConfigEntries) {
+		super.configure(configs, saslMechanism, jaasConfigEntries);
+
+		if (isConfigured() && this.validationMetricsName == null) {
+			this.validationMetricsName = Utils.registerMBean(
+					"ValidationMetrics",
+					this.getOauthService().getValidationMetrics());
+		}
+	}
+
+	/**
+	 * Unregisters the validation metrics from JMX.
+	 */
+	@Override
+	public void close() {
+		Utils.unregisterMBean(this.validationMetricsName);
+		this.validationMetricsName = null;
+		super.close();
+	}
+
+	//endregion
+
 	//region Protected Methods
 
 	/**
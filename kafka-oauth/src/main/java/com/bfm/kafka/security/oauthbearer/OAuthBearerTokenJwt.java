@@ -17,14 +17,19 @@ package com.bfm.kafka.security.oauthbearer;
 
 import org.apache.kafka.common.security.oauthbearer.OAuthBearerToken;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
 
 /**
  * The b64token value as defined in RFC 6750 Section 2.1 along with the token's specific scope and lifetime and
  * principal name.
+ *
+ * <p>The principal name and scopes are those of the {@link AuthorizationState} shared with the other tokens of the
+ * principal with the same scopes. The broker caches a validated token as a {@link CompactOAuthBearerTokenJwt}, which
+ * holds the digest of the access token, and restores the token from it when the access token is presented again.
  */
 public class OAuthBearerTokenJwt implements OAuthBearerToken {
 
@@ -40,13 +45,12 @@ public class OAuthBearerTokenJwt implements OAuthBearerToken {
 
     //region Member Variables
 
-    private String accessToken;
-    private long lifetimeMs;
-    private String principalName;
-    private Long startTimeMs;
-    private Set<String> scope;
-    private long expirationTime;
-    private String jti;
+    private final String accessToken;
+    private final long lifetimeMs;
+    private final long startTimeMs;
+    private final long expirationTime;
+    private final String jti;
+    private final AuthorizationState authorizationState;
 
     //endregion
 
@@ -64,10 +68,11 @@ public class OAuthBearerTokenJwt implements OAuthBearerToken {
         super();
 
         this.accessToken = accessToken;
-        this.principalName = principalName;
         this.lifetimeMs = startTimeMs + (lifeTimeMs * 1000);
         this.startTimeMs = startTimeMs;
         this.expirationTime = startTimeMs + (lifeTimeMs * 1000);
+        this.jti = null;
+        this.authorizationState = AuthorizationStatePool.intern(principalName, Collections.emptySet());
     }
 
     /**
@@ -79,36 +84,91 @@ public class OAuthBearerTokenJwt implements OAuthBearerToken {
     public OAuthBearerTokenJwt(Map<String, Object> jwtToken, String accessToken) {
         super();
         this.accessToken = accessToken;
-        this.principalName = (String) jwtToken.get(SUB);
-
-        if (this.scope == null) {
-            this.scope = new TreeSet<>();
-        }
 
+        List<String> scope = new ArrayList<>();
         if (jwtToken.get(SCOPE) instanceof String) {
-            this.scope.add((String) jwtToken.get(SCOPE));
+            scope.add((String) jwtToken.get(SCOPE));
         } else if (jwtToken.get(SCOPE) instanceof List) {
-            for (String s : (List<String>) jwtToken.get(SCOPE)) {
-                this.scope.add(s);
-            }
+            scope.addAll((List<String>) jwtToken.get(SCOPE));
         }
 
-        Object exp = jwtToken.get(EXP);
-        if (exp instanceof Integer) {
-            this.expirationTime = Integer.toUnsignedLong((Integer) jwtToken.get(EXP));
-        } else {
-            this.expirationTime = (Long) jwtToken.get(EXP);
-        }
+        this.expirationTime = toSeconds(jwtToken.get(EXP));
+        this.startTimeMs = toSeconds(jwtToken.get(IAT));
+        this.lifetimeMs = this.expirationTime * 1000;
+        this.jti = (String) jwtToken.get(JTI);
+        this.authorizationState = AuthorizationStatePool.intern((String) jwtToken.get(SUB), scope);
+    }
 
-        Object iat = jwtToken.get(IAT);
-        if (iat instanceof Integer) {
-            this.startTimeMs = Integer.toUnsignedLong((Integer) jwtToken.get(IAT));
-        } else {
-            this.startTimeMs = (Long) jwtToken.get(IAT);
-        }
+    /**
+     * Initializes a new instance of the OAuthBearerTokenJwt class based on the claims of a locally validated JWT
+     *
+     * @param claims      the claims of the JWT
+     * @param accessToken The b64token value as defined in RFC 6750 Section 2.1
+     */
+    public OAuthBearerTokenJwt(JwtClaims claims, String accessToken) {
+        super();
+        this.accessToken = accessToken;
+        this.expirationTime = claims.getExpirationTime();
+        this.startTimeMs = claims.getIssuedAt();
+        this.lifetimeMs = this.expirationTime * 1000;
+        this.jti = claims.getJti();
+        this.authorizationState = AuthorizationStatePool.intern(claims.getSubject(), claims.getScope());
+    }
 
-        this.lifetimeMs = expirationTime * 1000;
-        this.jti = (String) jwtToken.get(JTI);
+    /**
+     * Initializes a new instance of the OAuthBearerTokenJwt class based on an introspection response
+     *
+     * @param response    the introspection response of the OAuth server
+     * @param accessToken The b64token value as defined in RFC 6750 Section 2.1
+     */
+    public OAuthBearerTokenJwt(OAuthResponse response, String accessToken) {
+        super();
+        this.accessToken = accessToken;
+        this.expirationTime = response.getExpirationTime();
+        this.startTimeMs = response.getIssuedAt();
+        this.lifetimeMs = this.expirationTime * 1000;
+        this.jti = response.getJti();
+        this.authorizationState = AuthorizationStatePool.intern(response.getSubject(), response.getScope());
+    }
+
+    /**
+     * Initializes a new instance of the OAuthBearerTokenJwt class based on the verified claims of a JWT access token
+     * reconciled with the introspection response of the OAuth server for the same token: the token expires at the
+     * earlier of the two exp claims, and the scopes of the response, when it has any, replace those of the claims.
+     *
+     * @param claims      the verified claims of the access token
+     * @param response    the introspection response of the OAuth server
+     * @param accessToken The b64token value as defined in RFC 6750 Section 2.1
+     */
+    public OAuthBearerTokenJwt(JwtClaims claims, OAuthResponse response, String accessToken) {
+        super();
+        this.accessToken = accessToken;
+        this.expirationTime = response.getExpirationTime() < 0
+                ? claims.getExpirationTime()
+                : Math.min(claims.getExpirationTime(), response.getExpirationTime());
+        this.startTimeMs = claims.getIssuedAt();
+        this.lifetimeMs = this.expirationTime * 1000;
+        this.jti = claims.getJti();
+        this.authorizationState = AuthorizationStatePool.intern(
+                claims.getSubject(),
+                response.getScope().isEmpty() ? claims.getScope() : response.getScope());
+    }
+
+    /**
+     * Initializes a new instance of the OAuthBearerTokenJwt class with the claims and authorization state of a cached
+     * token.
+     *
+     * @param token       the cached token
+     * @param accessToken The b64token value as defined in RFC 6750 Section 2.1
+     */
+    OAuthBearerTokenJwt(CompactOAuthBearerTokenJwt token, String accessToken) {
+        super();
+        this.accessToken = accessToken;
+        this.lifetimeMs = token.lifetimeMs();
+        this.startTimeMs = token.startTimeMs();
+        this.expirationTime = token.expirationTime();
+        this.jti = token.getJti();
+        this.authorizationState = token.getAuthorizationState();
     }
 
     //endregion
@@ -122,7 +182,7 @@ public class OAuthBearerTokenJwt implements OAuthBearerToken {
 
     @Override
     public Set<String> scope() {
-        return this.scope;
+        return this.authorizationState.getScopes();
     }
 
     @Override
@@ -132,34 +192,106 @@ public class OAuthBearerTokenJwt implements OAuthBearerToken {
 
     @Override
     public String principalName() {
-        return this.principalName;
+        return this.authorizationState.getPrincipalName();
     }
 
     @Override
     public Long startTimeMs() {
-        return this.startTimeMs != null ? this.startTimeMs : 0;
+        return this.startTimeMs;
     }
 
     public long expirationTime() {
         return this.expirationTime;
     }
 
+    public String getJti() {
+        return this.jti;
+    }
+
+    /**
+     * Gets the digest of the access token.
+     *
+     * @return the base64url encoded SHA-256 digest of the access token
+     */
+    public String getTokenDigest() {
+        return Utils.digestToken(this.accessToken);
+    }
+
+    /**
+     * Gets the authorization state the token shares with the other tokens of its principal with the same scopes.
+     *
+     * @return the authorization state
+     */
+    public AuthorizationState getAuthorizationState() {
+        return this.authorizationState;
+    }
+
+    /**
+     * Gets the scopes of the token compiled for the authorizer. The broker builds a new principal for every request
+     * of a connection, so the compiled scopes are kept with the shared authorization state of the token.
+     *
+     * @return the scope index
+     */
+    public ScopeIndex getScopeIndex() {
+        return getAuthorizationState().getScopeIndex();
+    }
+
+    /**
+     * Gets the scopes of the token compiled for the authorizer with their role scopes expanded. The index is kept
+     * with the shared authorization state of the token until the policy changes.
+     *
+     * @param policy the role policy
+     * @return the scope index
+     */
+    public ScopeIndex getScopeIndex(RolePolicy policy) {
+        return getAuthorizationState().getScopeIndex(policy);
+    }
+
+    /**
+     * Gets the cache of the authorization decisions made for the token, creating it on first use. The cache is
+     * shared with the tokens of the same authorization state and expires with the last of them.
+     *
+     * @param maxEntries the maximum number of cached decisions of a new cache
+     * @return the decision cache
+     */
+    public DecisionCache getDecisionCache(int maxEntries) {
+        return getAuthorizationState().getDecisionCache(maxEntries, this.lifetimeMs);
+    }
+
     //endregion
 
     //region Public Methods
 
     @Override
     public String toString() {
+        // never print the access token itself, it is a credential
         return "OauthBearerTokenJwt {" +
-                "value='" + accessToken + '\'' +
+                "tokenDigest='" + getTokenDigest() + '\'' +
                 ", lifetimeMs=" + lifetimeMs +
-                ", principalName='" + principalName + '\'' +
+                ", principalName='" + principalName() + '\'' +
                 ", startTimeMs=" + startTimeMs +
-                ", scope=" + scope +
+                ", scope=" + scope() +
                 ", expirationTime=" + expirationTime +
                 ", jti='" + jti + '\'' +
                 '}';
     }
 
     //endregion
-}
\ No newline at end of file
+
+    //region Private Methods
+
+    /**
+     * Converts a NumericDate claim, which the JSON parser may have read as an int, to seconds since the epoch.
+     *
+     * @param value the claim value
+     * @return the seconds since the epoch
+     */
+    private static long toSeconds(Object value) {
+        if (value instanceof Integer) {
+            return Integer.toUnsignedLong((Integer) value);
+        }
+        return ((Number) value).longValue();
+    }
+
+    //endregion
+}
@@ -22,6 +22,7 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.KeyStore;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
@@ -42,6 +43,42 @@ public class OAuthConfiguration {
     private static final String KAFKA_OAUTH_SERVER_GRANT_TYPE_ENV_VAR = "KAFKA_OAUTH_SERVER_GRANT_TYPE";
     private static final String KAFKA_OAUTH_SERVER_SCOPES_ENV_VAR = "KAFKA_OAUTH_SERVER_SCOPES";
     private static final String KAFKA_OAUTH_SERVER_ACCEPT_UNSECURE_SERVER_ENV_VAR = "KAFKA_OAUTH_SERVER_ACCEPT_UNSECURE_SERVER";
+    private static final String KAFKA_OAUTH_SERVER_VALIDATION_CACHE_MAX_ENTRIES_ENV_VAR = "KAFKA_OAUTH_SERVER_VALIDATION_CACHE_MAX_ENTRIES";
+    private static final String KAFKA_OAUTH_SERVER_VALIDATION_CACHE_TTL_MS_ENV_VAR = "KAFKA_OAUTH_SERVER_VALIDATION_CACHE_TTL_MS";
+    private static final String KAFKA_OAUTH_SERVER_NEGATIVE_CACHE_MAX_ENTRIES_ENV_VAR = "KAFKA_OAUTH_SERVER_NEGATIVE_CACHE_MAX_ENTRIES";
+    private static final String KAFKA_OAUTH_SERVER_NEGATIVE_CACHE_TTL_MS_ENV_VAR = "KAFKA_OAUTH_SERVER_NEGATIVE_CACHE_TTL_MS";
+    private static final String KAFKA_OAUTH_SERVER_MAX_TOKEN_LENGTH_ENV_VAR = "KAFKA_OAUTH_SERVER_MAX_TOKEN_LENGTH";
+    private static final String KAFKA_OAUTH_SERVER_REQUIRE_JWT_STRUCTURE_ENV_VAR = "KAFKA_OAUTH_SERVER_REQUIRE_JWT_STRUCTURE";
+    private static final String KAFKA_OAUTH_SERVER_HTTP_TRANSPORT_ENV_VAR = "KAFKA_OAUTH_SERVER_HTTP_TRANSPORT";
+    private static final String KAFKA_OAUTH_SERVER_HTTP_MAX_IDLE_CONNECTIONS_PER_HOST_ENV_VAR = "KAFKA_OAUTH_SERVER_HTTP_MAX_IDLE_CONNECTIONS_PER_HOST";
+    private static final String KAFKA_OAUTH_SERVER_HTTP_KEEP_ALIVE_MS_ENV_VAR = "KAFKA_OAUTH_SERVER_HTTP_KEEP_ALIVE_MS";
+    private static final String KAFKA_OAUTH_SERVER_HTTP_CONNECT_TIMEOUT_MS_ENV_VAR = "KAFKA_OAUTH_SERVER_HTTP_CONNECT_TIMEOUT_MS";
+    private static final String KAFKA_OAUTH_SERVER_HTTP_READ_TIMEOUT_MS_ENV_VAR = "KAFKA_OAUTH_SERVER_HTTP_READ_TIMEOUT_MS";
+    private static final String KAFKA_OAUTH_SERVER_SSL_PROTOCOL_ENV_VAR = "KAFKA_OAUTH_SERVER_SSL_PROTOCOL";
+    private static final String KAFKA_OAUTH_SERVER_SSL_TRUSTSTORE_LOCATION_ENV_VAR = "KAFKA_OAUTH_SERVER_SSL_TRUSTSTORE_LOCATION";
+    private static final String KAFKA_OAUTH_SERVER_SSL_TRUSTSTORE_PASSWORD_ENV_VAR = "KAFKA_OAUTH_SERVER_SSL_TRUSTSTORE_PASSWORD";
+    private static final String KAFKA_OAUTH_SERVER_SSL_TRUSTSTORE_TYPE_ENV_VAR = "KAFKA_OAUTH_SERVER_SSL_TRUSTSTORE_TYPE";
+    private static final String KAFKA_OAUTH_SERVER_SSL_KEYSTORE_LOCATION_ENV_VAR = "KAFKA_OAUTH_SERVER_SSL_KEYSTORE_LOCATION";
+    private static final String KAFKA_OAUTH_SERVER_SSL_KEYSTORE_PASSWORD_ENV_VAR = "KAFKA_OAUTH_SERVER_SSL_KEYSTORE_PASSWORD";
+    private static final String KAFKA_OAUTH_SERVER_SSL_KEYSTORE_TYPE_ENV_VAR = "KAFKA_OAUTH_SERVER_SSL_KEYSTORE_TYPE";
+    private static final String KAFKA_OAUTH_SERVER_SSL_KEY_PASSWORD_ENV_VAR = "KAFKA_OAUTH_SERVER_SSL_KEY_PASSWORD";
+    private static final String KAFKA_OAUTH_SERVER_VALIDATION_MODE_ENV_VAR = "KAFKA_OAUTH_SERVER_VALIDATION_MODE";
+    private static final String KAFKA_OAUTH_SERVER_INTROSPECTION_FALLBACK_ENV_VAR = "KAFKA_OAUTH_SERVER_INTROSPECTION_FALLBACK";
+    private static final String KAFKA_OAUTH_SERVER_JWKS_ENDPOINT_PATH_ENV_VAR = "KAFKA_OAUTH_SERVER_JWKS_ENDPOINT_PATH";
+    private static final String KAFKA_OAUTH_SERVER_EXPECTED_ISSUER_ENV_VAR = "KAFKA_OAUTH_SERVER_EXPECTED_ISSUER";
+    private static final String KAFKA_OAUTH_SERVER_EXPECTED_AUDIENCE_ENV_VAR = "KAFKA_OAUTH_SERVER_EXPECTED_AUDIENCE";
+    private static final String KAFKA_OAUTH_SERVER_CLOCK_SKEW_SECONDS_ENV_VAR = "KAFKA_OAUTH_SERVER_CLOCK_SKEW_SECONDS";
+    private static final String KAFKA_OAUTH_SERVER_JWKS_REFRESH_INTERVAL_MS_ENV_VAR = "KAFKA_OAUTH_SERVER_JWKS_REFRESH_INTERVAL_MS";
+    private static final String KAFKA_OAUTH_SERVER_JWKS_REFRESH_JITTER_MS_ENV_VAR = "KAFKA_OAUTH_SERVER_JWKS_REFRESH_JITTER_MS";
+    private static final String KAFKA_OAUTH_SERVER_JWKS_MIN_REFETCH_INTERVAL_MS_ENV_VAR = "KAFKA_OAUTH_SERVER_JWKS_MIN_REFETCH_INTERVAL_MS";
+    private static final String KAFKA_OAUTH_SERVER_TOKEN_REFRESH_FRACTION_ENV_VAR = "KAFKA_OAUTH_SERVER_TOKEN_REFRESH_FRACTION";
+    private static final String KAFKA_OAUTH_SERVER_TOKEN_REFRESH_JITTER_MS_ENV_VAR = "KAFKA_OAUTH_SERVER_TOKEN_REFRESH_JITTER_MS";
+    private static final String KAFKA_OAUTH_SERVER_TOKEN_REFRESH_RETRY_BACKOFF_MS_ENV_VAR = "KAFKA_OAUTH_SERVER_TOKEN_REFRESH_RETRY_BACKOFF_MS";
+    private static final String KAFKA_OAUTH_SERVER_HYBRID_INTROSPECT_FIRST_SIGHT_ENV_VAR = "KAFKA_OAUTH_SERVER_HYBRID_INTROSPECT_FIRST_SIGHT";
+    private static final String KAFKA_OAUTH_SERVER_HYBRID_INTROSPECT_SAMPLE_RATE_ENV_VAR = "KAFKA_OAUTH_SERVER_HYBRID_INTROSPECT_SAMPLE_RATE";
+    private static final String KAFKA_OAUTH_SERVER_HYBRID_INTROSPECT_TOKEN_AGE_MS_ENV_VAR = "KAFKA_OAUTH_SERVER_HYBRID_INTROSPECT_TOKEN_AGE_MS";
+    private static final String KAFKA_OAUTH_SERVER_HYBRID_SEEN_JTI_MAX_ENTRIES_ENV_VAR = "KAFKA_OAUTH_SERVER_HYBRID_SEEN_JTI_MAX_ENTRIES";
+    private static final String KAFKA_OAUTH_SERVER_HYBRID_FAIL_OPEN_ENV_VAR = "KAFKA_OAUTH_SERVER_HYBRID_FAIL_OPEN";
 
     private static final String KAFKA_OAUTH_SERVER_BASE_URI = "oauth.server.base.uri";
     private static final String KAFKA_OAUTH_SERVER_TOKEN_ENDPOINT_PATH = "oauth.server.token.endpoint.path";
@@ -51,6 +88,64 @@ public class OAuthConfiguration {
     private static final String KAFKA_OAUTH_SERVER_GRANT_TYPE = "oauth.server.grant.type";
     private static final String KAFKA_OAUTH_SERVER_SCOPES = "oauth.server.scopes";
     private static final String KAFKA_OAUTH_SERVER_ACCEPT_UNSECURE_SERVER = "oauth.server.accept.unsecure.server";
+    private static final String KAFKA_OAUTH_SERVER_VALIDATION_CACHE_MAX_ENTRIES = "oauth.server.validation.cache.max.entries";
+    private static final String KAFKA_OAUTH_SERVER_VALIDATION_CACHE_TTL_MS = "oauth.server.validation.cache.ttl.ms";
+    private static final String KAFKA_OAUTH_SERVER_NEGATIVE_CACHE_MAX_ENTRIES = "oauth.server.negative.cache.max.entries";
+    private static final String KAFKA_OAUTH_SERVER_NEGATIVE_CACHE_TTL_MS = "oauth.server.negative.cache.ttl.ms";
+    private static final String KAFKA_OAUTH_SERVER_MAX_TOKEN_LENGTH = "oauth.server.max.token.length";
+    private static final String KAFKA_OAUTH_SERVER_REQUIRE_JWT_STRUCTURE = "oauth.server.require.jwt.structure";
+    private static final String KAFKA_OAUTH_SERVER_HTTP_TRANSPORT = "oauth.server.http.transport";
+    private static final String KAFKA_OAUTH_SERVER_HTTP_MAX_IDLE_CONNECTIONS_PER_HOST = "oauth.server.http.max.idle.connections.per.host";
+    private static final String KAFKA_OAUTH_SERVER_HTTP_KEEP_ALIVE_MS = "oauth.server.http.keep.alive.ms";
+    private static final String KAFKA_OAUTH_SERVER_HTTP_CONNECT_TIMEOUT_MS = "oauth.server.http.connect.timeout.ms";
+    private static final String KAFKA_OAUTH_SERVER_HTTP_READ_TIMEOUT_MS = "oauth.server.http.read.timeout.ms";
+    private static final String KAFKA_OAUTH_SERVER_SSL_PROTOCOL = "oauth.server.ssl.protocol";
+    private static final String KAFKA_OAUTH_SERVER_SSL_TRUSTSTORE_LOCATION = "oauth.server.ssl.truststore.location";
+    private static final String KAFKA_OAUTH_SERVER_SSL_TRUSTSTORE_PASSWORD = "oauth.server.ssl.truststore.password";
+    private static final String KAFKA_OAUTH_SERVER_SSL_TRUSTSTORE_TYPE = "oauth.server.ssl.truststore.type";
+    private static final String KAFKA_OAUTH_SERVER_SSL_KEYSTORE_LOCATION = "oauth.server.ssl.keystore.location";
+    private static final String KAFKA_OAUTH_SERVER_SSL_KEYSTORE_PASSWORD = "oauth.server.ssl.keystore.password";
+    private static final String KAFKA_OAUTH_SERVER_SSL_KEYSTORE_TYPE = "oauth.server.ssl.keystore.type";
+    private static final String KAFKA_OAUTH_SERVER_SSL_KEY_PASSWORD = "oauth.server.ssl.key.password";
+    private static final String KAFKA_OAUTH_SERVER_VALIDATION_MODE = "oauth.server.validation.mode";
+    private static final String KAFKA_OAUTH_SERVER_INTROSPECTION_FALLBACK = "oauth.server.introspection.fallback";
+    private static final String KAFKA_OAUTH_SERVER_JWKS_ENDPOINT_PATH = "oauth.server.jwks.endpoint.path";
+    private static final String KAFKA_OAUTH_SERVER_EXPECTED_ISSUER = "oauth.server.expected.issuer";
+    private static final String KAFKA_OAUTH_SERVER_EXPECTED_AUDIENCE = "oauth.server.expected.audience";
+    private static final String KAFKA_OAUTH_SERVER_CLOCK_SKEW_SECONDS = "oauth.server.clock.skew.seconds";
+    private static final String KAFKA_OAUTH_SERVER_JWKS_REFRESH_INTERVAL_MS = "oauth.server.jwks.refresh.interval.ms";
+    private static final String KAFKA_OAUTH_SERVER_JWKS_REFRESH_JITTER_MS = "oauth.server.jwks.refresh.jitter.ms";
+    private static final String KAFKA_OAUTH_SERVER_JWKS_MIN_REFETCH_INTERVAL_MS = "oauth.server.jwks.min.refetch.interval.ms";
+    private static final String KAFKA_OAUTH_SERVER_TOKEN_REFRESH_FRACTION = "oauth.server.token.refresh.fraction";
+    private static final String KAFKA_OAUTH_SERVER_TOKEN_REFRESH_JITTER_MS = "oauth.server.token.refresh.jitter.ms";
+    private static final String KAFKA_OAUTH_SERVER_TOKEN_REFRESH_RETRY_BACKOFF_MS = "oauth.server.token.refresh.retry.backoff.ms";
+    private static final String KAFKA_OAUTH_SERVER_HYBRID_INTROSPECT_FIRST_SIGHT = "oauth.server.hybrid.introspect.first.sight";
+    private static final String KAFKA_OAUTH_SERVER_HYBRID_INTROSPECT_SAMPLE_RATE = "oauth.server.hybrid.introspect.sample.rate";
+    private static final String KAFKA_OAUTH_SERVER_HYBRID_INTROSPECT_TOKEN_AGE_MS = "oauth.server.hybrid.introspect.token.age.ms";
+    private static final String KAFKA_OAUTH_SERVER_HYBRID_SEEN_JTI_MAX_ENTRIES = "oauth.server.hybrid.seen.jti.max.entries";
+    private static final String KAFKA_OAUTH_SERVER_HYBRID_FAIL_OPEN = "oauth.server.hybrid.fail.open";
+
+    private static final int DEFAULT_VALIDATION_CACHE_MAX_ENTRIES = 10000;
+    private static final long DEFAULT_VALIDATION_CACHE_TTL_MS = 5 * 60 * 1000L;
+    private static final int DEFAULT_NEGATIVE_CACHE_MAX_ENTRIES = 10000;
+    private static final long DEFAULT_NEGATIVE_CACHE_TTL_MS = 10 * 1000L;
+    private static final int DEFAULT_MAX_TOKEN_LENGTH = 8192;
+    private static final int DEFAULT_HTTP_MAX_IDLE_CONNECTIONS_PER_HOST = 8;
+    private static final long DEFAULT_HTTP_KEEP_ALIVE_MS = 30 * 1000L;
+    private static final int DEFAULT_HTTP_CONNECT_TIMEOUT_MS = 10000;
+    private static final int DEFAULT_HTTP_READ_TIMEOUT_MS = 10000;
+    private static final String DEFAULT_SSL_PROTOCOL = "TLS";
+    private static final String DEFAULT_JWKS_ENDPOINT_PATH = "/certs";
+    private static final long DEFAULT_CLOCK_SKEW_SECONDS = 30L;
+    private static final long DEFAULT_JWKS_REFRESH_INTERVAL_MS = 5 * 60 * 1000L;
+    private static final long DEFAULT_JWKS_REFRESH_JITTER_MS = 30 * 1000L;
+    private static final long DEFAULT_JWKS_MIN_REFETCH_INTERVAL_MS = 10 * 1000L;
+    private static final double DEFAULT_TOKEN_REFRESH_FRACTION = 0.7;
+    private static final long DEFAULT_TOKEN_REFRESH_JITTER_MS = 10 * 1000L;
+    private static final long DEFAULT_TOKEN_REFRESH_RETRY_BACKOFF_MS = 10 * 1000L;
+    private static final double DEFAULT_HYBRID_INTROSPECT_SAMPLE_RATE = 0.0;
+    private static final long DEFAULT_HYBRID_INTROSPECT_TOKEN_AGE_MS = 0L;
+    private static final int DEFAULT_HYBRID_SEEN_JTI_MAX_ENTRIES = 100000;
 
     //endregion
 
@@ -64,6 +159,42 @@ public class OAuthConfiguration {
     private String grantType;
     private String scopes;
     private Boolean unsecureServer;
+    private int validationCacheMaxEntries;
+    private long validationCacheTtlMs;
+    private int negativeCacheMaxEntries;
+    private long negativeCacheTtlMs;
+    private int maxTokenLength;
+    private boolean requireJwtStructure;
+    private String sslProtocol;
+    private String sslTruststoreLocation;
+    private String sslTruststorePassword;
+    private String sslTruststoreType;
+    private String sslKeystoreLocation;
+    private String sslKeystorePassword;
+    private String sslKeystoreType;
+    private String sslKeyPassword;
+    private HttpTransportType httpTransport;
+    private int httpMaxIdleConnectionsPerHost;
+    private long httpKeepAliveMs;
+    private int httpConnectTimeoutMs;
+    private int httpReadTimeoutMs;
+    private ValidationMode validationMode;
+    private boolean introspectionFallback;
+    private String jwksEndpointPath;
+    private String expectedIssuer;
+    private String expectedAudience;
+    private long clockSkewSeconds;
+    private long jwksRefreshIntervalMs;
+    private long jwksRefreshJitterMs;
+    private long jwksMinRefetchIntervalMs;
+    private double tokenRefreshFraction;
+    private long tokenRefreshJitterMs;
+    private long tokenRefreshRetryBackoffMs;
+    private boolean hybridIntrospectFirstSight;
+    private double hybridIntrospectSampleRate;
+    private long hybridIntrospectTokenAgeMs;
+    private int hybridSeenJtiMaxEntries;
+    private boolean hybridFailOpen;
 
     //endregion
 
@@ -171,6 +302,233 @@ public class OAuthConfiguration {
                 KAFKA_OAUTH_SERVER_ACCEPT_UNSECURE_SERVER_ENV_VAR,
                 defaultUnsecureServer);
 
+            // get the validation cache settings
+            log.debug("Configure the access token validation cache.");
+            this.validationCacheMaxEntries = this.getIntegerSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_VALIDATION_CACHE_MAX_ENTRIES,
+                KAFKA_OAUTH_SERVER_VALIDATION_CACHE_MAX_ENTRIES_ENV_VAR,
+                DEFAULT_VALIDATION_CACHE_MAX_ENTRIES);
+
+            this.validationCacheTtlMs = this.getLongSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_VALIDATION_CACHE_TTL_MS,
+                KAFKA_OAUTH_SERVER_VALIDATION_CACHE_TTL_MS_ENV_VAR,
+                DEFAULT_VALIDATION_CACHE_TTL_MS);
+
+            this.negativeCacheMaxEntries = this.getIntegerSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_NEGATIVE_CACHE_MAX_ENTRIES,
+                KAFKA_OAUTH_SERVER_NEGATIVE_CACHE_MAX_ENTRIES_ENV_VAR,
+                DEFAULT_NEGATIVE_CACHE_MAX_ENTRIES);
+
+            this.negativeCacheTtlMs = this.getLongSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_NEGATIVE_CACHE_TTL_MS,
+                KAFKA_OAUTH_SERVER_NEGATIVE_CACHE_TTL_MS_ENV_VAR,
+                DEFAULT_NEGATIVE_CACHE_TTL_MS);
+
+            // get the structural checks done before an access token is validated
+            this.maxTokenLength = this.getIntegerSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_MAX_TOKEN_LENGTH,
+                KAFKA_OAUTH_SERVER_MAX_TOKEN_LENGTH_ENV_VAR,
+                DEFAULT_MAX_TOKEN_LENGTH);
+
+            this.requireJwtStructure = this.getBooleanSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_REQUIRE_JWT_STRUCTURE,
+                KAFKA_OAUTH_SERVER_REQUIRE_JWT_STRUCTURE_ENV_VAR,
+                true);
+
+            // get the TLS settings of the connections to the OAuth server
+            log.debug("Configure the TLS context.");
+            this.sslProtocol = this.getStringSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_SSL_PROTOCOL,
+                KAFKA_OAUTH_SERVER_SSL_PROTOCOL_ENV_VAR,
+                DEFAULT_SSL_PROTOCOL);
+
+            this.sslTruststoreLocation = this.getStringSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_SSL_TRUSTSTORE_LOCATION,
+                KAFKA_OAUTH_SERVER_SSL_TRUSTSTORE_LOCATION_ENV_VAR,
+                null);
+
+            this.sslTruststorePassword = this.getStringSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_SSL_TRUSTSTORE_PASSWORD,
+                KAFKA_OAUTH_SERVER_SSL_TRUSTSTORE_PASSWORD_ENV_VAR,
+                null);
+
+            this.sslTruststoreType = this.getStringSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_SSL_TRUSTSTORE_TYPE,
+                KAFKA_OAUTH_SERVER_SSL_TRUSTSTORE_TYPE_ENV_VAR,
+                KeyStore.getDefaultType());
+
+            this.sslKeystoreLocation = this.getStringSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_SSL_KEYSTORE_LOCATION,
+                KAFKA_OAUTH_SERVER_SSL_KEYSTORE_LOCATION_ENV_VAR,
+                null);
+
+            this.sslKeystorePassword = this.getStringSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_SSL_KEYSTORE_PASSWORD,
+                KAFKA_OAUTH_SERVER_SSL_KEYSTORE_PASSWORD_ENV_VAR,
+                null);
+
+            this.sslKeystoreType = this.getStringSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_SSL_KEYSTORE_TYPE,
+                KAFKA_OAUTH_SERVER_SSL_KEYSTORE_TYPE_ENV_VAR,
+                KeyStore.getDefaultType());
+
+            this.sslKeyPassword = this.getStringSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_SSL_KEY_PASSWORD,
+                KAFKA_OAUTH_SERVER_SSL_KEY_PASSWORD_ENV_VAR,
+                null);
+
+            // get the HTTP transport settings
+            log.debug("Configure the HTTP transport.");
+            this.httpTransport = HttpTransportType.fromString(this.getStringSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_HTTP_TRANSPORT,
+                KAFKA_OAUTH_SERVER_HTTP_TRANSPORT_ENV_VAR,
+                HttpTransportType.POOLED.name()));
+
+            this.httpMaxIdleConnectionsPerHost = this.getIntegerSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_HTTP_MAX_IDLE_CONNECTIONS_PER_HOST,
+                KAFKA_OAUTH_SERVER_HTTP_MAX_IDLE_CONNECTIONS_PER_HOST_ENV_VAR,
+                DEFAULT_HTTP_MAX_IDLE_CONNECTIONS_PER_HOST);
+
+            this.httpKeepAliveMs = this.getLongSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_HTTP_KEEP_ALIVE_MS,
+                KAFKA_OAUTH_SERVER_HTTP_KEEP_ALIVE_MS_ENV_VAR,
+                DEFAULT_HTTP_KEEP_ALIVE_MS);
+
+            this.httpConnectTimeoutMs = this.getIntegerSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_HTTP_CONNECT_TIMEOUT_MS,
+                KAFKA_OAUTH_SERVER_HTTP_CONNECT_TIMEOUT_MS_ENV_VAR,
+                DEFAULT_HTTP_CONNECT_TIMEOUT_MS);
+
+            this.httpReadTimeoutMs = this.getIntegerSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_HTTP_READ_TIMEOUT_MS,
+                KAFKA_OAUTH_SERVER_HTTP_READ_TIMEOUT_MS_ENV_VAR,
+                DEFAULT_HTTP_READ_TIMEOUT_MS);
+
+            // get the local validation settings
+            log.debug("Configure the access token validation mode.");
+            this.validationMode = ValidationMode.fromString(this.getStringSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_VALIDATION_MODE,
+                KAFKA_OAUTH_SERVER_VALIDATION_MODE_ENV_VAR,
+                ValidationMode.INTROSPECTION.name()));
+
+            this.introspectionFallback = this.getBooleanSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_INTROSPECTION_FALLBACK,
+                KAFKA_OAUTH_SERVER_INTROSPECTION_FALLBACK_ENV_VAR,
+                true);
+
+            this.jwksEndpointPath = this.getStringSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_JWKS_ENDPOINT_PATH,
+                KAFKA_OAUTH_SERVER_JWKS_ENDPOINT_PATH_ENV_VAR,
+                DEFAULT_JWKS_ENDPOINT_PATH);
+
+            this.expectedIssuer = this.getStringSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_EXPECTED_ISSUER,
+                KAFKA_OAUTH_SERVER_EXPECTED_ISSUER_ENV_VAR,
+                null);
+
+            this.expectedAudience = this.getStringSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_EXPECTED_AUDIENCE,
+                KAFKA_OAUTH_SERVER_EXPECTED_AUDIENCE_ENV_VAR,
+                null);
+
+            this.clockSkewSeconds = this.getLongSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_CLOCK_SKEW_SECONDS,
+                KAFKA_OAUTH_SERVER_CLOCK_SKEW_SECONDS_ENV_VAR,
+                DEFAULT_CLOCK_SKEW_SECONDS);
+
+            this.jwksRefreshIntervalMs = this.getLongSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_JWKS_REFRESH_INTERVAL_MS,
+                KAFKA_OAUTH_SERVER_JWKS_REFRESH_INTERVAL_MS_ENV_VAR,
+                DEFAULT_JWKS_REFRESH_INTERVAL_MS);
+
+            this.jwksRefreshJitterMs = this.getLongSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_JWKS_REFRESH_JITTER_MS,
+                KAFKA_OAUTH_SERVER_JWKS_REFRESH_JITTER_MS_ENV_VAR,
+                DEFAULT_JWKS_REFRESH_JITTER_MS);
+
+            this.jwksMinRefetchIntervalMs = this.getLongSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_JWKS_MIN_REFETCH_INTERVAL_MS,
+                KAFKA_OAUTH_SERVER_JWKS_MIN_REFETCH_INTERVAL_MS_ENV_VAR,
+                DEFAULT_JWKS_MIN_REFETCH_INTERVAL_MS);
+
+            this.tokenRefreshFraction = this.getDoubleSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_TOKEN_REFRESH_FRACTION,
+                KAFKA_OAUTH_SERVER_TOKEN_REFRESH_FRACTION_ENV_VAR,
+                DEFAULT_TOKEN_REFRESH_FRACTION);
+
+            this.tokenRefreshJitterMs = this.getLongSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_TOKEN_REFRESH_JITTER_MS,
+                KAFKA_OAUTH_SERVER_TOKEN_REFRESH_JITTER_MS_ENV_VAR,
+                DEFAULT_TOKEN_REFRESH_JITTER_MS);
+
+            this.tokenRefreshRetryBackoffMs = this.getLongSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_TOKEN_REFRESH_RETRY_BACKOFF_MS,
+                KAFKA_OAUTH_SERVER_TOKEN_REFRESH_RETRY_BACKOFF_MS_ENV_VAR,
+                DEFAULT_TOKEN_REFRESH_RETRY_BACKOFF_MS);
+
+            // get the hybrid validation settings
+            log.debug("Configure when hybrid validation introspects a locally valid access token.");
+            this.hybridIntrospectFirstSight = this.getBooleanSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_HYBRID_INTROSPECT_FIRST_SIGHT,
+                KAFKA_OAUTH_SERVER_HYBRID_INTROSPECT_FIRST_SIGHT_ENV_VAR,
+                true);
+
+            this.hybridIntrospectSampleRate = this.getDoubleSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_HYBRID_INTROSPECT_SAMPLE_RATE,
+                KAFKA_OAUTH_SERVER_HYBRID_INTROSPECT_SAMPLE_RATE_ENV_VAR,
+                DEFAULT_HYBRID_INTROSPECT_SAMPLE_RATE);
+
+            this.hybridIntrospectTokenAgeMs = this.getLongSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_HYBRID_INTROSPECT_TOKEN_AGE_MS,
+                KAFKA_OAUTH_SERVER_HYBRID_INTROSPECT_TOKEN_AGE_MS_ENV_VAR,
+                DEFAULT_HYBRID_INTROSPECT_TOKEN_AGE_MS);
+
+            this.hybridSeenJtiMaxEntries = this.getIntegerSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_HYBRID_SEEN_JTI_MAX_ENTRIES,
+                KAFKA_OAUTH_SERVER_HYBRID_SEEN_JTI_MAX_ENTRIES_ENV_VAR,
+                DEFAULT_HYBRID_SEEN_JTI_MAX_ENTRIES);
+
+            this.hybridFailOpen = this.getBooleanSetting(
+                prop,
+                KAFKA_OAUTH_SERVER_HYBRID_FAIL_OPEN,
+                KAFKA_OAUTH_SERVER_HYBRID_FAIL_OPEN_ENV_VAR,
+                true);
+
             if (!this.isValid()) {
                 throw new IllegalStateException("Configuration entries are invalid.");
             }
@@ -281,6 +639,347 @@ public class OAuthConfiguration {
         return this.unsecureServer;
     }
 
+    /**
+     * Gets the maximum number of validated access tokens that are cached, zero disables the cache.
+     *
+     * @return the validation cache max entries
+     */
+    public int getValidationCacheMaxEntries() {
+        return this.validationCacheMaxEntries;
+    }
+
+    /**
+     * Gets how long a validated access token is cached. An entry never outlives the expiry of its token.
+     *
+     * @return the validation cache ttl in milliseconds
+     */
+    public long getValidationCacheTtlMs() {
+        return this.validationCacheTtlMs;
+    }
+
+    /**
+     * Gets the maximum number of rejected access tokens that are remembered, zero disables the negative cache.
+     *
+     * @return the negative cache max entries
+     */
+    public int getNegativeCacheMaxEntries() {
+        return this.negativeCacheMaxEntries;
+    }
+
+    /**
+     * Gets how long a rejected access token is remembered before it is validated again.
+     *
+     * @return the negative cache ttl in milliseconds
+     */
+    public long getNegativeCacheTtlMs() {
+        return this.negativeCacheTtlMs;
+    }
+
+    /**
+     * Gets the maximum length of an access token, longer access tokens are rejected without being validated.
+     *
+     * @return the max token length
+     */
+    public int getMaxTokenLength() {
+        return this.maxTokenLength;
+    }
+
+    /**
+     * Gets whether access tokens that are not made of three base64url segments are rejected without being validated.
+     * Disable it when the OAuth server issues opaque access tokens.
+     *
+     * @return true if access tokens must have the structure of a JWT
+     */
+    public boolean getRequireJwtStructure() {
+        return this.requireJwtStructure;
+    }
+
+    /**
+     * Gets the TLS protocol of the connections to the OAuth server.
+     *
+     * @return the SSL protocol
+     */
+    public String getSslProtocol() {
+        return this.sslProtocol;
+    }
+
+    /**
+     * Gets the trust store used to verify the OAuth server, or null to use the JVM default trust store.
+     *
+     * @return the SSL truststore location
+     */
+    public String getSslTruststoreLocation() {
+        return this.sslTruststoreLocation;
+    }
+
+    /**
+     * Gets the password of the trust store.
+     *
+     * @return the SSL truststore password
+     */
+    public String getSslTruststorePassword() {
+        return this.sslTruststorePassword;
+    }
+
+    /**
+     * Gets the type of the trust store.
+     *
+     * @return the SSL truststore type
+     */
+    public String getSslTruststoreType() {
+        return this.sslTruststoreType;
+    }
+
+    /**
+     * Gets the key store holding the client certificate presented to the OAuth server, or null to present none.
+     *
+     * @return the SSL keystore location
+     */
+    public String getSslKeystoreLocation() {
+        return this.sslKeystoreLocation;
+    }
+
+    /**
+     * Gets the password of the key store.
+     *
+     * @return the SSL keystore password
+     */
+    public String getSslKeystorePassword() {
+        return this.sslKeystorePassword;
+    }
+
+    /**
+     * Gets the type of the key store.
+     *
+     * @return the SSL keystore type
+     */
+    public String getSslKeystoreType() {
+        return this.sslKeystoreType;
+    }
+
+    /**
+     * Gets the password of the private key, or null if it is the key store password.
+     *
+     * @return the SSL key password
+     */
+    public String getSslKeyPassword() {
+        return this.sslKeyPassword;
+    }
+
+    /**
+     * Gets how the HTTP calls to the OAuth server are made.
+     *
+     * @return the HTTP transport type
+     */
+    public HttpTransportType getHttpTransport() {
+        return this.httpTransport;
+    }
+
+    /**
+     * Gets the maximum number of idle keep-alive connections kept per OAuth server host, zero disables reuse.
+     *
+     * @return the max idle connections per host
+     */
+    public int getHttpMaxIdleConnectionsPerHost() {
+        return this.httpMaxIdleConnectionsPerHost;
+    }
+
+    /**
+     * Gets how long an idle keep-alive connection to the OAuth server is kept.
+     *
+     * @return the keep alive time in milliseconds
+     */
+    public long getHttpKeepAliveMs() {
+        return this.httpKeepAliveMs;
+    }
+
+    /**
+     * Gets the timeout for opening a connection to the OAuth server.
+     *
+     * @return the connect timeout in milliseconds
+     */
+    public int getHttpConnectTimeoutMs() {
+        return this.httpConnectTimeoutMs;
+    }
+
+    /**
+     * Gets the timeout for reading a response of the OAuth server.
+     *
+     * @return the read timeout in milliseconds
+     */
+    public int getHttpReadTimeoutMs() {
+        return this.httpReadTimeoutMs;
+    }
+
+    /**
+     * Gets the validation mode.
+     *
+     * @return the validation mode
+     */
+    public ValidationMode getValidationMode() {
+        return this.validationMode;
+    }
+
+    /**
+     * Gets whether an access token that cannot be verified locally, for example because its signing key is not
+     * published or the JWKS document cannot be downloaded, is sent to the introspection endpoint instead.
+     *
+     * @return the introspection fallback
+     */
+    public boolean getIntrospectionFallback() {
+        return this.introspectionFallback;
+    }
+
+    /**
+     * Gets JWKS endpoint path.
+     *
+     * @return the JWKS endpoint path
+     */
+    public String getJwksEndpointPath() {
+        return this.jwksEndpointPath;
+    }
+
+    /**
+     * Gets JWKS endpoint. An absolute JWKS endpoint path, such as a file URI, is used as is.
+     *
+     * @return the JWKS endpoint
+     */
+    public String getJwksEndpoint() {
+        if (Utils.isAbsoluteURI(this.jwksEndpointPath)) {
+            return this.jwksEndpointPath;
+        }
+        return this.baseServerUri + this.jwksEndpointPath;
+    }
+
+    /**
+     * Gets the issuer locally validated access tokens must have, or null if the issuer is not checked.
+     *
+     * @return the expected issuer
+     */
+    public String getExpectedIssuer() {
+        return this.expectedIssuer;
+    }
+
+    /**
+     * Gets the audience locally validated access tokens must have, or null if the audience is not checked.
+     *
+     * @return the expected audience
+     */
+    public String getExpectedAudience() {
+        return this.expectedAudience;
+    }
+
+    /**
+     * Gets the clock skew tolerated when checking the exp, nbf and iat claims of locally validated access tokens.
+     *
+     * @return the clock skew in seconds
+     */
+    public long getClockSkewSeconds() {
+        return this.clockSkewSeconds;
+    }
+
+    /**
+     * Gets the average interval between background downloads of the JWKS document.
+     *
+     * @return the refresh interval in milliseconds
+     */
+    public long getJwksRefreshIntervalMs() {
+        return this.jwksRefreshIntervalMs;
+    }
+
+    /**
+     * Gets the maximum random deviation from the JWKS refresh interval, so that brokers do not refresh in lockstep.
+     *
+     * @return the refresh jitter in milliseconds
+     */
+    public long getJwksRefreshJitterMs() {
+        return this.jwksRefreshJitterMs;
+    }
+
+    /**
+     * Gets the minimum interval between JWKS downloads caused by access tokens signed with an unknown key.
+     *
+     * @return the minimum refetch interval in milliseconds
+     */
+    public long getJwksMinRefetchIntervalMs() {
+        return this.jwksMinRefetchIntervalMs;
+    }
+
+    /**
+     * Gets the fraction of an access token's lifetime after which the login callback handler refreshes it in the
+     * background.
+     *
+     * @return the refresh fraction, greater than 0 and less than 1
+     */
+    public double getTokenRefreshFraction() {
+        return this.tokenRefreshFraction;
+    }
+
+    /**
+     * Gets the maximum random deviation from the access token refresh time, so that clients do not refresh in lockstep.
+     *
+     * @return the refresh jitter in milliseconds
+     */
+    public long getTokenRefreshJitterMs() {
+        return this.tokenRefreshJitterMs;
+    }
+
+    /**
+     * Gets the delay before a failed background access token refresh is retried.
+     *
+     * @return the retry backoff in milliseconds
+     */
+    public long getTokenRefreshRetryBackoffMs() {
+        return this.tokenRefreshRetryBackoffMs;
+    }
+
+    /**
+     * Gets whether hybrid validation introspects a locally valid access token the first time its jti is seen.
+     *
+     * @return the introspect on first sight
+     */
+    public boolean getHybridIntrospectFirstSight() {
+        return this.hybridIntrospectFirstSight;
+    }
+
+    /**
+     * Gets the fraction of locally valid access tokens that hybrid validation introspects regardless of the other
+     * conditions.
+     *
+     * @return the sample rate, from 0 to 1
+     */
+    public double getHybridIntrospectSampleRate() {
+        return this.hybridIntrospectSampleRate;
+    }
+
+    /**
+     * Gets the age, counted from the iat claim, from which hybrid validation introspects a locally valid access token.
+     *
+     * @return the token age in milliseconds, or 0 if the age does not matter
+     */
+    public long getHybridIntrospectTokenAgeMs() {
+        return this.hybridIntrospectTokenAgeMs;
+    }
+
+    /**
+     * Gets the maximum number of jti claims remembered by hybrid validation to recognize access tokens it has seen.
+     *
+     * @return the maximum number of remembered jti claims
+     */
+    public int getHybridSeenJtiMaxEntries() {
+        return this.hybridSeenJtiMaxEntries;
+    }
+
+    /**
+     * Gets whether hybrid validation accepts a locally valid access token when the OAuth server cannot be reached or
+     * answers with a server error. The token is then cached no longer than a rejected one.
+     *
+     * @return true to fail open, false to reject the access token
+     */
+    public boolean getHybridFailOpen() {
+        return this.hybridFailOpen;
+    }
+
 
     //endregion
 
@@ -320,6 +1019,46 @@ public class OAuthConfiguration {
             return false;
         }
 
+        if (this.validationCacheMaxEntries < 0 || this.validationCacheTtlMs < 0) {
+            return false;
+        }
+
+        if (this.negativeCacheMaxEntries < 0 || this.negativeCacheTtlMs < 0 || this.maxTokenLength <= 0) {
+            return false;
+        }
+
+        if (Utils.isNullOrEmpty(this.sslProtocol)) {
+            return false;
+        }
+
+        if (this.httpTransport == null || this.httpMaxIdleConnectionsPerHost < 0 || this.httpKeepAliveMs < 0
+            || this.httpConnectTimeoutMs < 0 || this.httpReadTimeoutMs < 0) {
+            return false;
+        }
+
+        if (this.validationMode == null || this.clockSkewSeconds < 0) {
+            return false;
+        }
+
+        if (this.jwksRefreshIntervalMs <= 0 || this.jwksRefreshJitterMs < 0 || this.jwksMinRefetchIntervalMs < 0) {
+            return false;
+        }
+
+        if (this.tokenRefreshFraction <= 0 || this.tokenRefreshFraction >= 1 || this.tokenRefreshJitterMs < 0
+            || this.tokenRefreshRetryBackoffMs <= 0) {
+            return false;
+        }
+
+        if (this.hybridIntrospectSampleRate < 0 || this.hybridIntrospectSampleRate > 1
+            || this.hybridIntrospectTokenAgeMs < 0 || this.hybridSeenJtiMaxEntries < 0) {
+            return false;
+        }
+
+        if (this.validationMode != ValidationMode.INTROSPECTION && !Utils.isURIValid(this.getJwksEndpoint())) {
+            // the JWKS endpoint is not valid
+            return false;
+        }
+
         return true;
     }
 
@@ -375,6 +1114,191 @@ public class OAuthConfiguration {
             this.unsecureServer = Boolean.valueOf(defaultUnsecureServer);
         }
 
+        // get the validation cache settings
+        this.validationCacheMaxEntries = getIntegerJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_VALIDATION_CACHE_MAX_ENTRIES,
+            this.validationCacheMaxEntries);
+
+        this.validationCacheTtlMs = getLongJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_VALIDATION_CACHE_TTL_MS,
+            this.validationCacheTtlMs);
+
+        this.negativeCacheMaxEntries = getIntegerJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_NEGATIVE_CACHE_MAX_ENTRIES,
+            this.negativeCacheMaxEntries);
+
+        this.negativeCacheTtlMs = getLongJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_NEGATIVE_CACHE_TTL_MS,
+            this.negativeCacheTtlMs);
+
+        // get the structural checks done before an access token is validated
+        this.maxTokenLength = getIntegerJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_MAX_TOKEN_LENGTH,
+            this.maxTokenLength);
+
+        this.requireJwtStructure = getBooleanJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_REQUIRE_JWT_STRUCTURE,
+            this.requireJwtStructure);
+
+        // get the TLS settings of the connections to the OAuth server
+        this.sslProtocol = getStringJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_SSL_PROTOCOL,
+            this.sslProtocol);
+
+        this.sslTruststoreLocation = getStringJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_SSL_TRUSTSTORE_LOCATION,
+            this.sslTruststoreLocation);
+
+        this.sslTruststorePassword = getStringJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_SSL_TRUSTSTORE_PASSWORD,
+            this.sslTruststorePassword);
+
+        this.sslTruststoreType = getStringJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_SSL_TRUSTSTORE_TYPE,
+            this.sslTruststoreType);
+
+        this.sslKeystoreLocation = getStringJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_SSL_KEYSTORE_LOCATION,
+            this.sslKeystoreLocation);
+
+        this.sslKeystorePassword = getStringJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_SSL_KEYSTORE_PASSWORD,
+            this.sslKeystorePassword);
+
+        this.sslKeystoreType = getStringJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_SSL_KEYSTORE_TYPE,
+            this.sslKeystoreType);
+
+        this.sslKeyPassword = getStringJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_SSL_KEY_PASSWORD,
+            this.sslKeyPassword);
+
+        // get the HTTP transport settings
+        String httpTransportEntry = jaasConfigEntries.getOrDefault(KAFKA_OAUTH_SERVER_HTTP_TRANSPORT, "");
+        if (!Utils.isNullOrEmpty(httpTransportEntry)) {
+            this.httpTransport = HttpTransportType.fromString(httpTransportEntry);
+        }
+
+        this.httpMaxIdleConnectionsPerHost = getIntegerJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_HTTP_MAX_IDLE_CONNECTIONS_PER_HOST,
+            this.httpMaxIdleConnectionsPerHost);
+
+        this.httpKeepAliveMs = getLongJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_HTTP_KEEP_ALIVE_MS,
+            this.httpKeepAliveMs);
+
+        this.httpConnectTimeoutMs = getIntegerJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_HTTP_CONNECT_TIMEOUT_MS,
+            this.httpConnectTimeoutMs);
+
+        this.httpReadTimeoutMs = getIntegerJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_HTTP_READ_TIMEOUT_MS,
+            this.httpReadTimeoutMs);
+
+        // get the local validation settings
+        String validationModeEntry = jaasConfigEntries.getOrDefault(KAFKA_OAUTH_SERVER_VALIDATION_MODE, "");
+        if (!Utils.isNullOrEmpty(validationModeEntry)) {
+            this.validationMode = ValidationMode.fromString(validationModeEntry);
+        }
+
+        this.introspectionFallback = getBooleanJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_INTROSPECTION_FALLBACK,
+            this.introspectionFallback);
+
+        this.jwksEndpointPath = getStringJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_JWKS_ENDPOINT_PATH,
+            this.jwksEndpointPath);
+
+        this.expectedIssuer = getStringJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_EXPECTED_ISSUER,
+            this.expectedIssuer);
+
+        this.expectedAudience = getStringJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_EXPECTED_AUDIENCE,
+            this.expectedAudience);
+
+        this.clockSkewSeconds = getLongJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_CLOCK_SKEW_SECONDS,
+            this.clockSkewSeconds);
+
+        this.jwksRefreshIntervalMs = getLongJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_JWKS_REFRESH_INTERVAL_MS,
+            this.jwksRefreshIntervalMs);
+
+        this.jwksRefreshJitterMs = getLongJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_JWKS_REFRESH_JITTER_MS,
+            this.jwksRefreshJitterMs);
+
+        this.jwksMinRefetchIntervalMs = getLongJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_JWKS_MIN_REFETCH_INTERVAL_MS,
+            this.jwksMinRefetchIntervalMs);
+
+        this.tokenRefreshFraction = getDoubleJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_TOKEN_REFRESH_FRACTION,
+            this.tokenRefreshFraction);
+
+        this.tokenRefreshJitterMs = getLongJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_TOKEN_REFRESH_JITTER_MS,
+            this.tokenRefreshJitterMs);
+
+        this.tokenRefreshRetryBackoffMs = getLongJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_TOKEN_REFRESH_RETRY_BACKOFF_MS,
+            this.tokenRefreshRetryBackoffMs);
+
+        this.hybridIntrospectFirstSight = getBooleanJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_HYBRID_INTROSPECT_FIRST_SIGHT,
+            this.hybridIntrospectFirstSight);
+
+        this.hybridIntrospectSampleRate = getDoubleJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_HYBRID_INTROSPECT_SAMPLE_RATE,
+            this.hybridIntrospectSampleRate);
+
+        this.hybridIntrospectTokenAgeMs = getLongJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_HYBRID_INTROSPECT_TOKEN_AGE_MS,
+            this.hybridIntrospectTokenAgeMs);
+
+        this.hybridSeenJtiMaxEntries = getIntegerJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_HYBRID_SEEN_JTI_MAX_ENTRIES,
+            this.hybridSeenJtiMaxEntries);
+
+        this.hybridFailOpen = getBooleanJaasEntry(
+            jaasConfigEntries,
+            KAFKA_OAUTH_SERVER_HYBRID_FAIL_OPEN,
+            this.hybridFailOpen);
+
         //check if the configuration remains valid
         if (!this.isValid()) {
             throw new IllegalStateException("Configuration entries at jaas configuration file are invalid.");
@@ -438,6 +1362,165 @@ public class OAuthConfiguration {
     }
 
     //endregion
+
+    //region Private Methods
+
+    /**
+     * Gets a string setting. The environment variable wins over the property file, which wins over the default.
+     *
+     * @param prop         the property file properties
+     * @param propertyName the property name
+     * @param envVarName   the environment variable name
+     * @param defaultValue the default value
+     * @return the setting
+     */
+    private String getStringSetting(Properties prop, String propertyName, String envVarName, String defaultValue) {
+        String propValue = defaultValue;
+        if (prop.containsKey(propertyName)) {
+            propValue = prop.getProperty(propertyName).trim();
+        }
+
+        return EnvironmentVariablesUtil.getStringEnvironmentVariable(envVarName, propValue);
+    }
+
+    /**
+     * Gets a boolean setting. The environment variable wins over the property file, which wins over the default.
+     *
+     * @param prop         the property file properties
+     * @param propertyName the property name
+     * @param envVarName   the environment variable name
+     * @param defaultValue the default value
+     * @return the setting
+     */
+    private Boolean getBooleanSetting(Properties prop, String propertyName, String envVarName, Boolean defaultValue) {
+        Boolean propValue = defaultValue;
+        if (prop.containsKey(propertyName)) {
+            propValue = Boolean.valueOf(prop.getProperty(propertyName).trim());
+        }
+
+        return EnvironmentVariablesUtil.getBooleanEnvironmentVariable(envVarName, propValue);
+    }
+
+    /**
+     * Gets an integer setting. The environment variable wins over the property file, which wins over the default.
+     *
+     * @param prop         the property file properties
+     * @param propertyName the property name
+     * @param envVarName   the environment variable name
+     * @param defaultValue the default value
+     * @return the setting
+     */
+    private Integer getIntegerSetting(Properties prop, String propertyName, String envVarName, Integer defaultValue) {
+        Integer propValue = defaultValue;
+        if (prop.containsKey(propertyName)) {
+            propValue = Integer.valueOf(prop.getProperty(propertyName).trim());
+        }
+
+        return EnvironmentVariablesUtil.getIntegerEnvironmentVariable(envVarName, propValue);
+    }
+
+    /**
+     * Gets a long setting. The environment variable wins over the property file, which wins over the default.
+     *
+     * @param prop         the property file properties
+     * @param propertyName the property name
+     * @param envVarName   the environment variable name
+     * @param defaultValue the default value
+     * @return the setting
+     */
+    private Long getLongSetting(Properties prop, String propertyName, String envVarName, Long defaultValue) {
+        Long propValue = defaultValue;
+        if (prop.containsKey(propertyName)) {
+            propValue = Long.valueOf(prop.getProperty(propertyName).trim());
+        }
+
+        return EnvironmentVariablesUtil.getLongEnvironmentVariable(envVarName, propValue);
+    }
+
+    /**
+     * Gets a double setting. The environment variable wins over the property file, which wins over the default.
+     *
+     * @param prop         the property file properties
+     * @param propertyName the property name
+     * @param envVarName   the environment variable name
+     * @param defaultValue the default value
+     * @return the setting
+     */
+    private Double getDoubleSetting(Properties prop, String propertyName, String envVarName, Double defaultValue) {
+        Double propValue = defaultValue;
+        if (prop.containsKey(propertyName)) {
+            propValue = Double.valueOf(prop.getProperty(propertyName).trim());
+        }
+
+        return EnvironmentVariablesUtil.getDoubleEnvironmentVariable(envVarName, propValue);
+    }
+
+    /**
+     * Gets a string jaas configuration entry.
+     *
+     * @param jaasConfigEntries the jaas configuration entries
+     * @param name              the entry name
+     * @param currentValue      the value to keep if the entry is not set
+     * @return the entry value
+     */
+    private static String getStringJaasEntry(Map<String, String> jaasConfigEntries, String name, String currentValue) {
+        String value = jaasConfigEntries.getOrDefault(name, "");
+        return Utils.isNullOrEmpty(value) ? currentValue : value.trim();
+    }
+
+    /**
+     * Gets a boolean jaas configuration entry.
+     *
+     * @param jaasConfigEntries the jaas configuration entries
+     * @param name              the entry name
+     * @param currentValue      the value to keep if the entry is not set
+     * @return the entry value
+     */
+    private static Boolean getBooleanJaasEntry(Map<String, String> jaasConfigEntries, String name, Boolean currentValue) {
+        String value = jaasConfigEntries.getOrDefault(name, "");
+        return Utils.isNullOrEmpty(value) ? currentValue : Boolean.valueOf(value.trim());
+    }
+
+    /**
+     * Gets an integer jaas configuration entry.
+     *
+     * @param jaasConfigEntries the jaas configuration entries
+     * @param name              the entry name
+     * @param currentValue      the value to keep if the entry is not set
+     * @return the entry value
+     */
+    private static Integer getIntegerJaasEntry(Map<String, String> jaasConfigEntries, String name, Integer currentValue) {
+        String value = jaasConfigEntries.getOrDefault(name, "");
+        return Utils.isNullOrEmpty(value) ? currentValue : Integer.valueOf(value.trim());
+    }
+
+    /**
+     * Gets a long jaas configuration entry.
+     *
+     * @param jaasConfigEntries the jaas configuration entries
+     * @param name              the entry name
+     * @param currentValue      the value to keep if the entry is not set
+     * @return the entry value
+     */
+    private static Long getLongJaasEntry(Map<String, String> jaasConfigEntries, String name, Long currentValue) {
+        String value = jaasConfigEntries.getOrDefault(name, "");
+        return Utils.isNullOrEmpty(value) ? currentValue : Long.valueOf(value.trim());
+    }
+
+    /**
+     * Gets a double jaas configuration entry.
+     *
+     * @param jaasConfigEntries the jaas configuration entries
+     * @param name              the entry name
+     * @param currentValue      the value to keep if the entry is not set
+     * @return the entry value
+     */
+    private static Double getDoubleJaasEntry(Map<String, String> jaasConfigEntries, String name, Double currentValue) {
+        String value = jaasConfigEntries.getOrDefault(name, "");
+        return Utils.isNullOrEmpty(value) ? currentValue : Double.valueOf(value.trim());
+    }
+
+    //endregion
 }
 
 
@@ -0,0 +1,265 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The fields of a token or introspection response of the OAuth server that this library uses.
+ * <p>
+ * The response is decoded straight from the HTTP body with a streaming parser. Only the top level fields
+ * access_token, expires_in, active, sub, scope, exp, iat and jti are kept; every other field, including large
+ * custom claims, is skipped without being materialized.
+ */
+public final class OAuthResponse {
+
+	//region Constants
+
+	private static final String ACCESS_TOKEN = "access_token";
+	private static final String EXPIRES_IN = "expires_in";
+	private static final String ACTIVE = "active";
+	private static final String SUB = "sub";
+	private static final String SCOPE = "scope";
+	private static final String EXP = "exp";
+	private static final String IAT = "iat";
+	private static final String JTI = "jti";
+
+	//endregion
+
+	//region Member Variables
+
+	// JsonFactory is thread safe and caches the symbol tables used by its parsers
+	private static final JsonFactory jsonFactory = new JsonFactory();
+
+	private String accessToken;
+	private long expiresIn = -1;
+	private boolean active;
+	private String subject;
+	private List<String> scope = Collections.emptyList();
+	private long expirationTime = -1;
+	private long issuedAt = -1;
+	private String jti;
+
+	//endregion
+
+	//region Constructors
+
+	private OAuthResponse() {
+	}
+
+	//endregion
+
+	//region Public Properties
+
+	public String getAccessToken() {
+		return this.accessToken;
+	}
+
+	/**
+	 * Gets the lifetime of the issued access token.
+	 *
+	 * @return the lifetime in seconds, or -1 if the response does not have one
+	 */
+	public long getExpiresIn() {
+		return this.expiresIn;
+	}
+
+	public boolean isActive() {
+		return this.active;
+	}
+
+	public String getSubject() {
+		return this.subject;
+	}
+
+	public List<String> getScope() {
+		return this.scope;
+	}
+
+	/**
+	 * Gets the exp claim.
+	 *
+	 * @return the expiration time in seconds since the epoch, or -1 if the response does not have one
+	 */
+	public long getExpirationTime() {
+		return this.expirationTime;
+	}
+
+	/**
+	 * Gets the iat claim.
+	 *
+	 * @return the issue time in seconds since the epoch, or -1 if the response does not have one
+	 */
+	public long getIssuedAt() {
+		return this.issuedAt;
+	}
+
+	public String getJti() {
+		return this.jti;
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Decodes a JSON response of the OAuth server.
+	 *
+	 * @param inputStream the response body, it is not closed
+	 * @return the response
+	 * @throws IOException if the body is not a JSON object
+	 */
+	public static OAuthResponse parse(InputStream inputStream) throws IOException {
+		Objects.requireNonNull(inputStream);
+
+		try (JsonParser parser = jsonFactory.createParser(inputStream)) {
+			return parse(parser);
+		}
+	}
+
+	/**
+	 * Decodes a JSON response of the OAuth server.
+	 *
+	 * @param content the response body
+	 * @return the response
+	 * @throws IOException if the body is not a JSON object
+	 */
+	public static OAuthResponse parse(byte[] content) throws IOException {
+		Objects.requireNonNull(content);
+
+		try (JsonParser parser = jsonFactory.createParser(content)) {
+			return parse(parser);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "OAuthResponse {" +
+				"expiresIn=" + expiresIn +
+				", active=" + active +
+				", subject='" + subject + '\'' +
+				", scope=" + scope +
+				", expirationTime=" + expirationTime +
+				", issuedAt=" + issuedAt +
+				", jti='" + jti + '\'' +
+				'}';
+	}
+
+	//endregion
+
+	//region Private Methods
+
+	private static OAuthResponse parse(JsonParser parser) throws IOException {
+		if (parser.nextToken() != JsonToken.START_OBJECT) {
+			throw new JsonParseException(parser, "The response is not a JSON object.");
+		}
+
+		OAuthResponse response = new OAuthResponse();
+		String fieldName;
+		while ((fieldName = parser.nextFieldName()) != null) {
+			JsonToken value = parser.nextToken();
+			switch (fieldName) {
+				case ACCESS_TOKEN:
+					response.accessToken = textValue(parser, value);
+					break;
+				case EXPIRES_IN:
+					response.expiresIn = longValue(parser, value, -1);
+					break;
+				case ACTIVE:
+					response.active = value == JsonToken.VALUE_TRUE
+							|| (value == JsonToken.VALUE_STRING && Boolean.parseBoolean(parser.getText()));
+					break;
+				case SUB:
+					response.subject = textValue(parser, value);
+					break;
+				case SCOPE:
+					response.scope = scopeValue(parser, value);
+					break;
+				case EXP:
+					response.expirationTime = longValue(parser, value, -1);
+					break;
+				case IAT:
+					response.issuedAt = longValue(parser, value, -1);
+					break;
+				case JTI:
+					response.jti = textValue(parser, value);
+					break;
+				default:
+					// not needed, skip the value and everything nested in it
+					parser.skipChildren();
+					break;
+			}
+		}
+
+		if (parser.currentToken() != JsonToken.END_OBJECT) {
+			throw new JsonParseException(parser, "The response is not a JSON object.");
+		}
+		return response;
+	}
+
+	private static String textValue(JsonParser parser, JsonToken value) throws IOException {
+		if (value == JsonToken.VALUE_NULL) {
+			return null;
+		}
+		if (value.isScalarValue()) {
+			return parser.getText();
+		}
+		parser.skipChildren();
+		return null;
+	}
+
+	private static long longValue(JsonParser parser, JsonToken value, long defaultValue) throws IOException {
+		if (value.isScalarValue()) {
+			return parser.getValueAsLong(defaultValue);
+		}
+		parser.skipChildren();
+		return defaultValue;
+	}
+
+	private static List<String> scopeValue(JsonParser parser, JsonToken value) throws IOException {
+		if (value == JsonToken.VALUE_STRING) {
+			return Collections.singletonList(parser.getText());
+		}
+
+		if (value == JsonToken.START_ARRAY) {
+			List<String> scope = new ArrayList<>();
+			JsonToken element;
+			while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+				if (element == JsonToken.VALUE_STRING) {
+					scope.add(parser.getText());
+				} else {
+					parser.skipChildren();
+				}
+			}
+			return scope;
+		}
+
+		parser.skipChildren();
+		return Collections.emptyList();
+	}
+
+	//endregion
+}
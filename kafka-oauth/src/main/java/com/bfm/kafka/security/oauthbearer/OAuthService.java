@@ -34,7 +34,7 @@ public interface OAuthService {
      * Validate an access token in an OAuth Server
      *
      * @param accessToken the access token
-     * @return the o auth bearer token jwt
+     * @return the o auth bearer token jwt, or null if it is not valid
      */
     OAuthBearerTokenJwt validateAccessToken(String accessToken) throws IOException;
 
@@ -46,4 +46,16 @@ public interface OAuthService {
     OAuthConfiguration getOAuthConfiguration();
 
     void setOAuthConfiguration(Map<String, String> jaasConfigEntries);
+
+    /**
+     * Gets the counters of the access token validation path
+     *
+     * @return the validation metrics
+     */
+    ValidationMetricsMXBean getValidationMetrics();
+
+    /**
+     * Releases the background resources of the service, such as the JWKS refresh thread
+     */
+    void close();
 }
\ No newline at end of file
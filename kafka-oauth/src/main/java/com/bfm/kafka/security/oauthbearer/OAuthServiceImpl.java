@@ -15,17 +15,22 @@ limitations under the License.
 */
 package com.bfm.kafka.security.oauthbearer;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import org.apache.kafka.common.utils.Time;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.DataOutputStream;
+import javax.net.ssl.SSLSocketFactory;
 import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * The class that handles the logic to interact with the OAuth server.
@@ -46,6 +51,20 @@ public class OAuthServiceImpl implements OAuthService {
 	private static final Logger log = LoggerFactory.getLogger(OAuthServiceImpl.class);
 	private OAuthConfiguration oauthConfiguration;
 	private static Time time = Time.SYSTEM;
+	private volatile BoundedExpiringCache<String, CompactOAuthBearerTokenJwt> validationCache;
+	private volatile BoundedExpiringCache<String, Boolean> negativeCache;
+	private volatile BoundedExpiringCache<String, Boolean> seenJtis;
+	private volatile JwtValidator jwtValidator;
+	private volatile SSLSocketFactory sslSocketFactory;
+	private volatile HttpTransport httpTransport;
+	private volatile String authorizationHeader;
+	private final ValidationMetrics validationMetrics;
+	private final ConcurrentHashMap<String, CompletableFuture<OAuthBearerTokenJwt>> inFlightValidations = new ConcurrentHashMap<>();
+	private final LongAdder coalescedValidations = new LongAdder();
+	private final LongAdder malformedTokens = new LongAdder();
+	private final LongAdder hybridIntrospections = new LongAdder();
+	private final LongAdder hybridIntrospectionFailures = new LongAdder();
+	private final LongAdder revokedTokens = new LongAdder();
 
 	//endregion
 
@@ -56,6 +75,9 @@ public class OAuthServiceImpl implements OAuthService {
 	 */
 	public OAuthServiceImpl() {
 		this.oauthConfiguration = new OAuthConfiguration();
+		this.validationMetrics = new ValidationMetrics(this);
+		this.configureTransport();
+		this.configureValidation();
 	}
 
 	//endregion
@@ -75,12 +97,125 @@ public class OAuthServiceImpl implements OAuthService {
 		} catch (RuntimeException e) {
 			log.warn("Error on trying to configure oauth using jaas configuration entries. Using environment or properties file configuration");
 		}
+		this.configureTransport();
+		this.configureValidation();
+
+		if (this.oauthConfiguration.getValidationMode() != ValidationMode.INTROSPECTION) {
+			// keep the signing keys fresh in the background instead of downloading them on the first handshake
+			this.jwtValidator.getKeyStore().start();
+		}
+	}
+
+	@Override
+	public ValidationMetricsMXBean getValidationMetrics() {
+		return this.validationMetrics;
+	}
+
+	/**
+	 * Gets the cache of validated access tokens, keyed by the digest of the access token.
+	 *
+	 * @return the validation cache
+	 */
+	protected BoundedExpiringCache<String, CompactOAuthBearerTokenJwt> getValidationCache() {
+		return this.validationCache;
+	}
+
+	/**
+	 * Gets the cache of rejected access tokens, keyed by the digest of the access token.
+	 *
+	 * @return the negative cache
+	 */
+	protected BoundedExpiringCache<String, Boolean> getNegativeCache() {
+		return this.negativeCache;
+	}
+
+	/**
+	 * Gets the number of access tokens rejected by the structural check.
+	 *
+	 * @return the malformed tokens
+	 */
+	protected long getMalformedTokens() {
+		return this.malformedTokens.sum();
+	}
+
+	/**
+	 * Gets the number of locally valid access tokens that hybrid validation also introspected.
+	 *
+	 * @return the hybrid introspections
+	 */
+	protected long getHybridIntrospections() {
+		return this.hybridIntrospections.sum();
+	}
+
+	/**
+	 * Gets the number of hybrid introspections that got no usable answer from the OAuth server, because it could not
+	 * be reached, answered with an error or answered with a body that is not JSON.
+	 *
+	 * @return the hybrid introspection failures
+	 */
+	protected long getHybridIntrospectionFailures() {
+		return this.hybridIntrospectionFailures.sum();
+	}
+
+	/**
+	 * Gets the number of locally valid access tokens that hybrid validation rejected because the OAuth server
+	 * reported them inactive or issued to another subject.
+	 *
+	 * @return the revoked tokens
+	 */
+	protected long getRevokedTokens() {
+		return this.revokedTokens.sum();
+	}
+
+	/**
+	 * Gets the number of validations that waited for the result of a concurrent validation of the same access token.
+	 *
+	 * @return the coalesced validations
+	 */
+	protected long getCoalescedValidations() {
+		return this.coalescedValidations.sum();
+	}
+
+	/**
+	 * Gets the number of distinct access tokens being validated right now.
+	 *
+	 * @return the in-flight validations
+	 */
+	protected int getInFlightValidations() {
+		return this.inFlightValidations.size();
+	}
+
+	/**
+	 * Gets the transport of the HTTP calls to the OAuth server.
+	 *
+	 * @return the HTTP transport
+	 */
+	protected HttpTransport getHttpTransport() {
+		return this.httpTransport;
+	}
+
+	/**
+	 * Gets the validator used when access tokens are validated locally.
+	 *
+	 * @return the JWT validator
+	 */
+	protected JwtValidator getJwtValidator() {
+		return this.jwtValidator;
 	}
 
 	//endregion
 
 	//region Public Methods
 
+	/**
+	 * Stops the background refresh of the JWKS document and closes the idle connections to the OAuth server.
+	 */
+	@Override
+	public void close() {
+		this.jwtValidator.getKeyStore().close();
+		this.httpTransport.close();
+	}
+
 	/**
 	 * @return OAuthBearerTokenJwt which has accessToken string as an attribute of the object
 	 */
@@ -105,18 +240,18 @@ public class OAuthServiceImpl implements OAuthService {
 		String postParameters = String.format("%s&%s", grantType, scope);
 
 		log.info("Send access token request to the OAuth server.");
-		Map<String, Object> resp = doHttpCall(
+		OAuthResponse resp = doHttpCall(
 				this.oauthConfiguration.getTokenEndpoint(),
 				postParameters,
-				Utils.createBasicAuthorizationHeader(clientId, this.oauthConfiguration.getClientSecret()));
+				this.authorizationHeader);
 
 		// check to see if the response is not null
-		if (resp != null) {
+		if (resp != null && (resp.getAccessToken() == null || resp.getExpiresIn() < 0)) {
+			log.error("Error requesting access token from OAuth server, the response does not have an access_token and expires_in.");
+		} else if (resp != null) {
 			// create a new token from the response
 			log.debug("Access token response is not null, create an token.");
-			String accessToken = (String) resp.get(OAUTH_ACCESS_TOKEN);
-			long expiresIn = ((Integer) resp.get(OAUTH_ACCESS_TOKEN_EXPIRES_IN)).longValue();
-			result = new OAuthBearerTokenJwt(accessToken, expiresIn, callTime, clientId);
+			result = new OAuthBearerTokenJwt(resp.getAccessToken(), resp.getExpiresIn(), callTime, clientId);
 		} else {
 			log.error("Error requesting access token from OAuth server, the HTTP response was null.");
 		}
@@ -125,36 +260,141 @@ public class OAuthServiceImpl implements OAuthService {
 	}
 
 	/**
-	 * This method vaidates an access token string in the OAuth Server
+	 * This method vaidates an access token string, either in the OAuth Server or locally against the signing keys
+	 * of the OAuth Server, depending on the configured validation mode
 	 * @param accessToken the access token string
-	 * @return a JWT token if accessToken exists in the OAuth Server, or null if not exist in the OAuth Server
+	 * @return a JWT token if accessToken is valid, or null if it is not; the cache keeps a
+	 * {@link CompactOAuthBearerTokenJwt}, which holds the digest of accessToken instead of accessToken
 	 * @throws IOException - if Call to OAuth Server fails
 	 */
 	public OAuthBearerTokenJwt validateAccessToken(String accessToken) throws IOException {
-		OAuthBearerTokenJwt result = null;
-		log.debug("Starting to validate access token against OAuth server.");
+		OAuthBearerTokenJwt result;
+		log.debug("Starting to validate access token.");
 
 		// check parameters
 		log.debug("Validate method parameters.");
 		Objects.requireNonNull(accessToken);
 
+		// reject garbage before spending a digest or a call to the OAuth server on it
+		if (!Utils.isWellFormedAccessToken(
+				accessToken,
+				this.oauthConfiguration.getMaxTokenLength(),
+				this.oauthConfiguration.getRequireJwtStructure())) {
+			log.info("Access token is malformed or too long, Length: {}.", accessToken.length());
+			this.malformedTokens.increment();
+			return null;
+		}
+
+		// check to see if the access token was validated recently
+		BoundedExpiringCache<String, CompactOAuthBearerTokenJwt> cache = this.validationCache;
+		BoundedExpiringCache<String, Boolean> rejected = this.negativeCache;
+		String tokenDigest = Utils.digestToken(accessToken);
+		ValidationMode validationMode = this.oauthConfiguration.getValidationMode();
+		boolean sampled = false;
+		CompactOAuthBearerTokenJwt cached = cache.get(tokenDigest);
+		if (cached != null) {
+			if (validationMode != ValidationMode.HYBRID || !isSampled()) {
+				log.debug("Access token was found in the validation cache.");
+				return cached.toToken(accessToken);
+			}
+
+			// a cached token is still subject to sampling, or a revoked token would be accepted until the cache ttl
+			log.debug("Access token was found in the validation cache and is sampled, introspect it again.");
+			cache.remove(tokenDigest);
+			sampled = true;
+		}
+
+		if (rejected.get(tokenDigest) != null) {
+			log.debug("Access token was rejected recently.");
+			return null;
+		}
+
+		// check to see if another thread is validating the same access token right now
+		CompletableFuture<OAuthBearerTokenJwt> validation = new CompletableFuture<>();
+		CompletableFuture<OAuthBearerTokenJwt> inFlight = this.inFlightValidations.putIfAbsent(tokenDigest, validation);
+		if (inFlight != null) {
+			log.debug("Access token is already being validated, wait for the result.");
+			this.coalescedValidations.increment();
+			return awaitValidation(inFlight);
+		}
+
+		try {
+			if (validationMode == ValidationMode.LOCAL) {
+				result = validateAccessTokenLocally(accessToken);
+			} else if (validationMode == ValidationMode.HYBRID) {
+				result = validateAccessTokenHybrid(accessToken, sampled);
+			} else {
+				result = introspectAccessToken(accessToken);
+			}
+
+			// remember the result until the cache ttl or the expiry of the token, whichever comes first
+			if (result != null) {
+				long nowMs = time.milliseconds();
+				long expiresAtMs = Math.min(
+						nowMs + this.oauthConfiguration.getValidationCacheTtlMs(),
+						TimeUnit.SECONDS.toMillis(result.expirationTime()));
+				if (result instanceof UnconfirmedOAuthBearerTokenJwt) {
+					// the OAuth server did not confirm the token, introspect it again once the server is back
+					expiresAtMs = Math.min(expiresAtMs, nowMs + this.oauthConfiguration.getNegativeCacheTtlMs());
+				} else if (validationMode == ValidationMode.HYBRID) {
+					// the token must be introspected once it reaches the configured age, even if it is cached
+					long introspectAtMs = getHybridIntrospectAtMs(result);
+					if (introspectAtMs > nowMs) {
+						expiresAtMs = Math.min(expiresAtMs, introspectAtMs);
+					}
+				}
+
+				// the cache keeps the token until it expires, keep only the digest of the access token
+				cache.put(tokenDigest, new CompactOAuthBearerTokenJwt(result, tokenDigest), expiresAtMs);
+			} else {
+				// remember the rejection briefly so that a client retrying in a loop does not reach the OAuth server
+				rejected.put(tokenDigest, Boolean.TRUE, time.milliseconds() + this.oauthConfiguration.getNegativeCacheTtlMs());
+			}
+
+			validation.complete(result);
+		} catch (IOException | RuntimeException e) {
+			validation.completeExceptionally(e);
+			throw e;
+		} finally {
+			this.inFlightValidations.remove(tokenDigest, validation);
+		}
+
+		log.debug("Finished validating access token.");
+		return result;
+	}
+
+	//endregion
+
+	//region Protected Methods
+
+	/**
+	 * This method validates an access token string by calling the introspection endpoint of the OAuth Server
+	 * @param accessToken the access token string
+	 * @return a JWT token if accessToken exists in the OAuth Server, or null if not exist in the OAuth Server
+	 * @throws IOException - if Call to OAuth Server fails
+	 */
+	protected OAuthBearerTokenJwt introspectAccessToken(String accessToken) throws IOException {
+		OAuthBearerTokenJwt result = null;
+		log.debug("Starting to validate access token against OAuth server.");
+
 		// create post parameters
 		String token = "token=" + accessToken;
 
 		// validate the access token by calling the oauth introspection endpoint
 		log.debug("Validate the access token by calling the OAuth introspection endpoint.");
-		Map<String, Object> resp = doHttpCall(
+		OAuthResponse resp = doHttpCall(
 				this.oauthConfiguration.getIntrospectionEndpoint(),
 				token,
-				Utils.createBasicAuthorizationHeader(this.oauthConfiguration.getClientId(), this.oauthConfiguration.getClientSecret()));
+				this.authorizationHeader);
 
 		// check to see if the response is not null - accessToken exists in the OAuth Server
 		if (resp != null) {
 			// check to see if the access token is still active
 			log.debug("Validation response was not null check to see if the access token is active.");
-			boolean active = (boolean) resp.get("active");
-
-			if (active) {
+			if (resp.isActive() && resp.getExpirationTime() < 0) {
+				// an access token without an expiry cannot be given a session lifetime
+				log.error("Access token is active but the response does not have an exp claim.");
+			} else if (resp.isActive()) {
 				// the access token is still active create a new token with the response
 				log.debug("Access token is still active create a new token with the response.");
 				result = new OAuthBearerTokenJwt(resp, accessToken);
@@ -172,59 +412,125 @@ public class OAuthServiceImpl implements OAuthService {
 		return result;
 	}
 
-	//endregion
-
-	//region Protected Methods
+	/**
+	 * This method validates an access token string locally, verifying its signature against the keys published
+	 * by the OAuth Server. A token that cannot be verified locally is introspected instead if the fallback is enabled.
+	 * @param accessToken the access token string
+	 * @return a JWT token if accessToken is valid, or null if it is not
+	 * @throws IOException - if the fallback call to OAuth Server fails
+	 */
+	protected OAuthBearerTokenJwt validateAccessTokenLocally(String accessToken) throws IOException {
+		log.debug("Starting to validate access token locally.");
+		try {
+			JwtClaims claims = this.jwtValidator.validate(accessToken);
+			return new OAuthBearerTokenJwt(claims, accessToken);
+		} catch (JwtValidationException e) {
+			return handleLocalValidationFailure(e, accessToken);
+		} finally {
+			log.debug("Finished validating access token locally.");
+		}
+	}
 
 	/**
-	 * Do http call to the OAuth Server.
-	 * @param urlStr OAuth Server URL
-	 * @param postParameters
-	 * @param authorizationHeaderValue
-	 * @return null if HTTP response code is not 200
-	 * @throws IOException
+	 * This method validates an access token string locally and, the first time its jti is seen, when it is sampled or
+	 * once it is older than the configured age, also against the introspection endpoint of the OAuth Server, so that
+	 * a revoked token is rejected without introspecting every token. A token that cannot be verified locally is
+	 * handled as in local validation.
+	 *
+	 * <p>When the OAuth server cannot be reached or answers with a server error, the locally valid token is accepted
+	 * or rejected depending on the fail open setting. Any other error answer means the introspection is misconfigured
+	 * and the token is rejected.
+	 * @param accessToken the access token string
+	 * @param introspect true to introspect the access token whatever the configured conditions
+	 * @return a JWT token reconciled with the introspection response if the token was introspected, or null if it is not valid
+	 * @throws IOException - if the fallback call to OAuth Server fails
 	 */
-	protected Map<String, Object> doHttpCall(String urlStr, String postParameters, String authorizationHeaderValue) throws IOException {
-		log.debug(String.format("Starting to make HTTP call, Url: %s.", urlStr));
+	protected OAuthBearerTokenJwt validateAccessTokenHybrid(String accessToken, boolean introspect) throws IOException {
+		log.debug("Starting to validate access token in hybrid mode.");
+		JwtClaims claims;
+		try {
+			claims = this.jwtValidator.validate(accessToken);
+		} catch (JwtValidationException e) {
+			return handleLocalValidationFailure(e, accessToken);
+		}
 
-		// check parameters
-		log.debug("Validate method parameters.");
-		Objects.requireNonNull(urlStr);
-		Objects.requireNonNull(postParameters);
-		//Objects.requireNonNull(authorizationHeaderValue);
+		if (!introspect && !shouldIntrospect(claims)) {
+			log.debug("Access token is valid locally, it does not need to be introspected.");
+			return new OAuthBearerTokenJwt(claims, accessToken);
+		}
 
-		// configure SSL context to allow unsecured connections if configured
-		log.debug("Configure SSL context to allow unsecured connections if configured.");
-		Utils.acceptUnsecureServer(this.oauthConfiguration.getUnsecureServer());
+		log.debug("Access token is valid locally, check that it is still active against OAuth server.");
+		this.hybridIntrospections.increment();
+		String introspectionEndpoint = this.oauthConfiguration.getIntrospectionEndpoint();
+		HttpTransport.HttpResponse response;
+		try {
+			response = doHttpPost(introspectionEndpoint, "token=" + accessToken, this.authorizationHeader);
+		} catch (IOException e) {
+			return acceptUnconfirmed(claims, accessToken, e.toString());
+		}
 
-		log.debug(String.format("Send POST request, Url: %s.", urlStr));
-		byte[] postData = postParameters.getBytes(StandardCharsets.UTF_8);
-		int postDataLength = postData.length;
+		int responseCode = response.getStatusCode();
+		if (responseCode >= 500) {
+			return acceptUnconfirmed(claims, accessToken, "Response Code: " + responseCode);
+		}
 
-		URL url = new URL(urlStr);
-		HttpURLConnection con = (HttpURLConnection) url.openConnection();
-		con.setInstanceFollowRedirects(true);
-		con.setRequestMethod("POST");
-		con.setRequestProperty("Authorization", authorizationHeaderValue);
-		con.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
-		con.setRequestProperty("charset", "utf-8");
-		con.setRequestProperty("Content-Length", Integer.toString(postDataLength));
-		con.setUseCaches(false);
-		con.setDoOutput(true);
+		if (responseCode != 200) {
+			// the OAuth server refused the request itself, the introspection endpoint or credentials are wrong
+			log.error(
+					"Error introspecting access token against OAuth server, check the introspection settings, Url: {}, Response Code: {}.",
+					introspectionEndpoint,
+					responseCode);
+			this.hybridIntrospectionFailures.increment();
+			return null;
+		}
 
-		try (DataOutputStream wr = new DataOutputStream(con.getOutputStream())) {
-			wr.write(postData);
+		OAuthResponse resp = parseResponse(introspectionEndpoint, response);
+		if (resp == null) {
+			this.hybridIntrospectionFailures.increment();
+			return null;
+		}
+
+		if (!resp.isActive()) {
+			log.error("Access token is valid locally but the OAuth server reports it is no longer active.");
+			this.revokedTokens.increment();
+			return null;
+		}
+
+		if (resp.getSubject() != null && !resp.getSubject().equals(claims.getSubject())) {
+			log.error("Access token is valid locally but the OAuth server reports it for another subject.");
+			this.revokedTokens.increment();
+			return null;
+		}
+
+		if (claims.getJti() != null) {
+			// introspect again only when another condition asks for it until the token expires
+			this.seenJtis.put(claims.getJti(), Boolean.TRUE, TimeUnit.SECONDS.toMillis(claims.getExpirationTime()));
 		}
 
+		log.debug("Finished validating access token in hybrid mode.");
+		return new OAuthBearerTokenJwt(claims, resp, accessToken);
+	}
+
+	/**
+	 * Do http call to the OAuth Server.
+	 * @param urlStr OAuth Server URL
+	 * @param postParameters
+	 * @param authorizationHeaderValue
+	 * @return the decoded response, or null if HTTP response code is not 200 or the response is not JSON
+	 * @throws IOException
+	 */
+	protected OAuthResponse doHttpCall(String urlStr, String postParameters, String authorizationHeaderValue) throws IOException {
+		HttpTransport.HttpResponse response = doHttpPost(urlStr, postParameters, authorizationHeaderValue);
+
 		log.debug(String.format("Get HTTP response code, Url: %s.", urlStr));
-		int responseCode = con.getResponseCode();
+		int responseCode = response.getStatusCode();
 
 		// check to see if the response was successful
 		log.debug(String.format("Check to see if the response was successful, Url: %s.", urlStr));
 		if (responseCode == 200) {
 			// the response was successful, parse to json into a key value pairs
 			log.debug("The response was successful, parse to json into a key value pairs, Url: {}.", urlStr);
-			return Utils.handleJsonResponse(con.getInputStream());
+			return parseResponse(urlStr, response);
 		} else {
 			// the response was not successful
 			String errMsg = String.format(
@@ -238,5 +544,271 @@ public class OAuthServiceImpl implements OAuthService {
 		}
 	}
 
+	/**
+	 * Posts form parameters to the OAuth Server.
+	 * @param urlStr OAuth Server URL
+	 * @param postParameters the form encoded parameters
+	 * @param authorizationHeaderValue the value of the Authorization header, or null to send none
+	 * @return the HTTP response, whatever its response code
+	 * @throws IOException if the OAuth Server cannot be reached or the response cannot be read
+	 */
+	protected HttpTransport.HttpResponse doHttpPost(String urlStr, String postParameters, String authorizationHeaderValue) throws IOException {
+		log.debug(String.format("Starting to make HTTP call, Url: %s.", urlStr));
+
+		// check parameters
+		log.debug("Validate method parameters.");
+		Objects.requireNonNull(urlStr);
+		Objects.requireNonNull(postParameters);
+		//Objects.requireNonNull(authorizationHeaderValue);
+
+		log.debug(String.format("Send POST request, Url: %s.", urlStr));
+		byte[] postData = postParameters.getBytes(StandardCharsets.UTF_8);
+		return this.httpTransport.post(urlStr, authorizationHeaderValue, postData);
+	}
+
+	//endregion
+
+	//region Private Methods
+
+	/**
+	 * Creates the TLS context, the HTTP transport and the authorization header for the current configuration.
+	 */
+	private void configureTransport() {
+		HttpTransport previousTransport = this.httpTransport;
+
+		this.authorizationHeader = Utils.createBasicAuthorizationHeader(
+				this.oauthConfiguration.getClientId(),
+				this.oauthConfiguration.getClientSecret());
+		this.sslSocketFactory = SslContextFactory.create(this.oauthConfiguration).getSocketFactory();
+		this.httpTransport = createHttpTransport(this.oauthConfiguration, this.sslSocketFactory);
+
+		if (previousTransport != null) {
+			previousTransport.close();
+		}
+	}
+
+	/**
+	 * Creates the validation cache and the local validator for the current configuration.
+	 */
+	private void configureValidation() {
+		JwtValidator previousValidator = this.jwtValidator;
+
+		this.validationCache = createValidationCache(this.oauthConfiguration);
+		this.negativeCache = createNegativeCache(this.oauthConfiguration);
+		this.seenJtis = new BoundedExpiringCache<>(this.oauthConfiguration.getHybridSeenJtiMaxEntries(), time);
+		this.jwtValidator = new JwtValidator(
+				new JwksKeyStore(
+						this.oauthConfiguration.getJwksEndpoint(),
+						this.sslSocketFactory,
+						!Boolean.TRUE.equals(this.oauthConfiguration.getUnsecureServer()),
+						this.oauthConfiguration.getJwksRefreshIntervalMs(),
+						this.oauthConfiguration.getJwksRefreshJitterMs(),
+						this.oauthConfiguration.getJwksMinRefetchIntervalMs(),
+						time),
+				this.oauthConfiguration.getExpectedIssuer(),
+				this.oauthConfiguration.getExpectedAudience(),
+				this.oauthConfiguration.getClockSkewSeconds(),
+				time);
+
+		if (previousValidator != null) {
+			previousValidator.getKeyStore().close();
+		}
+	}
+
+	/**
+	 * Checks whether hybrid validation introspects an access token whose claims were verified locally.
+	 *
+	 * @param claims the verified claims of the access token
+	 * @return true if the access token is seen for the first time, sampled, or older than the configured age
+	 */
+	private boolean shouldIntrospect(JwtClaims claims) {
+		if (this.oauthConfiguration.getHybridIntrospectFirstSight()
+				&& (claims.getJti() == null || this.seenJtis.get(claims.getJti()) == null)) {
+			return true;
+		}
+
+		if (isSampled()) {
+			return true;
+		}
+
+		long tokenAgeMs = this.oauthConfiguration.getHybridIntrospectTokenAgeMs();
+		return tokenAgeMs > 0 && time.milliseconds() - TimeUnit.SECONDS.toMillis(claims.getIssuedAt()) >= tokenAgeMs;
+	}
+
+	/**
+	 * Handles an access token that cannot be validated locally, introspecting it instead if the fallback is enabled
+	 * and the failure allows it.
+	 *
+	 * @param e           the local validation failure
+	 * @param accessToken the access token string
+	 * @return a JWT token if the introspected access token is active, or null
+	 * @throws IOException if the fallback call to OAuth Server fails
+	 */
+	private OAuthBearerTokenJwt handleLocalValidationFailure(JwtValidationException e, String accessToken) throws IOException {
+		if (e.isFallbackAllowed() && this.oauthConfiguration.getIntrospectionFallback()) {
+			log.warn("Access token cannot be validated locally, validate it against OAuth server, Message: {}", e.getMessage());
+			return introspectAccessToken(accessToken);
+		}
+
+		log.error("Access token is not valid, Message: {}", e.getMessage());
+		return null;
+	}
+
+	/**
+	 * Parses the body of a successful response of the OAuth Server.
+	 *
+	 * @param urlStr   OAuth Server URL
+	 * @param response the HTTP response
+	 * @return the decoded response, or null if the response is not JSON
+	 * @throws IOException if the body cannot be read
+	 */
+	private static OAuthResponse parseResponse(String urlStr, HttpTransport.HttpResponse response) throws IOException {
+		try {
+			return OAuthResponse.parse(response.getBody());
+		} catch (JsonProcessingException e) {
+			log.error("Error converting HTTP JSON response, Url: {}, Message: {}.", urlStr, e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Draws whether hybrid validation introspects an access token at random.
+	 *
+	 * @return true if the access token is sampled
+	 */
+	private boolean isSampled() {
+		double sampleRate = this.oauthConfiguration.getHybridIntrospectSampleRate();
+		return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+	}
+
+	/**
+	 * Gets when hybrid validation introspects an access token because of its age.
+	 *
+	 * @param token the validated token
+	 * @return the time in milliseconds since the epoch, or Long.MIN_VALUE if the age does not matter
+	 */
+	private long getHybridIntrospectAtMs(OAuthBearerTokenJwt token) {
+		long tokenAgeMs = this.oauthConfiguration.getHybridIntrospectTokenAgeMs();
+		if (tokenAgeMs <= 0 || token.startTimeMs() < 0) {
+			return Long.MIN_VALUE;
+		}
+
+		return TimeUnit.SECONDS.toMillis(token.startTimeMs()) + tokenAgeMs;
+	}
+
+	/**
+	 * Handles a locally valid access token that could not be introspected because the OAuth server is unavailable.
+	 *
+	 * @param claims      the verified claims of the access token
+	 * @param accessToken the access token string
+	 * @param reason      why the OAuth server is considered unavailable
+	 * @return an unconfirmed token if hybrid validation fails open, or null
+	 */
+	private OAuthBearerTokenJwt acceptUnconfirmed(JwtClaims claims, String accessToken, String reason) {
+		this.hybridIntrospectionFailures.increment();
+		if (!this.oauthConfiguration.getHybridFailOpen()) {
+			log.error("Error introspecting access token against OAuth server, the server is unavailable, rejecting the access token, {}.", reason);
+			return null;
+		}
+
+		// the signature and claims are verified, an unavailable OAuth server must not lock out every new client
+		log.warn("Error introspecting access token against OAuth server, the server is unavailable, using the local validation, {}.", reason);
+		return new UnconfirmedOAuthBearerTokenJwt(claims, accessToken);
+	}
+
+	/**
+	 * Waits for the result of a validation started by another thread.
+	 *
+	 * @param validation the validation
+	 * @return the validated token, or null if the access token is not valid
+	 * @throws IOException if the validation failed
+	 */
+	private static OAuthBearerTokenJwt awaitValidation(CompletableFuture<OAuthBearerTokenJwt> validation) throws IOException {
+		try {
+			return validation.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for the access token validation.", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IOException("Error validating access token: " + cause.getMessage(), cause);
+		}
+	}
+
+	/**
+	 * Creates the transport of the HTTP calls to the OAuth server for a configuration.
+	 *
+	 * @param oauthConfiguration the oauth configuration
+	 * @param sslSocketFactory   the factory of the TLS connections
+	 * @return the HTTP transport
+	 */
+	private static HttpTransport createHttpTransport(OAuthConfiguration oauthConfiguration, SSLSocketFactory sslSocketFactory) {
+		boolean verifyHostname = !Boolean.TRUE.equals(oauthConfiguration.getUnsecureServer());
+		if (oauthConfiguration.getHttpTransport() == HttpTransportType.URLCONNECTION) {
+			return new UrlConnectionHttpTransport(
+					sslSocketFactory,
+					verifyHostname,
+					oauthConfiguration.getHttpConnectTimeoutMs(),
+					oauthConfiguration.getHttpReadTimeoutMs());
+		}
+
+		return new PooledHttpTransport(
+				sslSocketFactory,
+				verifyHostname,
+				oauthConfiguration.getHttpMaxIdleConnectionsPerHost(),
+				oauthConfiguration.getHttpKeepAliveMs(),
+				oauthConfiguration.getHttpConnectTimeoutMs(),
+				oauthConfiguration.getHttpReadTimeoutMs(),
+				time);
+	}
+
+	/**
+	 * Creates the cache of validated access tokens for a configuration.
+	 *
+	 * @param oauthConfiguration the oauth configuration
+	 * @return the validation cache
+	 */
+	private static BoundedExpiringCache<String, CompactOAuthBearerTokenJwt> createValidationCache(OAuthConfiguration oauthConfiguration) {
+		int maxEntries = oauthConfiguration.getValidationCacheTtlMs() > 0
+				? oauthConfiguration.getValidationCacheMaxEntries()
+				: 0;
+
+		return new BoundedExpiringCache<>(maxEntries, time);
+	}
+
+	/**
+	 * Creates the cache of rejected access tokens for a configuration.
+	 *
+	 * @param oauthConfiguration the oauth configuration
+	 * @return the negative cache
+	 */
+	private static BoundedExpiringCache<String, Boolean> createNegativeCache(OAuthConfiguration oauthConfiguration) {
+		int maxEntries = oauthConfiguration.getNegativeCacheTtlMs() > 0
+				? oauthConfiguration.getNegativeCacheMaxEntries()
+				: 0;
+
+		return new BoundedExpiringCache<>(maxEntries, time);
+	}
+
+	//endregion
+
+	//region Private Classes
+
+	/**
+	 * A locally valid access token that hybrid validation accepted without the confirmation of the OAuth server.
+	 */
+	private static final class UnconfirmedOAuthBearerTokenJwt extends OAuthBearerTokenJwt {
+
+		private UnconfirmedOAuthBearerTokenJwt(JwtClaims claims, String accessToken) {
+			super(claims, accessToken);
+		}
+	}
+
 	//endregion
 }
@@ -0,0 +1,114 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.acl.AclOperation;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Encodes sets of operations as bit masks, one bit per {@link AclOperation}, and applies the implication rules of
+ * Kafka ACLs when an operation is granted: {@code ALL} grants every operation, {@code READ}, {@code WRITE},
+ * {@code DELETE} and {@code ALTER} grant {@code DESCRIBE}, and {@code ALTER_CONFIGS} grants
+ * {@code DESCRIBE_CONFIGS}. The implied operations of every operation are computed once, so checking an operation
+ * against a mask is a single AND.
+ */
+public final class OperationMask {
+
+	//region Constants
+
+	/**
+	 * The mask without operations.
+	 */
+	public static final long NONE = 0L;
+
+	private static final long[] IMPLIED = new long[AclOperation.values().length];
+	private static final Map<String, AclOperation> OPERATIONS = new HashMap<>();
+
+	static {
+		long all = NONE;
+		for (AclOperation operation : AclOperation.values()) {
+			if (operation != AclOperation.UNKNOWN && operation != AclOperation.ANY) {
+				IMPLIED[operation.ordinal()] = of(operation);
+				all |= of(operation);
+			}
+			// operations are named with or without underscores, e.g. describe_configs or DescribeConfigs
+			OPERATIONS.put(operation.name().replace("_", "").toLowerCase(Locale.ROOT), operation);
+		}
+
+		IMPLIED[AclOperation.ALL.ordinal()] = all;
+		for (AclOperation operation : new AclOperation[]{AclOperation.READ, AclOperation.WRITE, AclOperation.DELETE, AclOperation.ALTER}) {
+			IMPLIED[operation.ordinal()] |= of(AclOperation.DESCRIBE);
+		}
+		IMPLIED[AclOperation.ALTER_CONFIGS.ordinal()] |= of(AclOperation.DESCRIBE_CONFIGS);
+	}
+
+	//endregion
+
+	//region Constructors
+
+	private OperationMask() {
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Gets the bit of an operation.
+	 *
+	 * @param operation the operation
+	 * @return the mask with only the bit of the operation
+	 */
+	public static long of(AclOperation operation) {
+		return 1L << operation.ordinal();
+	}
+
+	/**
+	 * Gets the operations granted by granting an operation, including the operation itself.
+	 *
+	 * @param operation the granted operation
+	 * @return the mask of the granted operations, {@link #NONE} for {@code UNKNOWN} and {@code ANY}
+	 */
+	public static long implied(AclOperation operation) {
+		return IMPLIED[operation.ordinal()];
+	}
+
+	/**
+	 * Checks whether a mask of granted operations allows an operation.
+	 *
+	 * @param granted   the mask of granted operations
+	 * @param operation the requested operation
+	 * @return true if the operation is granted
+	 */
+	public static boolean grants(long granted, AclOperation operation) {
+		return (granted & of(operation)) != 0;
+	}
+
+	/**
+	 * Parses an operation name, ignoring case and underscores.
+	 *
+	 * @param name the operation name, e.g. {@code describe_configs}
+	 * @return the operation, or null if the name is not an operation
+	 */
+	public static AclOperation parse(String name) {
+		return OPERATIONS.get(name.replace("_", "").toLowerCase(Locale.ROOT));
+	}
+
+	//endregion
+}
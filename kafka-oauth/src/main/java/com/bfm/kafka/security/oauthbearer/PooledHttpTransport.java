@@ -0,0 +1,522 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.utils.Time;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends requests over HTTP/1.1 keep-alive connections that are pooled per OAuth server host, so that a SASL
+ * handshake does not pay for a TCP and TLS handshake with the OAuth server.
+ * <p>
+ * Every host keeps at most a bounded number of idle connections; a connection that is returned while the pool
+ * is full, or that stayed idle longer than the keep-alive time, is closed. A request that fails on a reused
+ * connection before any byte of the response was received is sent once more on a new connection, because the
+ * OAuth server may have closed the idle connection in the meantime. Redirects are not followed.
+ */
+public class PooledHttpTransport implements HttpTransport {
+
+	//region Constants
+
+	private static final int MAX_LINE_LENGTH = 8192;
+	private static final int MAX_HEADERS = 100;
+	private static final int MAX_RESPONSE_BYTES = 1024 * 1024;
+
+	//endregion
+
+	//region Member Variables
+
+	private static final Logger log = LoggerFactory.getLogger(PooledHttpTransport.class);
+	private final SSLSocketFactory sslSocketFactory;
+	private final boolean verifyHostname;
+	private final int maxIdleConnectionsPerHost;
+	private final long keepAliveMs;
+	private final int connectTimeoutMs;
+	private final int readTimeoutMs;
+	private final Time time;
+	private final ConcurrentHashMap<String, ArrayDeque<Connection>> idleConnections = new ConcurrentHashMap<>();
+	private volatile boolean closed;
+
+	private final LongAdder requests = new LongAdder();
+	private final LongAdder connectionsCreated = new LongAdder();
+	private final LongAdder connectionsReused = new LongAdder();
+
+	//endregion
+
+	//region Constructors
+
+	/**
+	 * Instantiates a new pooled HTTP transport.
+	 *
+	 * @param sslSocketFactory          the factory of the TLS connections
+	 * @param verifyHostname            whether the host name of the OAuth server must match its certificate
+	 * @param maxIdleConnectionsPerHost the maximum number of idle connections kept per host, zero disables reuse
+	 * @param keepAliveMs               how long an idle connection is kept
+	 * @param connectTimeoutMs          the connect timeout in milliseconds
+	 * @param readTimeoutMs             the read timeout in milliseconds
+	 * @param time                      the clock
+	 */
+	public PooledHttpTransport(SSLSocketFactory sslSocketFactory, boolean verifyHostname, int maxIdleConnectionsPerHost,
+			long keepAliveMs, int connectTimeoutMs, int readTimeoutMs, Time time) {
+		if (maxIdleConnectionsPerHost < 0) {
+			throw new IllegalArgumentException("The maximum number of idle connections cannot be negative.");
+		}
+
+		this.sslSocketFactory = Objects.requireNonNull(sslSocketFactory);
+		this.verifyHostname = verifyHostname;
+		this.maxIdleConnectionsPerHost = maxIdleConnectionsPerHost;
+		this.keepAliveMs = keepAliveMs;
+		this.connectTimeoutMs = connectTimeoutMs;
+		this.readTimeoutMs = readTimeoutMs;
+		this.time = Objects.requireNonNull(time);
+	}
+
+	//endregion
+
+	//region Public Properties
+
+	@Override
+	public long getRequests() {
+		return this.requests.sum();
+	}
+
+	@Override
+	public long getConnectionsCreated() {
+		return this.connectionsCreated.sum();
+	}
+
+	@Override
+	public long getConnectionsReused() {
+		return this.connectionsReused.sum();
+	}
+
+	@Override
+	public int getIdleConnections() {
+		int count = 0;
+		for (ArrayDeque<Connection> connections : this.idleConnections.values()) {
+			synchronized (connections) {
+				count += connections.size();
+			}
+		}
+		return count;
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	@Override
+	public HttpResponse post(String url, String authorizationHeaderValue, byte[] formBody) throws IOException {
+		Objects.requireNonNull(url);
+		Objects.requireNonNull(formBody);
+
+		Route route = Route.of(url);
+		byte[] request = createRequest(route, authorizationHeaderValue, formBody);
+		this.requests.increment();
+
+		while (true) {
+			Connection connection = acquire(route);
+			boolean reused = connection != null;
+			if (reused) {
+				this.connectionsReused.increment();
+			} else {
+				connection = connect(route);
+				this.connectionsCreated.increment();
+			}
+
+			try {
+				HttpResponse response = connection.exchange(request);
+				if (connection.keepAlive) {
+					release(route, connection);
+				} else {
+					connection.close();
+				}
+				return response;
+			} catch (IOException e) {
+				connection.close();
+				if (reused && !connection.responseStarted && !(e instanceof SocketTimeoutException)) {
+					log.debug("Kept-alive connection was closed by the server, send the request again, Host: {}.", route.key);
+					continue;
+				}
+				throw e;
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		this.closed = true;
+		for (ArrayDeque<Connection> connections : this.idleConnections.values()) {
+			synchronized (connections) {
+				Connection connection;
+				while ((connection = connections.pollFirst()) != null) {
+					connection.close();
+				}
+			}
+		}
+	}
+
+	//endregion
+
+	//region Private Methods
+
+	private Connection acquire(Route route) {
+		ArrayDeque<Connection> connections = this.idleConnections.get(route.key);
+		if (connections == null) {
+			return null;
+		}
+
+		long now = this.time.milliseconds();
+		synchronized (connections) {
+			Connection connection;
+			while ((connection = connections.pollFirst()) != null) {
+				if (now - connection.idleSinceMs < this.keepAliveMs && !connection.socket.isClosed()) {
+					return connection;
+				}
+				connection.close();
+			}
+		}
+		return null;
+	}
+
+	private void release(Route route, Connection connection) {
+		if (this.closed || this.maxIdleConnectionsPerHost == 0) {
+			connection.close();
+			return;
+		}
+
+		ArrayDeque<Connection> connections = this.idleConnections.computeIfAbsent(route.key, key -> new ArrayDeque<>());
+		connection.idleSinceMs = this.time.milliseconds();
+		synchronized (connections) {
+			if (connections.size() < this.maxIdleConnectionsPerHost) {
+				// the most recently used connection is reused first, so that surplus connections age out
+				connections.addFirst(connection);
+				return;
+			}
+		}
+		connection.close();
+	}
+
+	private Connection connect(Route route) throws IOException {
+		log.debug("Open a new connection, Host: {}.", route.key);
+
+		Socket socket = new Socket();
+		try {
+			socket.setTcpNoDelay(true);
+			socket.setKeepAlive(true);
+			socket.connect(new InetSocketAddress(route.address, route.port), this.connectTimeoutMs);
+			socket.setSoTimeout(this.readTimeoutMs);
+
+			if (route.secure) {
+				SSLSocket sslSocket = (SSLSocket) this.sslSocketFactory.createSocket(socket, route.address, route.port, true);
+				if (this.verifyHostname) {
+					SSLParameters parameters = sslSocket.getSSLParameters();
+					parameters.setEndpointIdentificationAlgorithm("HTTPS");
+					sslSocket.setSSLParameters(parameters);
+				}
+				sslSocket.startHandshake();
+				socket = sslSocket;
+			}
+
+			return new Connection(socket);
+		} catch (IOException | RuntimeException e) {
+			socket.close();
+			throw e;
+		}
+	}
+
+	private static byte[] createRequest(Route route, String authorizationHeaderValue, byte[] formBody) {
+		StringBuilder head = new StringBuilder(256)
+				.append("POST ").append(route.target).append(" HTTP/1.1\r\n")
+				.append("Host: ").append(route.hostHeader).append("\r\n")
+				.append("Content-Type: application/x-www-form-urlencoded; charset=utf-8\r\n")
+				.append("Accept: application/json\r\n")
+				.append("Content-Length: ").append(formBody.length).append("\r\n");
+		if (authorizationHeaderValue != null) {
+			head.append("Authorization: ").append(authorizationHeaderValue).append("\r\n");
+		}
+		head.append("\r\n");
+
+		byte[] headBytes = head.toString().getBytes(StandardCharsets.ISO_8859_1);
+		byte[] request = new byte[headBytes.length + formBody.length];
+		System.arraycopy(headBytes, 0, request, 0, headBytes.length);
+		System.arraycopy(formBody, 0, request, headBytes.length, formBody.length);
+		return request;
+	}
+
+	//endregion
+
+	//region Nested Classes
+
+	/**
+	 * The scheme, host and port a connection is bound to, and the parts of the request line derived from the url.
+	 */
+	private static final class Route {
+		private final String key;
+		private final boolean secure;
+		private final String address;
+		private final int port;
+		private final String hostHeader;
+		private final String target;
+
+		private Route(String key, boolean secure, String address, int port, String hostHeader, String target) {
+			this.key = key;
+			this.secure = secure;
+			this.address = address;
+			this.port = port;
+			this.hostHeader = hostHeader;
+			this.target = target;
+		}
+
+		private static Route of(String url) throws IOException {
+			URI uri;
+			try {
+				uri = URI.create(url);
+			} catch (IllegalArgumentException e) {
+				throw new IOException("The url is not valid, Url: " + url, e);
+			}
+
+			String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT);
+			if (!scheme.equals("http") && !scheme.equals("https") || uri.getHost() == null) {
+				throw new IOException("Only absolute http and https urls are supported, Url: " + url);
+			}
+
+			boolean secure = scheme.equals("https");
+			int defaultPort = secure ? 443 : 80;
+			int port = uri.getPort() == -1 ? defaultPort : uri.getPort();
+			String host = uri.getHost();
+			String address = host.startsWith("[") ? host.substring(1, host.length() - 1) : host;
+			String hostHeader = port == defaultPort ? host : host + ":" + port;
+
+			String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+			String target = uri.getRawQuery() == null ? path : path + "?" + uri.getRawQuery();
+
+			return new Route(scheme + "://" + host + ":" + port, secure, address, port, hostHeader, target);
+		}
+	}
+
+	/**
+	 * A connection to the OAuth server that reads one HTTP/1.1 response at a time.
+	 */
+	private static final class Connection {
+		private final Socket socket;
+		private final InputStream in;
+		private final OutputStream out;
+		private long idleSinceMs;
+		private boolean keepAlive;
+		private boolean responseStarted;
+
+		private Connection(Socket socket) throws IOException {
+			this.socket = socket;
+			this.in = new BufferedInputStream(socket.getInputStream(), 8192);
+			this.out = new BufferedOutputStream(socket.getOutputStream(), 8192);
+		}
+
+		private HttpResponse exchange(byte[] request) throws IOException {
+			this.keepAlive = false;
+			this.responseStarted = false;
+
+			this.out.write(request);
+			this.out.flush();
+
+			int statusCode;
+			boolean http10;
+			long contentLength;
+			boolean chunked;
+			boolean closeRequested;
+			do {
+				String statusLine = readLine(true);
+				if (!statusLine.startsWith("HTTP/1.") || statusLine.length() < 12) {
+					throw new IOException("Malformed HTTP status line: " + statusLine);
+				}
+				http10 = statusLine.startsWith("HTTP/1.0");
+				try {
+					statusCode = Integer.parseInt(statusLine.substring(9, 12));
+				} catch (NumberFormatException e) {
+					throw new IOException("Malformed HTTP status line: " + statusLine, e);
+				}
+
+				contentLength = -1;
+				chunked = false;
+				closeRequested = http10;
+				for (int i = 0; ; i++) {
+					String header = readLine(false);
+					if (header.isEmpty()) {
+						break;
+					}
+					if (i == MAX_HEADERS) {
+						throw new IOException("Too many HTTP response headers.");
+					}
+
+					int colon = header.indexOf(':');
+					if (colon <= 0) {
+						continue;
+					}
+					String name = header.substring(0, colon).trim();
+					String value = header.substring(colon + 1).trim();
+					if (name.equalsIgnoreCase("Content-Length")) {
+						try {
+							contentLength = Long.parseLong(value);
+						} catch (NumberFormatException e) {
+							throw new IOException("Malformed Content-Length header: " + value, e);
+						}
+					} else if (name.equalsIgnoreCase("Transfer-Encoding")) {
+						chunked = value.toLowerCase(Locale.ROOT).contains("chunked");
+					} else if (name.equalsIgnoreCase("Connection")) {
+						String connection = value.toLowerCase(Locale.ROOT);
+						closeRequested = connection.contains("close") || (http10 && !connection.contains("keep-alive"));
+					}
+				}
+			} while (statusCode >= 100 && statusCode < 200);
+
+			byte[] body;
+			boolean reusable = !closeRequested;
+			if (statusCode == 204 || statusCode == 304) {
+				body = new byte[0];
+			} else if (chunked) {
+				body = readChunkedBody();
+			} else if (contentLength >= 0) {
+				body = readBody(contentLength);
+			} else {
+				// the end of the body is the end of the connection
+				body = readToEnd();
+				reusable = false;
+			}
+
+			this.keepAlive = reusable;
+			return new HttpResponse(statusCode, body);
+		}
+
+		private byte[] readBody(long length) throws IOException {
+			if (length > MAX_RESPONSE_BYTES) {
+				throw new IOException("HTTP response body is too large, Length: " + length);
+			}
+
+			byte[] body = new byte[(int) length];
+			int offset = 0;
+			while (offset < body.length) {
+				int read = this.in.read(body, offset, body.length - offset);
+				if (read == -1) {
+					throw new EOFException("Connection closed before the HTTP response body was read.");
+				}
+				offset += read;
+			}
+			return body;
+		}
+
+		private byte[] readChunkedBody() throws IOException {
+			ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+			while (true) {
+				String sizeLine = readLine(false);
+				int extension = sizeLine.indexOf(';');
+				long size;
+				try {
+					size = Long.parseLong((extension >= 0 ? sizeLine.substring(0, extension) : sizeLine).trim(), 16);
+				} catch (NumberFormatException e) {
+					throw new IOException("Malformed HTTP chunk size: " + sizeLine, e);
+				}
+
+				if (size == 0) {
+					// skip the trailers
+					while (!readLine(false).isEmpty()) {
+						// ignore
+					}
+					return body.toByteArray();
+				}
+
+				if (body.size() + size > MAX_RESPONSE_BYTES) {
+					throw new IOException("HTTP response body is too large.");
+				}
+				body.write(readBody(size));
+				if (!readLine(false).isEmpty()) {
+					throw new IOException("Malformed HTTP chunk.");
+				}
+			}
+		}
+
+		private byte[] readToEnd() throws IOException {
+			ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = this.in.read(buffer)) != -1) {
+				if (body.size() + read > MAX_RESPONSE_BYTES) {
+					throw new IOException("HTTP response body is too large.");
+				}
+				body.write(buffer, 0, read);
+			}
+			return body.toByteArray();
+		}
+
+		private String readLine(boolean first) throws IOException {
+			StringBuilder line = new StringBuilder(64);
+			while (true) {
+				int c = this.in.read();
+				if (c == -1) {
+					if (first && line.length() == 0) {
+						throw new EOFException("Connection closed before the HTTP response was received.");
+					}
+					throw new EOFException("Connection closed in the middle of the HTTP response.");
+				}
+				if (first) {
+					this.responseStarted = true;
+				}
+				if (c == '\n') {
+					int length = line.length();
+					if (length > 0 && line.charAt(length - 1) == '\r') {
+						line.setLength(length - 1);
+					}
+					return line.toString();
+				}
+				if (line.length() == MAX_LINE_LENGTH) {
+					throw new IOException("HTTP response line is too long.");
+				}
+				line.append((char) c);
+			}
+		}
+
+		private void close() {
+			try {
+				this.socket.close();
+			} catch (IOException e) {
+				log.debug("Error closing connection, Message: {}", e.getMessage());
+			}
+		}
+	}
+
+	//endregion
+}
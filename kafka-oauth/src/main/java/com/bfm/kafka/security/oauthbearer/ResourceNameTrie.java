@@ -0,0 +1,159 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An immutable prefix trie of resource name prefixes, which tells whether a resource name starts with any of them
+ * and which operations the matching prefixes grant.
+ * <p>
+ * Every node keeps the characters of its children in a sorted array that is searched with a binary search, so a
+ * lookup walks the resource name once, takes time proportional to its length whatever the number of prefixes, and
+ * does not allocate. An empty prefix matches every name.
+ */
+public final class ResourceNameTrie {
+
+	//region Constants
+
+	private static final long ALL_VALUES = -1L;
+
+	//endregion
+
+	//region Member Variables
+
+	private final Node root;
+
+	//endregion
+
+	//region Constructors
+
+	private ResourceNameTrie(Node root) {
+		this.root = root;
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Compiles a trie of the given prefixes.
+	 *
+	 * @param prefixes the prefixes, compared case-sensitively
+	 * @return the trie
+	 */
+	public static ResourceNameTrie compile(Collection<String> prefixes) {
+		Map<String, Long> masks = new HashMap<>();
+		for (String prefix : prefixes) {
+			masks.put(prefix, ALL_VALUES);
+		}
+		return compile(masks);
+	}
+
+	/**
+	 * Compiles a trie of the given prefixes and the operation masks they grant.
+	 *
+	 * @param prefixes the operation masks by prefix, prefixes are compared case-sensitively
+	 * @return the trie
+	 */
+	public static ResourceNameTrie compile(Map<String, Long> prefixes) {
+		MutableNode root = new MutableNode();
+		for (Map.Entry<String, Long> prefix : prefixes.entrySet()) {
+			MutableNode node = root;
+			for (int i = 0; i < prefix.getKey().length(); i++) {
+				node = node.children.computeIfAbsent(prefix.getKey().charAt(i), c -> new MutableNode());
+			}
+			node.mask |= prefix.getValue();
+		}
+		return new ResourceNameTrie(root.toNode(0L));
+	}
+
+	/**
+	 * Checks whether the name starts with one of the prefixes.
+	 *
+	 * @param name the resource name
+	 * @return true if a prefix matches
+	 */
+	public boolean matches(String name) {
+		return match(name) != 0L;
+	}
+
+	/**
+	 * Gets the operations the prefixes of the name grant.
+	 *
+	 * @param name the resource name
+	 * @return the union of the masks of every prefix of the name, 0 if no prefix matches
+	 */
+	public long match(String name) {
+		Node node = this.root;
+		for (int i = 0; ; i++) {
+			if (node.labels.length == 0 || i == name.length()) {
+				// the mask of a node includes the masks of the shorter prefixes above it
+				return node.mask;
+			}
+
+			int child = Arrays.binarySearch(node.labels, name.charAt(i));
+			if (child < 0) {
+				return node.mask;
+			}
+			node = node.children[child];
+		}
+	}
+
+	//endregion
+
+	//region Private Classes
+
+	private static final class Node {
+		private final long mask;
+		private final char[] labels;
+		private final Node[] children;
+
+		private Node(long mask, char[] labels, Node[] children) {
+			this.mask = mask;
+			this.labels = labels;
+			this.children = children;
+		}
+	}
+
+	private static final class MutableNode {
+		private long mask;
+		private final Map<Character, MutableNode> children = new TreeMap<>();
+
+		private Node toNode(long inherited) {
+			long combined = inherited | this.mask;
+			char[] labels = new char[this.children.size()];
+			Node[] nodes = new Node[this.children.size()];
+			int count = 0;
+			for (Map.Entry<Character, MutableNode> child : this.children.entrySet()) {
+				Node node = child.getValue().toNode(combined);
+				// a longer prefix that grants nothing more than this one does not need to be walked
+				if (node.mask != combined || node.labels.length > 0) {
+					labels[count] = child.getKey();
+					nodes[count] = node;
+					count++;
+				}
+			}
+			return new Node(combined, Arrays.copyOf(labels, count), Arrays.copyOf(nodes, count));
+		}
+	}
+
+	//endregion
+}
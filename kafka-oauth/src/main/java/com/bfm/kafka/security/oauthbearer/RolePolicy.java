@@ -0,0 +1,143 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The scopes granted by role scopes such as {@code urn:kafka:role:payments-writer}, read from a broker-local policy
+ * file, so that access tokens can carry a few roles instead of every permission.
+ * <p>
+ * The policy file is a properties file that maps a role to its scopes, separated by whitespace:
+ * <pre>
+ * payments-writer=urn:kafka:topic:payments-*:write urn:kafka:topic:payments-*:describe
+ * </pre>
+ * Scopes may group alternatives in braces, see {@link ScopeTokenizer}. Role names are matched ignoring case. A policy is immutable, a changed file is read into a new policy.
+ */
+public final class RolePolicy {
+
+	//region Constants
+
+	/**
+	 * The prefix of role scopes.
+	 */
+	public static final String ROLE_SCOPE_PREFIX = "urn:kafka:role:";
+
+	/**
+	 * The policy without roles, role scopes grant nothing.
+	 */
+	public static final RolePolicy EMPTY = new RolePolicy(Collections.emptyMap());
+
+	//endregion
+
+	//region Member Variables
+
+	private final Map<String, List<String>> scopesByRole;
+
+	//endregion
+
+	//region Constructors
+
+	private RolePolicy(Map<String, List<String>> scopesByRole) {
+		this.scopesByRole = scopesByRole;
+	}
+
+	//endregion
+
+	//region Public Properties
+
+	/**
+	 * Gets the number of roles.
+	 *
+	 * @return the number of roles
+	 */
+	public int size() {
+		return this.scopesByRole.size();
+	}
+
+	public boolean isEmpty() {
+		return this.scopesByRole.isEmpty();
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Reads a policy file.
+	 *
+	 * @param inputStream the policy file
+	 * @return the policy
+	 * @throws IOException if the file cannot be read
+	 */
+	public static RolePolicy parse(InputStream inputStream) throws IOException {
+		Properties properties = new Properties();
+		properties.load(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+
+		Map<String, List<String>> scopesByRole = new HashMap<>();
+		for (String role : properties.stringPropertyNames()) {
+			List<String> tokens = new ArrayList<>();
+			ScopeTokenizer.split(properties.getProperty(role), tokens);
+			List<String> scopes = new ArrayList<>(tokens.size());
+			for (String token : tokens) {
+				ScopeTokenizer.expand(token, scopes);
+			}
+			scopesByRole.put(role.trim().toLowerCase(Locale.ROOT), Collections.unmodifiableList(scopes));
+		}
+		return scopesByRole.isEmpty() ? EMPTY : new RolePolicy(scopesByRole);
+	}
+
+	/**
+	 * Checks whether a scope is a role scope.
+	 *
+	 * @param scope the scope
+	 * @return true if the scope names a role
+	 */
+	public static boolean isRoleScope(String scope) {
+		return scope.regionMatches(true, 0, ROLE_SCOPE_PREFIX, 0, ROLE_SCOPE_PREFIX.length());
+	}
+
+	/**
+	 * Gets the scopes granted by a role scope.
+	 *
+	 * @param roleScope the role scope, e.g. {@code urn:kafka:role:payments-writer}
+	 * @return the scopes of the role, empty if the policy does not define the role
+	 */
+	public List<String> getScopes(String roleScope) {
+		String role = roleScope.substring(ROLE_SCOPE_PREFIX.length()).toLowerCase(Locale.ROOT);
+		List<String> scopes = this.scopesByRole.get(role);
+		return scopes == null ? Collections.emptyList() : scopes;
+	}
+
+	@Override
+	public String toString() {
+		return "RolePolicy{" +
+				"roles=" + scopesByRole.keySet() +
+				'}';
+	}
+
+	//endregion
+}
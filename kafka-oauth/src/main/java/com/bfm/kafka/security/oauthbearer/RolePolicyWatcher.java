@@ -0,0 +1,208 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.utils.KafkaThread;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the role policy of the authorizer up to date with its policy file.
+ * <p>
+ * A background thread checks the modification time and size of the file at a fixed interval and reads it again
+ * when either changed. The new policy replaces the current one with a single volatile write, so authorizations
+ * never wait for a reload; tokens pick up the new policy the next time their scopes are looked up. A file that
+ * cannot be read or parsed is logged and the current policy is kept.
+ */
+public class RolePolicyWatcher implements Closeable {
+
+	//region Constants
+
+	private static final String OAUTH_ROLE_POLICY_FILE = "oauth.authorizer.role.policy.file";
+	private static final String OAUTH_ROLE_POLICY_RELOAD_INTERVAL_MS = "oauth.authorizer.role.policy.reload.interval.ms";
+	private static final long DEFAULT_RELOAD_INTERVAL_MS = 10000L;
+
+	//endregion
+
+	//region Member Variables
+
+	private static final Logger log = LoggerFactory.getLogger(RolePolicyWatcher.class);
+	private final Path path;
+	private final long reloadIntervalMs;
+
+	private volatile RolePolicy policy = RolePolicy.EMPTY;
+	private FileTime lastModified;
+	private long lastSize = -1;
+	private ScheduledExecutorService scheduler;
+
+	private final LongAdder reloads = new LongAdder();
+	private final LongAdder reloadFailures = new LongAdder();
+
+	//endregion
+
+	//region Constructors
+
+	/**
+	 * Instantiates a new role policy watcher.
+	 *
+	 * @param path             the policy file
+	 * @param reloadIntervalMs the interval at which the file is checked for changes
+	 */
+	public RolePolicyWatcher(Path path, long reloadIntervalMs) {
+		this.path = Objects.requireNonNull(path);
+		this.reloadIntervalMs = reloadIntervalMs;
+	}
+
+	//endregion
+
+	//region Public Properties
+
+	/**
+	 * Gets the current policy.
+	 *
+	 * @return the policy
+	 */
+	public RolePolicy getPolicy() {
+		return this.policy;
+	}
+
+	public Path getPath() {
+		return this.path;
+	}
+
+	public long getReloads() {
+		return this.reloads.sum();
+	}
+
+	public long getReloadFailures() {
+		return this.reloadFailures.sum();
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Creates the watcher of the policy file named in the broker configuration and reads the file.
+	 *
+	 * @param configs the broker configuration
+	 * @return the started watcher, or null if no policy file is configured
+	 * @throws IllegalStateException if the settings are invalid or the policy file cannot be read
+	 */
+	public static RolePolicyWatcher create(Map<String, ?> configs) {
+		Object file = configs.get(OAUTH_ROLE_POLICY_FILE);
+		if (file == null || Utils.isNullOrEmpty(file.toString().trim())) {
+			return null;
+		}
+
+		Object interval = configs.get(OAUTH_ROLE_POLICY_RELOAD_INTERVAL_MS);
+		long reloadIntervalMs = interval == null || Utils.isNullOrEmpty(interval.toString().trim())
+				? DEFAULT_RELOAD_INTERVAL_MS
+				: Long.parseLong(interval.toString().trim());
+		if (reloadIntervalMs <= 0) {
+			throw new IllegalStateException("The role policy reload interval must be positive.");
+		}
+
+		RolePolicyWatcher watcher = new RolePolicyWatcher(Paths.get(file.toString().trim()), reloadIntervalMs);
+		try {
+			watcher.reload();
+		} catch (IOException e) {
+			throw new IllegalStateException("Error reading the role policy file: " + watcher.getPath(), e);
+		}
+		watcher.start();
+		return watcher;
+	}
+
+	/**
+	 * Reads the policy file if it changed since it was last read.
+	 *
+	 * @return true if the policy was replaced
+	 * @throws IOException if the file cannot be read
+	 */
+	public synchronized boolean reload() throws IOException {
+		BasicFileAttributes attributes = Files.readAttributes(this.path, BasicFileAttributes.class);
+		if (attributes.lastModifiedTime().equals(this.lastModified) && attributes.size() == this.lastSize) {
+			return false;
+		}
+
+		RolePolicy loaded;
+		try (InputStream inputStream = Files.newInputStream(this.path)) {
+			loaded = RolePolicy.parse(inputStream);
+		}
+
+		this.policy = loaded;
+		this.lastModified = attributes.lastModifiedTime();
+		this.lastSize = attributes.size();
+		this.reloads.increment();
+		log.info("Read role policy, File: {}, Roles: {}.", this.path, loaded.size());
+		return true;
+	}
+
+	/**
+	 * Checks the policy file for changes in the background.
+	 */
+	public synchronized void start() {
+		if (this.scheduler != null) {
+			return;
+		}
+
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(
+				runnable -> KafkaThread.daemon("oauth-role-policy-watch", runnable));
+		this.scheduler.scheduleWithFixedDelay(this::scheduledReload, this.reloadIntervalMs, this.reloadIntervalMs, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops checking the policy file.
+	 */
+	@Override
+	public synchronized void close() {
+		if (this.scheduler != null) {
+			this.scheduler.shutdownNow();
+			this.scheduler = null;
+		}
+	}
+
+	//endregion
+
+	//region Private Methods
+
+	private void scheduledReload() {
+		try {
+			reload();
+		} catch (IOException | RuntimeException e) {
+			// keep authorizing with the current policy
+			this.reloadFailures.increment();
+			log.error("Error reading role policy, File: {}, Message: {}", this.path, e.getMessage());
+		}
+	}
+
+	//endregion
+}
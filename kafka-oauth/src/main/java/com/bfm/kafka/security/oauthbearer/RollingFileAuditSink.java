@@ -0,0 +1,126 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends authorization audit records as JSON lines to a file. When the file reaches its maximum size it is
+ * renamed to {@code <file>.1}, the older files move up by one and the oldest beyond the maximum number of files
+ * is deleted.
+ */
+public class RollingFileAuditSink implements AuditSink {
+
+	//region Member Variables
+
+	private final Path path;
+	private final long maxBytes;
+	private final int maxFiles;
+	private Writer writer;
+	private long size;
+
+	//endregion
+
+	//region Constructors
+
+	/**
+	 * Instantiates a new rolling file audit sink.
+	 *
+	 * @param path     the audit file
+	 * @param maxBytes the size at which the file is rolled over
+	 * @param maxFiles the number of rolled over files that are kept
+	 * @throws IOException if the file cannot be opened
+	 */
+	public RollingFileAuditSink(String path, long maxBytes, int maxFiles) throws IOException {
+		this.path = Paths.get(path);
+		this.maxBytes = maxBytes;
+		this.maxFiles = maxFiles;
+		open();
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	@Override
+	public void write(List<AuditRecord> records) throws IOException {
+		for (AuditRecord record : records) {
+			String line = record.toJson();
+			this.writer.write(line);
+			this.writer.write('\n');
+			// the records are ASCII apart from names, so the character count is close enough to the size
+			this.size += line.length() + 1;
+			if (this.size >= this.maxBytes) {
+				roll();
+			}
+		}
+		this.writer.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.writer.close();
+	}
+
+	//endregion
+
+	//region Private Methods
+
+	private void open() throws IOException {
+		Path parent = this.path.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		this.writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(
+				this.path, StandardOpenOption.CREATE, StandardOpenOption.APPEND), StandardCharsets.UTF_8));
+		this.size = Files.size(this.path);
+	}
+
+	private void roll() throws IOException {
+		this.writer.close();
+
+		Files.deleteIfExists(rolledPath(this.maxFiles));
+		for (int i = this.maxFiles - 1; i >= 1; i--) {
+			Path rolled = rolledPath(i);
+			if (Files.exists(rolled)) {
+				Files.move(rolled, rolledPath(i + 1), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		if (this.maxFiles > 0) {
+			Files.move(this.path, rolledPath(1), StandardCopyOption.REPLACE_EXISTING);
+		} else {
+			Files.delete(this.path);
+		}
+
+		open();
+	}
+
+	private Path rolledPath(int index) {
+		return this.path.resolveSibling(this.path.getFileName() + "." + index);
+	}
+
+	//endregion
+}
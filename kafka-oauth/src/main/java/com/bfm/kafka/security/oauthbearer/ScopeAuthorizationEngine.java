@@ -0,0 +1,205 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.ResourceType;
+import org.apache.kafka.common.security.auth.KafkaPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * The scope authorization shared by {@link CustomAuthorizer} and the authorizer of the KIP-504 API, which only adapt
+ * the requests of their broker API to it.
+ * <p>
+ * The engine holds the super users, the role policy, the heavy hitter tracking, the authorization audit and the
+ * authorizer metrics. It resolves the compiled scopes of a principal once per request and then decides each action
+ * against them, through the decision cache of the principal, recording the decision in the audit and the heavy
+ * hitters.
+ */
+final class ScopeAuthorizationEngine implements Closeable {
+
+	//region Member Variables
+
+	private static final Logger log = LoggerFactory.getLogger(ScopeAuthorizationEngine.class);
+	private volatile AuthorizationAuditor auditor;
+	private volatile SuperUsers superUsers = SuperUsers.EMPTY;
+	private volatile RolePolicyWatcher rolePolicyWatcher;
+	private volatile HeavyHitterTracker heavyHitterTracker;
+	private final AuthorizerMetrics metrics = new AuthorizerMetrics();
+	private ObjectName metricsName;
+
+	//endregion
+
+	//region Public Properties
+
+	AuthorizerMetrics getMetrics() {
+		return this.metrics;
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Configures the super users, the role policy, the heavy hitter tracking and the authorization audit from the
+	 * broker configuration and registers the authorizer metrics in JMX.
+	 *
+	 * @param configs the broker configuration
+	 */
+	void configure(Map<String, ?> configs) {
+		this.superUsers = SuperUsers.fromConfigs(configs);
+		log.info("Super users: {}.", this.superUsers);
+		this.rolePolicyWatcher = RolePolicyWatcher.create(configs);
+		this.heavyHitterTracker = HeavyHitterTracker.create(configs);
+		this.metrics.setHeavyHitterTracker(this.heavyHitterTracker);
+
+		try {
+			this.auditor = AuthorizationAuditor.create(new AuditConfiguration(configs));
+		} catch (IOException e) {
+			throw new IllegalStateException("Error creating the authorization audit sinks.", e);
+		}
+
+		this.metrics.setAuditor(this.auditor);
+		if (this.metricsName == null) {
+			this.metricsName = Utils.registerMBean("AuthorizerMetrics", this.metrics);
+		}
+	}
+
+	/**
+	 * Checks whether a principal is a super user, which is allowed everything without looking at its scopes.
+	 *
+	 * @param principal the principal of the request
+	 * @return true if the principal is a super user
+	 */
+	boolean isSuperUser(KafkaPrincipal principal) {
+		if (this.superUsers.contains(principal)) {
+			this.metrics.recordSuperUserAuthorization();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the compiled scopes of the principal, with role scopes expanded by the current role policy.
+	 *
+	 * @param kafkaPrincipal the principal of the request
+	 * @return the scope index, empty if the principal does not carry an access token with scopes
+	 */
+	ScopeIndex resolve(KafkaPrincipal kafkaPrincipal) {
+		if (!(kafkaPrincipal instanceof CustomPrincipal)) {
+			log.error("Session Principal is not using the proper class. Should be instance of CustomPrincipal.");
+			return ScopeIndex.EMPTY;
+		}
+
+		CustomPrincipal principal = (CustomPrincipal) kafkaPrincipal;
+		OAuthBearerTokenJwt jwt = principal.getOauthBearerTokenJwt();
+		if (jwt == null) {
+			log.error("Custom Principal does not contain token information.");
+			return ScopeIndex.EMPTY;
+		}
+
+		RolePolicyWatcher currentWatcher = this.rolePolicyWatcher;
+		RolePolicy policy = currentWatcher == null ? RolePolicy.EMPTY : currentWatcher.getPolicy();
+		ScopeIndex scopeIndex = principal.getScopeIndex();
+		if (scopeIndex == null) {
+			if (jwt.scope() == null || jwt.scope().isEmpty()) {
+				log.error("No scopes provided in JWT. Unable to Authorize.");
+				return ScopeIndex.EMPTY;
+			}
+
+			// the principal was not built by CustomPrincipalBuilder, compile its scopes now
+			return ScopeIndex.compile(jwt.scope(), policy);
+		}
+		return policy.isEmpty() ? scopeIndex : jwt.getScopeIndex(policy);
+	}
+
+	/**
+	 * Decides an action against the resolved scopes of the principal, through the decision cache of the principal,
+	 * and records the decision in the heavy hitters and, if the caller asks for decisions of its kind, in the audit.
+	 *
+	 * @param principal      the principal of the request
+	 * @param scopeIndex     the scopes resolved for the principal
+	 * @param operation      the operation
+	 * @param resourceType   the resource type
+	 * @param resourceName   the resource name
+	 * @param nowMs          the time of the request
+	 * @param auditIfAllowed true if an allowed action is audited
+	 * @param auditIfDenied  true if a denied action is audited
+	 * @return true if the action is allowed
+	 */
+	boolean decide(KafkaPrincipal principal, ScopeIndex scopeIndex, AclOperation operation, ResourceType resourceType, String resourceName, long nowMs, boolean auditIfAllowed, boolean auditIfDenied) {
+		DecisionCache decisionCache = principal instanceof CustomPrincipal ? ((CustomPrincipal) principal).getDecisionCache() : null;
+		Boolean cached = decisionCache == null ? null : decisionCache.get(scopeIndex, resourceType, operation, resourceName, nowMs);
+		boolean authorized;
+		if (cached != null) {
+			this.metrics.recordDecisionCacheHit();
+			authorized = cached;
+		} else {
+			authorized = scopeIndex.isAuthorized(resourceType, operation, resourceName);
+			if (decisionCache != null) {
+				this.metrics.recordDecisionCacheMiss();
+				decisionCache.put(scopeIndex, resourceType, operation, resourceName, authorized, nowMs);
+			}
+		}
+
+		AuthorizationAuditor currentAuditor = this.auditor;
+		if (currentAuditor != null && (authorized ? auditIfAllowed : auditIfDenied)) {
+			currentAuditor.record(principal.getName(), operation, resourceType, resourceName, authorized);
+		}
+		HeavyHitterTracker currentTracker = this.heavyHitterTracker;
+		if (currentTracker != null) {
+			currentTracker.record(principal.getName(), operation, resourceType, resourceName, authorized);
+		}
+		return authorized;
+	}
+
+	/**
+	 * Stops the role policy reload, the heavy hitter interval and the audit, and unregisters the metrics.
+	 */
+	@Override
+	public void close() {
+		Utils.unregisterMBean(this.metricsName);
+		this.metricsName = null;
+
+		RolePolicyWatcher currentWatcher = this.rolePolicyWatcher;
+		this.rolePolicyWatcher = null;
+		if (currentWatcher != null) {
+			currentWatcher.close();
+		}
+
+		HeavyHitterTracker currentTracker = this.heavyHitterTracker;
+		this.heavyHitterTracker = null;
+		this.metrics.setHeavyHitterTracker(null);
+		if (currentTracker != null) {
+			currentTracker.close();
+		}
+
+		AuthorizationAuditor currentAuditor = this.auditor;
+		this.auditor = null;
+		this.metrics.setAuditor(null);
+		if (currentAuditor != null) {
+			currentAuditor.close();
+		}
+	}
+
+	//endregion
+}
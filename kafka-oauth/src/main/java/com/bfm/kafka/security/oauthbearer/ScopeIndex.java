@@ -0,0 +1,295 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.ResourceType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The scopes of an access token, compiled into an immutable index of the operations the token may perform per
+ * resource type and resource name.
+ * <p>
+ * Scopes have the format {@code urn:kafka:<resourceType>:<resourceName>:<operation>}, several scopes can be given
+ * in one string separated by whitespace, and a scope may group alternatives in braces, e.g.
+ * {@code urn:kafka:topic:{orders,payments}:{read,describe}}, see {@link ScopeTokenizer}. A resource name that ends with {@code *} is a prefix, e.g.
+ * {@code urn:kafka:topic:orders-*:write}, and {@code *} alone matches every name. Resource types, resource names
+ * and operations are matched ignoring case. Role scopes such as {@code urn:kafka:role:payments-writer} are
+ * replaced by the scopes the {@link RolePolicy} grants the role.
+ * <p>
+ * The operations granted on a resource are kept as an {@link OperationMask} with the implied operations of Kafka
+ * ACLs already applied, so e.g. {@code write} also grants {@code describe} and {@code all} grants everything. The
+ * index is compiled once per principal, so an authorization is one enum map lookup, one hash map lookup, a walk of
+ * a {@link ResourceNameTrie} and an AND instead of parsing the scopes again, and its cost does not grow with the
+ * number of scopes.
+ */
+public final class ScopeIndex {
+
+	//region Constants
+
+	/**
+	 * The index of a token without scopes, which authorizes nothing.
+	 */
+	public static final ScopeIndex EMPTY = new ScopeIndex(new EnumMap<>(ResourceType.class), 0);
+
+	private static final int SCOPE_PARTS = 5;
+	private static final String WILDCARD = "*";
+	private static final Map<String, ResourceType> RESOURCE_TYPES = new HashMap<>();
+
+	static {
+		// scopes name resource types the way the Kafka authorizer prints them, e.g. TransactionalId
+		for (ResourceType resourceType : ResourceType.values()) {
+			RESOURCE_TYPES.put(resourceType.name().replace("_", "").toLowerCase(Locale.ROOT), resourceType);
+		}
+	}
+
+	//endregion
+
+	//region Member Variables
+
+	private static final Logger log = LoggerFactory.getLogger(ScopeIndex.class);
+	private final Map<ResourceType, ResourceNames> resourceNames;
+	private final int size;
+
+	//endregion
+
+	//region Constructors
+
+	private ScopeIndex(Map<ResourceType, ResourceNames> resourceNames, int size) {
+		this.resourceNames = resourceNames;
+		this.size = size;
+	}
+
+	//endregion
+
+	//region Public Properties
+
+	/**
+	 * Gets the number of distinct scopes in the index.
+	 *
+	 * @return the number of scopes
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Compiles the scopes of an access token. Scopes that do not have the expected format are logged and ignored.
+	 *
+	 * @param scopes the scopes of the access token, may be null
+	 * @return the scope index
+	 */
+	public static ScopeIndex compile(Collection<String> scopes) {
+		return compile(scopes, RolePolicy.EMPTY);
+	}
+
+	/**
+	 * Compiles the scopes of an access token, expanding its role scopes. Scopes that do not have the expected format
+	 * are logged and ignored, roles the policy does not define grant nothing.
+	 *
+	 * @param scopes the scopes of the access token, may be null
+	 * @param policy the role policy
+	 * @return the scope index
+	 */
+	public static ScopeIndex compile(Collection<String> scopes, RolePolicy policy) {
+		if (scopes == null || scopes.isEmpty()) {
+			return EMPTY;
+		}
+
+		// scopes may be given as one whitespace separated string and may contain groups
+		List<String> tokens = new ArrayList<>();
+		for (String scope : scopes) {
+			ScopeTokenizer.split(scope, tokens);
+		}
+		List<String> expanded = new ArrayList<>(tokens.size());
+		for (String token : tokens) {
+			ScopeTokenizer.expand(token, expanded);
+		}
+
+		// the operations granted by the scopes themselves, by resource type and name
+		Map<ResourceType, Map<String, Long>> granted = new EnumMap<>(ResourceType.class);
+		int size = 0;
+		for (String scope : expanded) {
+			size += addScope(granted, scope, policy);
+		}
+
+		if (size == 0) {
+			return EMPTY;
+		}
+
+		Map<ResourceType, ResourceNames> resourceNames = new EnumMap<>(ResourceType.class);
+		for (Map.Entry<ResourceType, Map<String, Long>> type : granted.entrySet()) {
+			resourceNames.put(type.getKey(), ResourceNames.compile(type.getValue()));
+		}
+		return new ScopeIndex(resourceNames, size);
+	}
+
+	/**
+	 * Checks whether the scopes grant the operation on the resource.
+	 *
+	 * @param resourceType the resource type
+	 * @param operation    the operation
+	 * @param resourceName the resource name
+	 * @return true if a scope grants the operation on the resource
+	 */
+	public boolean isAuthorized(ResourceType resourceType, AclOperation operation, String resourceName) {
+		ResourceNames names = this.resourceNames.get(resourceType);
+		// toLowerCase returns the same string when there is nothing to convert, which is the usual case
+		return names != null && OperationMask.grants(names.match(resourceName.toLowerCase(Locale.ROOT)), operation);
+	}
+
+	/**
+	 * Checks whether the scopes grant the operation on at least one resource of the type, whatever its name.
+	 *
+	 * @param resourceType the resource type
+	 * @param operation    the operation
+	 * @return true if a scope grants the operation on a resource of the type
+	 */
+	public boolean isAuthorizedForAny(ResourceType resourceType, AclOperation operation) {
+		ResourceNames names = this.resourceNames.get(resourceType);
+		return names != null && OperationMask.grants(names.any, operation);
+	}
+
+	//endregion
+
+	//region Private Methods
+
+	private static int addScope(Map<ResourceType, Map<String, Long>> resourceNames, String scope, RolePolicy policy) {
+		if (!RolePolicy.isRoleScope(scope)) {
+			return add(resourceNames, scope) ? 1 : 0;
+		}
+
+		List<String> roleScopes = policy.getScopes(scope);
+		if (roleScopes.isEmpty()) {
+			log.debug("Role is not defined in the role policy: {}.", scope);
+		}
+
+		int added = 0;
+		for (String roleScope : roleScopes) {
+			// roles do not nest, a role scope inside a role is not expanded
+			if (!RolePolicy.isRoleScope(roleScope) && add(resourceNames, roleScope)) {
+				added++;
+			}
+		}
+		return added;
+	}
+
+	private static boolean add(Map<ResourceType, Map<String, Long>> resourceNames, String scope) {
+		String[] parts = new String[SCOPE_PARTS];
+		int start = 0;
+		for (int i = 0; i < SCOPE_PARTS - 1; i++) {
+			int separator = scope.indexOf(':', start);
+			if (separator < 0) {
+				log.error("Unable to parse scope. Incorrect format: {}.", scope);
+				return false;
+			}
+			parts[i] = scope.substring(start, separator);
+			start = separator + 1;
+		}
+		parts[SCOPE_PARTS - 1] = scope.substring(start);
+		if (parts[SCOPE_PARTS - 1].isEmpty() || parts[SCOPE_PARTS - 1].indexOf(':') >= 0) {
+			log.error("Unable to parse scope. Incorrect format: {}.", scope);
+			return false;
+		}
+
+		ResourceType resourceType = RESOURCE_TYPES.get(parts[2].toLowerCase(Locale.ROOT));
+		AclOperation operation = OperationMask.parse(parts[4]);
+		if (resourceType == null || operation == null || OperationMask.implied(operation) == OperationMask.NONE) {
+			log.error("Unable to parse scope. Unknown resource type or operation: {}.", scope);
+			return false;
+		}
+
+		Map<String, Long> names = resourceNames.computeIfAbsent(resourceType, type -> new HashMap<>());
+		String name = parts[3].toLowerCase(Locale.ROOT);
+		long mask = names.getOrDefault(name, OperationMask.NONE);
+		if (OperationMask.grants(mask, operation)) {
+			return false;
+		}
+		names.put(name, mask | OperationMask.of(operation));
+		return true;
+	}
+
+	//endregion
+
+	//region Private Classes
+
+	/**
+	 * The operations granted on the resources of one resource type, with implied operations applied.
+	 */
+	private static final class ResourceNames {
+		private final Map<String, Long> literals;
+		private final ResourceNameTrie prefixes;
+		private final long any;
+
+		private ResourceNames(Map<String, Long> literals, ResourceNameTrie prefixes, long any) {
+			this.literals = literals;
+			this.prefixes = prefixes;
+			this.any = any;
+		}
+
+		private static ResourceNames compile(Map<String, Long> granted) {
+			Map<String, Long> literals = new HashMap<>();
+			Map<String, Long> prefixes = new HashMap<>();
+			long any = OperationMask.NONE;
+			for (Map.Entry<String, Long> name : granted.entrySet()) {
+				long mask = OperationMask.NONE;
+				for (AclOperation operation : AclOperation.values()) {
+					if (OperationMask.grants(name.getValue(), operation)) {
+						mask |= OperationMask.implied(operation);
+					}
+				}
+				any |= mask;
+
+				if (name.getKey().endsWith(WILDCARD)) {
+					prefixes.put(name.getKey().substring(0, name.getKey().length() - WILDCARD.length()), mask);
+				} else {
+					literals.put(name.getKey(), mask);
+				}
+			}
+
+			return new ResourceNames(
+					literals.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(literals),
+					prefixes.isEmpty() ? null : ResourceNameTrie.compile(prefixes),
+					any);
+		}
+
+		private long match(String name) {
+			Long literal = this.literals.get(name);
+			long mask = literal == null ? OperationMask.NONE : literal;
+			return this.prefixes == null ? mask : mask | this.prefixes.match(name);
+		}
+	}
+
+	//endregion
+}
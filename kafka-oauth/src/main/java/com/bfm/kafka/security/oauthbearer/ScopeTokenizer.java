@@ -0,0 +1,190 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits scope strings into scopes and expands grouped scopes.
+ * <p>
+ * Several scopes can be given in one string separated by whitespace. A scope may list alternatives in braces,
+ * separated by commas, anywhere in the scope, and may contain several groups:
+ * {@code urn:kafka:topic:{orders,payments}:{read,describe}} stands for the four scopes of every combination. Groups
+ * do not nest. The scanning is done by hand instead of with regular expressions, so a scope string is read once
+ * and no pattern is compiled or matched.
+ */
+public final class ScopeTokenizer {
+
+	//region Constants
+
+	/**
+	 * The maximum number of scopes a single grouped scope may expand to.
+	 */
+	public static final int MAX_EXPANDED_SCOPES = 4096;
+
+	private static final char GROUP_START = '{';
+	private static final char GROUP_END = '}';
+	private static final char ALTERNATIVE_SEPARATOR = ',';
+
+	//endregion
+
+	//region Member Variables
+
+	private static final Logger log = LoggerFactory.getLogger(ScopeTokenizer.class);
+
+	//endregion
+
+	//region Constructors
+
+	private ScopeTokenizer() {
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Splits a whitespace separated scope string into scopes. Whitespace inside a group does not separate scopes,
+	 * but a group that is never closed ends at the first whitespace after its brace, so that only the malformed
+	 * scope is rejected and the scopes after it are kept.
+	 *
+	 * @param scopes the scope string
+	 * @param result the list the scopes are added to
+	 */
+	public static void split(String scopes, List<String> result) {
+		int length = scopes.length();
+		int end = 0;
+		while (end < length) {
+			int start = end;
+			while (start < length && Character.isWhitespace(scopes.charAt(start))) {
+				start++;
+			}
+
+			end = start;
+			boolean inGroup = false;
+			int groupWhitespace = -1;
+			while (end < length && (inGroup || !Character.isWhitespace(scopes.charAt(end)))) {
+				char c = scopes.charAt(end);
+				if (c == GROUP_START && groupWhitespace >= 0) {
+					// groups do not nest, the open group was not closed before the next scope
+					break;
+				} else if (c == GROUP_START) {
+					inGroup = true;
+				} else if (c == GROUP_END) {
+					inGroup = false;
+					groupWhitespace = -1;
+				} else if (inGroup && groupWhitespace < 0 && Character.isWhitespace(c)) {
+					groupWhitespace = end;
+				}
+				end++;
+			}
+
+			if (inGroup && groupWhitespace >= 0) {
+				// the group is not closed, split the rest of the string on whitespace again
+				end = groupWhitespace;
+			}
+
+			if (start < end) {
+				result.add(scopes.substring(start, end));
+			}
+		}
+	}
+
+	/**
+	 * Expands the groups of a scope. A scope without groups is added as it is. A scope with unbalanced or nested
+	 * braces, an empty group, or more than {@link #MAX_EXPANDED_SCOPES} combinations is logged and ignored.
+	 *
+	 * @param scope  the scope
+	 * @param result the list the expanded scopes are added to
+	 * @return true if the scope could be expanded
+	 */
+	public static boolean expand(String scope, List<String> result) {
+		if (scope.indexOf(GROUP_START) < 0 && scope.indexOf(GROUP_END) < 0) {
+			result.add(scope);
+			return true;
+		}
+
+		List<String> expanded = new ArrayList<>();
+		if (!expand(scope, 0, expanded)) {
+			return false;
+		}
+		result.addAll(expanded);
+		return true;
+	}
+
+	//endregion
+
+	//region Private Methods
+
+	/**
+	 * Expands the groups of a scope from an offset on, the text before the offset has no groups.
+	 */
+	private static boolean expand(String scope, int from, List<String> result) {
+		int start = scope.indexOf(GROUP_START, from);
+		int end = scope.indexOf(GROUP_END, from);
+		if (start < 0 && end < 0) {
+			if (result.size() >= MAX_EXPANDED_SCOPES) {
+				log.error("Unable to parse scope. Too many combinations: {}.", scope);
+				return false;
+			}
+			result.add(scope);
+			return true;
+		}
+
+		if (start < 0 || end < start) {
+			log.error("Unable to parse scope. Unbalanced braces: {}.", scope);
+			return false;
+		}
+
+		int nested = scope.indexOf(GROUP_START, start + 1);
+		if (nested >= 0 && nested < end) {
+			log.error("Unable to parse scope. Nested braces: {}.", scope);
+			return false;
+		}
+
+		String head = scope.substring(0, start);
+		String tail = scope.substring(end + 1);
+		boolean found = false;
+		int alternativeStart = start + 1;
+		while (alternativeStart <= end) {
+			int alternativeEnd = alternativeStart;
+			while (alternativeEnd < end && scope.charAt(alternativeEnd) != ALTERNATIVE_SEPARATOR) {
+				alternativeEnd++;
+			}
+
+			String alternative = scope.substring(alternativeStart, alternativeEnd).trim();
+			if (!alternative.isEmpty()) {
+				found = true;
+				// the alternative contains no braces, so the tail starts the next group
+				if (!expand(head + alternative + tail, head.length() + alternative.length(), result)) {
+					return false;
+				}
+			}
+			alternativeStart = alternativeEnd + 1;
+		}
+
+		if (!found) {
+			log.error("Unable to parse scope. Empty group: {}.", scope);
+		}
+		return found;
+	}
+
+	//endregion
+}
@@ -0,0 +1,355 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.MGF1ParameterSpec;
+import java.security.spec.PSSParameterSpec;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Verifies the JWS signatures of one algorithm.
+ * <p>
+ * Looking up a {@link Signature} and initializing it with a key costs more than verifying a signature with it, so
+ * each thread keeps the signatures it has initialized for the last few keys it has seen. A signature is reset to
+ * its initialized state by every verification, so it can be used again for the next token signed with the same
+ * key without being initialized again. Keys are matched by equality, so a key published again in a later download
+ * of the JWKS document keeps its signature, and the signatures of rotated keys are evicted as the new ones are used.
+ */
+public abstract class SignatureVerifier {
+
+	//region Constants
+
+	/**
+	 * The number of keys a thread keeps initialized signatures for, per algorithm.
+	 */
+	private static final int MAX_KEYS_PER_THREAD = 4;
+
+	private static final Map<String, SignatureVerifier> VERIFIERS = createVerifiers();
+
+	//endregion
+
+	//region Member Variables
+
+	private static final Logger log = LoggerFactory.getLogger(SignatureVerifier.class);
+	private final String algorithm;
+	private final ThreadLocal<Map<PublicKey, Signature>> signatures = ThreadLocal.withInitial(InitializedSignatures::new);
+
+	//endregion
+
+	//region Constructors
+
+	private SignatureVerifier(String algorithm) {
+		this.algorithm = algorithm;
+	}
+
+	//endregion
+
+	//region Public Properties
+
+	public String getAlgorithm() {
+		return this.algorithm;
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Gets the verifier of a JWS algorithm.
+	 *
+	 * @param algorithm the JWS algorithm
+	 * @return the verifier, or null if the algorithm is not supported; none and the symmetric HS algorithms never are
+	 */
+	public static SignatureVerifier forAlgorithm(String algorithm) {
+		return algorithm == null ? null : VERIFIERS.get(algorithm);
+	}
+
+	/**
+	 * Checks whether a key can be used with the algorithm.
+	 *
+	 * @param key the public key
+	 * @return true if the key fits the algorithm
+	 */
+	public abstract boolean supports(PublicKey key);
+
+	/**
+	 * Verifies a JWS signature.
+	 *
+	 * @param key          the public key, which must fit the algorithm
+	 * @param signingInput the signed bytes
+	 * @param signature    the JWS signature
+	 * @return true if the signature is valid
+	 */
+	public boolean verify(PublicKey key, byte[] signingInput, byte[] signature) {
+		Map<PublicKey, Signature> initialized = this.signatures.get();
+		// keys are looked up by equals, so the same key parsed again from a later JWKS download finds its signature
+		Signature verifier = initialized.remove(key);
+		try {
+			if (verifier == null) {
+				verifier = createSignature();
+				verifier.initVerify(key);
+			}
+
+			verifier.update(signingInput);
+			boolean valid = verifier.verify(toJcaSignature(signature));
+
+			// only a signature that completed its verification is known to be reset
+			initialized.put(key, verifier);
+			return valid;
+		} catch (GeneralSecurityException | IllegalArgumentException e) {
+			log.debug("Error verifying access token signature, Algorithm: {}, Message: {}.", this.algorithm, e.getMessage());
+			return false;
+		}
+	}
+
+	//endregion
+
+	//region Protected Methods
+
+	/**
+	 * Creates a signature of the algorithm, ready to be initialized with a key.
+	 *
+	 * @return the signature
+	 * @throws GeneralSecurityException if the JVM does not provide the algorithm
+	 */
+	protected abstract Signature createSignature() throws GeneralSecurityException;
+
+	/**
+	 * Converts a JWS signature into the form the JCA verifies.
+	 *
+	 * @param signature the JWS signature
+	 * @return the JCA signature
+	 */
+	protected byte[] toJcaSignature(byte[] signature) {
+		return signature;
+	}
+
+	/**
+	 * Converts a JWS ECDSA signature, the concatenation of R and S, into the ASN.1 DER form used by the JCA. R and S
+	 * must each be exactly as long as the coordinates of the curve, as RFC 7518 section 3.4 requires, and neither may
+	 * be zero: some JVMs accept a signature of zeros for any message and key.
+	 *
+	 * @param jwsSignature     the JWS signature
+	 * @param coordinateLength the length of R and S in bytes, 32, 48 or 66
+	 * @return the DER encoded signature
+	 */
+	protected static byte[] toDerSignature(byte[] jwsSignature, int coordinateLength) {
+		if (jwsSignature.length != coordinateLength * 2) {
+			throw new IllegalArgumentException("ECDSA signature has an invalid length.");
+		}
+		if (isZero(jwsSignature, 0, coordinateLength) || isZero(jwsSignature, coordinateLength, coordinateLength)) {
+			throw new IllegalArgumentException("ECDSA signature has a zero R or S.");
+		}
+
+		byte[] r = toDerInteger(jwsSignature, 0, coordinateLength);
+		byte[] s = toDerInteger(jwsSignature, coordinateLength, coordinateLength);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream(r.length + s.length + 8);
+		out.write(0x30);
+		writeDerLength(out, r.length + s.length + 4);
+		out.write(0x02);
+		writeDerLength(out, r.length);
+		out.write(r, 0, r.length);
+		out.write(0x02);
+		writeDerLength(out, s.length);
+		out.write(s, 0, s.length);
+		return out.toByteArray();
+	}
+
+	//endregion
+
+	//region Private Methods
+
+	private static Map<String, SignatureVerifier> createVerifiers() {
+		Map<String, SignatureVerifier> verifiers = new HashMap<>();
+		for (int bits : new int[]{256, 384, 512}) {
+			verifiers.put("RS" + bits, new RsaVerifier("RS" + bits));
+			verifiers.put("PS" + bits, new RsaPssVerifier("PS" + bits, bits));
+		}
+		verifiers.put("ES256", new EcdsaVerifier("ES256", 256));
+		verifiers.put("ES384", new EcdsaVerifier("ES384", 384));
+		verifiers.put("ES512", new EcdsaVerifier("ES512", 521));
+		verifiers.put("EdDSA", new EdDsaVerifier());
+		return Collections.unmodifiableMap(verifiers);
+	}
+
+	private static boolean isZero(byte[] bytes, int offset, int length) {
+		int bits = 0;
+		for (int i = offset; i < offset + length; i++) {
+			bits |= bytes[i];
+		}
+		return bits == 0;
+	}
+
+	private static byte[] toDerInteger(byte[] bytes, int offset, int length) {
+		int start = offset;
+		int end = offset + length;
+		while (start < end - 1 && bytes[start] == 0) {
+			start++;
+		}
+
+		boolean padded = (bytes[start] & 0x80) != 0;
+		byte[] result = new byte[end - start + (padded ? 1 : 0)];
+		System.arraycopy(bytes, start, result, padded ? 1 : 0, end - start);
+		return result;
+	}
+
+	private static void writeDerLength(ByteArrayOutputStream out, int length) {
+		if (length >= 0x80) {
+			out.write(0x81);
+		}
+		out.write(length);
+	}
+
+	//endregion
+
+	//region Private Classes
+
+	/**
+	 * RSASSA-PKCS1-v1_5, RS256, RS384 and RS512.
+	 */
+	private static final class RsaVerifier extends SignatureVerifier {
+
+		private final String jcaAlgorithm;
+
+		private RsaVerifier(String algorithm) {
+			super(algorithm);
+			this.jcaAlgorithm = "SHA" + algorithm.substring(2) + "withRSA";
+		}
+
+		@Override
+		public boolean supports(PublicKey key) {
+			return key instanceof RSAPublicKey;
+		}
+
+		@Override
+		protected Signature createSignature() throws GeneralSecurityException {
+			return Signature.getInstance(this.jcaAlgorithm);
+		}
+	}
+
+	/**
+	 * RSASSA-PSS with MGF1 and a salt as long as the hash, PS256, PS384 and PS512.
+	 */
+	private static final class RsaPssVerifier extends SignatureVerifier {
+
+		private final PSSParameterSpec parameters;
+
+		private RsaPssVerifier(String algorithm, int bits) {
+			super(algorithm);
+			String hash = "SHA-" + bits;
+			this.parameters = new PSSParameterSpec(hash, "MGF1", new MGF1ParameterSpec(hash), bits / 8, 1);
+		}
+
+		@Override
+		public boolean supports(PublicKey key) {
+			return key instanceof RSAPublicKey;
+		}
+
+		@Override
+		protected Signature createSignature() throws GeneralSecurityException {
+			Signature signature = Signature.getInstance("RSASSA-PSS");
+			signature.setParameter(this.parameters);
+			return signature;
+		}
+	}
+
+	/**
+	 * ECDSA on the NIST curves, ES256 on P-256, ES384 on P-384 and ES512 on P-521.
+	 */
+	private static final class EcdsaVerifier extends SignatureVerifier {
+
+		private final String jcaAlgorithm;
+		private final int fieldSize;
+		private final int coordinateLength;
+
+		private EcdsaVerifier(String algorithm, int fieldSize) {
+			super(algorithm);
+			this.jcaAlgorithm = "SHA" + algorithm.substring(2) + "withECDSA";
+			this.fieldSize = fieldSize;
+			this.coordinateLength = (fieldSize + 7) / 8;
+		}
+
+		@Override
+		public boolean supports(PublicKey key) {
+			return key instanceof ECPublicKey
+					&& ((ECPublicKey) key).getParams().getCurve().getField().getFieldSize() == this.fieldSize;
+		}
+
+		@Override
+		protected Signature createSignature() throws GeneralSecurityException {
+			return Signature.getInstance(this.jcaAlgorithm);
+		}
+
+		@Override
+		protected byte[] toJcaSignature(byte[] signature) {
+			return toDerSignature(signature, this.coordinateLength);
+		}
+	}
+
+	/**
+	 * EdDSA with Ed25519 or Ed448 keys, which the JVM provides from Java 15 on.
+	 */
+	private static final class EdDsaVerifier extends SignatureVerifier {
+
+		private EdDsaVerifier() {
+			super("EdDSA");
+		}
+
+		@Override
+		public boolean supports(PublicKey key) {
+			String keyAlgorithm = key.getAlgorithm();
+			return "EdDSA".equals(keyAlgorithm) || "Ed25519".equals(keyAlgorithm) || "Ed448".equals(keyAlgorithm);
+		}
+
+		@Override
+		protected Signature createSignature() throws GeneralSecurityException {
+			// the curve is taken from the key
+			return Signature.getInstance("EdDSA");
+		}
+	}
+
+	/**
+	 * The signatures a thread has initialized, least recently used first.
+	 */
+	private static final class InitializedSignatures extends LinkedHashMap<PublicKey, Signature> {
+
+		private static final long serialVersionUID = 1L;
+
+		private InitializedSignatures() {
+			super(MAX_KEYS_PER_THREAD * 2, 0.75f, true);
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<PublicKey, Signature> eldest) {
+			return size() > MAX_KEYS_PER_THREAD;
+		}
+	}
+
+	//endregion
+}
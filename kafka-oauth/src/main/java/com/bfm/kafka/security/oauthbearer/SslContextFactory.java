@@ -0,0 +1,139 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+
+/**
+ * Builds the TLS context of the connections to the OAuth server from an {@link OAuthConfiguration}.
+ * <p>
+ * The context is built once per configuration and only handed to the connections of this library, so the
+ * JVM-wide HTTPS defaults used by the rest of the broker are never changed. Because the same context is reused
+ * for every connection, its client session cache lets later handshakes with the OAuth server resume the TLS
+ * session instead of doing a full handshake.
+ */
+public final class SslContextFactory {
+
+	//region Constants
+
+	private static final int SESSION_CACHE_SIZE = 256;
+	private static final int SESSION_TIMEOUT_SECONDS = 24 * 60 * 60;
+
+	//endregion
+
+	//region Member Variables
+
+	private static final Logger log = LoggerFactory.getLogger(SslContextFactory.class);
+
+	//endregion
+
+	//region Constructors
+
+	private SslContextFactory() {
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Creates the TLS context for a configuration.
+	 *
+	 * @param oauthConfiguration the oauth configuration
+	 * @return the SSL context
+	 * @throws IllegalStateException if the key store or the trust store cannot be loaded
+	 */
+	public static SSLContext create(OAuthConfiguration oauthConfiguration) {
+		try {
+			log.debug("Starting to create SSL context.");
+
+			TrustManager[] trustManagers = null;
+			if (Boolean.TRUE.equals(oauthConfiguration.getUnsecureServer())) {
+				// unsecured servers are allowed
+				trustManagers = Utils.createTrustAllManagers();
+			} else if (!Utils.isNullOrEmpty(oauthConfiguration.getSslTruststoreLocation())) {
+				KeyStore trustStore = loadKeyStore(
+						oauthConfiguration.getSslTruststoreLocation(),
+						oauthConfiguration.getSslTruststoreType(),
+						oauthConfiguration.getSslTruststorePassword());
+				TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+				trustManagerFactory.init(trustStore);
+				trustManagers = trustManagerFactory.getTrustManagers();
+			}
+
+			KeyManager[] keyManagers = null;
+			if (!Utils.isNullOrEmpty(oauthConfiguration.getSslKeystoreLocation())) {
+				KeyStore keyStore = loadKeyStore(
+						oauthConfiguration.getSslKeystoreLocation(),
+						oauthConfiguration.getSslKeystoreType(),
+						oauthConfiguration.getSslKeystorePassword());
+				String keyPassword = oauthConfiguration.getSslKeyPassword() != null
+						? oauthConfiguration.getSslKeyPassword()
+						: oauthConfiguration.getSslKeystorePassword();
+				KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+				keyManagerFactory.init(keyStore, toCharArray(keyPassword));
+				keyManagers = keyManagerFactory.getKeyManagers();
+			}
+
+			SSLContext sslContext = SSLContext.getInstance(oauthConfiguration.getSslProtocol());
+			sslContext.init(keyManagers, trustManagers, null);
+
+			SSLSessionContext sessionContext = sslContext.getClientSessionContext();
+			sessionContext.setSessionCacheSize(SESSION_CACHE_SIZE);
+			sessionContext.setSessionTimeout(SESSION_TIMEOUT_SECONDS);
+
+			return sslContext;
+		} catch (GeneralSecurityException | IOException e) {
+			String errMsg = String.format("Error creating SSL context, Message: %s", e.getMessage());
+			log.error(errMsg, e);
+			throw new IllegalStateException(errMsg, e);
+		} finally {
+			log.debug("Finished creating SSL context.");
+		}
+	}
+
+	//endregion
+
+	//region Private Methods
+
+	private static KeyStore loadKeyStore(String location, String type, String password) throws GeneralSecurityException, IOException {
+		KeyStore keyStore = KeyStore.getInstance(type);
+		try (InputStream in = Files.newInputStream(Paths.get(location))) {
+			keyStore.load(in, toCharArray(password));
+		}
+		return keyStore;
+	}
+
+	private static char[] toCharArray(String password) {
+		return password == null ? null : password.toCharArray();
+	}
+
+	//endregion
+}
@@ -0,0 +1,137 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.security.auth.KafkaPrincipal;
+import org.apache.kafka.common.utils.SecurityUtils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The principals that are allowed every operation without looking at the scopes of their token, such as the
+ * brokers replicating from each other.
+ * <p>
+ * The principals are read from the standard {@code super.users} setting and from
+ * {@code oauth.authorizer.broker.principals}, both lists of {@code Type:name} entries separated by semicolons. The
+ * names are grouped by principal type, so checking a principal is one hash lookup on its type, which is almost
+ * always {@code User}, and one on its name, without building a key.
+ */
+public final class SuperUsers {
+
+	//region Constants
+
+	public static final String SUPER_USERS = "super.users";
+	public static final String OAUTH_BROKER_PRINCIPALS = "oauth.authorizer.broker.principals";
+
+	public static final SuperUsers EMPTY = new SuperUsers(Collections.emptyMap(), 0);
+
+	//endregion
+
+	//region Member Variables
+
+	private final Map<String, Set<String>> namesByType;
+	private final int size;
+
+	//endregion
+
+	//region Constructors
+
+	private SuperUsers(Map<String, Set<String>> namesByType, int size) {
+		this.namesByType = namesByType;
+		this.size = size;
+	}
+
+	//endregion
+
+	//region Public Properties
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Reads the super users from the broker configuration.
+	 *
+	 * @param configs the broker configuration
+	 * @return the super users
+	 * @throws IllegalStateException if an entry is not of the form {@code Type:name}
+	 */
+	public static SuperUsers fromConfigs(Map<String, ?> configs) {
+		Map<String, Set<String>> namesByType = new HashMap<>();
+		int size = 0;
+		for (String setting : new String[]{SUPER_USERS, OAUTH_BROKER_PRINCIPALS}) {
+			Object value = configs.get(setting);
+			if (value == null) {
+				continue;
+			}
+
+			for (String entry : value.toString().split(";")) {
+				if (Utils.isNullOrEmpty(entry.trim())) {
+					continue;
+				}
+
+				KafkaPrincipal principal;
+				try {
+					principal = SecurityUtils.parseKafkaPrincipal(entry.trim());
+				} catch (IllegalArgumentException e) {
+					throw new IllegalStateException(String.format("Invalid principal in %s: %s", setting, entry), e);
+				}
+
+				if (namesByType.computeIfAbsent(principal.getPrincipalType(), type -> new HashSet<>()).add(principal.getName())) {
+					size++;
+				}
+			}
+		}
+
+		return size == 0 ? EMPTY : new SuperUsers(namesByType, size);
+	}
+
+	/**
+	 * Checks whether a principal is a super user.
+	 *
+	 * @param principal the principal, may be null
+	 * @return true if the principal is a super user
+	 */
+	public boolean contains(KafkaPrincipal principal) {
+		if (principal == null || this.size == 0) {
+			return false;
+		}
+
+		Set<String> names = this.namesByType.get(principal.getPrincipalType());
+		return names != null && names.contains(principal.getName());
+	}
+
+	@Override
+	public String toString() {
+		return "SuperUsers{" +
+				"namesByType=" + namesByType +
+				'}';
+	}
+
+	//endregion
+}
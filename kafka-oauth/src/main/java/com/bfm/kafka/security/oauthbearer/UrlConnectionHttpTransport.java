@@ -0,0 +1,154 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends every request on a new {@link HttpURLConnection}, the way the library always did. Connection reuse is
+ * left to the keep-alive cache of the JVM, which only works because the response and error streams are drained.
+ */
+public class UrlConnectionHttpTransport implements HttpTransport {
+
+	//region Member Variables
+
+	private static final Logger log = LoggerFactory.getLogger(UrlConnectionHttpTransport.class);
+	private final SSLSocketFactory sslSocketFactory;
+	private final boolean verifyHostname;
+	private final int connectTimeoutMs;
+	private final int readTimeoutMs;
+	private final LongAdder requests = new LongAdder();
+
+	//endregion
+
+	//region Constructors
+
+	/**
+	 * Instantiates a new URL connection HTTP transport.
+	 *
+	 * @param sslSocketFactory the factory of the TLS connections
+	 * @param verifyHostname   whether the host name of the OAuth server must match its certificate
+	 * @param connectTimeoutMs the connect timeout in milliseconds
+	 * @param readTimeoutMs    the read timeout in milliseconds
+	 */
+	public UrlConnectionHttpTransport(SSLSocketFactory sslSocketFactory, boolean verifyHostname, int connectTimeoutMs, int readTimeoutMs) {
+		this.sslSocketFactory = Objects.requireNonNull(sslSocketFactory);
+		this.verifyHostname = verifyHostname;
+		this.connectTimeoutMs = connectTimeoutMs;
+		this.readTimeoutMs = readTimeoutMs;
+	}
+
+	//endregion
+
+	//region Public Properties
+
+	@Override
+	public long getRequests() {
+		return this.requests.sum();
+	}
+
+	@Override
+	public long getConnectionsCreated() {
+		return 0;
+	}
+
+	@Override
+	public long getConnectionsReused() {
+		return 0;
+	}
+
+	@Override
+	public int getIdleConnections() {
+		return 0;
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	@Override
+	public HttpResponse post(String url, String authorizationHeaderValue, byte[] formBody) throws IOException {
+		this.requests.increment();
+		HttpURLConnection con = (HttpURLConnection) new URL(url).openConnection();
+		if (con instanceof HttpsURLConnection) {
+			// use the TLS context of this library instead of the JVM-wide defaults
+			log.debug("Configure the TLS context of the connection.");
+			HttpsURLConnection httpsCon = (HttpsURLConnection) con;
+			httpsCon.setSSLSocketFactory(this.sslSocketFactory);
+			if (!this.verifyHostname) {
+				httpsCon.setHostnameVerifier((hostname, session) -> true);
+			}
+		}
+		con.setInstanceFollowRedirects(true);
+		con.setConnectTimeout(this.connectTimeoutMs);
+		con.setReadTimeout(this.readTimeoutMs);
+		con.setRequestMethod("POST");
+		if (authorizationHeaderValue != null) {
+			con.setRequestProperty("Authorization", authorizationHeaderValue);
+		}
+		con.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+		con.setRequestProperty("charset", "utf-8");
+		con.setRequestProperty("Content-Length", Integer.toString(formBody.length));
+		con.setUseCaches(false);
+		con.setDoOutput(true);
+
+		try (OutputStream out = con.getOutputStream()) {
+			out.write(formBody);
+		}
+
+		int responseCode = con.getResponseCode();
+		InputStream in = responseCode < 400 ? con.getInputStream() : con.getErrorStream();
+		return new HttpResponse(responseCode, readFully(in));
+	}
+
+	@Override
+	public void close() {
+	}
+
+	//endregion
+
+	//region Private Methods
+
+	private static byte[] readFully(InputStream in) throws IOException {
+		if (in == null) {
+			return new byte[0];
+		}
+
+		try (InputStream stream = in) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = stream.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+			return out.toByteArray();
+		}
+	}
+
+	//endregion
+}
@@ -20,27 +20,39 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.net.ssl.HttpsURLConnection;
-import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
+import javax.management.JMException;
+import javax.management.ObjectName;
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.security.KeyManagementException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The type Utils.
  */
 public class Utils {
 	private static final Logger log = LoggerFactory.getLogger(Utils.class);
+	private static final String MBEAN_DOMAIN = "com.bfm.kafka.security.oauthbearer";
+	private static final AtomicInteger mbeanId = new AtomicInteger();
+	private static final ThreadLocal<MessageDigest> sha256 = ThreadLocal.withInitial(() -> {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available.", e);
+		}
+	});
 
 	/**
 	 * Is uri valid boolean.
@@ -64,6 +76,20 @@ public class Utils {
 		return true;
 	}
 
+	/**
+	 * Is absolute uri boolean.
+	 *
+	 * @param str the str
+	 * @return true if the str is a valid uri with a scheme
+	 */
+	public static Boolean isAbsoluteURI(String str) {
+		try {
+			return str != null && new URI(str).isAbsolute();
+		} catch (URISyntaxException e) {
+			return false;
+		}
+	}
+
 	/**
 	 * Is null or empty boolean.
 	 *
@@ -199,53 +225,26 @@ public class Utils {
 	}
 
 	/**
-	 * Accept unsecure server.
+	 * Creates trust managers that trust every server certificate.
 	 *
-	 * @param unsecure the unsecure
+	 * @return the trust managers
 	 */
-	protected static void acceptUnsecureServer(boolean unsecure) {
-		try {
-			log.debug("Starting to enable unsecure HTTP connections.");
-
-			if (!unsecure) {
-				// unsecured servers are not allowed
-				return;
-			}
-
-			// configure SSL context to allow unsecured servers
-			TrustManager[] trustAllCerts = new TrustManager[]{
-					new X509TrustManager() {
-						public java.security.cert.X509Certificate[] getAcceptedIssuers() {
-							return null;
-						}
-
-						public void checkClientTrusted(
-								java.security.cert.X509Certificate[] certs, String authType) {
-						}
-
-						public void checkServerTrusted(
-								java.security.cert.X509Certificate[] certs, String authType) {
-						}
+	protected static TrustManager[] createTrustAllManagers() {
+		return new TrustManager[]{
+				new X509TrustManager() {
+					public java.security.cert.X509Certificate[] getAcceptedIssuers() {
+						return new java.security.cert.X509Certificate[0];
 					}
-			};
 
+					public void checkClientTrusted(
+							java.security.cert.X509Certificate[] certs, String authType) {
+					}
 
-			SSLContext sc = SSLContext.getInstance("SSL");
-			sc.init(null, trustAllCerts, new java.security.SecureRandom());
-			HttpsURLConnection.setDefaultSSLSocketFactory(sc.getSocketFactory());
-			HttpsURLConnection.setDefaultHostnameVerifier ((hostname, session) -> true);
-		} catch (NoSuchAlgorithmException e) {
-			String errMsg = String.format("Error enabling unsecure HTTP connections, Message: %s", e.getMessage());
-			log.error(errMsg, e);
-		} catch (KeyManagementException e) {
-			String errMsg = String.format("Error enabling unsecure HTTP connections, Message: %s", e.getMessage());
-			log.error(errMsg, e);
-		} catch (Exception e) {
-			String errMsg = String.format("Error enabling unsecure HTTP connections, Message: %s", e.getMessage());
-			log.error(errMsg, e);
-		} finally {
-			log.debug("Finished enabling unsecure HTTP connections.");
-		}
+					public void checkServerTrusted(
+							java.security.cert.X509Certificate[] certs, String authType) {
+					}
+				}
+		};
 	}
 
 	/**
@@ -257,4 +256,94 @@ public class Utils {
 	public static String createBearerHeader(String accessToken) {
 		return "Bearer " + accessToken;
 	}
+
+	/**
+	 * Creates a fixed-size digest of an access token, so that the token itself does not have to be kept
+	 * as a lookup key.
+	 *
+	 * @param accessToken the access token
+	 * @return the base64url encoded SHA-256 digest of the access token
+	 */
+	public static String digestToken(String accessToken) {
+		Objects.requireNonNull(accessToken);
+
+		MessageDigest digest = sha256.get();
+		digest.reset();
+		byte[] hash = digest.digest(accessToken.getBytes(StandardCharsets.UTF_8));
+
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+	}
+
+	/**
+	 * Checks the shape of an access token without decoding it, so that garbage can be rejected before any
+	 * network call or signature check.
+	 *
+	 * @param accessToken         the access token
+	 * @param maxLength           the maximum length of the access token
+	 * @param requireJwtStructure whether the access token must be made of three non-empty base64url segments
+	 * @return true if the access token may be valid
+	 */
+	public static boolean isWellFormedAccessToken(String accessToken, int maxLength, boolean requireJwtStructure) {
+		int length = accessToken.length();
+		if (length == 0 || length > maxLength) {
+			return false;
+		}
+
+		if (!requireJwtStructure) {
+			return true;
+		}
+
+		int separators = 0;
+		int segmentLength = 0;
+		for (int i = 0; i < length; i++) {
+			char c = accessToken.charAt(i);
+			if (c == '.') {
+				if (segmentLength == 0 || ++separators > 2) {
+					return false;
+				}
+				segmentLength = 0;
+			} else if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_') {
+				segmentLength++;
+			} else {
+				return false;
+			}
+		}
+
+		return separators == 2 && segmentLength > 0;
+	}
+
+	/**
+	 * Registers an MBean in the platform MBean server.
+	 *
+	 * @param type  the type key of the object name
+	 * @param mbean the MBean
+	 * @return the object name the MBean was registered with, or null if the registration failed
+	 */
+	public static ObjectName registerMBean(String type, Object mbean) {
+		try {
+			ObjectName name = new ObjectName(String.format("%s:type=%s,id=%d", MBEAN_DOMAIN, type, mbeanId.incrementAndGet()));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, name);
+			return name;
+		} catch (JMException e) {
+			log.warn("Error registering {} MBean, Message: {}", type, e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Unregisters an MBean from the platform MBean server.
+	 *
+	 * @param name the object name returned by {@link #registerMBean(String, Object)}, may be null
+	 */
+	public static void unregisterMBean(ObjectName name) {
+		if (name == null) {
+			return;
+		}
+
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+		} catch (JMException e) {
+			log.warn("Error unregistering MBean {}, Message: {}", name, e.getMessage());
+		}
+	}
 }
@@ -0,0 +1,174 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import java.util.Objects;
+
+/**
+ * Exposes the counters of the access token validation path of an {@link OAuthServiceImpl}.
+ * The view always reads the caches the service currently uses, so it survives a reconfiguration.
+ */
+public class ValidationMetrics implements ValidationMetricsMXBean {
+
+	//region Member Variables
+
+	private final OAuthServiceImpl oauthService;
+
+	//endregion
+
+	//region Constructors
+
+	/**
+	 * Instantiates a new validation metrics view.
+	 *
+	 * @param oauthService the oauth service
+	 */
+	ValidationMetrics(OAuthServiceImpl oauthService) {
+		this.oauthService = Objects.requireNonNull(oauthService);
+	}
+
+	//endregion
+
+	//region Public Properties
+
+	@Override
+	public long getCacheHits() {
+		return this.oauthService.getValidationCache().getHits();
+	}
+
+	@Override
+	public long getCacheMisses() {
+		return this.oauthService.getValidationCache().getMisses();
+	}
+
+	@Override
+	public long getCacheEvictions() {
+		return this.oauthService.getValidationCache().getEvictions();
+	}
+
+	@Override
+	public long getCacheExpirations() {
+		return this.oauthService.getValidationCache().getExpirations();
+	}
+
+	@Override
+	public int getCacheSize() {
+		return this.oauthService.getValidationCache().size();
+	}
+
+	@Override
+	public long getNegativeCacheHits() {
+		return this.oauthService.getNegativeCache().getHits();
+	}
+
+	@Override
+	public int getNegativeCacheSize() {
+		return this.oauthService.getNegativeCache().size();
+	}
+
+	@Override
+	public long getMalformedTokens() {
+		return this.oauthService.getMalformedTokens();
+	}
+
+	@Override
+	public long getHybridIntrospections() {
+		return this.oauthService.getHybridIntrospections();
+	}
+
+	@Override
+	public long getHybridIntrospectionFailures() {
+		return this.oauthService.getHybridIntrospectionFailures();
+	}
+
+	@Override
+	public long getRevokedTokens() {
+		return this.oauthService.getRevokedTokens();
+	}
+
+	@Override
+	public long getCoalescedValidations() {
+		return this.oauthService.getCoalescedValidations();
+	}
+
+	@Override
+	public int getInFlightValidations() {
+		return this.oauthService.getInFlightValidations();
+	}
+
+	@Override
+	public long getHttpRequests() {
+		return this.oauthService.getHttpTransport().getRequests();
+	}
+
+	@Override
+	public long getHttpConnectionsCreated() {
+		return this.oauthService.getHttpTransport().getConnectionsCreated();
+	}
+
+	@Override
+	public long getHttpConnectionsReused() {
+		return this.oauthService.getHttpTransport().getConnectionsReused();
+	}
+
+	@Override
+	public int getHttpIdleConnections() {
+		return this.oauthService.getHttpTransport().getIdleConnections();
+	}
+
+	@Override
+	public long getJwksRefreshes() {
+		return this.oauthService.getJwtValidator().getKeyStore().getRefreshes();
+	}
+
+	@Override
+	public long getJwksRefreshFailures() {
+		return this.oauthService.getJwtValidator().getKeyStore().getRefreshFailures();
+	}
+
+	@Override
+	public long getJwksRateLimitedLookups() {
+		return this.oauthService.getJwtValidator().getKeyStore().getRateLimitedLookups();
+	}
+
+	@Override
+	public String toString() {
+		return "ValidationMetrics {" +
+				"cacheHits=" + getCacheHits() +
+				", cacheMisses=" + getCacheMisses() +
+				", cacheEvictions=" + getCacheEvictions() +
+				", cacheExpirations=" + getCacheExpirations() +
+				", cacheSize=" + getCacheSize() +
+				", negativeCacheHits=" + getNegativeCacheHits() +
+				", negativeCacheSize=" + getNegativeCacheSize() +
+				", malformedTokens=" + getMalformedTokens() +
+				", hybridIntrospections=" + getHybridIntrospections() +
+				", hybridIntrospectionFailures=" + getHybridIntrospectionFailures() +
+				", revokedTokens=" + getRevokedTokens() +
+				", coalescedValidations=" + getCoalescedValidations() +
+				", inFlightValidations=" + getInFlightValidations() +
+				", httpRequests=" + getHttpRequests() +
+				", httpConnectionsCreated=" + getHttpConnectionsCreated() +
+				", httpConnectionsReused=" + getHttpConnectionsReused() +
+				", httpIdleConnections=" + getHttpIdleConnections() +
+				", jwksRefreshes=" + getJwksRefreshes() +
+				", jwksRefreshFailures=" + getJwksRefreshFailures() +
+				", jwksRateLimitedLookups=" + getJwksRateLimitedLookups() +
+				'}';
+	}
+
+	//endregion
+}
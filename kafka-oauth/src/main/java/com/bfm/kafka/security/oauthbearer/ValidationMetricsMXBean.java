@@ -0,0 +1,165 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+/**
+ * JMX view of the counters kept by the access token validation path of an {@link OAuthService}.
+ */
+public interface ValidationMetricsMXBean {
+
+	/**
+	 * Gets the number of validations answered from the validation cache.
+	 *
+	 * @return the cache hits
+	 */
+	long getCacheHits();
+
+	/**
+	 * Gets the number of validations that were not found in the validation cache.
+	 *
+	 * @return the cache misses
+	 */
+	long getCacheMisses();
+
+	/**
+	 * Gets the number of cached validations dropped to keep the cache within its bound.
+	 *
+	 * @return the cache evictions
+	 */
+	long getCacheEvictions();
+
+	/**
+	 * Gets the number of cached validations dropped because their ttl or token expiry passed.
+	 *
+	 * @return the cache expirations
+	 */
+	long getCacheExpirations();
+
+	/**
+	 * Gets the number of validations currently cached.
+	 *
+	 * @return the cache size
+	 */
+	int getCacheSize();
+
+	/**
+	 * Gets the number of validations answered from the cache of recently rejected access tokens.
+	 *
+	 * @return the negative cache hits
+	 */
+	long getNegativeCacheHits();
+
+	/**
+	 * Gets the number of rejected access tokens currently remembered.
+	 *
+	 * @return the negative cache size
+	 */
+	int getNegativeCacheSize();
+
+	/**
+	 * Gets the number of access tokens rejected because they were oversized or not shaped like a JWT.
+	 *
+	 * @return the malformed tokens
+	 */
+	long getMalformedTokens();
+
+	/**
+	 * Gets the number of locally valid access tokens that hybrid validation also sent to the introspection endpoint.
+	 *
+	 * @return the hybrid introspections
+	 */
+	long getHybridIntrospections();
+
+	/**
+	 * Gets the number of hybrid introspections that got no answer from the OAuth server, for which the locally
+	 * verified access token was accepted.
+	 *
+	 * @return the hybrid introspection failures
+	 */
+	long getHybridIntrospectionFailures();
+
+	/**
+	 * Gets the number of locally valid access tokens rejected because the OAuth server reported them inactive.
+	 *
+	 * @return the revoked tokens
+	 */
+	long getRevokedTokens();
+
+	/**
+	 * Gets the number of validations that waited for a concurrent validation of the same access token
+	 * instead of validating it again.
+	 *
+	 * @return the coalesced validations
+	 */
+	long getCoalescedValidations();
+
+	/**
+	 * Gets the number of distinct access tokens being validated right now.
+	 *
+	 * @return the in-flight validations
+	 */
+	int getInFlightValidations();
+
+	/**
+	 * Gets the number of HTTP requests sent to the OAuth server.
+	 *
+	 * @return the HTTP requests
+	 */
+	long getHttpRequests();
+
+	/**
+	 * Gets the number of connections opened to the OAuth server by the pooled HTTP transport.
+	 *
+	 * @return the HTTP connections created
+	 */
+	long getHttpConnectionsCreated();
+
+	/**
+	 * Gets the number of HTTP requests sent over a kept-alive connection.
+	 *
+	 * @return the HTTP connections reused
+	 */
+	long getHttpConnectionsReused();
+
+	/**
+	 * Gets the number of idle kept-alive connections to the OAuth server.
+	 *
+	 * @return the idle HTTP connections
+	 */
+	int getHttpIdleConnections();
+
+	/**
+	 * Gets the number of successful downloads of the JWKS document.
+	 *
+	 * @return the JWKS refreshes
+	 */
+	long getJwksRefreshes();
+
+	/**
+	 * Gets the number of failed downloads of the JWKS document.
+	 *
+	 * @return the JWKS refresh failures
+	 */
+	long getJwksRefreshFailures();
+
+	/**
+	 * Gets the number of unknown key ids that did not trigger a download because the JWKS document was
+	 * downloaded recently.
+	 *
+	 * @return the rate limited key lookups
+	 */
+	long getJwksRateLimitedLookups();
+}
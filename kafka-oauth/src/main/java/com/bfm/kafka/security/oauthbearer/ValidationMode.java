@@ -0,0 +1,49 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+/**
+ * How the broker validates the access tokens presented by clients.
+ */
+public enum ValidationMode {
+
+	/**
+	 * Every access token is sent to the introspection endpoint of the OAuth server.
+	 */
+	INTROSPECTION,
+
+	/**
+	 * Access tokens are verified locally against the signing keys published in the JWKS document of the OAuth server.
+	 */
+	LOCAL,
+
+	/**
+	 * Access tokens are verified locally, and a locally valid access token is also sent to the introspection endpoint
+	 * the first time its jti is seen, when it is sampled, or once it is older than a threshold, so that revoked
+	 * tokens are caught without introspecting every token.
+	 */
+	HYBRID;
+
+	/**
+	 * Parses a validation mode, ignoring case.
+	 *
+	 * @param value the value
+	 * @return the validation mode
+	 */
+	public static ValidationMode fromString(String value) {
+		return ValidationMode.valueOf(value.trim().toUpperCase(java.util.Locale.ROOT));
+	}
+}
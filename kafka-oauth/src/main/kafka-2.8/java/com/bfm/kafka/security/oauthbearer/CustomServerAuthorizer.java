@@ -0,0 +1,191 @@
+/*
+Copyright © 2020 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.Endpoint;
+import org.apache.kafka.common.acl.AclBinding;
+import org.apache.kafka.common.acl.AclBindingFilter;
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.errors.InvalidRequestException;
+import org.apache.kafka.common.resource.ResourcePattern;
+import org.apache.kafka.common.resource.ResourceType;
+import org.apache.kafka.common.security.auth.KafkaPrincipal;
+import org.apache.kafka.common.utils.SecurityUtils;
+import org.apache.kafka.server.authorizer.AclCreateResult;
+import org.apache.kafka.server.authorizer.AclDeleteResult;
+import org.apache.kafka.server.authorizer.Action;
+import org.apache.kafka.server.authorizer.AuthorizableRequestContext;
+import org.apache.kafka.server.authorizer.AuthorizationResult;
+import org.apache.kafka.server.authorizer.Authorizer;
+import org.apache.kafka.server.authorizer.AuthorizerServerInfo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * The OAuth scope authorizer on the authorizer API of KIP-504, available on brokers of Kafka 2.4 and newer.
+ * <p>
+ * Unlike {@link CustomAuthorizer}, which the broker calls once per resource, this authorizer receives all actions of
+ * a request at once, so a metadata request touching thousands of topics resolves the scopes of the principal once
+ * and then does one {@link ScopeIndex} lookup per topic. ACLs are not supported, access is granted by the scopes
+ * of the access token only. The decisions themselves are made by the {@link ScopeAuthorizationEngine} both
+ * authorizers adapt to.
+ */
+public class CustomServerAuthorizer implements Authorizer {
+
+	//region Member Variables
+
+	private final ScopeAuthorizationEngine engine = new ScopeAuthorizationEngine();
+
+	//endregion
+
+	//region Constructors
+
+	/**
+	 * Instantiates a new Custom server authorizer.
+	 */
+	public CustomServerAuthorizer() {
+	}
+
+	//endregion
+
+	//region Public Methods
+
+	/**
+	 * Configures the super users, the role policy, the heavy hitter tracking and the authorization audit from the
+	 * broker configuration and registers the authorizer metrics in JMX.
+	 *
+	 * @param configs the broker configuration
+	 */
+	@Override
+	public void configure(Map<String, ?> configs) {
+		this.engine.configure(configs);
+	}
+
+	/**
+	 * Gets the authorizer metrics.
+	 *
+	 * @return the metrics
+	 */
+	public AuthorizerMetrics getMetrics() {
+		return this.engine.getMetrics();
+	}
+
+	@Override
+	public Map<Endpoint, ? extends CompletionStage<Void>> start(AuthorizerServerInfo serverInfo) {
+		// there is no ACL store to load, every listener can accept requests right away
+		Map<Endpoint, CompletableFuture<Void>> result = new HashMap<>();
+		for (Endpoint endpoint : serverInfo.endpoints()) {
+			result.put(endpoint, CompletableFuture.completedFuture(null));
+		}
+		return result;
+	}
+
+	/**
+	 * Check scopes from JWT to validate the actions of a request.
+	 *
+	 * @param requestContext the request context, whose principal carries the access token
+	 * @param actions        the actions of the request
+	 * @return the result of each action, in the order of the actions
+	 */
+	@Override
+	public List<AuthorizationResult> authorize(AuthorizableRequestContext requestContext, List<Action> actions) {
+		List<AuthorizationResult> results = new ArrayList<>(actions.size());
+		// replication and other inter-broker traffic must not pay for the scopes
+		KafkaPrincipal principal = requestContext.principal();
+		if (this.engine.isSuperUser(principal)) {
+			for (int i = 0; i < actions.size(); i++) {
+				results.add(AuthorizationResult.ALLOWED);
+			}
+			return results;
+		}
+
+		ScopeIndex scopeIndex = this.engine.resolve(principal);
+		long nowMs = System.currentTimeMillis();
+		for (Action action : actions) {
+			ResourcePattern resource = action.resourcePattern();
+			// the broker tells which decisions are worth auditing, e.g. not the topics filtered out of metadata
+			boolean authorized = this.engine.decide(
+					principal,
+					scopeIndex,
+					action.operation(),
+					resource.resourceType(),
+					resource.name(),
+					nowMs,
+					action.logIfAllowed(),
+					action.logIfDenied());
+			results.add(authorized ? AuthorizationResult.ALLOWED : AuthorizationResult.DENIED);
+		}
+		return results;
+	}
+
+	/**
+	 * Check whether the scopes from JWT allow the operation on any resource of the type, which the broker asks
+	 * before it accepts e.g. idempotent producers.
+	 *
+	 * @param requestContext the request context, whose principal carries the access token
+	 * @param op             the operation
+	 * @param resourceType   the resource type
+	 * @return the result
+	 */
+	@Override
+	public AuthorizationResult authorizeByResourceType(AuthorizableRequestContext requestContext, AclOperation op, ResourceType resourceType) {
+		SecurityUtils.authorizeByResourceTypeCheckArgs(op, resourceType);
+		if (this.engine.isSuperUser(requestContext.principal())) {
+			return AuthorizationResult.ALLOWED;
+		}
+
+		ScopeIndex scopeIndex = this.engine.resolve(requestContext.principal());
+		return scopeIndex.isAuthorizedForAny(resourceType, op) ? AuthorizationResult.ALLOWED : AuthorizationResult.DENIED;
+	}
+
+	@Override
+	public List<? extends CompletionStage<AclCreateResult>> createAcls(AuthorizableRequestContext requestContext, List<AclBinding> aclBindings) {
+		List<CompletableFuture<AclCreateResult>> results = new ArrayList<>(aclBindings.size());
+		for (int i = 0; i < aclBindings.size(); i++) {
+			results.add(CompletableFuture.completedFuture(new AclCreateResult(
+					new InvalidRequestException("ACLs are not supported, access is granted by OAuth scopes."))));
+		}
+		return results;
+	}
+
+	@Override
+	public List<? extends CompletionStage<AclDeleteResult>> deleteAcls(AuthorizableRequestContext requestContext, List<AclBindingFilter> aclBindingFilters) {
+		List<CompletableFuture<AclDeleteResult>> results = new ArrayList<>(aclBindingFilters.size());
+		for (int i = 0; i < aclBindingFilters.size(); i++) {
+			results.add(CompletableFuture.completedFuture(new AclDeleteResult(
+					new InvalidRequestException("ACLs are not supported, access is granted by OAuth scopes."))));
+		}
+		return results;
+	}
+
+	@Override
+	public Iterable<AclBinding> acls(AclBindingFilter filter) {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public void close() {
+		this.engine.close();
+	}
+
+	//endregion
+}
@@ -0,0 +1,85 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.utils.Time;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AccessTokenManagerRegistryTest {
+
+	@Test
+	public void acquire_SameCredentials_ReturnsSharedManager() {
+		OAuthService oauthService = Mockito.mock(OAuthService.class);
+
+		AccessTokenManager firstManager = AccessTokenManagerRegistry.acquire(
+				createConfiguration("test-client-id", "secret"), () -> oauthService, Time.SYSTEM);
+		AccessTokenManager secondManager = AccessTokenManagerRegistry.acquire(
+				createConfiguration("test-client-id", "secret"), () -> Mockito.mock(OAuthService.class), Time.SYSTEM);
+
+		assertSame(firstManager, secondManager);
+		assertSame(oauthService, secondManager.getOAuthService());
+		assertFalse(AccessTokenManagerRegistry.release(firstManager));
+		Mockito.verify(oauthService, Mockito.never()).close();
+		assertTrue(AccessTokenManagerRegistry.release(secondManager));
+		Mockito.verify(oauthService).close();
+	}
+
+	@Test
+	public void acquire_DifferentClientIds_ReturnsSeparateManagers() {
+		assertSeparateManagers(createConfiguration("client-1", "secret"), createConfiguration("client-2", "secret"));
+	}
+
+	@Test
+	public void acquire_DifferentClientSecrets_ReturnsSeparateManagers() {
+		assertSeparateManagers(createConfiguration("client-1", "secret"), createConfiguration("client-1", "rotated"));
+	}
+
+	private static void assertSeparateManagers(OAuthConfiguration first, OAuthConfiguration second) {
+		AccessTokenManager firstManager = AccessTokenManagerRegistry.acquire(
+				first, () -> Mockito.mock(OAuthService.class), Time.SYSTEM);
+		AccessTokenManager secondManager = AccessTokenManagerRegistry.acquire(
+				second, () -> Mockito.mock(OAuthService.class), Time.SYSTEM);
+
+		try {
+			assertNotSame(firstManager, secondManager);
+			assertNotSame(firstManager.getOAuthService(), secondManager.getOAuthService());
+			assertEquals(2, AccessTokenManagerRegistry.size());
+		} finally {
+			AccessTokenManagerRegistry.release(firstManager);
+			AccessTokenManagerRegistry.release(secondManager);
+		}
+		assertEquals(0, AccessTokenManagerRegistry.size());
+	}
+
+	private static OAuthConfiguration createConfiguration(String clientId, String clientSecret) {
+		Map<String, String> jaasConfigEntries = new HashMap<>();
+		jaasConfigEntries.put("oauth.server.client.id", clientId);
+		jaasConfigEntries.put("oauth.server.client.secret", clientSecret);
+		OAuthConfiguration configuration = new OAuthConfiguration();
+		configuration.setConfigurationFromJaasConfigEntries(jaasConfigEntries);
+		return configuration;
+	}
+}
@@ -0,0 +1,122 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.utils.Time;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class AccessTokenManagerTest {
+
+	private final OAuthService oauthService = Mockito.mock(OAuthService.class);
+	private AccessTokenManager tokenManager;
+
+	@After
+	public void tearDown() {
+		if (this.tokenManager != null) {
+			this.tokenManager.close();
+		}
+	}
+
+	@Test
+	public void getToken_UnexpiredToken_ServedFromMemory() throws IOException {
+		OAuthBearerTokenJwt token = createToken("first", 60);
+		Mockito.when(this.oauthService.requestAccessToken()).thenReturn(token);
+		this.tokenManager = new AccessTokenManager(this.oauthService, 0.7, 0, 1000, Time.SYSTEM);
+
+		assertSame(token, this.tokenManager.getToken());
+		assertSame(token, this.tokenManager.getToken());
+
+		Mockito.verify(this.oauthService, Mockito.times(1)).requestAccessToken();
+		assertEquals(1, this.tokenManager.getSynchronousFetches());
+	}
+
+	@Test
+	public void getToken_ExpiredToken_RequestsNewTokenSynchronously() throws IOException {
+		OAuthBearerTokenJwt expired = createToken("expired", 0);
+		OAuthBearerTokenJwt current = createToken("current", 60);
+		Mockito.when(this.oauthService.requestAccessToken()).thenReturn(expired, current);
+		this.tokenManager = new AccessTokenManager(this.oauthService, 0.7, 0, 60000, Time.SYSTEM);
+
+		assertSame(expired, this.tokenManager.getToken());
+		assertSame(current, this.tokenManager.getToken());
+
+		assertEquals(2, this.tokenManager.getSynchronousFetches());
+	}
+
+	@Test
+	public void getToken_AfterRefreshFraction_ServesTokenRefreshedInBackground() throws Exception {
+		OAuthBearerTokenJwt first = createToken("first", 1);
+		OAuthBearerTokenJwt second = createToken("second", 60);
+		Mockito.when(this.oauthService.requestAccessToken()).thenReturn(first, second);
+		this.tokenManager = new AccessTokenManager(this.oauthService, 0.1, 0, 60000, Time.SYSTEM);
+
+		assertSame(first, this.tokenManager.getToken());
+		waitFor(() -> this.tokenManager.getRefreshes() >= 1);
+
+		assertSame(second, this.tokenManager.getToken());
+		assertEquals(1, this.tokenManager.getSynchronousFetches());
+	}
+
+	@Test
+	public void getToken_BackgroundRefreshFails_KeepsCurrentToken() throws Exception {
+		OAuthBearerTokenJwt first = createToken("first", 60);
+		Mockito.when(this.oauthService.requestAccessToken())
+				.thenReturn(first)
+				.thenThrow(new IOException("OAuth server is down"));
+		this.tokenManager = new AccessTokenManager(this.oauthService, 0.001, 0, 10, Time.SYSTEM);
+
+		assertSame(first, this.tokenManager.getToken());
+		waitFor(() -> this.tokenManager.getRefreshFailures() >= 2);
+
+		assertSame(first, this.tokenManager.getToken());
+		assertEquals(1, this.tokenManager.getSynchronousFetches());
+	}
+
+	@Test
+	public void close_StopsBackgroundRefresh() throws Exception {
+		Mockito.when(this.oauthService.requestAccessToken()).thenReturn(createToken("first", 1));
+		this.tokenManager = new AccessTokenManager(this.oauthService, 0.5, 0, 60000, Time.SYSTEM);
+
+		this.tokenManager.getToken();
+		this.tokenManager.close();
+		Thread.sleep(1000);
+
+		assertEquals(0, this.tokenManager.getRefreshes());
+		Mockito.verify(this.oauthService, Mockito.times(1)).requestAccessToken();
+	}
+
+	private static OAuthBearerTokenJwt createToken(String accessToken, long expiresInSeconds) {
+		return new OAuthBearerTokenJwt(accessToken, expiresInSeconds, System.currentTimeMillis(), "test-client-id");
+	}
+
+	private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10000;
+		while (!condition.getAsBoolean()) {
+			if (System.currentTimeMillis() > deadline) {
+				throw new AssertionError("Condition was not met in time.");
+			}
+			Thread.sleep(10);
+		}
+	}
+}
@@ -0,0 +1,136 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.ResourceType;
+import org.apache.kafka.common.utils.Time;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AuthorizationAuditorTest {
+
+	private final List<AuditRecord> written = Collections.synchronizedList(new ArrayList<>());
+
+	private final AuditSink sink = new AuditSink() {
+		@Override
+		public void write(List<AuditRecord> records) {
+			written.addAll(records);
+		}
+
+		@Override
+		public void close() {
+		}
+	};
+
+	@Test
+	public void record_AggregateRepeats_WritesOneRecordWithCount() {
+		AuthorizationAuditor auditor = new AuthorizationAuditor(Collections.singletonList(this.sink), 64, 1.0, 1.0, true, 60000, Time.SYSTEM);
+		for (int i = 0; i < 10; i++) {
+			auditor.record("client-1", AclOperation.WRITE, ResourceType.TOPIC, "orders", true);
+		}
+		auditor.record("client-1", AclOperation.WRITE, ResourceType.TOPIC, "payments", false);
+		auditor.close();
+
+		assertEquals(2, this.written.size());
+		assertEquals(10, this.written.get(0).getCount());
+		assertTrue(this.written.get(0).isAllowed());
+		assertEquals("payments", this.written.get(1).getResourceName());
+		assertEquals(1, this.written.get(1).getCount());
+	}
+
+	@Test
+	public void record_WithoutAggregation_WritesEveryDecision() {
+		AuthorizationAuditor auditor = new AuthorizationAuditor(Collections.singletonList(this.sink), 64, 1.0, 1.0, false, 60000, Time.SYSTEM);
+		for (int i = 0; i < 10; i++) {
+			auditor.record("client-1", AclOperation.READ, ResourceType.GROUP, "consumers", true);
+		}
+		auditor.close();
+
+		assertEquals(10, this.written.size());
+	}
+
+	@Test
+	public void record_AllowsNotSampled_WritesDenialsOnly() {
+		AuthorizationAuditor auditor = new AuthorizationAuditor(Collections.singletonList(this.sink), 64, 0.0, 1.0, false, 60000, Time.SYSTEM);
+		auditor.record("client-1", AclOperation.READ, ResourceType.TOPIC, "orders", true);
+		auditor.record("client-1", AclOperation.WRITE, ResourceType.TOPIC, "orders", false);
+		auditor.close();
+
+		assertEquals(1, this.written.size());
+		assertFalse(this.written.get(0).isAllowed());
+		assertEquals(1, auditor.getRecorded());
+	}
+
+	@Test
+	public void record_BufferFull_DropsDecisions() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		AuditSink blockingSink = new AuditSink() {
+			@Override
+			public void write(List<AuditRecord> records) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		AuthorizationAuditor auditor = new AuthorizationAuditor(Collections.singletonList(blockingSink), 4, 1.0, 1.0, false, 1, Time.SYSTEM);
+
+		// the first decision is written to the blocked sink, the buffer then fills up behind it
+		auditor.record("client-1", AclOperation.READ, ResourceType.TOPIC, "orders", true);
+		long deadline = System.currentTimeMillis() + 10000;
+		while (auditor.getDropped() == 0 && System.currentTimeMillis() < deadline) {
+			auditor.record("client-1", AclOperation.READ, ResourceType.TOPIC, "orders", true);
+			Thread.sleep(1);
+		}
+		release.countDown();
+		auditor.close();
+
+		assertTrue(auditor.getDropped() > 0);
+	}
+
+	@Test
+	public void create_NoSinks_ReturnsNull() throws Exception {
+		Map<String, Object> configs = new HashMap<>();
+		configs.put("oauth.audit.sinks", "");
+
+		assertNull(AuthorizationAuditor.create(new AuditConfiguration(configs)));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void auditConfiguration_FileSinkWithoutPath_IsInvalid() {
+		Map<String, Object> configs = new HashMap<>();
+		configs.put("oauth.audit.sinks", "log,file");
+
+		new AuditConfiguration(configs);
+	}
+}
@@ -0,0 +1,81 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures the heap held by the tokens of many connections, once with every connection of a client presenting the
+ * same scopes and once with the scopes of every connection being different, which is the footprint without sharing.
+ * Each token has its scopes compiled and a decision cache, as the authorizer would leave it.
+ *
+ * <p>Run with {@code java -cp <test classpath> com.bfm.kafka.security.oauthbearer.AuthorizationStateFootprint [connections]}.
+ */
+public class AuthorizationStateFootprint {
+
+	private static final int TOPICS = 16;
+
+	public static void main(String[] args) throws InterruptedException {
+		int connections = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+
+		long baseline = usedHeap();
+		List<OAuthBearerTokenJwt> shared = connect(connections, false);
+		long sharedBytes = usedHeap() - baseline;
+		System.out.printf("shared scopes:   %d connections, %d KB%n", shared.size(), sharedBytes / 1024);
+		shared.clear();
+
+		baseline = usedHeap();
+		List<OAuthBearerTokenJwt> distinct = connect(connections, true);
+		long distinctBytes = usedHeap() - baseline;
+		System.out.printf("distinct scopes: %d connections, %d KB%n", distinct.size(), distinctBytes / 1024);
+	}
+
+	private static List<OAuthBearerTokenJwt> connect(int connections, boolean distinct) {
+		long now = System.currentTimeMillis() / 1000;
+		List<OAuthBearerTokenJwt> tokens = new ArrayList<>(connections);
+		for (int i = 0; i < connections; i++) {
+			List<String> scopes = new ArrayList<>();
+			for (int t = 0; t < TOPICS; t++) {
+				scopes.add("urn:kafka:topic:orders-" + t + ":read");
+			}
+			if (distinct) {
+				scopes.add("urn:kafka:group:consumer-" + i + ":read");
+			}
+			Map<String, Object> claims = new HashMap<>();
+			claims.put("sub", "orders-service");
+			claims.put("scope", scopes);
+			claims.put("iat", now);
+			claims.put("exp", now + 3600);
+			OAuthBearerTokenJwt token = new OAuthBearerTokenJwt(claims, "token-" + i);
+			token.getScopeIndex();
+			token.getDecisionCache(1000);
+			tokens.add(token);
+		}
+		return tokens;
+	}
+
+	private static long usedHeap() throws InterruptedException {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			Thread.sleep(100);
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,69 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AuthorizationStatePoolTest {
+
+	@Test
+	public void intern_SamePrincipalAndScopes_ReturnsSharedState() {
+		AuthorizationState first = AuthorizationStatePool.intern("alice", Arrays.asList("urn:kafka:topic:a:read", "urn:kafka:topic:b:write"));
+		AuthorizationState second = AuthorizationStatePool.intern("alice", Arrays.asList("urn:kafka:topic:b:write", "urn:kafka:topic:a:read"));
+
+		assertSame(first, second);
+		assertSame(first.getScopeIndex(), second.getScopeIndex());
+		assertEquals(Arrays.asList("urn:kafka:topic:a:read", "urn:kafka:topic:b:write"), Arrays.asList(first.getScopes().toArray()));
+	}
+
+	@Test
+	public void intern_DifferentPrincipalOrScopes_ReturnsDifferentStates() {
+		AuthorizationState state = AuthorizationStatePool.intern("bob", Collections.singleton("urn:kafka:topic:a:read"));
+
+		assertNotSame(state, AuthorizationStatePool.intern("carol", Collections.singleton("urn:kafka:topic:a:read")));
+		assertNotSame(state, AuthorizationStatePool.intern("bob", Collections.singleton("urn:kafka:topic:a:write")));
+		assertNotSame(state, AuthorizationStatePool.intern("bob", Arrays.asList("urn:kafka:topic:a:read", "urn:kafka:topic:a:write")));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void intern_SharedScopes_AreImmutable() {
+		AuthorizationStatePool.intern("dave", Collections.singleton("urn:kafka:topic:a:read")).getScopes().add("urn:kafka:topic:b:read");
+	}
+
+	@Test
+	public void intern_UnreferencedState_IsCollected() throws InterruptedException {
+		for (int i = 0; i < 1000; i++) {
+			AuthorizationStatePool.intern("user-" + i, Collections.singleton("urn:kafka:topic:collected:read"));
+		}
+		int size = AuthorizationStatePool.size();
+
+		for (int i = 0; i < 10 && AuthorizationStatePool.size() >= size; i++) {
+			System.gc();
+			Thread.sleep(50);
+			AuthorizationStatePool.intern("eve", Collections.emptySet());
+		}
+
+		assertTrue(AuthorizationStatePool.size() < size);
+	}
+}
@@ -0,0 +1,111 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.utils.Time;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static org.junit.Assert.*;
+
+/**
+ * The type Bounded expiring cache test.
+ */
+public class BoundedExpiringCacheTest {
+
+	private Time time;
+	private long now;
+
+	@Before
+	public void setUp() {
+		this.now = 1000000L;
+		this.time = Mockito.mock(Time.class);
+		Mockito.when(this.time.milliseconds()).thenAnswer(invocation -> this.now);
+	}
+
+	@Test
+	public void get_CachedValue_ReturnsValueAndCountsHit() {
+		BoundedExpiringCache<String, String> cache = new BoundedExpiringCache<>(10, this.time);
+		cache.put("key", "value", this.now + 1000);
+
+		assertEquals("value", cache.get("key"));
+		assertNull(cache.get("other"));
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	public void get_ExpiredValue_ReturnsNullAndCountsExpiration() {
+		BoundedExpiringCache<String, String> cache = new BoundedExpiringCache<>(10, this.time);
+		cache.put("key", "value", this.now + 1000);
+
+		this.now += 1000;
+
+		assertNull(cache.get("key"));
+		assertEquals(1, cache.getExpirations());
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void put_AlreadyExpired_IsNotCached() {
+		BoundedExpiringCache<String, String> cache = new BoundedExpiringCache<>(10, this.time);
+		cache.put("key", "value", this.now);
+
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void put_ZeroMaxEntries_CacheIsDisabled() {
+		BoundedExpiringCache<String, String> cache = new BoundedExpiringCache<>(0, this.time);
+		cache.put("key", "value", this.now + 1000);
+
+		assertFalse(cache.isEnabled());
+		assertNull(cache.get("key"));
+		assertEquals(0, cache.getMisses());
+	}
+
+	@Test
+	public void put_OverBound_EvictsAndStaysWithinBound() {
+		BoundedExpiringCache<Integer, String> cache = new BoundedExpiringCache<>(100, this.time);
+		for (int i = 0; i < 1000; i++) {
+			cache.put(i, "value", this.now + 1000);
+		}
+
+		assertTrue(cache.size() <= 100);
+		assertTrue(cache.getEvictions() >= 900);
+	}
+
+	@Test
+	public void put_OverBound_KeepsFrequentlyUsedEntries() {
+		BoundedExpiringCache<Integer, String> cache = new BoundedExpiringCache<>(100, this.time);
+		cache.put(-1, "hot", this.now + 1000);
+		for (int i = 0; i < 10; i++) {
+			cache.get(-1);
+		}
+
+		for (int i = 0; i < 1000; i++) {
+			cache.put(i, "cold", this.now + 1000);
+		}
+
+		assertEquals("hot", cache.get(-1));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void constructor_NegativeMaxEntries_ThrowsException() {
+		new BoundedExpiringCache<String, String>(-1, this.time);
+	}
+}
@@ -20,6 +20,7 @@ import kafka.security.auth.Operation;
 import kafka.security.auth.Resource;
 import kafka.security.auth.ResourceType;
 import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.security.auth.KafkaPrincipal;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -30,10 +31,14 @@ import org.mockito.MockitoAnnotations;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 @RunWith(MockitoJUnitRunner.class)
 public class CustomAuthorizerTest {
@@ -78,6 +83,46 @@ public class CustomAuthorizerTest {
 		assertTrue(result);
 	}
 
+	@Test
+	public void authorizeFromDecisionCache() {
+		Set<String> set = new HashSet<>();
+		set.add("urn:kafka:topic:test:write");
+		ScopeIndex scopeIndex = ScopeIndex.compile(set);
+		DecisionCache decisionCache = new DecisionCache(10, Long.MAX_VALUE);
+		decisionCache.put(scopeIndex, org.apache.kafka.common.resource.ResourceType.TOPIC, AclOperation.WRITE, "test", false, System.currentTimeMillis());
+		Mockito.when(session.principal()).thenReturn(customPrincipal);
+		Mockito.when(customPrincipal.getOauthBearerTokenJwt()).thenReturn(jwt);
+		Mockito.when(customPrincipal.getScopeIndex()).thenReturn(scopeIndex);
+		Mockito.when(customPrincipal.getDecisionCache()).thenReturn(decisionCache);
+
+		Mockito.when(resource.name()).thenReturn("test");
+		Mockito.when(resource.resourceType()).thenReturn(ResourceType.fromString("topic"));
+		Mockito.when(operation.toJava()).thenReturn(AclOperation.fromString("write"));
+		boolean result = customAuthorizer.authorize(session, operation, resource);
+
+		// the cached decision wins over the scopes
+		assertFalse(result);
+		assertEquals(1, customAuthorizer.getMetrics().getDecisionCacheHits());
+		assertEquals(0, customAuthorizer.getMetrics().getDecisionCacheMisses());
+	}
+
+	@Test
+	public void authorizeSuperUser() {
+		Map<String, Object> configs = new HashMap<>();
+		configs.put("super.users", "User:admin;User:broker");
+		configs.put("oauth.audit.sinks", "");
+		CustomAuthorizer authorizer = new CustomAuthorizer();
+		authorizer.configure(configs);
+		try {
+			Mockito.when(session.principal()).thenReturn(new KafkaPrincipal(KafkaPrincipal.USER_TYPE, "broker"));
+
+			assertTrue(authorizer.authorize(session, operation, resource));
+			assertEquals(1, authorizer.getMetrics().getSuperUserAuthorizations());
+		} finally {
+			authorizer.close();
+		}
+	}
+
 	@Test
 	public void checkAuthorization() {
 		List<OAuthScope> list = new ArrayList<>();
@@ -97,6 +142,38 @@ public class CustomAuthorizerTest {
 
 	}
 
+	@Test
+	public void checkAuthorizationImpliedOperation() {
+		List<OAuthScope> list = new ArrayList<>();
+		OAuthScope scope = new OAuthScope();
+		scope.setOperation("Alter_Configs");
+		scope.setResourceName("test");
+		scope.setResourceType("topic");
+		list.add(scope);
+
+		Resource resource = new Resource(ResourceType.fromString("Topic"), "test");
+
+		CustomAuthorizer authorizer = new CustomAuthorizer();
+
+		assertTrue(authorizer.checkAuthorization(list, resource, "DescribeConfigs"));
+		assertFalse(authorizer.checkAuthorization(list, resource, "Describe"));
+	}
+
+	@Test
+	public void checkAuthorizationPrefixScope() {
+		List<OAuthScope> list = new ArrayList<>();
+		OAuthScope scope = new OAuthScope();
+		scope.setOperation("read");
+		scope.setResourceName("orders-*");
+		scope.setResourceType("topic");
+		list.add(scope);
+
+		CustomAuthorizer authorizer = new CustomAuthorizer();
+
+		assertTrue(authorizer.checkAuthorization(list, new Resource(ResourceType.fromString("Topic"), "orders-eu"), "read"));
+		assertFalse(authorizer.checkAuthorization(list, new Resource(ResourceType.fromString("Topic"), "payments"), "read"));
+	}
+
 	@Test
 	public void parseScopes() {
 		Set<String> set = new HashSet<>();
@@ -111,6 +188,19 @@ public class CustomAuthorizerTest {
 		assertTrue(scopes.get(0).getResourceType().equals("topic"));
 	}
 
+	@Test
+	public void parseGroupedScopes() {
+		Set<String> set = new HashSet<>();
+		set.add("urn:kafka:topic:{orders,payments}:{read,describe} urn:kafka:group:foo:read");
+		CustomAuthorizer authorizer = new CustomAuthorizer();
+		List<OAuthScope> scopes = authorizer.parseScopes(set);
+
+		assertTrue(scopes.size() == 5);
+		assertTrue(scopes.get(1).getResourceName().equals("orders"));
+		assertTrue(scopes.get(1).getOperation().equals("describe"));
+		assertTrue(scopes.get(4).getResourceType().equals("group"));
+	}
+
 	@Test
 	public void parseBadScope() {
 		Set<String> set = new HashSet<>();
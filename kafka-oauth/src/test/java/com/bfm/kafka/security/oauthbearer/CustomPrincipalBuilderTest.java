@@ -16,6 +16,8 @@ limitations under the License.
 package com.bfm.kafka.security.oauthbearer;
 
 import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.ResourceType;
 import org.apache.kafka.common.security.auth.SaslAuthenticationContext;
 import org.apache.kafka.common.security.auth.SslAuthenticationContext;
 import org.junit.Before;
@@ -28,7 +30,12 @@ import org.mockito.MockitoAnnotations;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import javax.security.sasl.SaslServer;
+import java.util.HashMap;
+import java.util.Map;
 
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 @RunWith(MockitoJUnitRunner.class)
 public class CustomPrincipalBuilderTest {
@@ -61,6 +68,71 @@ public class CustomPrincipalBuilderTest {
 		assertTrue(customPrincipal != null);
 	}
 
+	@Test
+	public void buildCompilesScopes() {
+		Map<String, Object> response = new HashMap<>();
+		response.put("sub", "User");
+		response.put("scope", "urn:kafka:topic:test:write");
+		response.put("exp", 1);
+		response.put("iat", 1);
+		OAuthBearerTokenJwt jwt = new OAuthBearerTokenJwt(response, "token");
+		Mockito.when(saslAuthenticationContext.server()).thenReturn(saslServer);
+		Mockito.when(saslServer.getNegotiatedProperty("OAUTHBEARER.token")).thenReturn(jwt);
+		CustomPrincipal customPrincipal = customPrincipalBuilder.build(saslAuthenticationContext);
+
+		assertTrue(customPrincipal.getScopeIndex().isAuthorized(ResourceType.TOPIC, AclOperation.WRITE, "test"));
+	}
+
+	@Test
+	public void buildReusesScopesAndDecisionsOfSession() {
+		Map<String, Object> response = new HashMap<>();
+		response.put("sub", "User");
+		response.put("scope", "urn:kafka:topic:test:write");
+		response.put("exp", System.currentTimeMillis() / 1000 + 3600);
+		response.put("iat", System.currentTimeMillis() / 1000);
+		OAuthBearerTokenJwt jwt = new OAuthBearerTokenJwt(response, "token");
+		Mockito.when(saslAuthenticationContext.server()).thenReturn(saslServer);
+		Mockito.when(saslServer.getNegotiatedProperty("OAUTHBEARER.token")).thenReturn(jwt);
+		CustomPrincipal first = customPrincipalBuilder.build(saslAuthenticationContext);
+		CustomPrincipal second = customPrincipalBuilder.build(saslAuthenticationContext);
+
+		assertSame(first.getScopeIndex(), second.getScopeIndex());
+		assertNotNull(first.getDecisionCache());
+		assertSame(first.getDecisionCache(), second.getDecisionCache());
+	}
+
+	@Test
+	public void buildSharesScopesAcrossConnectionsWithSameScopes() {
+		Map<String, Object> response = new HashMap<>();
+		response.put("sub", "SharedUser");
+		response.put("scope", "urn:kafka:topic:shared:write");
+		response.put("exp", System.currentTimeMillis() / 1000 + 3600);
+		response.put("iat", System.currentTimeMillis() / 1000);
+		OAuthBearerTokenJwt firstJwt = new OAuthBearerTokenJwt(response, "first-token");
+		OAuthBearerTokenJwt secondJwt = new OAuthBearerTokenJwt(response, "second-token");
+		Mockito.when(saslAuthenticationContext.server()).thenReturn(saslServer);
+		Mockito.when(saslServer.getNegotiatedProperty("OAUTHBEARER.token")).thenReturn(firstJwt, secondJwt);
+		CustomPrincipal first = customPrincipalBuilder.build(saslAuthenticationContext);
+		CustomPrincipal second = customPrincipalBuilder.build(saslAuthenticationContext);
+
+		assertSame(firstJwt.getAuthorizationState(), secondJwt.getAuthorizationState());
+		assertSame(first.getScopeIndex(), second.getScopeIndex());
+		assertSame(first.getDecisionCache(), second.getDecisionCache());
+	}
+
+	@Test
+	public void buildWithoutDecisionCache() {
+		Map<String, Object> configs = new HashMap<>();
+		configs.put("oauth.authorizer.decision.cache.max.entries", "0");
+		customPrincipalBuilder.configure(configs);
+		OAuthBearerTokenJwt jwt = new OAuthBearerTokenJwt("token", 1, 1, "User");
+		Mockito.when(saslAuthenticationContext.server()).thenReturn(saslServer);
+		Mockito.when(saslServer.getNegotiatedProperty("OAUTHBEARER.token")).thenReturn(jwt);
+		CustomPrincipal customPrincipal = customPrincipalBuilder.build(saslAuthenticationContext);
+
+		assertNull(customPrincipal.getDecisionCache());
+	}
+
 	@Test(expected = KafkaException.class)
 	public void buildThrowException() {
 		OAuthBearerTokenJwt jwt = new OAuthBearerTokenJwt("token", 1, 1, "User");
@@ -38,8 +38,8 @@ public class CustomPrincipalTest {
 		OAuthBearerTokenJwt jwt = new OAuthBearerTokenJwt("token", 1, 1, "User");
 		customPrincipal.setOauthBearerTokenJwt(jwt);
 
-		assertTrue(customPrincipal.toString().equals("CustomPrincipal{oauthBearerTokenJwt=OauthBearerTokenJwt {value='token', lifetimeMs=1001, " +
-				"principalName='User', startTimeMs=1, scope=null, expirationTime=1001, jti='null'}} User:TEST"));
+		assertTrue(customPrincipal.toString().equals("CustomPrincipal{oauthBearerTokenJwt=OauthBearerTokenJwt {tokenDigest='PEaenWxYddN6Q_NT1PiOYfz4EsZu7jRXRlpAsNpBU-A', " +
+				"lifetimeMs=1001, principalName='User', startTimeMs=1, scope=[], expirationTime=1001, jti='null'}} User:TEST"));
 
 	}
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.ResourceType;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DecisionCacheTest {
+
+	private static final ScopeIndex INDEX = ScopeIndex.compile(Collections.singleton("urn:kafka:topic:orders:write"));
+
+	@Test
+	public void get_CachedDecision_ReturnsDecision() {
+		DecisionCache cache = new DecisionCache(10, 1000L);
+		cache.put(INDEX, ResourceType.TOPIC, AclOperation.WRITE, "orders", true, 0L);
+		cache.put(INDEX, ResourceType.TOPIC, AclOperation.READ, "orders", false, 0L);
+
+		assertTrue(cache.get(INDEX, ResourceType.TOPIC, AclOperation.WRITE, "orders", 1L));
+		assertFalse(cache.get(INDEX, ResourceType.TOPIC, AclOperation.READ, "orders", 1L));
+		assertNull(cache.get(INDEX, ResourceType.GROUP, AclOperation.WRITE, "orders", 1L));
+		assertNull(cache.get(INDEX, ResourceType.TOPIC, AclOperation.WRITE, "payments", 1L));
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void put_FullCache_DoesNotCacheDecision() {
+		DecisionCache cache = new DecisionCache(1, 1000L);
+		cache.put(INDEX, ResourceType.TOPIC, AclOperation.WRITE, "orders", true, 0L);
+		cache.put(INDEX, ResourceType.TOPIC, AclOperation.WRITE, "payments", true, 0L);
+
+		assertTrue(cache.get(INDEX, ResourceType.TOPIC, AclOperation.WRITE, "orders", 1L));
+		assertNull(cache.get(INDEX, ResourceType.TOPIC, AclOperation.WRITE, "payments", 1L));
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void put_ScopesCompiledAgain_DropsDecisionsOfPreviousScopes() {
+		DecisionCache cache = new DecisionCache(10, 1000L);
+		cache.put(INDEX, ResourceType.TOPIC, AclOperation.WRITE, "orders", true, 0L);
+		ScopeIndex recompiled = ScopeIndex.compile(Collections.singleton("urn:kafka:topic:payments:write"));
+
+		assertNull(cache.get(recompiled, ResourceType.TOPIC, AclOperation.WRITE, "orders", 1L));
+		cache.put(recompiled, ResourceType.TOPIC, AclOperation.WRITE, "orders", false, 1L);
+
+		assertFalse(cache.get(recompiled, ResourceType.TOPIC, AclOperation.WRITE, "orders", 1L));
+		assertNull(cache.get(INDEX, ResourceType.TOPIC, AclOperation.WRITE, "orders", 1L));
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void get_ExpiredToken_DropsDecisions() {
+		DecisionCache cache = new DecisionCache(10, 1000L);
+		cache.put(INDEX, ResourceType.TOPIC, AclOperation.WRITE, "orders", true, 0L);
+
+		assertNull(cache.get(INDEX, ResourceType.TOPIC, AclOperation.WRITE, "orders", 1000L));
+		assertEquals(0, cache.size());
+
+		cache.put(INDEX, ResourceType.TOPIC, AclOperation.WRITE, "orders", true, 1L);
+		assertNull(cache.get(INDEX, ResourceType.TOPIC, AclOperation.WRITE, "orders", 1L));
+	}
+}
@@ -0,0 +1,79 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.ResourceType;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class HeavyHitterTrackerTest {
+
+	@Test
+	public void record_SkewedLoad_KeepsMostFrequentCombinations() {
+		HeavyHitterTracker tracker = new HeavyHitterTracker(2, 1024, 4, 60000L);
+		for (int i = 0; i < 1000; i++) {
+			tracker.record("client-" + i, AclOperation.READ, ResourceType.TOPIC, "topic-" + i, true);
+			tracker.record("producer", AclOperation.WRITE, ResourceType.TOPIC, "orders", true);
+			if (i % 2 == 0) {
+				tracker.record("intruder", AclOperation.READ, ResourceType.TOPIC, "payments", false);
+			}
+		}
+
+		List<HeavyHitterTracker.HeavyHitter> hitters = tracker.getHeavyHitters();
+		assertEquals(2, hitters.size());
+		assertEquals("producer", hitters.get(0).getPrincipal());
+		assertTrue(hitters.get(0).getCount() >= 1000);
+		assertEquals("intruder", hitters.get(1).getPrincipal());
+		assertEquals("payments", hitters.get(1).getResourceName());
+		assertFalse(hitters.get(1).isAllowed());
+		assertTrue(hitters.get(1).getCount() >= 500);
+	}
+
+	@Test
+	public void rollInterval_ClearsCounts() {
+		HeavyHitterTracker tracker = new HeavyHitterTracker(2, 64, 2, 60000L);
+		tracker.record("producer", AclOperation.WRITE, ResourceType.TOPIC, "orders", true);
+		tracker.record("producer", AclOperation.WRITE, ResourceType.TOPIC, "orders", true);
+		tracker.rollInterval();
+
+		assertTrue(tracker.getHeavyHitters().isEmpty());
+		assertEquals(1, tracker.getLastIntervalHeavyHitters().size());
+		assertEquals(2, tracker.getLastIntervalHeavyHitters().get(0).getCount());
+	}
+
+	@Test
+	public void create_TopKZero_ReturnsNull() {
+		assertNull(HeavyHitterTracker.create(Collections.singletonMap("oauth.authorizer.heavy.hitters.top.k", "0")));
+	}
+
+	@Test
+	public void create_NotConfigured_ReturnsNull() {
+		assertNull(HeavyHitterTracker.create(Collections.emptyMap()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void constructor_WidthNotPowerOfTwo_Throws() {
+		new HeavyHitterTracker(10, 1000, 4, 60000L);
+	}
+}
@@ -0,0 +1,69 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * The type Json web key set test.
+ */
+public class JsonWebKeySetTest {
+
+	@Test
+	public void parse_RsaAndEcKeys_ReturnsKeysByKid() throws Exception {
+		KeyPair rsa = JwtTestUtils.rsaKeyPair();
+		KeyPair ec = JwtTestUtils.ecKeyPair();
+		Map<String, PublicKey> keys = new LinkedHashMap<>();
+		keys.put("rsa-1", rsa.getPublic());
+		keys.put("ec-1", ec.getPublic());
+
+		JsonWebKeySet keySet = parse(JwtTestUtils.jwks(keys));
+
+		assertEquals(rsa.getPublic(), keySet.getKeys().get("rsa-1"));
+		assertEquals(ec.getPublic(), keySet.getKeys().get("ec-1"));
+	}
+
+	@Test
+	public void parse_EncryptionAndUnsupportedKeys_AreSkipped() throws Exception {
+		String jwks = "{\"keys\":[" +
+				"{\"kid\":\"enc\",\"use\":\"enc\",\"kty\":\"RSA\",\"n\":\"AQAB\",\"e\":\"AQAB\"}," +
+				"{\"kid\":\"oct\",\"kty\":\"oct\",\"k\":\"c2VjcmV0\"}," +
+				"{\"kid\":\"bad\",\"kty\":\"EC\",\"crv\":\"P-1\",\"x\":\"AQAB\",\"y\":\"AQAB\"}]}";
+
+		JsonWebKeySet keySet = parse(jwks);
+
+		assertTrue(keySet.getKeys().isEmpty());
+	}
+
+	@Test(expected = IOException.class)
+	public void parse_NoKeysArray_ThrowsIOException() throws Exception {
+		parse("{\"issuer\":\"test\"}");
+	}
+
+	private static JsonWebKeySet parse(String jwks) throws IOException {
+		return JsonWebKeySet.parse(new ByteArrayInputStream(jwks.getBytes(StandardCharsets.UTF_8)));
+	}
+}
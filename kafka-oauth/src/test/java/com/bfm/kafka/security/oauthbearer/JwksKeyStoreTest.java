@@ -0,0 +1,203 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.kafka.common.utils.Time;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import javax.net.ssl.SSLSocketFactory;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * The type Jwks key store test.
+ */
+public class JwksKeyStoreTest {
+
+	private HttpServer server;
+	private final AtomicReference<String> jwks = new AtomicReference<>();
+	private final AtomicInteger requests = new AtomicInteger();
+	private volatile CountDownLatch release = new CountDownLatch(0);
+	private Time time;
+	private long now;
+
+	@Before
+	public void setUp() throws IOException {
+		this.now = 1000000L;
+		this.time = Mockito.mock(Time.class);
+		Mockito.when(this.time.milliseconds()).thenAnswer(invocation -> this.now);
+
+		this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		this.server.createContext("/certs", exchange -> {
+			this.requests.incrementAndGet();
+			try {
+				this.release.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			byte[] body = this.jwks.get().getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		this.server.start();
+	}
+
+	@After
+	public void tearDown() {
+		this.server.stop(0);
+	}
+
+	@Test
+	public void getKey_KnownKid_DownloadsOnce() throws Exception {
+		KeyPair rsa = JwtTestUtils.rsaKeyPair();
+		this.jwks.set(JwtTestUtils.jwks(Collections.singletonMap("rsa-1", rsa.getPublic())));
+		JwksKeyStore keyStore = keyStore(endpoint());
+
+		assertEquals(rsa.getPublic(), keyStore.getKey("rsa-1"));
+		assertEquals(rsa.getPublic(), keyStore.getKey("rsa-1"));
+		assertEquals(1, this.requests.get());
+	}
+
+	@Test
+	public void getKey_RotatedKey_DownloadsAgain() throws Exception {
+		KeyPair first = JwtTestUtils.rsaKeyPair();
+		KeyPair second = JwtTestUtils.rsaKeyPair();
+		this.jwks.set(JwtTestUtils.jwks(Collections.singletonMap("rsa-1", first.getPublic())));
+		JwksKeyStore keyStore = keyStore(endpoint());
+		keyStore.getKey("rsa-1");
+
+		this.jwks.set(JwtTestUtils.jwks(Collections.<String, PublicKey>singletonMap("rsa-2", second.getPublic())));
+		this.now += 10000L;
+
+		assertEquals(second.getPublic(), keyStore.getKey("rsa-2"));
+		assertEquals(2, this.requests.get());
+	}
+
+	@Test
+	public void getKey_NoKid_SingleKeyIsUsed() throws Exception {
+		KeyPair rsa = JwtTestUtils.rsaKeyPair();
+		this.jwks.set(JwtTestUtils.jwks(Collections.singletonMap("rsa-1", rsa.getPublic())));
+		JwksKeyStore keyStore = keyStore(endpoint());
+
+		assertEquals(rsa.getPublic(), keyStore.getKey(null));
+	}
+
+	@Test(expected = IOException.class)
+	public void getKey_EndpointNotFound_ThrowsIOException() throws Exception {
+		JwksKeyStore keyStore = keyStore("http://localhost:" + this.server.getAddress().getPort() + "/missing");
+		keyStore.getKey("rsa-1");
+	}
+
+	@Test
+	public void getKey_UnknownKidWithinRefetchInterval_IsRateLimited() throws Exception {
+		KeyPair rsa = JwtTestUtils.rsaKeyPair();
+		this.jwks.set(JwtTestUtils.jwks(Collections.singletonMap("rsa-1", rsa.getPublic())));
+		JwksKeyStore keyStore = keyStore(endpoint());
+		keyStore.getKey("rsa-1");
+
+		for (int i = 0; i < 100; i++) {
+			assertNull(keyStore.getKey("forged-" + i));
+		}
+
+		assertEquals(1, this.requests.get());
+		assertEquals(100, keyStore.getRateLimitedLookups());
+
+		this.now += 10000L;
+		assertNull(keyStore.getKey("forged"));
+		assertEquals(2, this.requests.get());
+	}
+
+	@Test
+	public void getKey_ConcurrentUnknownKids_ShareOneDownload() throws Exception {
+		KeyPair rsa = JwtTestUtils.rsaKeyPair();
+		this.jwks.set(JwtTestUtils.jwks(Collections.singletonMap("rsa-1", rsa.getPublic())));
+		this.release = new CountDownLatch(1);
+		JwksKeyStore keyStore = keyStore(endpoint());
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<PublicKey>> lookups = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				lookups.add(executor.submit(() -> keyStore.getKey("rsa-1")));
+			}
+
+			// give every lookup the chance to join the download before it completes
+			Thread.sleep(200);
+			this.release.countDown();
+
+			for (Future<PublicKey> lookup : lookups) {
+				assertEquals(rsa.getPublic(), lookup.get(10, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(1, this.requests.get());
+	}
+
+	@Test
+	public void start_RefreshesInBackground() throws Exception {
+		KeyPair first = JwtTestUtils.rsaKeyPair();
+		KeyPair second = JwtTestUtils.rsaKeyPair();
+		this.jwks.set(JwtTestUtils.jwks(Collections.singletonMap("rsa-1", first.getPublic())));
+
+		try (JwksKeyStore keyStore = new JwksKeyStore(endpoint(), (SSLSocketFactory) SSLSocketFactory.getDefault(), true, 50, 10, 10000, this.time)) {
+			keyStore.start();
+			this.jwks.set(JwtTestUtils.jwks(Collections.<String, PublicKey>singletonMap("rsa-2", second.getPublic())));
+
+			long deadline = System.currentTimeMillis() + 10000;
+			while (keyStore.getRefreshes() < 2 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+
+			// the rotated key is known without a download triggered by the lookup
+			int downloads = this.requests.get();
+			assertEquals(second.getPublic(), keyStore.getKey("rsa-2"));
+			assertTrue(downloads >= 2);
+			assertEquals(0, keyStore.getRateLimitedLookups());
+		}
+	}
+
+	private JwksKeyStore keyStore(String endpoint) {
+		return new JwksKeyStore(endpoint, (SSLSocketFactory) SSLSocketFactory.getDefault(), true, 300000, 0, 10000, this.time);
+	}
+
+	private String endpoint() {
+		return "http://localhost:" + this.server.getAddress().getPort() + "/certs";
+	}
+}
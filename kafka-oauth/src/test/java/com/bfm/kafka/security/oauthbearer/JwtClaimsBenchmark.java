@@ -0,0 +1,100 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decoding the header and payload of a JWT into maps with {@link Utils#handleJsonResponse}, the way the
+ * local validator used to, with the streaming decoder of {@link JwtClaims}. Both build the token the broker keeps.
+ * Run it with the gc profiler to see the allocation per decoded token, see DEVELOPMENT.md.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtClaimsBenchmark {
+
+	/**
+	 * The size of the custom claims of the token, in characters.
+	 */
+	@Param({"0", "4096"})
+	public int customClaimsSize;
+
+	private String accessToken;
+	private int headerEnd;
+	private int payloadEnd;
+
+	@Setup
+	public void setUp() {
+		StringBuilder custom = new StringBuilder();
+		for (int i = 0; i < this.customClaimsSize / 32; i++) {
+			custom.append(",\"claim_").append(i).append("\":\"").append("abcdefghijklmnopqrstu").append('"');
+		}
+
+		String header = "{\"alg\":\"RS256\",\"typ\":\"JWT\",\"kid\":\"rsa-1\"}";
+		String payload = "{\"sub\":\"client-1\",\"azp\":\"client-1\",\"typ\":\"Bearer\","
+				+ "\"scope\":[\"urn:kafka:topic:orders:read\",\"urn:kafka:topic:orders:write\",\"urn:kafka:group:*:read\"],"
+				+ "\"exp\":4102444800,\"iat\":1600000000,\"jti\":\"6f1c2a9e-5f4b-4a3b-9d8e-2f6c1b0a7e3d\","
+				+ "\"iss\":\"http://localhost:8080/auth/realms/master\",\"aud\":[\"kafka-broker\",\"account\"]"
+				+ custom
+				+ "}";
+
+		this.accessToken = JwtTestUtils.encode(header.getBytes(StandardCharsets.UTF_8))
+				+ "." + JwtTestUtils.encode(payload.getBytes(StandardCharsets.UTF_8))
+				+ "." + JwtTestUtils.encode(new byte[256]);
+		this.headerEnd = this.accessToken.indexOf('.');
+		this.payloadEnd = this.accessToken.indexOf('.', this.headerEnd + 1);
+	}
+
+	@Benchmark
+	public OAuthBearerTokenJwt mapDecoding() {
+		Map<String, Object> header = decodeMap(this.accessToken.substring(0, this.headerEnd));
+		Map<String, Object> claims = decodeMap(this.accessToken.substring(this.headerEnd + 1, this.payloadEnd));
+		if (!(header.get("alg") instanceof String)) {
+			throw new IllegalStateException();
+		}
+		return new OAuthBearerTokenJwt(claims, this.accessToken);
+	}
+
+	@Benchmark
+	public OAuthBearerTokenJwt streamingDecoding() throws JwtValidationException {
+		JwtClaims claims = JwtClaims.decode(this.accessToken, this.headerEnd, this.payloadEnd);
+		return new OAuthBearerTokenJwt(claims, this.accessToken);
+	}
+
+	private static Map<String, Object> decodeMap(String segment) {
+		return Utils.handleJsonResponse(new ByteArrayInputStream(Base64.getUrlDecoder().decode(segment)));
+	}
+}
@@ -0,0 +1,131 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class JwtClaimsTest {
+
+	private static final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	public void decode_Token_ReadsHeaderAndClaims() throws Exception {
+		Map<String, Object> claims = JwtTestUtils.claims("alice");
+		claims.put("nbf", 1000);
+		claims.put("custom", Collections.singletonMap("nested", Arrays.asList(1, 2, 3)));
+
+		JwtClaims result = decode(header("RS256", "rsa-1"), claims);
+
+		assertEquals("RS256", result.getAlgorithm());
+		assertEquals("rsa-1", result.getKeyId());
+		assertEquals("alice", result.getSubject());
+		assertEquals(Collections.singletonList("urn:kafka:topic:test:write"), result.getScope());
+		assertEquals(((Number) claims.get("exp")).longValue(), result.getExpirationTime());
+		assertEquals(((Number) claims.get("iat")).longValue(), result.getIssuedAt());
+		assertEquals(1000L, result.getNotBefore());
+		assertEquals(claims.get("jti"), result.getJti());
+		assertEquals(JwtTestUtils.ISSUER, result.getIssuer());
+		assertEquals(Arrays.asList(JwtTestUtils.AUDIENCE, "account"), result.getAudience());
+	}
+
+	@Test
+	public void decode_MissingClaims_ReturnsDefaults() throws Exception {
+		JwtClaims result = decode(header("RS256", null), Collections.singletonMap("scope", Arrays.asList("a", "b")));
+
+		assertNull(result.getKeyId());
+		assertNull(result.getSubject());
+		assertEquals(Arrays.asList("a", "b"), result.getScope());
+		assertEquals(JwtClaims.MISSING, result.getExpirationTime());
+		assertEquals(JwtClaims.MISSING, result.getNotBefore());
+		assertEquals(Collections.emptyList(), result.getAudience());
+	}
+
+	@Test
+	public void decode_NonNumericDate_IsRejected() throws Exception {
+		assertRejected(encode(header("RS256", "rsa-1")) + "." + encode(Collections.singletonMap("exp", "tomorrow")) + ".");
+	}
+
+	@Test
+	public void decode_NonStringKeyId_IsRejected() throws Exception {
+		assertRejected(encode(Collections.singletonMap("kid", 1)) + "." + encode(JwtTestUtils.claims("alice")) + ".");
+	}
+
+	@Test
+	public void decode_InvalidSegments_AreRejected() throws Exception {
+		assertRejected("e." + encode(JwtTestUtils.claims("alice")) + ".");
+		assertRejected(JwtTestUtils.encode("[1]".getBytes(StandardCharsets.UTF_8)) + "." + encode(JwtTestUtils.claims("alice")) + ".");
+		assertRejected(encode(header("RS256", "rsa-1")) + "." + JwtTestUtils.encode("{\"sub\":".getBytes(StandardCharsets.UTF_8)) + ".");
+	}
+
+	@Test
+	public void base64Url_AllLengths_MatchJdkDecoder() {
+		for (int length = 0; length < 64; length++) {
+			byte[] bytes = new byte[length];
+			for (int i = 0; i < length; i++) {
+				bytes[i] = (byte) (i * 37 + 251);
+			}
+			String unpadded = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+			String padded = "." + Base64.getUrlEncoder().encodeToString(bytes) + ".";
+
+			assertArrayEquals(bytes, Base64Url.decode(unpadded, 0, unpadded.length()));
+			assertArrayEquals(bytes, Base64Url.decode(padded, 1, padded.length() - 1));
+		}
+	}
+
+	private static JwtClaims decode(Map<String, Object> header, Map<String, ?> claims) throws Exception {
+		String token = encode(header) + "." + encode(claims) + ".c2ln";
+		int headerEnd = token.indexOf('.');
+		return JwtClaims.decode(token, headerEnd, token.indexOf('.', headerEnd + 1));
+	}
+
+	private static void assertRejected(String token) {
+		int headerEnd = token.indexOf('.');
+		try {
+			JwtClaims.decode(token, headerEnd, token.indexOf('.', headerEnd + 1));
+			fail("Token was decoded.");
+		} catch (JwtValidationException e) {
+			assertFalse(e.isFallbackAllowed());
+		}
+	}
+
+	private static Map<String, Object> header(String algorithm, String kid) {
+		Map<String, Object> header = new LinkedHashMap<>();
+		header.put("alg", algorithm);
+		header.put("typ", "JWT");
+		if (kid != null) {
+			header.put("kid", kid);
+		}
+		return header;
+	}
+
+	private static String encode(Map<String, ?> json) throws Exception {
+		return JwtTestUtils.encode(objectMapper.writeValueAsBytes(json));
+	}
+}
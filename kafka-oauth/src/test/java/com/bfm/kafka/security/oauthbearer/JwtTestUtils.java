@@ -0,0 +1,208 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.MGF1ParameterSpec;
+import java.security.spec.PSSParameterSpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates signing keys, JWKS documents and signed access tokens for tests.
+ */
+public final class JwtTestUtils {
+
+	public static final String ISSUER = "http://localhost:8080/auth/realms/master";
+	public static final String AUDIENCE = "kafka-broker";
+
+	private static final ObjectMapper objectMapper = new ObjectMapper();
+
+	private JwtTestUtils() {
+	}
+
+	public static KeyPair rsaKeyPair() throws GeneralSecurityException {
+		KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+		generator.initialize(2048);
+		return generator.generateKeyPair();
+	}
+
+	public static KeyPair ecKeyPair() throws GeneralSecurityException {
+		return ecKeyPair("secp256r1");
+	}
+
+	public static KeyPair ecKeyPair(String curve) throws GeneralSecurityException {
+		KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+		generator.initialize(new ECGenParameterSpec(curve));
+		return generator.generateKeyPair();
+	}
+
+	/**
+	 * Creates an Ed25519 key pair.
+	 *
+	 * @return the key pair
+	 * @throws GeneralSecurityException if the JVM does not provide Ed25519, before Java 15
+	 */
+	public static KeyPair ed25519KeyPair() throws GeneralSecurityException {
+		return KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+	}
+
+	/**
+	 * Creates the claims of a valid access token.
+	 *
+	 * @param subject the subject
+	 * @return the claims
+	 */
+	public static Map<String, Object> claims(String subject) {
+		long now = System.currentTimeMillis() / 1000;
+		Map<String, Object> claims = new LinkedHashMap<>();
+		claims.put("jti", "jti-" + subject + "-" + now);
+		claims.put("sub", subject);
+		claims.put("iss", ISSUER);
+		claims.put("aud", Arrays.asList(AUDIENCE, "account"));
+		claims.put("iat", now);
+		claims.put("exp", now + 300);
+		claims.put("scope", "urn:kafka:topic:test:write");
+		return claims;
+	}
+
+	/**
+	 * Creates a JWKS document.
+	 *
+	 * @param keys the public keys indexed by key id
+	 * @return the JWKS document
+	 */
+	public static String jwks(Map<String, PublicKey> keys) throws Exception {
+		List<Map<String, Object>> jwks = new ArrayList<>();
+		for (Map.Entry<String, PublicKey> entry : keys.entrySet()) {
+			Map<String, Object> jwk = new HashMap<>();
+			jwk.put("kid", entry.getKey());
+			jwk.put("use", "sig");
+			if (entry.getValue() instanceof RSAPublicKey) {
+				RSAPublicKey key = (RSAPublicKey) entry.getValue();
+				jwk.put("kty", "RSA");
+				jwk.put("n", encodeUnsigned(key.getModulus()));
+				jwk.put("e", encodeUnsigned(key.getPublicExponent()));
+			} else if (entry.getValue() instanceof ECPublicKey) {
+				ECPublicKey key = (ECPublicKey) entry.getValue();
+				jwk.put("kty", "EC");
+				jwk.put("crv", "P-256");
+				jwk.put("x", encodeUnsigned(key.getW().getAffineX()));
+				jwk.put("y", encodeUnsigned(key.getW().getAffineY()));
+			} else {
+				// the X.509 encoding of an Ed25519 key ends with the 32 bytes of the key
+				byte[] encoded = entry.getValue().getEncoded();
+				jwk.put("kty", "OKP");
+				jwk.put("crv", "Ed25519");
+				jwk.put("x", encode(Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length)));
+			}
+			jwks.add(jwk);
+		}
+
+		Map<String, Object> document = new HashMap<>();
+		document.put("keys", jwks);
+		return objectMapper.writeValueAsString(document);
+	}
+
+	/**
+	 * Signs an access token.
+	 *
+	 * @param algorithm  the JWS algorithm
+	 * @param kid        the key id
+	 * @param privateKey the private key
+	 * @param claims     the claims
+	 * @return the compact serialized JWT
+	 */
+	public static String sign(String algorithm, String kid, PrivateKey privateKey, Map<String, Object> claims) throws Exception {
+		Map<String, Object> header = new LinkedHashMap<>();
+		header.put("alg", algorithm);
+		header.put("typ", "JWT");
+		header.put("kid", kid);
+
+		String signingInput = encode(objectMapper.writeValueAsBytes(header)) + "." + encode(objectMapper.writeValueAsBytes(claims));
+
+		Signature signer;
+		if (algorithm.startsWith("RS")) {
+			signer = Signature.getInstance("SHA" + algorithm.substring(2) + "withRSA");
+		} else if (algorithm.startsWith("PS")) {
+			signer = Signature.getInstance("RSASSA-PSS");
+			String hash = "SHA-" + algorithm.substring(2);
+			signer.setParameter(new PSSParameterSpec(hash, "MGF1", new MGF1ParameterSpec(hash), Integer.parseInt(algorithm.substring(2)) / 8, 1));
+		} else if (algorithm.startsWith("ES")) {
+			signer = Signature.getInstance("SHA" + algorithm.substring(2) + "withECDSA");
+		} else {
+			signer = Signature.getInstance(algorithm);
+		}
+		signer.initSign(privateKey);
+		signer.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+		byte[] signature = signer.sign();
+
+		if (algorithm.startsWith("ES")) {
+			signature = toJoseSignature(signature, algorithm.equals("ES512") ? 66 : Integer.parseInt(algorithm.substring(2)) / 8);
+		}
+		return signingInput + "." + encode(signature);
+	}
+
+	public static String encode(byte[] bytes) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+	}
+
+	private static String encodeUnsigned(BigInteger value) {
+		byte[] bytes = value.toByteArray();
+		if (bytes[0] == 0 && bytes.length > 1) {
+			bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+		}
+		return encode(bytes);
+	}
+
+	private static byte[] toJoseSignature(byte[] der, int size) {
+		// SEQUENCE { INTEGER r, INTEGER s }, the sequence length takes a second byte for P-521
+		int offset = (der[1] & 0x80) != 0 ? 3 : 2;
+		int rLength = der[offset + 1];
+		byte[] r = Arrays.copyOfRange(der, offset + 2, offset + 2 + rLength);
+		offset += 2 + rLength;
+		int sLength = der[offset + 1];
+		byte[] s = Arrays.copyOfRange(der, offset + 2, offset + 2 + sLength);
+
+		byte[] jose = new byte[size * 2];
+		copyUnsigned(r, jose, 0, size);
+		copyUnsigned(s, jose, size, size);
+		return jose;
+	}
+
+	private static void copyUnsigned(byte[] value, byte[] target, int offset, int size) {
+		int start = Math.max(0, value.length - size);
+		int length = value.length - start;
+		System.arraycopy(value, start, target, offset + size - length, length);
+	}
+}
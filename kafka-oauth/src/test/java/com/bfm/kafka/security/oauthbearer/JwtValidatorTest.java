@@ -0,0 +1,172 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.utils.Time;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.net.ssl.SSLSocketFactory;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * The type Jwt validator test.
+ */
+public class JwtValidatorTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private KeyPair rsa;
+	private KeyPair ec;
+	private JwtValidator validator;
+
+	@Before
+	public void setUp() throws Exception {
+		this.rsa = JwtTestUtils.rsaKeyPair();
+		this.ec = JwtTestUtils.ecKeyPair();
+
+		Map<String, PublicKey> keys = new LinkedHashMap<>();
+		keys.put("rsa-1", this.rsa.getPublic());
+		keys.put("ec-1", this.ec.getPublic());
+
+		File jwks = this.folder.newFile("jwks.json");
+		Files.write(jwks.toPath(), JwtTestUtils.jwks(keys).getBytes(StandardCharsets.UTF_8));
+
+		JwksKeyStore keyStore = new JwksKeyStore(jwks.toURI().toString(), (SSLSocketFactory) SSLSocketFactory.getDefault(), true, 300000, 0, 0, Time.SYSTEM);
+		this.validator = new JwtValidator(keyStore, JwtTestUtils.ISSUER, JwtTestUtils.AUDIENCE, 30, Time.SYSTEM);
+	}
+
+	@Test
+	public void validate_Rs256Token_ReturnsClaims() throws Exception {
+		String token = JwtTestUtils.sign("RS256", "rsa-1", this.rsa.getPrivate(), JwtTestUtils.claims("alice"));
+
+		JwtClaims claims = this.validator.validate(token);
+
+		assertEquals("alice", claims.getSubject());
+	}
+
+	@Test
+	public void validate_Ps256Token_ReturnsClaims() throws Exception {
+		String token = JwtTestUtils.sign("PS256", "rsa-1", this.rsa.getPrivate(), JwtTestUtils.claims("alice"));
+
+		assertEquals("alice", this.validator.validate(token).getSubject());
+	}
+
+	@Test
+	public void validate_Es256Token_ReturnsClaims() throws Exception {
+		String token = JwtTestUtils.sign("ES256", "ec-1", this.ec.getPrivate(), JwtTestUtils.claims("bob"));
+
+		assertEquals("bob", this.validator.validate(token).getSubject());
+	}
+
+	@Test
+	public void validate_TamperedPayload_IsRejected() throws Exception {
+		String token = JwtTestUtils.sign("RS256", "rsa-1", this.rsa.getPrivate(), JwtTestUtils.claims("alice"));
+		String[] parts = token.split("\\.");
+		Map<String, Object> claims = JwtTestUtils.claims("mallory");
+		String forged = parts[0] + "." + JwtTestUtils.encode(new com.fasterxml.jackson.databind.ObjectMapper().writeValueAsBytes(claims)) + "." + parts[2];
+
+		assertRejected(forged, false);
+	}
+
+	@Test
+	public void validate_ExpiredToken_IsRejected() throws Exception {
+		Map<String, Object> claims = JwtTestUtils.claims("alice");
+		claims.put("exp", System.currentTimeMillis() / 1000 - 60);
+
+		assertRejected(JwtTestUtils.sign("RS256", "rsa-1", this.rsa.getPrivate(), claims), false);
+	}
+
+	@Test
+	public void validate_WrongIssuer_IsRejected() throws Exception {
+		Map<String, Object> claims = JwtTestUtils.claims("alice");
+		claims.put("iss", "http://evil");
+
+		assertRejected(JwtTestUtils.sign("RS256", "rsa-1", this.rsa.getPrivate(), claims), false);
+	}
+
+	@Test
+	public void validate_WrongAudience_IsRejected() throws Exception {
+		Map<String, Object> claims = JwtTestUtils.claims("alice");
+		claims.put("aud", "other-service");
+
+		assertRejected(JwtTestUtils.sign("RS256", "rsa-1", this.rsa.getPrivate(), claims), false);
+	}
+
+	@Test
+	public void validate_IssuedInTheFuture_IsRejected() throws Exception {
+		Map<String, Object> claims = JwtTestUtils.claims("alice");
+		claims.put("iat", System.currentTimeMillis() / 1000 + 3600);
+
+		assertRejected(JwtTestUtils.sign("RS256", "rsa-1", this.rsa.getPrivate(), claims), false);
+	}
+
+	@Test
+	public void validate_UnknownKid_AllowsFallback() throws Exception {
+		KeyPair other = JwtTestUtils.rsaKeyPair();
+
+		assertRejected(JwtTestUtils.sign("RS256", "rsa-2", other.getPrivate(), JwtTestUtils.claims("alice")), true);
+	}
+
+	@Test
+	public void validate_AlgorithmDoesNotFitKey_IsRejected() throws Exception {
+		String token = JwtTestUtils.sign("RS256", "rsa-1", this.rsa.getPrivate(), JwtTestUtils.claims("alice"));
+		String header = JwtTestUtils.encode("{\"alg\":\"ES256\",\"kid\":\"rsa-1\"}".getBytes(StandardCharsets.UTF_8));
+
+		assertRejected(header + token.substring(token.indexOf('.')), false);
+	}
+
+	@Test
+	public void validate_NoKidAlgorithmDoesNotFitPinnedAlgorithm_IsRejected() throws Exception {
+		String jwks = JwtTestUtils.jwks(Collections.singletonMap("rsa-1", this.rsa.getPublic()))
+				.replace("\"use\":\"sig\"", "\"use\":\"sig\",\"alg\":\"RS256\"");
+		File file = this.folder.newFile("pinned.json");
+		Files.write(file.toPath(), jwks.getBytes(StandardCharsets.UTF_8));
+		JwksKeyStore keyStore = new JwksKeyStore(file.toURI().toString(), (SSLSocketFactory) SSLSocketFactory.getDefault(), true, 300000, 0, 0, Time.SYSTEM);
+		this.validator = new JwtValidator(keyStore, JwtTestUtils.ISSUER, JwtTestUtils.AUDIENCE, 30, Time.SYSTEM);
+
+		this.validator.validate(JwtTestUtils.sign("RS256", null, this.rsa.getPrivate(), JwtTestUtils.claims("alice")));
+		assertRejected(JwtTestUtils.sign("PS256", null, this.rsa.getPrivate(), JwtTestUtils.claims("alice")), false);
+	}
+
+	@Test
+	public void validate_NotAJwt_IsRejected() throws Exception {
+		assertRejected("test", false);
+		assertRejected("a.b", false);
+		assertRejected("a.b.c.d", false);
+	}
+
+	private void assertRejected(String token, boolean fallbackAllowed) {
+		try {
+			this.validator.validate(token);
+			fail("Token should have been rejected.");
+		} catch (JwtValidationException e) {
+			assertEquals(fallbackAllowed, e.isFallbackAllowed());
+		}
+	}
+}
@@ -0,0 +1,48 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.ResourceType;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class KafkaAuditSinkTest {
+
+	@Test
+	public void write_SendsRecordKeyedByPrincipal() {
+		MockProducer<String, String> producer = new MockProducer<>(true, new StringSerializer(), new StringSerializer());
+		KafkaAuditSink sink = new KafkaAuditSink("oauth-audit", producer);
+
+		sink.write(Collections.singletonList(
+				new AuditRecord(1000, "client-1", AclOperation.READ, ResourceType.TOPIC, "orders", true)));
+		sink.close();
+
+		assertEquals(1, producer.history().size());
+		ProducerRecord<String, String> record = producer.history().get(0);
+		assertEquals("oauth-audit", record.topic());
+		assertEquals("client-1", record.key());
+		assertTrue(record.value().contains("\"decision\":\"ALLOWED\""));
+		assertTrue(producer.closed());
+	}
+}
@@ -15,11 +15,14 @@ limitations under the License.
 */
 package com.bfm.kafka.security.oauthbearer;
 
+import org.apache.kafka.common.security.oauthbearer.OAuthBearerLoginModule;
 import org.apache.kafka.common.security.oauthbearer.OAuthBearerTokenCallback;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import javax.security.auth.login.AppConfigurationEntry;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -46,12 +49,16 @@ public class OAuthAuthenticateLoginCallbackHandlerTest {
 		response.put("exp", 1);
 
 		OAuthBearerTokenJwt jwt = new OAuthBearerTokenJwt(response, "test");
-		Mockito.doReturn(oauthServiceImplSpy).when(loginCallbackHandler).getOauthService();
+		Mockito.doReturn(oauthServiceImplSpy).when(loginCallbackHandler).createOAuthService();
 		Mockito.doReturn(jwt).when(oauthServiceImplSpy).requestAccessToken();
 		OAuthBearerTokenCallback oauthBearerTokenCallback = new OAuthBearerTokenCallback();
-		loginCallbackHandler.handleCallback(oauthBearerTokenCallback);
+		try {
+			loginCallbackHandler.handleCallback(oauthBearerTokenCallback);
 
-		assertEquals(jwt, oauthBearerTokenCallback.token());
+			assertEquals(jwt, oauthBearerTokenCallback.token());
+		} finally {
+			loginCallbackHandler.close();
+		}
 	}
 
 	/**
@@ -87,10 +94,117 @@ public class OAuthAuthenticateLoginCallbackHandlerTest {
 		response.put("iat", 1);
 		response.put("exp", 1);
 
-		Mockito.doReturn(oauthServiceImplSpy).when(loginCallbackHandler).getOauthService();
+		Mockito.doReturn(oauthServiceImplSpy).when(loginCallbackHandler).createOAuthService();
 		Mockito.doReturn(null).when(oauthServiceImplSpy).requestAccessToken();
 		OAuthBearerTokenCallback oauthBearerTokenCallback = new OAuthBearerTokenCallback();
-		loginCallbackHandler.handleCallback(oauthBearerTokenCallback);
+		try {
+			loginCallbackHandler.handleCallback(oauthBearerTokenCallback);
+		} finally {
+			loginCallbackHandler.close();
+		}
+
+	}
+
+	/**
+	 * Handle callback with an unexpired token serves the token from memory.
+	 *
+	 * @throws IOException the io exception
+	 */
+	@Test
+	public void handleCallback_UnexpiredToken_ServedFromMemory() throws IOException {
+		OAuthAuthenticateLoginCallbackHandler loginCallbackHandler = Mockito.spy(new OAuthAuthenticateLoginCallbackHandler());
+		OAuthServiceImpl oauthServiceImplSpy = Mockito.spy(new OAuthServiceImpl());
+		OAuthBearerTokenJwt jwt = new OAuthBearerTokenJwt("test", 3600, System.currentTimeMillis(), "test-client-id");
+		Mockito.doReturn(oauthServiceImplSpy).when(loginCallbackHandler).createOAuthService();
+		Mockito.doReturn(jwt).when(oauthServiceImplSpy).requestAccessToken();
+
+		try {
+			OAuthBearerTokenCallback firstCallback = new OAuthBearerTokenCallback();
+			loginCallbackHandler.handleCallback(firstCallback);
+			OAuthBearerTokenCallback secondCallback = new OAuthBearerTokenCallback();
+			loginCallbackHandler.handleCallback(secondCallback);
+
+			assertEquals(jwt, firstCallback.token());
+			assertEquals(jwt, secondCallback.token());
+			Mockito.verify(oauthServiceImplSpy, Mockito.times(1)).requestAccessToken();
+		} finally {
+			loginCallbackHandler.close();
+		}
+	}
+
+	/**
+	 * Handlers with the same credentials share one access token, which is released by the last close.
+	 *
+	 * @throws IOException the io exception
+	 */
+	@Test
+	public void handleCallback_SameCredentials_ShareOneToken() throws IOException {
+		OAuthServiceImpl oauthServiceImplSpy = Mockito.spy(new OAuthServiceImpl());
+		OAuthBearerTokenJwt jwt = new OAuthBearerTokenJwt("test", 3600, System.currentTimeMillis(), "test-client-id");
+		Mockito.doReturn(jwt).when(oauthServiceImplSpy).requestAccessToken();
+		OAuthAuthenticateLoginCallbackHandler firstHandler = Mockito.spy(new OAuthAuthenticateLoginCallbackHandler());
+		Mockito.doReturn(oauthServiceImplSpy).when(firstHandler).createOAuthService();
+		OAuthAuthenticateLoginCallbackHandler secondHandler = Mockito.spy(new OAuthAuthenticateLoginCallbackHandler());
+
+		OAuthBearerTokenCallback firstCallback = new OAuthBearerTokenCallback();
+		firstHandler.handleCallback(firstCallback);
+		OAuthBearerTokenCallback secondCallback = new OAuthBearerTokenCallback();
+		secondHandler.handleCallback(secondCallback);
+
+		assertEquals(jwt, secondCallback.token());
+		Mockito.verify(oauthServiceImplSpy, Mockito.times(1)).requestAccessToken();
 
+		firstHandler.close();
+		assertEquals(1, AccessTokenManagerRegistry.size());
+		Mockito.verify(oauthServiceImplSpy, Mockito.never()).close();
+
+		secondHandler.close();
+		assertEquals(0, AccessTokenManagerRegistry.size());
+		Mockito.verify(oauthServiceImplSpy).close();
+	}
+
+	/**
+	 * Reconfiguring one of two handlers that share an access token leaves the token of the other handler alone.
+	 *
+	 * @throws IOException the io exception
+	 */
+	@Test
+	public void configure_SharedToken_OtherHandlerKeepsItsToken() throws IOException {
+		OAuthServiceImpl sharedOAuthServiceSpy = Mockito.spy(new OAuthServiceImpl());
+		OAuthServiceImpl reconfiguredOAuthServiceSpy = Mockito.spy(new OAuthServiceImpl());
+		OAuthBearerTokenJwt jwt = new OAuthBearerTokenJwt("test", 3600, System.currentTimeMillis(), "test-client-id");
+		OAuthBearerTokenJwt otherJwt = new OAuthBearerTokenJwt("other", 3600, System.currentTimeMillis(), "other-client-id");
+		Mockito.doReturn(jwt).when(sharedOAuthServiceSpy).requestAccessToken();
+		Mockito.doReturn(otherJwt).when(reconfiguredOAuthServiceSpy).requestAccessToken();
+		OAuthAuthenticateLoginCallbackHandler firstHandler = Mockito.spy(new OAuthAuthenticateLoginCallbackHandler());
+		Mockito.doReturn(sharedOAuthServiceSpy, reconfiguredOAuthServiceSpy).when(firstHandler).createOAuthService();
+		OAuthAuthenticateLoginCallbackHandler secondHandler = Mockito.spy(new OAuthAuthenticateLoginCallbackHandler());
+
+		try {
+			firstHandler.handleCallback(new OAuthBearerTokenCallback());
+			secondHandler.handleCallback(new OAuthBearerTokenCallback());
+
+			firstHandler.configure(
+					Collections.emptyMap(),
+					OAuthBearerLoginModule.OAUTHBEARER_MECHANISM,
+					Collections.singletonList(new AppConfigurationEntry(
+							OAuthBearerLoginModule.class.getName(),
+							AppConfigurationEntry.LoginModuleControlFlag.REQUIRED,
+							Collections.singletonMap("oauth.server.client.id", "other-client-id"))));
+			OAuthBearerTokenCallback firstCallback = new OAuthBearerTokenCallback();
+			firstHandler.handleCallback(firstCallback);
+			OAuthBearerTokenCallback secondCallback = new OAuthBearerTokenCallback();
+			secondHandler.handleCallback(secondCallback);
+
+			assertEquals(otherJwt, firstCallback.token());
+			assertEquals(jwt, secondCallback.token());
+			assertEquals(2, AccessTokenManagerRegistry.size());
+			Mockito.verify(sharedOAuthServiceSpy, Mockito.never()).setOAuthConfiguration(Mockito.anyMap());
+			Mockito.verify(sharedOAuthServiceSpy, Mockito.times(1)).requestAccessToken();
+		} finally {
+			firstHandler.close();
+			secondHandler.close();
+		}
+		assertEquals(0, AccessTokenManagerRegistry.size());
 	}
-}
\ No newline at end of file
+}
@@ -16,20 +16,119 @@ limitations under the License.
 package com.bfm.kafka.security.oauthbearer;
 
 import org.junit.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class OAuthBearerTokenJwtTests {
+
+    private static final String ACCESS_TOKEN = createAccessToken(2048);
+
+    @Test
+    public void constructor_Claims_ReadsClaims() {
+        OAuthBearerTokenJwt jwt = new OAuthBearerTokenJwt(createClaims(), ACCESS_TOKEN);
+
+        assertEquals(ACCESS_TOKEN, jwt.value());
+        assertEquals("User", jwt.principalName());
+        assertEquals(Arrays.asList("urn:kafka:topic:a:read", "urn:kafka:topic:b:write"), Arrays.asList(jwt.scope().toArray()));
+        assertEquals(Long.valueOf(1000L), jwt.startTimeMs());
+        assertEquals(4600L, jwt.expirationTime());
+        assertEquals(4600000L, jwt.lifetimeMs());
+        assertEquals("abc", jwt.getJti());
+    }
+
+    @Test
+    public void constructor_NoScopes_ReturnsEmptyScopes() {
+        OAuthBearerTokenJwt jwt = new OAuthBearerTokenJwt("token", 1, 1, "User");
+
+        assertEquals(Collections.emptySet(), jwt.scope());
+        assertEquals("token", jwt.value());
+    }
+
+    @Test
+    public void compact_ValidatedToken_KeepsOnlyDigest() {
+        OAuthBearerTokenJwt jwt = new OAuthBearerTokenJwt(createClaims(), ACCESS_TOKEN);
+        String digest = Utils.digestToken(ACCESS_TOKEN);
+
+        CompactOAuthBearerTokenJwt compact = new CompactOAuthBearerTokenJwt(jwt, digest);
+
+        assertSame(digest, compact.getTokenDigest());
+        assertEquals(4600000L, compact.lifetimeMs());
+        assertSame(jwt.getAuthorizationState(), compact.getAuthorizationState());
+        assertFalse(compact.toString().contains(ACCESS_TOKEN));
+        assertTrue(compact.toString().contains(digest));
+    }
+
     @Test
-    public void constructor_NullAccessToken_ThrowsException() {
-/*        // arrange
-        String accessToken = "";
-        long lifeTimeMs = 100;
-        long startTimeMs = 100;
-        String principalName = "";
-
-        // act
-        OAuthBearerTokenJwt oauthBearerTokenJwt = new OAuthBearerTokenJwt();
-
-        // assert
-        assertNotNull(oauthBearerTokenJwt);*/
+    public void compact_ToToken_RestoresValue() {
+        OAuthBearerTokenJwt jwt = new OAuthBearerTokenJwt(createClaims(), ACCESS_TOKEN);
+        CompactOAuthBearerTokenJwt compact = new CompactOAuthBearerTokenJwt(jwt, Utils.digestToken(ACCESS_TOKEN));
+
+        OAuthBearerTokenJwt restored = compact.toToken(ACCESS_TOKEN);
+
+        assertEquals(ACCESS_TOKEN, restored.value());
+        assertEquals("User", restored.principalName());
+        assertEquals(jwt.scope(), restored.scope());
+        assertEquals(jwt.lifetimeMs(), restored.lifetimeMs());
+        assertEquals(jwt.startTimeMs(), restored.startTimeMs());
+        assertEquals("abc", restored.getJti());
+        assertSame(jwt.getAuthorizationState(), restored.getAuthorizationState());
+    }
+
+    @Test
+    public void compact_ValidatedToken_RetainsFixedSize() {
+        OAuthBearerTokenJwt jwt = new OAuthBearerTokenJwt(createClaims(), ACCESS_TOKEN);
+        long full = retainedSize(jwt, jwt.getAuthorizationState());
+
+        long compact = retainedSize(
+                new CompactOAuthBearerTokenJwt(jwt, Utils.digestToken(ACCESS_TOKEN)),
+                jwt.getAuthorizationState());
+
+        // the access token is 2 KB, a cache entry keeps its digest, jti and a few longs; a connection still retains
+        // the full token, since the SASL server keeps it with the access token the client presented
+        assertTrue("full: " + full, full > 2048);
+        assertTrue("compact: " + compact, compact < 512);
+    }
+
+    @Test
+    public void toString_DoesNotContainAccessToken() {
+        OAuthBearerTokenJwt jwt = new OAuthBearerTokenJwt(createClaims(), ACCESS_TOKEN);
+
+        assertFalse(jwt.toString().contains(ACCESS_TOKEN));
+        assertEquals(Utils.digestToken(ACCESS_TOKEN), jwt.getTokenDigest());
+    }
+
+    /**
+     * Measures what a token or a validation cache entry retains, which excludes the authorization state it shares
+     * with the other tokens of the principal.
+     */
+    private static long retainedSize(Object token, AuthorizationState authorizationState) {
+        return GraphLayout.parseInstance(token)
+                .subtract(GraphLayout.parseInstance(authorizationState))
+                .totalSize();
+    }
+
+    private static Map<String, Object> createClaims() {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("sub", "User");
+        claims.put("scope", Arrays.asList("urn:kafka:topic:b:write", "urn:kafka:topic:a:read"));
+        claims.put("iat", 1000);
+        claims.put("exp", 4600);
+        claims.put("jti", "abc");
+        return claims;
+    }
+
+    private static String createAccessToken(int length) {
+        char[] chars = new char[length];
+        Arrays.fill(chars, 'a');
+        return new String(chars);
     }
 }
@@ -68,4 +68,128 @@ public class OAuthConfigurationTests {
         assertTrue(oauthConfiguration.getScopes().equals(serverScopes));
         assertFalse(oauthConfiguration.getUnsecureServer());
     }
+
+    @Test
+    public void testValidationCacheSettingsUsingJaasConfigurationFile() {
+        Map<String, String> jaasConfigurationEntries = new TreeMap<>();
+        jaasConfigurationEntries.put("oauth.server.validation.cache.max.entries", "42");
+        jaasConfigurationEntries.put("oauth.server.validation.cache.ttl.ms", "1000");
+
+        OAuthConfiguration oauthConfiguration = new OAuthConfiguration();
+        oauthConfiguration.setConfigurationFromJaasConfigEntries(jaasConfigurationEntries);
+
+        assertEquals(42, oauthConfiguration.getValidationCacheMaxEntries());
+        assertEquals(1000L, oauthConfiguration.getValidationCacheTtlMs());
+    }
+
+    @Test
+    public void testNegativeCacheSettingsUsingJaasConfigurationFile() {
+        Map<String, String> jaasConfigurationEntries = new TreeMap<>();
+        jaasConfigurationEntries.put("oauth.server.negative.cache.max.entries", "100");
+        jaasConfigurationEntries.put("oauth.server.negative.cache.ttl.ms", "2000");
+        jaasConfigurationEntries.put("oauth.server.max.token.length", "4096");
+        jaasConfigurationEntries.put("oauth.server.require.jwt.structure", "false");
+
+        OAuthConfiguration oauthConfiguration = new OAuthConfiguration();
+        oauthConfiguration.setConfigurationFromJaasConfigEntries(jaasConfigurationEntries);
+
+        assertEquals(100, oauthConfiguration.getNegativeCacheMaxEntries());
+        assertEquals(2000L, oauthConfiguration.getNegativeCacheTtlMs());
+        assertEquals(4096, oauthConfiguration.getMaxTokenLength());
+        assertFalse(oauthConfiguration.getRequireJwtStructure());
+    }
+
+    @Test
+    public void testTokenRefreshSettingsUsingJaasConfigurationFile() {
+        Map<String, String> jaasConfigurationEntries = new TreeMap<>();
+        jaasConfigurationEntries.put("oauth.server.token.refresh.fraction", "0.5");
+        jaasConfigurationEntries.put("oauth.server.token.refresh.jitter.ms", "2000");
+        jaasConfigurationEntries.put("oauth.server.token.refresh.retry.backoff.ms", "3000");
+
+        OAuthConfiguration oauthConfiguration = new OAuthConfiguration();
+        oauthConfiguration.setConfigurationFromJaasConfigEntries(jaasConfigurationEntries);
+
+        assertEquals(0.5, oauthConfiguration.getTokenRefreshFraction(), 0.0);
+        assertEquals(2000L, oauthConfiguration.getTokenRefreshJitterMs());
+        assertEquals(3000L, oauthConfiguration.getTokenRefreshRetryBackoffMs());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTokenRefreshFractionOfOneIsInvalid() {
+        Map<String, String> jaasConfigurationEntries = new TreeMap<>();
+        jaasConfigurationEntries.put("oauth.server.token.refresh.fraction", "1");
+
+        OAuthConfiguration oauthConfiguration = new OAuthConfiguration();
+        oauthConfiguration.setConfigurationFromJaasConfigEntries(jaasConfigurationEntries);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNegativeValidationCacheSizeIsInvalid() {
+        Map<String, String> jaasConfigurationEntries = new TreeMap<>();
+        jaasConfigurationEntries.put("oauth.server.validation.cache.max.entries", "-1");
+
+        OAuthConfiguration oauthConfiguration = new OAuthConfiguration();
+        oauthConfiguration.setConfigurationFromJaasConfigEntries(jaasConfigurationEntries);
+    }
+
+    @Test
+    public void testLocalValidationSettingsUsingJaasConfigurationFile() {
+        Map<String, String> jaasConfigurationEntries = new TreeMap<>();
+        jaasConfigurationEntries.put("oauth.server.validation.mode", "Local");
+        jaasConfigurationEntries.put("oauth.server.introspection.fallback", "false");
+        jaasConfigurationEntries.put("oauth.server.expected.issuer", "http://localhost:8080/auth/realms/master");
+        jaasConfigurationEntries.put("oauth.server.expected.audience", "kafka-broker");
+        jaasConfigurationEntries.put("oauth.server.clock.skew.seconds", "5");
+
+        OAuthConfiguration oauthConfiguration = new OAuthConfiguration();
+        oauthConfiguration.setConfigurationFromJaasConfigEntries(jaasConfigurationEntries);
+
+        assertEquals(ValidationMode.LOCAL, oauthConfiguration.getValidationMode());
+        assertFalse(oauthConfiguration.getIntrospectionFallback());
+        assertEquals(oauthConfiguration.getBaseServerUri() + "/certs", oauthConfiguration.getJwksEndpoint());
+        assertEquals("http://localhost:8080/auth/realms/master", oauthConfiguration.getExpectedIssuer());
+        assertEquals("kafka-broker", oauthConfiguration.getExpectedAudience());
+        assertEquals(5L, oauthConfiguration.getClockSkewSeconds());
+    }
+
+    @Test
+    public void testHybridValidationSettingsUsingJaasConfigurationFile() {
+        Map<String, String> jaasConfigurationEntries = new TreeMap<>();
+        jaasConfigurationEntries.put("oauth.server.validation.mode", "hybrid");
+        jaasConfigurationEntries.put("oauth.server.hybrid.introspect.first.sight", "false");
+        jaasConfigurationEntries.put("oauth.server.hybrid.introspect.sample.rate", "0.05");
+        jaasConfigurationEntries.put("oauth.server.hybrid.introspect.token.age.ms", "600000");
+        jaasConfigurationEntries.put("oauth.server.hybrid.seen.jti.max.entries", "1000");
+        jaasConfigurationEntries.put("oauth.server.hybrid.fail.open", "false");
+
+        OAuthConfiguration oauthConfiguration = new OAuthConfiguration();
+        oauthConfiguration.setConfigurationFromJaasConfigEntries(jaasConfigurationEntries);
+
+        assertEquals(ValidationMode.HYBRID, oauthConfiguration.getValidationMode());
+        assertFalse(oauthConfiguration.getHybridIntrospectFirstSight());
+        assertEquals(0.05, oauthConfiguration.getHybridIntrospectSampleRate(), 0.0);
+        assertEquals(600000L, oauthConfiguration.getHybridIntrospectTokenAgeMs());
+        assertEquals(1000, oauthConfiguration.getHybridSeenJtiMaxEntries());
+        assertFalse(oauthConfiguration.getHybridFailOpen());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testHybridSampleRateAboveOneIsInvalid() {
+        Map<String, String> jaasConfigurationEntries = new TreeMap<>();
+        jaasConfigurationEntries.put("oauth.server.hybrid.introspect.sample.rate", "1.5");
+
+        OAuthConfiguration oauthConfiguration = new OAuthConfiguration();
+        oauthConfiguration.setConfigurationFromJaasConfigEntries(jaasConfigurationEntries);
+    }
+
+    @Test
+    public void testAbsoluteJwksEndpointPathIsUsedAsIs() {
+        Map<String, String> jaasConfigurationEntries = new TreeMap<>();
+        jaasConfigurationEntries.put("oauth.server.jwks.endpoint.path", "file:///etc/kafka/jwks.json");
+
+        OAuthConfiguration oauthConfiguration = new OAuthConfiguration();
+        oauthConfiguration.setConfigurationFromJaasConfigEntries(jaasConfigurationEntries);
+
+        assertEquals("file:///etc/kafka/jwks.json", oauthConfiguration.getJwksEndpoint());
+    }
 }
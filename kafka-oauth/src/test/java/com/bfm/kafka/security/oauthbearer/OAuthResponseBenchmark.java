@@ -0,0 +1,83 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decoding an introspection response into a map, the way the library used to, with the streaming
+ * decoder of {@link OAuthResponse}. Run it with the gc profiler to see the allocation per decoded response,
+ * see DEVELOPMENT.md.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OAuthResponseBenchmark {
+
+	/**
+	 * The size of the custom claims of the introspection response, in characters.
+	 */
+	@Param({"0", "4096"})
+	public int customClaimsSize;
+
+	private byte[] body;
+
+	@Setup
+	public void setUp() {
+		StringBuilder custom = new StringBuilder();
+		for (int i = 0; i < this.customClaimsSize / 32; i++) {
+			custom.append(",\"claim_").append(i).append("\":\"").append("abcdefghijklmnopqrstu").append('"');
+		}
+
+		this.body = ("{\"active\":true,\"sub\":\"client-1\",\"client_id\":\"client-1\",\"token_type\":\"bearer\","
+				+ "\"scope\":[\"urn:kafka:topic:orders:read\",\"urn:kafka:topic:orders:write\",\"urn:kafka:group:*:read\"],"
+				+ "\"exp\":4102444800,\"iat\":1600000000,\"jti\":\"6f1c2a9e-5f4b-4a3b-9d8e-2f6c1b0a7e3d\","
+				+ "\"iss\":\"http://localhost:8080/auth/realms/master\",\"aud\":\"kafka-broker\""
+				+ custom
+				+ "}").getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public OAuthBearerTokenJwt mapDecoding() {
+		Map<String, Object> response = Utils.handleJsonResponse(new ByteArrayInputStream(this.body));
+		return new OAuthBearerTokenJwt(response, "token");
+	}
+
+	@Benchmark
+	public OAuthBearerTokenJwt streamingDecoding() throws IOException {
+		OAuthResponse response = OAuthResponse.parse(new ByteArrayInputStream(this.body));
+		return new OAuthBearerTokenJwt(response, "token");
+	}
+}
@@ -0,0 +1,90 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * The type O auth response test.
+ */
+public class OAuthResponseTest {
+
+	@Test
+	public void parse_IntrospectionResponse_KeepsKnownFieldsOnly() throws IOException {
+		String json = "{\"active\":true,\"sub\":\"client-1\",\"scope\":[\"urn:kafka:topic:orders:read\",\"urn:kafka:group:*:read\"],"
+				+ "\"exp\":4102444800,\"iat\":1600000000,\"jti\":\"abc\","
+				+ "\"realm_access\":{\"roles\":[\"a\",\"b\",{\"nested\":[1,2,3]}]},\"custom\":\"" + repeat('x', 10000) + "\","
+				+ "\"client_id\":\"client-1\"}";
+
+		OAuthResponse response = OAuthResponse.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+		assertTrue(response.isActive());
+		assertEquals("client-1", response.getSubject());
+		assertEquals(Arrays.asList("urn:kafka:topic:orders:read", "urn:kafka:group:*:read"), response.getScope());
+		assertEquals(4102444800L, response.getExpirationTime());
+		assertEquals(1600000000L, response.getIssuedAt());
+		assertEquals("abc", response.getJti());
+		assertNull(response.getAccessToken());
+		assertEquals(-1L, response.getExpiresIn());
+	}
+
+	@Test
+	public void parse_TokenResponse_ReadsAccessTokenAndExpiresIn() throws IOException {
+		String json = "{\"access_token\":\"eyJ.eyJ.sig\",\"token_type\":\"bearer\",\"expires_in\":300,\"scope\":\"urn:kafka:topic:orders:read\"}";
+
+		OAuthResponse response = OAuthResponse.parse(json.getBytes(StandardCharsets.UTF_8));
+
+		assertEquals("eyJ.eyJ.sig", response.getAccessToken());
+		assertEquals(300L, response.getExpiresIn());
+		assertEquals(Collections.singletonList("urn:kafka:topic:orders:read"), response.getScope());
+		assertFalse(response.isActive());
+		assertEquals(-1L, response.getExpirationTime());
+	}
+
+	@Test
+	public void parse_InactiveToken_IsNotActive() throws IOException {
+		OAuthResponse response = OAuthResponse.parse("{\"active\":false}".getBytes(StandardCharsets.UTF_8));
+
+		assertFalse(response.isActive());
+		assertNull(response.getSubject());
+		assertTrue(response.getScope().isEmpty());
+	}
+
+	@Test(expected = JsonProcessingException.class)
+	public void parse_NotAnObject_ThrowsJsonProcessingException() throws IOException {
+		OAuthResponse.parse("[{\"active\":true}]".getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test(expected = JsonProcessingException.class)
+	public void parse_TruncatedBody_ThrowsJsonProcessingException() throws IOException {
+		OAuthResponse.parse("{\"active\":true,\"sub\":\"cli".getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String repeat(char c, int count) {
+		char[] chars = new char[count];
+		Arrays.fill(chars, c);
+		return new String(chars);
+	}
+}
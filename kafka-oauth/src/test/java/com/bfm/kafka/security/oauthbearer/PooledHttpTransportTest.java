@@ -0,0 +1,208 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.kafka.common.utils.Time;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import javax.net.ssl.SSLSocketFactory;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * The type Pooled http transport test.
+ */
+public class PooledHttpTransportTest {
+
+	private HttpServer server;
+	private final AtomicReference<String> lastBody = new AtomicReference<>();
+	private final AtomicReference<String> lastAuthorization = new AtomicReference<>();
+	private Time time;
+	private long now;
+
+	@Before
+	public void setUp() throws IOException {
+		this.now = 1000000L;
+		this.time = Mockito.mock(Time.class);
+		Mockito.when(this.time.milliseconds()).thenAnswer(invocation -> this.now);
+
+		this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		this.server.createContext("/token", exchange -> {
+			this.lastBody.set(read(exchange.getRequestBody()));
+			this.lastAuthorization.set(exchange.getRequestHeaders().getFirst("Authorization"));
+			respond(exchange, 200, "{\"access_token\":\"abc\"}", false);
+		});
+		this.server.createContext("/chunked", exchange -> {
+			read(exchange.getRequestBody());
+			respond(exchange, 200, "{\"active\":true}", true);
+		});
+		this.server.createContext("/unauthorized", exchange -> {
+			read(exchange.getRequestBody());
+			respond(exchange, 401, "{\"error\":\"invalid_client\"}", false);
+		});
+		this.server.start();
+	}
+
+	@After
+	public void tearDown() {
+		this.server.stop(0);
+	}
+
+	@Test
+	public void post_SequentialRequests_ReuseOneConnection() throws Exception {
+		try (PooledHttpTransport transport = transport(8)) {
+			for (int i = 0; i < 5; i++) {
+				HttpTransport.HttpResponse response = transport.post(url("/token"), "Basic Y2xpZW50OnNlY3JldA==", "grant_type=client_credentials".getBytes(StandardCharsets.UTF_8));
+				assertEquals(200, response.getStatusCode());
+				assertEquals("{\"access_token\":\"abc\"}", new String(response.getBody(), StandardCharsets.UTF_8));
+			}
+
+			assertEquals("grant_type=client_credentials", this.lastBody.get());
+			assertEquals("Basic Y2xpZW50OnNlY3JldA==", this.lastAuthorization.get());
+			assertEquals(5, transport.getRequests());
+			assertEquals(1, transport.getConnectionsCreated());
+			assertEquals(4, transport.getConnectionsReused());
+			assertEquals(1, transport.getIdleConnections());
+		}
+	}
+
+	@Test
+	public void post_ChunkedAndErrorResponses_AreReadAndConnectionReused() throws Exception {
+		try (PooledHttpTransport transport = transport(8)) {
+			HttpTransport.HttpResponse chunked = transport.post(url("/chunked"), null, "token=abc".getBytes(StandardCharsets.UTF_8));
+			HttpTransport.HttpResponse unauthorized = transport.post(url("/unauthorized"), null, "token=abc".getBytes(StandardCharsets.UTF_8));
+
+			assertEquals("{\"active\":true}", new String(chunked.getBody(), StandardCharsets.UTF_8));
+			assertEquals(401, unauthorized.getStatusCode());
+			assertEquals("{\"error\":\"invalid_client\"}", new String(unauthorized.getBody(), StandardCharsets.UTF_8));
+			assertEquals(1, transport.getConnectionsCreated());
+		}
+	}
+
+	@Test
+	public void post_IdleConnectionExpired_OpensNewConnection() throws Exception {
+		try (PooledHttpTransport transport = transport(8)) {
+			transport.post(url("/token"), null, new byte[0]);
+			this.now += 30000L;
+			transport.post(url("/token"), null, new byte[0]);
+
+			assertEquals(2, transport.getConnectionsCreated());
+			assertEquals(0, transport.getConnectionsReused());
+		}
+	}
+
+	@Test
+	public void post_NoIdleConnectionsAllowed_DoesNotReuse() throws Exception {
+		try (PooledHttpTransport transport = transport(0)) {
+			transport.post(url("/token"), null, new byte[0]);
+			transport.post(url("/token"), null, new byte[0]);
+
+			assertEquals(2, transport.getConnectionsCreated());
+			assertEquals(0, transport.getIdleConnections());
+		}
+	}
+
+	@Test
+	public void post_ServerClosedIdleConnection_RetriesOnNewConnection() throws Exception {
+		// a server that answers one request per connection and then closes it without saying so
+		try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getByName("localhost"));
+				PooledHttpTransport transport = transport(8)) {
+			Thread acceptor = new Thread(() -> {
+				while (!serverSocket.isClosed()) {
+					try (Socket socket = serverSocket.accept()) {
+						BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+						String line;
+						while ((line = reader.readLine()) != null && !line.isEmpty()) {
+							// skip the request head, the test requests have no body
+						}
+						OutputStream out = socket.getOutputStream();
+						out.write("HTTP/1.1 200 OK\r\nContent-Length: 2\r\n\r\n{}".getBytes(StandardCharsets.ISO_8859_1));
+						out.flush();
+					} catch (IOException e) {
+						return;
+					}
+				}
+			});
+			acceptor.setDaemon(true);
+			acceptor.start();
+
+			String url = "http://localhost:" + serverSocket.getLocalPort() + "/token";
+			assertEquals(200, transport.post(url, null, new byte[0]).getStatusCode());
+			Thread.sleep(100);
+			assertEquals(200, transport.post(url, null, new byte[0]).getStatusCode());
+
+			assertEquals(2, transport.getConnectionsCreated());
+			assertEquals(1, transport.getConnectionsReused());
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void post_UnsupportedScheme_ThrowsIOException() throws Exception {
+		try (PooledHttpTransport transport = transport(8)) {
+			transport.post("file:///etc/hosts", null, new byte[0]);
+		}
+	}
+
+	private PooledHttpTransport transport(int maxIdleConnectionsPerHost) {
+		return new PooledHttpTransport(
+				(SSLSocketFactory) SSLSocketFactory.getDefault(),
+				true,
+				maxIdleConnectionsPerHost,
+				30000L,
+				5000,
+				5000,
+				this.time);
+	}
+
+	private String url(String path) {
+		return "http://localhost:" + this.server.getAddress().getPort() + path;
+	}
+
+	private static void respond(HttpExchange exchange, int statusCode, String body, boolean chunked) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.sendResponseHeaders(statusCode, chunked ? 0 : bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	private static String read(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1024];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,72 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ResourceNameTrieTest {
+
+	@Test
+	public void matches_NameWithPrefix_ReturnsTrue() {
+		ResourceNameTrie trie = ResourceNameTrie.compile(Arrays.asList("orders-", "payments.eu."));
+
+		assertTrue(trie.matches("orders-"));
+		assertTrue(trie.matches("orders-2020"));
+		assertTrue(trie.matches("payments.eu.card"));
+		assertFalse(trie.matches("orders"));
+		assertFalse(trie.matches("payments.us.card"));
+		assertFalse(trie.matches(""));
+	}
+
+	@Test
+	public void matches_OverlappingPrefixes_ShorterPrefixWins() {
+		ResourceNameTrie trie = ResourceNameTrie.compile(Arrays.asList("orders-eu-", "orders-"));
+
+		assertTrue(trie.matches("orders-us-1"));
+		assertTrue(trie.matches("orders-eu-1"));
+	}
+
+	@Test
+	public void match_NestedPrefixes_CombinesMasks() {
+		Map<String, Long> prefixes = new HashMap<>();
+		prefixes.put("orders-", 1L);
+		prefixes.put("orders-eu-", 2L);
+		prefixes.put("orders-eu-card", 1L);
+		ResourceNameTrie trie = ResourceNameTrie.compile(prefixes);
+
+		assertEquals(1L, trie.match("orders-us-1"));
+		assertEquals(3L, trie.match("orders-eu-1"));
+		assertEquals(3L, trie.match("orders-eu-card"));
+		assertEquals(0L, trie.match("payments"));
+	}
+
+	@Test
+	public void matches_EmptyPrefix_MatchesEveryName() {
+		ResourceNameTrie trie = ResourceNameTrie.compile(Collections.singleton(""));
+
+		assertTrue(trie.matches(""));
+		assertTrue(trie.matches("anything"));
+	}
+}
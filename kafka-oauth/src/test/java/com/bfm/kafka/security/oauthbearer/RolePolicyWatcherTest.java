@@ -0,0 +1,119 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.ResourceType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RolePolicyWatcherTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void compile_RoleScopes_ExpandedByPolicy() throws Exception {
+		RolePolicy policy = RolePolicy.parse(new ByteArrayInputStream((
+				"payments-writer=urn:kafka:topic:payments-*:write urn:kafka:topic:payments-*:describe\n"
+						+ "nested=urn:kafka:role:payments-writer\n").getBytes(StandardCharsets.UTF_8)));
+		ScopeIndex index = ScopeIndex.compile(Arrays.asList(
+				"urn:kafka:role:Payments-Writer urn:kafka:group:payments:read", "urn:kafka:role:unknown urn:kafka:role:nested"), policy);
+
+		assertEquals(2, policy.size());
+		assertEquals(3, index.size());
+		assertTrue(index.isAuthorized(ResourceType.TOPIC, AclOperation.WRITE, "payments-eu"));
+		assertTrue(index.isAuthorized(ResourceType.TOPIC, AclOperation.DESCRIBE, "payments-eu"));
+		assertTrue(index.isAuthorized(ResourceType.GROUP, AclOperation.READ, "payments"));
+		assertTrue(ScopeIndex.compile(Collections.singleton("urn:kafka:role:payments-writer")).isEmpty());
+	}
+
+	@Test
+	public void reload_ChangedFile_ReplacesPolicy() throws Exception {
+		File file = this.folder.newFile("roles.properties");
+		write(file, "payments-writer=urn:kafka:topic:payments:write\n", 1000L);
+		RolePolicyWatcher watcher = new RolePolicyWatcher(file.toPath(), 60000L);
+		assertTrue(watcher.reload());
+		RolePolicy first = watcher.getPolicy();
+
+		assertFalse(watcher.reload());
+		assertSame(first, watcher.getPolicy());
+
+		write(file, "payments-writer=urn:kafka:topic:payments:write\npayments-reader=urn:kafka:topic:payments:read\n", 2000L);
+		assertTrue(watcher.reload());
+
+		assertNotSame(first, watcher.getPolicy());
+		assertEquals(2, watcher.getPolicy().size());
+		assertEquals(2, watcher.getReloads());
+	}
+
+	@Test
+	public void getScopeIndex_PolicyReplaced_RecompilesScopesOfToken() throws Exception {
+		File file = this.folder.newFile("roles.properties");
+		write(file, "payments-writer=urn:kafka:topic:payments:write\n", 1000L);
+		Map<String, Object> configs = new HashMap<>();
+		configs.put("oauth.authorizer.role.policy.file", file.getPath());
+		RolePolicyWatcher watcher = RolePolicyWatcher.create(configs);
+		try {
+			Map<String, Object> response = new HashMap<>();
+			response.put("sub", "User");
+			response.put("scope", "urn:kafka:role:payments-writer");
+			response.put("exp", 1);
+			response.put("iat", 1);
+			OAuthBearerTokenJwt jwt = new OAuthBearerTokenJwt(response, "token");
+			ScopeIndex first = jwt.getScopeIndex(watcher.getPolicy());
+			assertTrue(first.isAuthorized(ResourceType.TOPIC, AclOperation.WRITE, "payments"));
+			assertSame(first, jwt.getScopeIndex(watcher.getPolicy()));
+
+			write(file, "payments-writer=urn:kafka:topic:payments:read\n", 2000L);
+			watcher.reload();
+			ScopeIndex second = jwt.getScopeIndex(watcher.getPolicy());
+
+			assertFalse(second.isAuthorized(ResourceType.TOPIC, AclOperation.WRITE, "payments"));
+			assertTrue(second.isAuthorized(ResourceType.TOPIC, AclOperation.READ, "payments"));
+		} finally {
+			watcher.close();
+		}
+	}
+
+	@Test
+	public void create_NoPolicyFile_ReturnsNull() {
+		assertNull(RolePolicyWatcher.create(Collections.emptyMap()));
+	}
+
+	private static void write(File file, String content, long modifiedMs) throws Exception {
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(modifiedMs));
+	}
+}
@@ -0,0 +1,71 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.ResourceType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RollingFileAuditSinkTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void write_AppendsJsonLines() throws Exception {
+		File file = new File(this.folder.getRoot(), "audit/oauth-audit.log");
+		RollingFileAuditSink sink = new RollingFileAuditSink(file.getPath(), 1024 * 1024, 2);
+		sink.write(Collections.singletonList(createRecord("orders")));
+		sink.close();
+
+		List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+		assertEquals(1, lines.size());
+		assertEquals("{\"timestamp\":1000,\"principal\":\"client-1\",\"operation\":\"WRITE\",\"resourceType\":\"TOPIC\","
+				+ "\"resourceName\":\"orders\",\"decision\":\"DENIED\",\"count\":1}", lines.get(0));
+	}
+
+	@Test
+	public void write_MaxBytesReached_RollsFilesOver() throws Exception {
+		File file = new File(this.folder.getRoot(), "oauth-audit.log");
+		RollingFileAuditSink sink = new RollingFileAuditSink(file.getPath(), 10, 2);
+		for (int i = 0; i < 4; i++) {
+			sink.write(Collections.singletonList(createRecord("topic-" + i)));
+		}
+		sink.close();
+
+		assertTrue(file.exists());
+		assertEquals(0, file.length());
+		assertTrue(Files.readAllLines(new File(file.getPath() + ".1").toPath()).get(0).contains("topic-3"));
+		assertTrue(Files.readAllLines(new File(file.getPath() + ".2").toPath()).get(0).contains("topic-2"));
+		assertFalse(new File(file.getPath() + ".3").exists());
+	}
+
+	private static AuditRecord createRecord(String topic) {
+		return new AuditRecord(1000, "client-1", AclOperation.WRITE, ResourceType.TOPIC, topic, false);
+	}
+}
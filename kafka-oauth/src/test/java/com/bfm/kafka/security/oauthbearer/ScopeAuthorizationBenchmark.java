@@ -0,0 +1,80 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import kafka.security.auth.Resource;
+import kafka.security.auth.ResourceType;
+import org.apache.kafka.common.acl.AclOperation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares authorizing a request by parsing and compiling the scopes of the token on every call, the way the
+ * authorizer used to parse them, with a lookup in the {@link ScopeIndex} compiled by {@link CustomPrincipalBuilder}. The authorized topic is
+ * the last scope of the token, which is the worst case of the scan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScopeAuthorizationBenchmark {
+
+	/**
+	 * The number of scopes of the access token.
+	 */
+	@Param({"4", "64"})
+	public int scopeCount;
+
+	private final CustomAuthorizer authorizer = new CustomAuthorizer();
+	private Set<String> scopes;
+	private ScopeIndex scopeIndex;
+	private Resource resource;
+
+	@Setup
+	public void setUp() {
+		this.scopes = new HashSet<>();
+		for (int i = 0; i < this.scopeCount; i++) {
+			this.scopes.add("urn:kafka:topic:orders-" + i + ":write");
+		}
+		this.scopeIndex = ScopeIndex.compile(this.scopes);
+		this.resource = new Resource(ResourceType.fromString("Topic"), "orders-" + (this.scopeCount - 1));
+	}
+
+	@Benchmark
+	public boolean parseScopes() {
+		return this.authorizer.checkAuthorization(this.authorizer.parseScopes(this.scopes), this.resource, "Write");
+	}
+
+	@Benchmark
+	public boolean scopeIndexLookup() {
+		return this.scopeIndex.isAuthorized(this.resource.resourceType().toJava(), AclOperation.WRITE, this.resource.name());
+	}
+}
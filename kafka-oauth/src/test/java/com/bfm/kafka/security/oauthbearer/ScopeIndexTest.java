@@ -0,0 +1,124 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.ResourceType;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ScopeIndexTest {
+
+	@Test
+	public void isAuthorized_MatchingScope_IgnoresCase() {
+		ScopeIndex index = ScopeIndex.compile(Collections.singleton("urn:kafka:Topic:Orders:WRITE"));
+
+		assertTrue(index.isAuthorized(ResourceType.TOPIC, AclOperation.WRITE, "orders"));
+		assertTrue(index.isAuthorized(ResourceType.TOPIC, AclOperation.WRITE, "ORDERS"));
+		assertFalse(index.isAuthorized(ResourceType.TOPIC, AclOperation.READ, "orders"));
+		assertFalse(index.isAuthorized(ResourceType.GROUP, AclOperation.WRITE, "orders"));
+		assertFalse(index.isAuthorized(ResourceType.TOPIC, AclOperation.WRITE, "payments"));
+	}
+
+	@Test
+	public void compile_WhitespaceSeparatedScopes_IndexesEachScope() {
+		ScopeIndex index = ScopeIndex.compile(Arrays.asList(
+				"urn:kafka:topic:orders:read  urn:kafka:group:consumers:read",
+				"\turn:kafka:transactionalid:tx-1:describe_configs\n"));
+
+		assertEquals(3, index.size());
+		assertTrue(index.isAuthorized(ResourceType.TOPIC, AclOperation.READ, "orders"));
+		assertTrue(index.isAuthorized(ResourceType.GROUP, AclOperation.READ, "consumers"));
+		assertTrue(index.isAuthorized(ResourceType.TRANSACTIONAL_ID, AclOperation.DESCRIBE_CONFIGS, "tx-1"));
+	}
+
+	@Test
+	public void compile_GroupedScopes_IndexesEveryCombination() {
+		ScopeIndex index = ScopeIndex.compile(Collections.singleton("urn:kafka:{topic,group}:{orders, payments-*}:{read,describe}"));
+
+		assertEquals(8, index.size());
+		assertTrue(index.isAuthorized(ResourceType.TOPIC, AclOperation.READ, "orders"));
+		assertTrue(index.isAuthorized(ResourceType.GROUP, AclOperation.DESCRIBE, "payments-eu"));
+		assertFalse(index.isAuthorized(ResourceType.TOPIC, AclOperation.WRITE, "orders"));
+	}
+
+	@Test
+	public void isAuthorized_ImpliedOperations_AreGranted() {
+		ScopeIndex index = ScopeIndex.compile(Arrays.asList(
+				"urn:kafka:topic:orders:write", "urn:kafka:topic:payments-*:alter_configs", "urn:kafka:group:*:all"));
+
+		assertTrue(index.isAuthorized(ResourceType.TOPIC, AclOperation.DESCRIBE, "orders"));
+		assertFalse(index.isAuthorized(ResourceType.TOPIC, AclOperation.READ, "orders"));
+		assertTrue(index.isAuthorized(ResourceType.TOPIC, AclOperation.DESCRIBE_CONFIGS, "payments-eu"));
+		assertFalse(index.isAuthorized(ResourceType.TOPIC, AclOperation.DESCRIBE, "payments-eu"));
+		assertTrue(index.isAuthorized(ResourceType.GROUP, AclOperation.READ, "consumers"));
+		assertTrue(index.isAuthorized(ResourceType.GROUP, AclOperation.DELETE, "consumers"));
+		assertTrue(index.isAuthorizedForAny(ResourceType.TOPIC, AclOperation.DESCRIBE));
+		assertFalse(index.isAuthorizedForAny(ResourceType.TOPIC, AclOperation.READ));
+	}
+
+	@Test
+	public void isAuthorized_LiteralAndPrefix_CombineOperations() {
+		ScopeIndex index = ScopeIndex.compile(Arrays.asList("urn:kafka:topic:orders-*:read", "urn:kafka:topic:orders-eu:write"));
+
+		assertTrue(index.isAuthorized(ResourceType.TOPIC, AclOperation.READ, "orders-eu"));
+		assertTrue(index.isAuthorized(ResourceType.TOPIC, AclOperation.WRITE, "orders-eu"));
+		assertFalse(index.isAuthorized(ResourceType.TOPIC, AclOperation.WRITE, "orders-us"));
+	}
+
+	@Test
+	public void compile_MalformedScopes_AreIgnored() {
+		ScopeIndex index = ScopeIndex.compile(Arrays.asList(
+				"urn:test:write", "urn:kafka:topic:orders:", "urn:kafka:topic:orders:write:extra", "urn:kafka:queue:orders:write"));
+
+		assertSame(ScopeIndex.EMPTY, index);
+		assertTrue(index.isEmpty());
+	}
+
+	@Test
+	public void compile_NoScopes_ReturnsEmptyIndex() {
+		assertSame(ScopeIndex.EMPTY, ScopeIndex.compile(null));
+		assertSame(ScopeIndex.EMPTY, ScopeIndex.compile(Collections.emptySet()));
+		assertFalse(ScopeIndex.EMPTY.isAuthorized(ResourceType.TOPIC, AclOperation.READ, "orders"));
+	}
+
+	@Test
+	public void isAuthorized_PrefixedScope_MatchesNamesWithPrefix() {
+		ScopeIndex index = ScopeIndex.compile(Arrays.asList(
+				"urn:kafka:topic:orders-*:write", "urn:kafka:topic:audit:write"));
+
+		assertTrue(index.isAuthorized(ResourceType.TOPIC, AclOperation.WRITE, "orders-eu"));
+		assertTrue(index.isAuthorized(ResourceType.TOPIC, AclOperation.WRITE, "Orders-US"));
+		assertTrue(index.isAuthorized(ResourceType.TOPIC, AclOperation.WRITE, "audit"));
+		assertFalse(index.isAuthorized(ResourceType.TOPIC, AclOperation.WRITE, "orders"));
+		assertFalse(index.isAuthorized(ResourceType.TOPIC, AclOperation.READ, "orders-eu"));
+	}
+
+	@Test
+	public void isAuthorized_WildcardScope_MatchesEveryName() {
+		ScopeIndex index = ScopeIndex.compile(Collections.singleton("urn:kafka:group:*:read"));
+
+		assertTrue(index.isAuthorized(ResourceType.GROUP, AclOperation.READ, "any-group"));
+		assertFalse(index.isAuthorized(ResourceType.TOPIC, AclOperation.READ, "any-group"));
+	}
+}
@@ -0,0 +1,110 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing the scopes of a token with the regex split the authorizer used to do against the hand-written
+ * {@link ScopeTokenizer}, for a flat scope list and for the same permissions written as one grouped scope. The
+ * token grants read and describe on a number of topics.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScopeParseBenchmark {
+
+	/**
+	 * The number of topics granted by the access token.
+	 */
+	@Param({"4", "64"})
+	public int topicCount;
+
+	private final CustomAuthorizer authorizer = new CustomAuthorizer();
+	private Set<String> flatScopes;
+	private Set<String> groupedScopes;
+
+	@Setup
+	public void setUp() {
+		StringBuilder flat = new StringBuilder();
+		StringBuilder topics = new StringBuilder();
+		for (int i = 0; i < this.topicCount; i++) {
+			flat.append("urn:kafka:topic:orders-").append(i).append(":read ");
+			flat.append("urn:kafka:topic:orders-").append(i).append(":describe ");
+			topics.append(i == 0 ? "" : ",").append("orders-").append(i);
+		}
+		this.flatScopes = Collections.singleton(flat.toString().trim());
+		this.groupedScopes = Collections.singleton("urn:kafka:topic:{" + topics + "}:{read,describe}");
+	}
+
+	@Benchmark
+	public List<OAuthScope> splitFlatScopes() {
+		// the parsing of CustomAuthorizer.parseScopes before grouped scopes were supported
+		List<OAuthScope> result = new ArrayList<>();
+		for (String scope : this.flatScopes) {
+			for (String str : scope.split("\\s+")) {
+				String[] parts = str.split(":");
+				if (parts.length == 5) {
+					OAuthScope oAuthScope = new OAuthScope();
+					oAuthScope.setOperation(parts[4]);
+					oAuthScope.setResourceName(parts[3]);
+					oAuthScope.setResourceType(parts[2]);
+					result.add(oAuthScope);
+				}
+			}
+		}
+		return result;
+	}
+
+	@Benchmark
+	public List<OAuthScope> tokenizeFlatScopes() {
+		return this.authorizer.parseScopes(this.flatScopes);
+	}
+
+	@Benchmark
+	public List<OAuthScope> tokenizeGroupedScopes() {
+		return this.authorizer.parseScopes(this.groupedScopes);
+	}
+
+	@Benchmark
+	public ScopeIndex compileFlatScopes() {
+		return ScopeIndex.compile(this.flatScopes);
+	}
+
+	@Benchmark
+	public ScopeIndex compileGroupedScopes() {
+		return ScopeIndex.compile(this.groupedScopes);
+	}
+}
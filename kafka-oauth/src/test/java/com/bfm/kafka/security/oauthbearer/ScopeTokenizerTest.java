@@ -0,0 +1,105 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ScopeTokenizerTest {
+
+	@Test
+	public void split_WhitespaceInsideGroup_DoesNotSeparateScopes() {
+		List<String> result = new ArrayList<>();
+		ScopeTokenizer.split(" urn:kafka:topic:{orders, payments}:read\turn:kafka:group:foo:read\n", result);
+
+		assertEquals(Arrays.asList("urn:kafka:topic:{orders, payments}:read", "urn:kafka:group:foo:read"), result);
+	}
+
+	@Test
+	public void split_UnclosedGroup_KeepsFollowingScopes() {
+		List<String> result = new ArrayList<>();
+		ScopeTokenizer.split("urn:kafka:topic:{orders:read urn:kafka:topic:{a, b}:write urn:kafka:group:foo:read", result);
+
+		assertEquals(Arrays.asList(
+				"urn:kafka:topic:{orders:read", "urn:kafka:topic:{a, b}:write", "urn:kafka:group:foo:read"), result);
+
+		List<String> expanded = new ArrayList<>();
+		for (String scope : result) {
+			ScopeTokenizer.expand(scope, expanded);
+		}
+		assertEquals(Arrays.asList(
+				"urn:kafka:topic:a:write", "urn:kafka:topic:b:write", "urn:kafka:group:foo:read"), expanded);
+	}
+
+	@Test
+	public void expand_Groups_AddsEveryCombination() {
+		List<String> result = new ArrayList<>();
+
+		assertTrue(ScopeTokenizer.expand("urn:kafka:topic:{orders,payments, refunds}:{read,describe}", result));
+		assertEquals(Arrays.asList(
+				"urn:kafka:topic:orders:read", "urn:kafka:topic:orders:describe",
+				"urn:kafka:topic:payments:read", "urn:kafka:topic:payments:describe",
+				"urn:kafka:topic:refunds:read", "urn:kafka:topic:refunds:describe"), result);
+	}
+
+	@Test
+	public void expand_GroupInsideName_KeepsPrefixAndSuffix() {
+		List<String> result = new ArrayList<>();
+
+		assertTrue(ScopeTokenizer.expand("urn:kafka:topic:payments-{eu,us}-*:write", result));
+		assertEquals(Arrays.asList("urn:kafka:topic:payments-eu-*:write", "urn:kafka:topic:payments-us-*:write"), result);
+	}
+
+	@Test
+	public void expand_ScopeWithoutGroups_AddsScope() {
+		List<String> result = new ArrayList<>();
+
+		assertTrue(ScopeTokenizer.expand("urn:kafka:topic:orders:write", result));
+		assertEquals(Collections.singletonList("urn:kafka:topic:orders:write"), result);
+	}
+
+	@Test
+	public void expand_MalformedGroups_AreIgnored() {
+		List<String> result = new ArrayList<>();
+
+		assertFalse(ScopeTokenizer.expand("urn:kafka:topic:{orders:write", result));
+		assertFalse(ScopeTokenizer.expand("urn:kafka:topic:orders}:write", result));
+		assertFalse(ScopeTokenizer.expand("urn:kafka:topic:{orders,{payments}}:write", result));
+		assertFalse(ScopeTokenizer.expand("urn:kafka:topic:{ , }:write", result));
+		assertTrue(result.isEmpty());
+	}
+
+	@Test
+	public void expand_TooManyCombinations_IsIgnored() {
+		StringBuilder group = new StringBuilder("{");
+		for (int i = 0; i < 100; i++) {
+			group.append(i == 0 ? "" : ",").append("t").append(i);
+		}
+		group.append("}");
+		List<String> result = new ArrayList<>();
+
+		assertFalse(ScopeTokenizer.expand("urn:kafka:topic:" + group + "-" + group + ":read", result));
+		assertTrue(result.isEmpty());
+	}
+}
@@ -0,0 +1,133 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.utils.Time;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.net.ssl.SSLSocketFactory;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.MGF1ParameterSpec;
+import java.security.spec.PSSParameterSpec;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the signature checks a single thread can make per second, which bounds the SASL handshakes per second
+ * per core, for each JWS algorithm. It compares looking up and initializing a {@link Signature} for every token, the
+ * way the validator used to, with the initialized signatures {@link SignatureVerifier} keeps per thread, and runs
+ * the whole local validation of a token for reference. EdDSA needs Java 15 or later, see DEVELOPMENT.md.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignatureVerifierBenchmark {
+
+	@Param({"RS256", "PS256", "ES256", "EdDSA"})
+	public String algorithm;
+
+	private PublicKey key;
+	private byte[] signingInput;
+	private byte[] signature;
+	private String accessToken;
+	private JwtValidator validator;
+	private File jwks;
+
+	@Setup
+	public void setUp() throws Exception {
+		KeyPair keyPair;
+		if (this.algorithm.startsWith("ES")) {
+			keyPair = JwtTestUtils.ecKeyPair();
+		} else if (this.algorithm.equals("EdDSA")) {
+			keyPair = JwtTestUtils.ed25519KeyPair();
+		} else {
+			keyPair = JwtTestUtils.rsaKeyPair();
+		}
+
+		// a token that stays valid for the whole run
+		Map<String, Object> claims = JwtTestUtils.claims("client-1");
+		claims.put("exp", System.currentTimeMillis() / 1000 + 3600);
+		this.accessToken = JwtTestUtils.sign(this.algorithm, "key-1", keyPair.getPrivate(), claims);
+		this.key = keyPair.getPublic();
+
+		int payloadEnd = this.accessToken.lastIndexOf('.');
+		this.signingInput = this.accessToken.substring(0, payloadEnd).getBytes(StandardCharsets.US_ASCII);
+		this.signature = Base64.getUrlDecoder().decode(this.accessToken.substring(payloadEnd + 1));
+
+		this.jwks = File.createTempFile("jwks", ".json");
+		Files.write(this.jwks.toPath(), JwtTestUtils.jwks(Collections.singletonMap("key-1", this.key)).getBytes(StandardCharsets.UTF_8));
+		JwksKeyStore keyStore = new JwksKeyStore(this.jwks.toURI().toString(), (SSLSocketFactory) SSLSocketFactory.getDefault(), true, 300000, 0, 0, Time.SYSTEM);
+		keyStore.refresh();
+		this.validator = new JwtValidator(keyStore, JwtTestUtils.ISSUER, JwtTestUtils.AUDIENCE, 30, Time.SYSTEM);
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.jwks.delete();
+	}
+
+	@Benchmark
+	public boolean signaturePerToken() throws GeneralSecurityException {
+		Signature verifier;
+		byte[] jcaSignature = this.signature;
+		if (this.algorithm.startsWith("PS")) {
+			verifier = Signature.getInstance("RSASSA-PSS");
+			verifier.setParameter(new PSSParameterSpec("SHA-256", "MGF1", MGF1ParameterSpec.SHA256, 32, 1));
+		} else if (this.algorithm.startsWith("ES")) {
+			verifier = Signature.getInstance("SHA256withECDSA");
+			jcaSignature = SignatureVerifier.toDerSignature(this.signature, 32);
+		} else if (this.algorithm.equals("EdDSA")) {
+			verifier = Signature.getInstance("EdDSA");
+		} else {
+			verifier = Signature.getInstance("SHA256withRSA");
+		}
+		verifier.initVerify(this.key);
+		verifier.update(this.signingInput);
+		return verifier.verify(jcaSignature);
+	}
+
+	@Benchmark
+	public boolean pooledVerifier() {
+		return SignatureVerifier.forAlgorithm(this.algorithm).verify(this.key, this.signingInput, this.signature);
+	}
+
+	@Benchmark
+	public JwtClaims validateToken() throws JwtValidationException {
+		return this.validator.validate(this.accessToken);
+	}
+}
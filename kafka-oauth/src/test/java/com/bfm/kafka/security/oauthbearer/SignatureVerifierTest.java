@@ -0,0 +1,183 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SignatureVerifierTest {
+
+	@Test
+	public void forAlgorithm_UnsupportedAlgorithms_ReturnsNull() {
+		assertNull(SignatureVerifier.forAlgorithm("none"));
+		assertNull(SignatureVerifier.forAlgorithm("HS256"));
+		assertNull(SignatureVerifier.forAlgorithm(null));
+		assertSame(SignatureVerifier.forAlgorithm("RS256"), SignatureVerifier.forAlgorithm("RS256"));
+	}
+
+	@Test
+	public void verify_RsaAndEcdsaAlgorithms_ChecksSignatures() throws Exception {
+		KeyPair rsa = JwtTestUtils.rsaKeyPair();
+		KeyPair ec = JwtTestUtils.ecKeyPair();
+
+		assertVerifies("RS256", rsa);
+		assertVerifies("RS512", rsa);
+		assertVerifies("PS256", rsa);
+		assertVerifies("ES256", ec);
+		assertVerifies("ES384", JwtTestUtils.ecKeyPair("secp384r1"));
+		assertVerifies("ES512", JwtTestUtils.ecKeyPair("secp521r1"));
+	}
+
+	@Test
+	public void supports_EcKeyOnOtherCurve_IsNotSupported() throws Exception {
+		PublicKey p256 = JwtTestUtils.ecKeyPair().getPublic();
+		PublicKey p384 = JwtTestUtils.ecKeyPair("secp384r1").getPublic();
+		PublicKey p521 = JwtTestUtils.ecKeyPair("secp521r1").getPublic();
+
+		assertTrue(SignatureVerifier.forAlgorithm("ES256").supports(p256));
+		assertFalse(SignatureVerifier.forAlgorithm("ES256").supports(p384));
+		assertFalse(SignatureVerifier.forAlgorithm("ES384").supports(p256));
+		assertTrue(SignatureVerifier.forAlgorithm("ES384").supports(p384));
+		assertFalse(SignatureVerifier.forAlgorithm("ES512").supports(p384));
+		assertTrue(SignatureVerifier.forAlgorithm("ES512").supports(p521));
+	}
+
+	@Test
+	public void verify_EcdsaSignatureOfWrongLength_IsRejected() throws Exception {
+		KeyPair ec = JwtTestUtils.ecKeyPair();
+		SignatureVerifier verifier = SignatureVerifier.forAlgorithm("ES256");
+		String token = JwtTestUtils.sign("ES256", "kid", ec.getPrivate(), JwtTestUtils.claims("alice"));
+		int payloadEnd = token.lastIndexOf('.');
+		byte[] signingInput = token.substring(0, payloadEnd).getBytes(StandardCharsets.US_ASCII);
+		byte[] signature = Base64.getUrlDecoder().decode(token.substring(payloadEnd + 1));
+
+		// R and S padded with a leading zero still encode the same integers, but not the JWS form
+		byte[] padded = new byte[66];
+		System.arraycopy(signature, 0, padded, 1, 32);
+		System.arraycopy(signature, 32, padded, 34, 32);
+
+		assertTrue(verifier.verify(ec.getPublic(), signingInput, signature));
+		assertFalse(verifier.verify(ec.getPublic(), signingInput, padded));
+		assertFalse(verifier.verify(ec.getPublic(), signingInput, Arrays.copyOf(signature, 62)));
+	}
+
+	@Test
+	public void verify_EcdsaSignatureWithZeroRorS_IsRejected() throws Exception {
+		KeyPair ec = JwtTestUtils.ecKeyPair();
+		SignatureVerifier verifier = SignatureVerifier.forAlgorithm("ES256");
+		byte[] signingInput = "header.payload".getBytes(StandardCharsets.US_ASCII);
+		byte[] zeroS = new byte[64];
+		zeroS[31] = 1;
+
+		assertFalse(verifier.verify(ec.getPublic(), signingInput, new byte[64]));
+		assertFalse(verifier.verify(ec.getPublic(), signingInput, zeroS));
+		try {
+			SignatureVerifier.toDerSignature(new byte[64], 32);
+			fail("A signature of zeros should have been rejected.");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("zero"));
+		}
+	}
+
+	@Test
+	public void verify_KeyOfOtherType_IsNotSupported() throws Exception {
+		PublicKey rsa = JwtTestUtils.rsaKeyPair().getPublic();
+		PublicKey ec = JwtTestUtils.ecKeyPair().getPublic();
+
+		assertTrue(SignatureVerifier.forAlgorithm("RS256").supports(rsa));
+		assertFalse(SignatureVerifier.forAlgorithm("RS256").supports(ec));
+		assertFalse(SignatureVerifier.forAlgorithm("ES256").supports(rsa));
+		assertFalse(SignatureVerifier.forAlgorithm("EdDSA").supports(rsa));
+	}
+
+	@Test
+	public void verify_RotatedKey_UsesNewKey() throws Exception {
+		KeyPair first = JwtTestUtils.rsaKeyPair();
+		KeyPair second = JwtTestUtils.rsaKeyPair();
+		SignatureVerifier verifier = SignatureVerifier.forAlgorithm("RS256");
+		String token = JwtTestUtils.sign("RS256", "rsa-1", second.getPrivate(), JwtTestUtils.claims("alice"));
+
+		assertFalse(verify(verifier, first.getPublic(), token));
+		assertTrue(verify(verifier, second.getPublic(), token));
+		assertFalse(verify(verifier, first.getPublic(), token));
+	}
+
+	@Test
+	public void verify_EdDsa_ChecksSignatures() throws Exception {
+		KeyPair ed25519 = ed25519KeyPairOrSkip();
+
+		assertVerifies("EdDSA", ed25519);
+	}
+
+	@Test
+	public void parse_OkpJwk_ReturnsEdDsaKey() throws Exception {
+		KeyPair ed25519 = ed25519KeyPairOrSkip();
+		String jwks = JwtTestUtils.jwks(Collections.singletonMap("ed-1", ed25519.getPublic()));
+
+		PublicKey key = JsonWebKeySet.parse(new ByteArrayInputStream(jwks.getBytes(StandardCharsets.UTF_8))).getKeys().get("ed-1");
+
+		assertNotNull(key);
+		String token = JwtTestUtils.sign("EdDSA", "ed-1", ed25519.getPrivate(), JwtTestUtils.claims("alice"));
+		assertTrue(verify(SignatureVerifier.forAlgorithm("EdDSA"), key, token));
+	}
+
+	private static void assertVerifies(String algorithm, KeyPair keyPair) throws Exception {
+		SignatureVerifier verifier = SignatureVerifier.forAlgorithm(algorithm);
+		String token = JwtTestUtils.sign(algorithm, "kid", keyPair.getPrivate(), JwtTestUtils.claims("alice"));
+		String forged = JwtTestUtils.sign(algorithm, "kid", keyPair.getPrivate(), JwtTestUtils.claims("mallory"));
+		String tampered = forged.substring(0, forged.lastIndexOf('.')) + token.substring(token.lastIndexOf('.'));
+
+		assertTrue(verifier.supports(keyPair.getPublic()));
+		assertTrue(verify(verifier, keyPair.getPublic(), token));
+		assertFalse(verify(verifier, keyPair.getPublic(), tampered));
+		assertFalse(verify(verifier, keyPair.getPublic(), token.substring(0, token.lastIndexOf('.') + 1) + "AAAA"));
+
+		// the signature of the thread is reused after valid, invalid and malformed signatures alike
+		assertTrue(verify(verifier, keyPair.getPublic(), token));
+	}
+
+	private static boolean verify(SignatureVerifier verifier, PublicKey key, String token) {
+		int payloadEnd = token.lastIndexOf('.');
+		byte[] signingInput = token.substring(0, payloadEnd).getBytes(StandardCharsets.US_ASCII);
+		byte[] signature = Base64.getUrlDecoder().decode(token.substring(payloadEnd + 1));
+		return verifier.verify(key, signingInput, signature);
+	}
+
+	private static KeyPair ed25519KeyPairOrSkip() {
+		try {
+			return JwtTestUtils.ed25519KeyPair();
+		} catch (GeneralSecurityException e) {
+			Assume.assumeNoException("Ed25519 is provided from Java 15 on.", e);
+			return null;
+		}
+	}
+}
@@ -0,0 +1,99 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.security.KeyStore;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * The type Ssl context factory test.
+ */
+public class SslContextFactoryTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void create_TruststoreAndKeystore_ReturnsContextWithSessionCache() throws Exception {
+		File truststore = emptyKeyStore("truststore.p12", "changeit");
+		File keystore = emptyKeyStore("keystore.p12", "secret");
+
+		Map<String, String> jaasConfigEntries = new TreeMap<>();
+		jaasConfigEntries.put("oauth.server.ssl.truststore.location", truststore.getAbsolutePath());
+		jaasConfigEntries.put("oauth.server.ssl.truststore.password", "changeit");
+		jaasConfigEntries.put("oauth.server.ssl.truststore.type", "PKCS12");
+		jaasConfigEntries.put("oauth.server.ssl.keystore.location", keystore.getAbsolutePath());
+		jaasConfigEntries.put("oauth.server.ssl.keystore.password", "secret");
+		jaasConfigEntries.put("oauth.server.ssl.keystore.type", "PKCS12");
+		OAuthConfiguration oauthConfiguration = new OAuthConfiguration();
+		oauthConfiguration.setConfigurationFromJaasConfigEntries(jaasConfigEntries);
+
+		SSLContext sslContext = SslContextFactory.create(oauthConfiguration);
+
+		assertEquals("TLS", sslContext.getProtocol());
+		assertEquals(256, sslContext.getClientSessionContext().getSessionCacheSize());
+	}
+
+	@Test
+	public void create_UnsecureServer_DoesNotChangeJvmDefaults() {
+		SSLSocketFactory defaultFactory = HttpsURLConnection.getDefaultSSLSocketFactory();
+
+		Map<String, String> jaasConfigEntries = new TreeMap<>();
+		jaasConfigEntries.put("oauth.server.accept.unsecure.server", "true");
+		OAuthConfiguration oauthConfiguration = new OAuthConfiguration();
+		oauthConfiguration.setConfigurationFromJaasConfigEntries(jaasConfigEntries);
+
+		SSLContext sslContext = SslContextFactory.create(oauthConfiguration);
+
+		assertNotNull(sslContext.getSocketFactory());
+		assertSame(defaultFactory, HttpsURLConnection.getDefaultSSLSocketFactory());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void create_MissingTruststore_ThrowsIllegalStateException() {
+		Map<String, String> jaasConfigEntries = new TreeMap<>();
+		jaasConfigEntries.put("oauth.server.accept.unsecure.server", "false");
+		jaasConfigEntries.put("oauth.server.ssl.truststore.location", new File(this.folder.getRoot(), "missing.jks").getAbsolutePath());
+		OAuthConfiguration oauthConfiguration = new OAuthConfiguration();
+		oauthConfiguration.setConfigurationFromJaasConfigEntries(jaasConfigEntries);
+
+		SslContextFactory.create(oauthConfiguration);
+	}
+
+	private File emptyKeyStore(String name, String password) throws Exception {
+		KeyStore keyStore = KeyStore.getInstance("PKCS12");
+		keyStore.load(null, null);
+
+		File file = this.folder.newFile(name);
+		try (OutputStream out = new FileOutputStream(file)) {
+			keyStore.store(out, password.toCharArray());
+		}
+		return file;
+	}
+}
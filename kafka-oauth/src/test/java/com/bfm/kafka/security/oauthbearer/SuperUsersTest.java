@@ -0,0 +1,57 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.security.auth.KafkaPrincipal;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SuperUsersTest {
+
+	@Test
+	public void contains_ConfiguredPrincipals_ReturnsTrue() {
+		Map<String, Object> configs = new HashMap<>();
+		configs.put("super.users", "User:admin; User:ops");
+		configs.put("oauth.authorizer.broker.principals", "User:broker;User:admin");
+		SuperUsers superUsers = SuperUsers.fromConfigs(configs);
+
+		assertEquals(3, superUsers.size());
+		assertTrue(superUsers.contains(new KafkaPrincipal(KafkaPrincipal.USER_TYPE, "admin")));
+		assertTrue(superUsers.contains(new KafkaPrincipal(KafkaPrincipal.USER_TYPE, "ops")));
+		assertTrue(superUsers.contains(new CustomPrincipal(KafkaPrincipal.USER_TYPE, "broker")));
+		assertFalse(superUsers.contains(new KafkaPrincipal(KafkaPrincipal.USER_TYPE, "client")));
+		assertFalse(superUsers.contains(new KafkaPrincipal("Group", "admin")));
+		assertFalse(superUsers.contains(null));
+	}
+
+	@Test
+	public void fromConfigs_NoSuperUsers_ReturnsEmpty() {
+		assertSame(SuperUsers.EMPTY, SuperUsers.fromConfigs(Collections.singletonMap("super.users", " ")));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void fromConfigs_InvalidPrincipal_Throws() {
+		SuperUsers.fromConfigs(Collections.singletonMap("super.users", "admin"));
+	}
+}
@@ -58,4 +58,13 @@ public class UtilsTest {
 	public void createBearerHeader() {
 		assertEquals(Utils.createBearerHeader("token"), "Bearer token");
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Digest token, tokens that differ only in non-ASCII characters have different digests.
+	 */
+	@Test
+	public void digestToken_NonAsciiCharacters_AreDistinct() {
+		assertNotEquals(Utils.digestToken("t\u00e9st"), Utils.digestToken("t\u00e8st"));
+		assertNotEquals(Utils.digestToken("t\u00e9st"), Utils.digestToken("t?st"));
+	}
+}
@@ -0,0 +1,117 @@
+/*
+Copyright © 2019 BlackRock Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.bfm.kafka.security.oauthbearer;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.PatternType;
+import org.apache.kafka.common.resource.ResourcePattern;
+import org.apache.kafka.common.resource.ResourceType;
+import org.apache.kafka.common.security.auth.KafkaPrincipal;
+import org.apache.kafka.server.authorizer.Action;
+import org.apache.kafka.server.authorizer.AuthorizableRequestContext;
+import org.apache.kafka.server.authorizer.AuthorizationResult;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class CustomServerAuthorizerTest {
+
+	private final CustomServerAuthorizer authorizer = new CustomServerAuthorizer();
+
+	@Test
+	public void authorize_BatchOfActions_ReturnsResultPerAction() {
+		AuthorizableRequestContext context = createContext(createPrincipal("urn:kafka:topic:orders-*:describe", "urn:kafka:topic:audit:describe"));
+
+		List<AuthorizationResult> results = this.authorizer.authorize(context, Arrays.asList(
+				createAction(AclOperation.DESCRIBE, "orders-eu"),
+				createAction(AclOperation.DESCRIBE, "payments"),
+				createAction(AclOperation.DESCRIBE, "audit"),
+				createAction(AclOperation.WRITE, "audit")));
+
+		assertEquals(Arrays.asList(
+				AuthorizationResult.ALLOWED,
+				AuthorizationResult.DENIED,
+				AuthorizationResult.ALLOWED,
+				AuthorizationResult.DENIED), results);
+	}
+
+	@Test
+	public void authorize_PrincipalWithoutToken_DeniesEveryAction() {
+		AuthorizableRequestContext context = createContext(new KafkaPrincipal(KafkaPrincipal.USER_TYPE, "anonymous"));
+
+		List<AuthorizationResult> results = this.authorizer.authorize(context, Arrays.asList(
+				createAction(AclOperation.READ, "orders")));
+
+		assertEquals(Arrays.asList(AuthorizationResult.DENIED), results);
+	}
+
+	@Test
+	public void authorize_BrokerPrincipal_AllowsEveryAction() {
+		Map<String, Object> configs = new HashMap<>();
+		configs.put("oauth.authorizer.broker.principals", "User:broker");
+		configs.put("oauth.audit.sinks", "");
+		this.authorizer.configure(configs);
+		try {
+			AuthorizableRequestContext context = createContext(new KafkaPrincipal(KafkaPrincipal.USER_TYPE, "broker"));
+
+			List<AuthorizationResult> results = this.authorizer.authorize(context, Arrays.asList(
+					createAction(AclOperation.CLUSTER_ACTION, "kafka-cluster"),
+					createAction(AclOperation.READ, "orders")));
+
+			assertEquals(Arrays.asList(AuthorizationResult.ALLOWED, AuthorizationResult.ALLOWED), results);
+			assertEquals(1, this.authorizer.getMetrics().getSuperUserAuthorizations());
+		} finally {
+			this.authorizer.close();
+		}
+	}
+
+	@Test
+	public void authorizeByResourceType_UsesScopesOfTheType() {
+		AuthorizableRequestContext context = createContext(createPrincipal("urn:kafka:topic:orders:write"));
+
+		assertEquals(AuthorizationResult.ALLOWED,
+				this.authorizer.authorizeByResourceType(context, AclOperation.WRITE, ResourceType.TOPIC));
+		assertEquals(AuthorizationResult.DENIED,
+				this.authorizer.authorizeByResourceType(context, AclOperation.READ, ResourceType.TOPIC));
+		assertEquals(AuthorizationResult.DENIED,
+				this.authorizer.authorizeByResourceType(context, AclOperation.WRITE, ResourceType.TRANSACTIONAL_ID));
+	}
+
+	private static CustomPrincipal createPrincipal(String... scopes) {
+		OAuthBearerTokenJwt jwt = Mockito.mock(OAuthBearerTokenJwt.class);
+		Mockito.when(jwt.scope()).thenReturn(new HashSet<>(Arrays.asList(scopes)));
+		CustomPrincipal principal = new CustomPrincipal(KafkaPrincipal.USER_TYPE, "test-client-id");
+		principal.setOauthBearerTokenJwt(jwt);
+		return principal;
+	}
+
+	private static AuthorizableRequestContext createContext(KafkaPrincipal principal) {
+		AuthorizableRequestContext context = Mockito.mock(AuthorizableRequestContext.class);
+		Mockito.when(context.principal()).thenReturn(principal);
+		return context;
+	}
+
+	private static Action createAction(AclOperation operation, String topic) {
+		return new Action(operation, new ResourcePattern(ResourceType.TOPIC, topic, PatternType.LITERAL), 1, true, true);
+	}
+}